@@ -18,11 +18,11 @@ package dev.magicmq.pyspigot.bukkit;
 
 import dev.magicmq.pyspigot.PluginListener;
 import dev.magicmq.pyspigot.PyCore;
+import dev.magicmq.pyspigot.bukkit.util.SchedulerUtils;
 import dev.magicmq.pyspigot.bukkit.util.player.BukkitPlayer;
 import dev.magicmq.pyspigot.manager.script.Script;
 import dev.magicmq.pyspigot.manager.script.ScriptManager;
 import dev.magicmq.pyspigot.util.player.PlayerAdapter;
-import org.bukkit.Bukkit;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerJoinEvent;
@@ -50,6 +50,6 @@ public class BukkitListener extends PluginListener implements Listener {
     @EventHandler
     public void onJoin(PlayerJoinEvent event) {
         PlayerAdapter bukkitPlayer = new BukkitPlayer(event.getPlayer());
-        Bukkit.getScheduler().runTaskLater(PySpigot.get().getPlugin(), () -> this.onJoin(bukkitPlayer), 10L);
+        SchedulerUtils.runLater(event.getPlayer(), () -> this.onJoin(bukkitPlayer), 10L);
     }
 }
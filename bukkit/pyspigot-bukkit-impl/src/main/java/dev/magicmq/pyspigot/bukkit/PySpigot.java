@@ -30,6 +30,8 @@ import dev.magicmq.pyspigot.bukkit.manager.placeholder.PlaceholderManager;
 import dev.magicmq.pyspigot.bukkit.manager.protocol.ProtocolManager;
 import dev.magicmq.pyspigot.bukkit.manager.script.BukkitScriptManager;
 import dev.magicmq.pyspigot.bukkit.manager.task.BukkitTaskManager;
+import dev.magicmq.pyspigot.bukkit.manager.task.FoliaTaskManager;
+import dev.magicmq.pyspigot.bukkit.util.SchedulerUtils;
 import dev.magicmq.pyspigot.classpath.ClassPathAppender;
 import dev.magicmq.pyspigot.config.ScriptOptionsConfig;
 import dev.magicmq.pyspigot.config.PluginConfig;
@@ -43,7 +45,6 @@ import org.bukkit.command.SimpleCommandMap;
 import org.bukkit.help.IndexHelpTopic;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.scheduler.BukkitTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -64,8 +65,9 @@ public class PySpigot implements LoaderBootstrap, PlatformAdapter {
     private final JavaPlugin plugin;
 
     private boolean paper;
+    private boolean folia;
     private BukkitAudiences adventure;
-    private BukkitTask versionCheckTask;
+    private SchedulerUtils.TaskHandle versionCheckTask;
 
     public PySpigot(JavaPlugin plugin) {
         instance = this;
@@ -88,6 +90,13 @@ public class PySpigot implements LoaderBootstrap, PlatformAdapter {
             paper = false;
         }
 
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            folia = true;
+        } catch (ClassNotFoundException ignored) {
+            folia = false;
+        }
+
         PyCore.newInstance(this);
         PyCore.get().init();
     }
@@ -123,7 +132,10 @@ public class PySpigot implements LoaderBootstrap, PlatformAdapter {
     public void initPlatformManagers() {
         BukkitListenerManager.get();
         BukkitCommandManager.get();
-        BukkitTaskManager.get();
+        if (folia)
+            FoliaTaskManager.get();
+        else
+            BukkitTaskManager.get();
         BukkitConfigManager.get();
 
         if (isProtocolLibAvailable())
@@ -143,8 +155,8 @@ public class PySpigot implements LoaderBootstrap, PlatformAdapter {
 
     @Override
     public void initVersionChecking() {
-        Bukkit.getScheduler().runTaskLater(plugin, PyCore.get()::compareVersions, 20L);
-        versionCheckTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, PyCore.get()::fetchSpigotVersion, 864000L, 864000L);
+        SchedulerUtils.runLater(PyCore.get()::compareVersions, 20L);
+        versionCheckTask = SchedulerUtils.runTimerAsync(PyCore.get()::fetchSpigotVersion, 864000L, 864000L);
     }
 
     @Override
@@ -208,6 +220,11 @@ public class PySpigot implements LoaderBootstrap, PlatformAdapter {
         return Bukkit.getPluginManager().getPlugin("PacketEvents") != null;
     }
 
+    @Override
+    public double getAverageTickTime() {
+        return Bukkit.getAverageTickTime();
+    }
+
     /**
      * Get the underlying Bukkit plugin object.
      * @return The underlying Bukkit plugin.
@@ -216,6 +233,14 @@ public class PySpigot implements LoaderBootstrap, PlatformAdapter {
         return plugin;
     }
 
+    /**
+     * Check if the server is running Folia, in which case there is no single main thread and tasks must be scheduled on region schedulers.
+     * @return True if the server is running Folia, false if otherwise
+     */
+    public boolean isFolia() {
+        return folia;
+    }
+
     /**
      * Check if ProtocolLib is available on the server.
      * @return True if ProtocolLib is loaded and enabled, false if otherwise
@@ -147,6 +147,56 @@ public class BukkitPluginConfig implements PluginConfig {
             return new HashMap<>();
     }
 
+    @Override
+    public boolean multiplexedEventDispatch() {
+        return config.getBoolean("listener-options.multiplexed-dispatch");
+    }
+
+    @Override
+    public int asyncListenerQueueLimit() {
+        return config.getInt("listener-options.async-queue-limit");
+    }
+
+    @Override
+    public String asyncListenerExecutor() {
+        return config.getString("listener-options.async-executor");
+    }
+
+    @Override
+    public int asyncListenerThreads() {
+        return config.getInt("listener-options.async-executor-threads");
+    }
+
+    @Override
+    public int databaseExecutorThreads() {
+        return config.getInt("database-options.executor-threads");
+    }
+
+    @Override
+    public boolean databaseVirtualThreads() {
+        return config.getBoolean("database-options.virtual-threads");
+    }
+
+    @Override
+    public int databaseQueueLimit() {
+        return config.getInt("database-options.queue-limit");
+    }
+
+    @Override
+    public int databaseQueryTimeout() {
+        return config.getInt("database-options.query-timeout");
+    }
+
+    @Override
+    public int databaseWriteBehindBatchSize() {
+        return config.getInt("database-options.write-behind-batch-size");
+    }
+
+    @Override
+    public long databaseWriteBehindInterval() {
+        return config.getLong("database-options.write-behind-interval");
+    }
+
     @Override
     public boolean shouldShowUpdateMessages() {
         return config.getBoolean("debug-options.show-update-messages");
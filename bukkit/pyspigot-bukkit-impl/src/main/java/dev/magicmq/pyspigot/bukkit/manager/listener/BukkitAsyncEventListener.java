@@ -0,0 +1,107 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.bukkit.manager.listener;
+
+import dev.magicmq.pyspigot.manager.script.Script;
+import dev.magicmq.pyspigot.manager.script.ScriptManager;
+import dev.magicmq.pyspigot.util.OrderedExecutor;
+import dev.magicmq.pyspigot.util.ScriptContext;
+import org.bukkit.event.Event;
+import org.python.core.Py;
+import org.python.core.PyDictionary;
+import org.python.core.PyException;
+import org.python.core.PyFunction;
+import org.python.core.ThreadState;
+
+import java.util.List;
+
+/**
+ * A script event listener that captures a snapshot of an event on the thread that fired it, and delivers the snapshot to
+ * the script asynchronously.
+ * <p>
+ * Snapshots are delivered through the script's {@link OrderedExecutor}, so a script receives events in the order
+ * they were fired. The script function is called with a dict of field name to value. Because delivery happens off the
+ * main thread, the function must not use server APIs that require the main thread.
+ */
+public class BukkitAsyncEventListener extends BukkitScriptEventListener {
+
+    private final EventSnapshotter snapshotter;
+    private final OrderedExecutor executor;
+
+    /**
+     *
+     * @param script The script listening to events within this listener
+     * @param listenerFunction The script function that should be called with each event snapshot
+     * @param event The Bukkit event associated with this listener. Should be a {@link Class} of the Bukkit event
+     * @param filter The filter events must match to be delivered, or null to deliver all events
+     * @param fields The names of the fields to snapshot from each event
+     * @param executor The script's executor, through which snapshots are delivered
+     * @throws IllegalArgumentException If no fields are specified, or if a field does not exist on the event
+     */
+    public BukkitAsyncEventListener(Script script, PyFunction listenerFunction, Class<? extends Event> event, BukkitEventFilter filter, String[] fields, OrderedExecutor executor) {
+        super(script, listenerFunction, event, filter);
+        if (fields == null || fields.length == 0)
+            throw new IllegalArgumentException("At least one field must be specified for an asynchronous event listener");
+
+        this.snapshotter = new EventSnapshotter(script, event, fields);
+        this.executor = executor;
+    }
+
+    /**
+     * Get the names of the fields snapshotted from each event.
+     * @return An immutable list of field names
+     */
+    public List<String> getFields() {
+        return snapshotter.getFields();
+    }
+
+    /**
+     * Get the executor through which this listener's snapshots are delivered.
+     * @return The executor
+     */
+    public OrderedExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Prints a representation of this BukkitAsyncEventListener in string format, including the event being listened to and the executor's queue statistics
+     * @return A string representation of the BukkitAsyncEventListener
+     */
+    @Override
+    public String toString() {
+        return String.format("BukkitAsyncEventListener[Event: %s, Fields: %s, Executor: %s]", getEvent().getName(), getFields(), executor);
+    }
+
+    @Override
+    protected boolean intercept(Event event) {
+        Object[] values = snapshotter.capture(event);
+        executor.submit(getScript(), () -> deliver(values));
+        return true;
+    }
+
+    private void deliver(Object[] values) {
+        Script script = getScript();
+        try {
+            Py.setSystemState(script.getInterpreter().getSystemState());
+            ThreadState threadState = Py.getThreadState(script.getInterpreter().getSystemState());
+            PyDictionary snapshot = snapshotter.toDict(values);
+            ScriptContext.runWith(script, () -> getListenerFunction().__call__(threadState, snapshot));
+        } catch (PyException exception) {
+            ScriptManager.get().handleScriptException(script, exception, "Error when executing asynchronous event listener");
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.bukkit.manager.listener;
+
+import dev.magicmq.pyspigot.manager.script.Script;
+import dev.magicmq.pyspigot.manager.script.ScriptManager;
+import dev.magicmq.pyspigot.util.ScriptContext;
+import org.bukkit.event.Event;
+import org.python.core.Py;
+import org.python.core.PyException;
+import org.python.core.PyFunction;
+import org.python.core.PyList;
+import org.python.core.ThreadState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A script event listener that collects events into a bounded buffer and delivers them to the script once per tick, as a
+ * single list.
+ * <p>
+ * Batch listeners are always registered at {@link org.bukkit.event.EventPriority#MONITOR} priority and are intended for
+ * read-only use. If fields are specified, a snapshot of those fields is captured when the event fires, and each element of
+ * the delivered list is a dict of field name to value. If no fields are specified, the event objects themselves are
+ * delivered; this is only safe for events that are not reused or mutated by the server after they are fired.
+ * <p>
+ * When the buffer is full, further events are dropped (and counted) until the next delivery.
+ */
+public class BukkitBatchEventListener extends BukkitScriptEventListener {
+
+    private final EventSnapshotter snapshotter;
+    private final int capacity;
+    private final ArrayBlockingQueue<Object> buffer;
+    private final LongAdder dropped;
+    private final LongAdder batches;
+
+    /**
+     *
+     * @param script The script listening to events within this listener
+     * @param listenerFunction The script function that should be called with each batch of events
+     * @param event The Bukkit event associated with this listener. Should be a {@link Class} of the Bukkit event
+     * @param filter The filter events must match to be buffered, or null to buffer all events
+     * @param capacity The maximum number of events buffered between deliveries
+     * @param fields The names of the fields to snapshot from each event, or an empty array to buffer the event objects themselves
+     * @throws IllegalArgumentException If the capacity is less than 1, or if a field does not exist on the event
+     */
+    public BukkitBatchEventListener(Script script, PyFunction listenerFunction, Class<? extends Event> event, BukkitEventFilter filter, int capacity, String[] fields) {
+        super(script, listenerFunction, event, filter);
+        if (capacity < 1)
+            throw new IllegalArgumentException("Batch capacity must be at least 1");
+
+        this.snapshotter = fields != null && fields.length > 0 ? new EventSnapshotter(script, event, fields) : null;
+        this.capacity = capacity;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.dropped = new LongAdder();
+        this.batches = new LongAdder();
+    }
+
+    /**
+     * Get the names of the fields snapshotted from each event.
+     * @return An immutable list of field names. Will be empty if event objects are buffered directly
+     */
+    public List<String> getFields() {
+        return snapshotter != null ? snapshotter.getFields() : List.of();
+    }
+
+    /**
+     * Get the maximum number of events buffered between deliveries.
+     * @return The buffer capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Get the number of events currently buffered and awaiting delivery.
+     * @return The number of pending events
+     */
+    public int getPendingCount() {
+        return buffer.size();
+    }
+
+    /**
+     * Get the number of events that were dropped because the buffer was full.
+     * @return The number of dropped events
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Get the number of batches delivered to the script function.
+     * @return The number of delivered batches
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * Prints a representation of this BukkitBatchEventListener in string format, including the event being listened to and buffer statistics
+     * @return A string representation of the BukkitBatchEventListener
+     */
+    @Override
+    public String toString() {
+        return String.format("BukkitBatchEventListener[Event: %s, Fields: %s, Capacity: %d, Pending: %d, Dropped: %d, Batches: %d]", getEvent().getName(), getFields(), capacity, getPendingCount(), getDroppedCount(), getBatchCount());
+    }
+
+    @Override
+    protected boolean intercept(Event event) {
+        Object entry = snapshotter != null ? snapshotter.capture(event) : event;
+        if (!buffer.offer(entry))
+            dropped.increment();
+        return true;
+    }
+
+    protected void flush() {
+        if (buffer.isEmpty())
+            return;
+
+        List<Object> drained = new ArrayList<>(buffer.size());
+        buffer.drainTo(drained);
+        if (drained.isEmpty())
+            return;
+
+        Script script = getScript();
+        try {
+            Py.setSystemState(script.getInterpreter().getSystemState());
+            ThreadState threadState = Py.getThreadState(script.getInterpreter().getSystemState());
+            PyList batch = new PyList();
+            for (Object entry : drained) {
+                batch.append(snapshotter != null ? snapshotter.toDict((Object[]) entry) : Py.java2py(entry));
+            }
+            batches.increment();
+            ScriptContext.runWith(script, () -> getListenerFunction().__call__(threadState, batch));
+        } catch (PyException exception) {
+            ScriptManager.get().handleScriptException(script, exception, "Error when executing batch event listener");
+        }
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.bukkit.manager.listener;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.block.SignChangeEvent;
+import org.bukkit.event.entity.EntityEvent;
+import org.bukkit.event.hanging.HangingEvent;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryEvent;
+import org.bukkit.event.player.PlayerDropItemEvent;
+import org.bukkit.event.player.PlayerEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerItemConsumeEvent;
+import org.bukkit.event.vehicle.VehicleEvent;
+import org.bukkit.event.weather.WeatherEvent;
+import org.bukkit.event.world.WorldEvent;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * A declarative filter for script event listeners, evaluated in Java before the event is passed to Python.
+ * <p>
+ * Each criterion is compiled into a predicate when the filter is built, and an event is delivered to the script only if
+ * it matches every criterion that was set. A criterion that cannot be evaluated for an event (for example, a world filter
+ * on an event that has no associated world, or a permission filter on an event with no associated player) does not match.
+ * <p>
+ * Criteria are resolved from the event as follows:
+ * <ul>
+ *     <li>Worlds: the world of the event's entity, player, block, inventory viewer, or the event's world for world and weather events</li>
+ *     <li>Entity types: the type of the event's entity, player, vehicle, or hanging entity</li>
+ *     <li>Materials: the type of the event's block, the clicked block (or item in hand) for interact events, the consumed or dropped item, or the clicked item for inventory clicks</li>
+ *     <li>Permission: the event's player, an entity that is a player, or the player viewing an inventory</li>
+ *     <li>Cancelled: the event's cancelled state. Events that cannot be cancelled are treated as not cancelled</li>
+ * </ul>
+ */
+public class BukkitEventFilter {
+
+    private final Set<String> worlds;
+    private final Set<EntityType> entityTypes;
+    private final Set<Material> materials;
+    private final String permission;
+    private final Boolean cancelled;
+    private final double sampleRate;
+    private final Predicate<Event> predicate;
+
+    private BukkitEventFilter(Set<String> worlds, Set<EntityType> entityTypes, Set<Material> materials, String permission, Boolean cancelled, double sampleRate) {
+        this.worlds = worlds;
+        this.entityTypes = entityTypes;
+        this.materials = materials;
+        this.permission = permission;
+        this.cancelled = cancelled;
+        this.sampleRate = sampleRate;
+        this.predicate = compile();
+    }
+
+    /**
+     * Test whether an event matches this filter.
+     * @param event The event to test
+     * @return True if the event matches every criterion of this filter, false if otherwise
+     */
+    public boolean test(Event event) {
+        return predicate.test(event);
+    }
+
+    /**
+     * Prints a representation of this BukkitEventFilter in string format, including all criteria that were set
+     * @return A string representation of the BukkitEventFilter
+     */
+    @Override
+    public String toString() {
+        return String.format("BukkitEventFilter[Worlds: %s, Entity Types: %s, Materials: %s, Permission: %s, Cancelled: %s, Sample Rate: %.3f]", worlds, entityTypes, materials, permission, cancelled, sampleRate);
+    }
+
+    private Predicate<Event> compile() {
+        List<Predicate<Event>> predicates = new ArrayList<>();
+
+        //Cheapest checks first, so that most events are rejected before any lookups are performed
+        if (cancelled != null) {
+            boolean wanted = cancelled;
+            predicates.add(event -> (event instanceof Cancellable cancellable && cancellable.isCancelled()) == wanted);
+        }
+        if (entityTypes != null) {
+            predicates.add(event -> {
+                Entity entity = getEntity(event);
+                return entity != null && entityTypes.contains(entity.getType());
+            });
+        }
+        if (materials != null) {
+            predicates.add(event -> {
+                Material material = getMaterial(event);
+                return material != null && materials.contains(material);
+            });
+        }
+        if (worlds != null) {
+            predicates.add(event -> {
+                World world = getWorld(event);
+                return world != null && worlds.contains(world.getName());
+            });
+        }
+        if (permission != null) {
+            predicates.add(event -> {
+                Player player = getPlayer(event);
+                return player != null && player.hasPermission(permission);
+            });
+        }
+        if (sampleRate < 1.0) {
+            predicates.add(event -> ThreadLocalRandom.current().nextDouble() < sampleRate);
+        }
+
+        return predicates.stream().reduce(Predicate::and).orElse(event -> true);
+    }
+
+    private static Entity getEntity(Event event) {
+        if (event instanceof PlayerEvent playerEvent)
+            return playerEvent.getPlayer();
+        else if (event instanceof EntityEvent entityEvent)
+            return entityEvent.getEntity();
+        else if (event instanceof VehicleEvent vehicleEvent)
+            return vehicleEvent.getVehicle();
+        else if (event instanceof HangingEvent hangingEvent)
+            return hangingEvent.getEntity();
+        else
+            return null;
+    }
+
+    private static Player getPlayer(Event event) {
+        if (event instanceof PlayerEvent playerEvent)
+            return playerEvent.getPlayer();
+        else if (event instanceof EntityEvent entityEvent && entityEvent.getEntity() instanceof Player player)
+            return player;
+        else if (event instanceof BlockBreakEvent blockBreakEvent)
+            return blockBreakEvent.getPlayer();
+        else if (event instanceof BlockPlaceEvent blockPlaceEvent)
+            return blockPlaceEvent.getPlayer();
+        else if (event instanceof SignChangeEvent signChangeEvent)
+            return signChangeEvent.getPlayer();
+        else if (event instanceof InventoryEvent inventoryEvent && inventoryEvent.getView().getPlayer() instanceof Player player)
+            return player;
+        else
+            return null;
+    }
+
+    private static World getWorld(Event event) {
+        if (event instanceof WorldEvent worldEvent)
+            return worldEvent.getWorld();
+        else if (event instanceof WeatherEvent weatherEvent)
+            return weatherEvent.getWorld();
+        else if (event instanceof BlockEvent blockEvent)
+            return blockEvent.getBlock().getWorld();
+        else if (event instanceof InventoryEvent inventoryEvent)
+            return inventoryEvent.getView().getPlayer().getWorld();
+
+        Entity entity = getEntity(event);
+        return entity != null ? entity.getWorld() : null;
+    }
+
+    private static Material getMaterial(Event event) {
+        if (event instanceof BlockEvent blockEvent)
+            return blockEvent.getBlock().getType();
+        else if (event instanceof PlayerInteractEvent interactEvent) {
+            Block clicked = interactEvent.getClickedBlock();
+            if (clicked != null)
+                return clicked.getType();
+            return getType(interactEvent.getItem());
+        } else if (event instanceof PlayerItemConsumeEvent consumeEvent)
+            return getType(consumeEvent.getItem());
+        else if (event instanceof PlayerDropItemEvent dropEvent)
+            return getType(dropEvent.getItemDrop().getItemStack());
+        else if (event instanceof InventoryClickEvent clickEvent)
+            return getType(clickEvent.getCurrentItem());
+        else
+            return null;
+    }
+
+    private static Material getType(ItemStack item) {
+        return item != null ? item.getType() : null;
+    }
+
+    /**
+     * Get a new builder for declaring an event filter.
+     * @return A new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * A helper class for declaring new event filters.
+     */
+    public static class Builder {
+
+        private Set<String> worlds;
+        private Set<EntityType> entityTypes;
+        private Set<Material> materials;
+        private String permission;
+        private Boolean cancelled;
+        private double sampleRate = 1.0;
+
+        /**
+         * Only deliver events that occur in one of the given worlds.
+         * @param worlds The names of the worlds
+         * @return The builder
+         */
+        public Builder worlds(String... worlds) {
+            this.worlds = new HashSet<>(List.of(worlds));
+            return this;
+        }
+
+        /**
+         * Only deliver events that concern an entity of one of the given types.
+         * @param entityTypes The entity types
+         * @return The builder
+         */
+        public Builder entityTypes(EntityType... entityTypes) {
+            this.entityTypes = EnumSet.noneOf(EntityType.class);
+            this.entityTypes.addAll(List.of(entityTypes));
+            return this;
+        }
+
+        /**
+         * Only deliver events that concern a block or item of one of the given materials.
+         * @param materials The materials
+         * @return The builder
+         */
+        public Builder materials(Material... materials) {
+            this.materials = EnumSet.noneOf(Material.class);
+            this.materials.addAll(List.of(materials));
+            return this;
+        }
+
+        /**
+         * Only deliver events whose player has the given permission.
+         * @param permission The permission
+         * @return The builder
+         */
+        public Builder permission(String permission) {
+            this.permission = permission;
+            return this;
+        }
+
+        /**
+         * Only deliver events with the given cancelled state.
+         * @param cancelled True to only deliver cancelled events, false to only deliver events that are not cancelled
+         * @return The builder
+         */
+        public Builder cancelled(boolean cancelled) {
+            this.cancelled = cancelled;
+            return this;
+        }
+
+        /**
+         * Only deliver a random sample of events.
+         * @param sampleRate The fraction of events to deliver, greater than 0 and at most 1
+         * @return The builder
+         * @throws IllegalArgumentException If the sample rate is not greater than 0 and at most 1
+         */
+        public Builder sampleRate(double sampleRate) {
+            if (sampleRate <= 0 || sampleRate > 1)
+                throw new IllegalArgumentException("Sample rate must be greater than 0 and at most 1");
+            this.sampleRate = sampleRate;
+            return this;
+        }
+
+        /**
+         * Build a new event filter from the Builder.
+         * @return A new BukkitEventFilter object, built from the Builder's values
+         */
+        public BukkitEventFilter build() {
+            return new BukkitEventFilter(worlds, entityTypes, materials, permission, cancelled, sampleRate);
+        }
+    }
+}
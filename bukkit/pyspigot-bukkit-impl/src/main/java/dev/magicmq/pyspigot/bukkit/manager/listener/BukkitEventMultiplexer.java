@@ -0,0 +1,149 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.bukkit.manager.listener;
+
+import dev.magicmq.pyspigot.PyCore;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A single Bukkit listener registration that dispatches an event to every script listener registered with the same event
+ * class, priority, and ignoreCancelled setting.
+ * <p>
+ * Script handlers are held in a copy-on-write array, so registering and unregistering a script listener swaps the array
+ * rather than modifying (and re-baking) the event's {@link org.bukkit.event.HandlerList}. The multiplexer stays registered
+ * with Bukkit once created, so that reloading scripts does not touch Bukkit's handler lists at all.
+ * @see org.bukkit.plugin.EventExecutor
+ */
+public class BukkitEventMultiplexer implements Listener, EventExecutor {
+
+    private static final BukkitScriptEventListener[] EMPTY = new BukkitScriptEventListener[0];
+
+    private final Class<? extends Event> eventClass;
+    private final EventPriority priority;
+    private final boolean ignoreCancelled;
+
+    private volatile BukkitScriptEventListener[] handlers;
+
+    /**
+     *
+     * @param eventClass The Bukkit event this multiplexer dispatches
+     * @param priority The priority this multiplexer is registered at
+     * @param ignoreCancelled Whether this multiplexer is registered to ignore cancelled events
+     */
+    public BukkitEventMultiplexer(Class<? extends Event> eventClass, EventPriority priority, boolean ignoreCancelled) {
+        this.eventClass = eventClass;
+        this.priority = priority;
+        this.ignoreCancelled = ignoreCancelled;
+        this.handlers = EMPTY;
+    }
+
+    /**
+     * Called internally when the event occurs.
+     * @param listener The listener associated with this EventExecutor
+     * @param event The event that occurred
+     */
+    @Override
+    public void execute(Listener listener, Event event) {
+        if (!EventClassCache.isAssignable(eventClass, event.getClass()))
+            return;
+
+        for (BukkitScriptEventListener handler : handlers) {
+            //Bukkit only checks ignoreCancelled once, before the multiplexer runs, so an earlier script may have cancelled the event since
+            if (ignoreCancelled && event instanceof Cancellable cancellable && cancellable.isCancelled())
+                return;
+
+            try {
+                handler.getEventExecutor().callListener(event);
+            } catch (RuntimeException e) {
+                //Isolate scripts from one another; a non-Python exception in one handler should not prevent the remaining handlers from running
+                PyCore.get().getLogger().error("Unhandled exception when dispatching event '{}' to script '{}'", eventClass.getSimpleName(), handler.getScript().getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Get the Bukkit event this multiplexer dispatches.
+     * @return The event class
+     */
+    public Class<? extends Event> getEventClass() {
+        return eventClass;
+    }
+
+    /**
+     * Get the priority this multiplexer is registered at.
+     * @return The priority
+     */
+    public EventPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Get whether this multiplexer is registered to ignore cancelled events.
+     * @return True if cancelled events are ignored, false if otherwise
+     */
+    public boolean isIgnoreCancelled() {
+        return ignoreCancelled;
+    }
+
+    /**
+     * Get the script listeners this multiplexer currently dispatches to, in dispatch order.
+     * @return An immutable list of script listeners
+     */
+    public List<BukkitScriptEventListener> getHandlers() {
+        return List.of(handlers);
+    }
+
+    /**
+     * Prints a representation of this BukkitEventMultiplexer in string format, including the event, priority, and number of script listeners
+     * @return A string representation of the BukkitEventMultiplexer
+     */
+    @Override
+    public String toString() {
+        return String.format("BukkitEventMultiplexer[Event: %s, Priority: %s, Ignore Cancelled: %b, Handlers: %d]", eventClass.getName(), priority, ignoreCancelled, handlers.length);
+    }
+
+    protected synchronized void addHandler(BukkitScriptEventListener listener) {
+        BukkitScriptEventListener[] current = handlers;
+        BukkitScriptEventListener[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        handlers = updated;
+    }
+
+    protected synchronized void removeHandlers(Collection<BukkitScriptEventListener> listeners) {
+        List<BukkitScriptEventListener> remaining = new ArrayList<>(handlers.length);
+        for (BukkitScriptEventListener handler : handlers) {
+            if (!listeners.contains(handler))
+                remaining.add(handler);
+        }
+        handlers = remaining.isEmpty() ? EMPTY : remaining.toArray(EMPTY);
+    }
+
+    protected static Key key(Class<? extends Event> eventClass, EventPriority priority, boolean ignoreCancelled) {
+        return new Key(eventClass, priority, ignoreCancelled);
+    }
+
+    protected record Key(Class<? extends Event> eventClass, EventPriority priority, boolean ignoreCancelled) {}
+}
@@ -16,31 +16,53 @@
 
 package dev.magicmq.pyspigot.bukkit.manager.listener;
 
+import dev.magicmq.pyspigot.PyCore;
 import dev.magicmq.pyspigot.bukkit.PySpigot;
+import dev.magicmq.pyspigot.bukkit.util.SchedulerUtils;
 import dev.magicmq.pyspigot.exception.ScriptRuntimeException;
 import dev.magicmq.pyspigot.manager.listener.ListenerManager;
+import dev.magicmq.pyspigot.manager.listener.ListenerRateLimiter;
 import dev.magicmq.pyspigot.manager.script.Script;
+import dev.magicmq.pyspigot.util.OrderedExecutor;
 import dev.magicmq.pyspigot.util.ScriptContext;
 import org.bukkit.Bukkit;
 import org.bukkit.event.Event;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.HandlerList;
 import org.bukkit.plugin.IllegalPluginAccessException;
+import org.bukkit.plugin.RegisteredListener;
 import org.python.core.PyFunction;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * The Bukkit-specific implementation of the listener manager.
+ * <p>
+ * When multiplexed event dispatch is enabled in the config, script listeners are not registered with Bukkit individually.
+ * Instead, a single {@link BukkitEventMultiplexer} is registered per event class, priority, and ignoreCancelled setting,
+ * and script listeners are added to and removed from it.
  */
 public class BukkitListenerManager extends ListenerManager<BukkitScriptEventListener, Event, EventPriority> {
 
     private static BukkitListenerManager instance;
 
+    private final HashMap<BukkitEventMultiplexer.Key, BukkitEventMultiplexer> multiplexers;
+    private final List<BukkitBatchEventListener> batchListeners;
+    private final HashMap<Script, OrderedExecutor> eventExecutors;
+
+    private SchedulerUtils.TaskHandle batchFlushTask;
+
     private BukkitListenerManager() {
         super();
+
+        multiplexers = new HashMap<>();
+        batchListeners = new CopyOnWriteArrayList<>();
+        eventExecutors = new HashMap<>();
     }
 
     @Override
@@ -60,17 +82,156 @@ public class BukkitListenerManager extends ListenerManager<BukkitScriptEventList
 
     @Override
     public BukkitScriptEventListener registerListener(PyFunction function, Class<? extends Event> eventClass, EventPriority priority, boolean ignoreCancelled) {
+        return registerListener(function, eventClass, priority, ignoreCancelled, null);
+    }
+
+    /**
+     * Register a new event listener with default priority, whose events are filtered in Java before being passed to the function.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param function The function that should be called when the event occurs
+     * @param eventClass The type of event to listen to
+     * @param filter The filter events must match to be passed to the function
+     * @return The ScriptEventListener that was registered
+     */
+    public BukkitScriptEventListener registerListener(PyFunction function, Class<? extends Event> eventClass, BukkitEventFilter filter) {
+        return registerListener(function, eventClass, EventPriority.NORMAL, false, filter);
+    }
+
+    /**
+     * Register a new event listener, whose events are filtered in Java before being passed to the function.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param function The function that should be called when the event occurs
+     * @param eventClass The type of event to listen to
+     * @param priority The priority of the event relative to other listeners
+     * @param ignoreCancelled If true, the event listener will not be called if the event has been previously cancelled by another listener.
+     * @param filter The filter events must match to be passed to the function, or null to pass all events
+     * @return The ScriptEventListener that was registered
+     */
+    public BukkitScriptEventListener registerListener(PyFunction function, Class<? extends Event> eventClass, EventPriority priority, boolean ignoreCancelled, BukkitEventFilter filter) {
+        return registerListener(function, eventClass, priority, ignoreCancelled, filter, null);
+    }
+
+    /**
+     * Register a new event listener, whose events are filtered and rate limited in Java before being passed to the function.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param function The function that should be called when the event occurs
+     * @param eventClass The type of event to listen to
+     * @param priority The priority of the event relative to other listeners
+     * @param ignoreCancelled If true, the event listener will not be called if the event has been previously cancelled by another listener.
+     * @param filter The filter events must match to be passed to the function, or null to pass all events
+     * @param rateLimiter The rate limiter applied to events that match the filter, or null to pass all matching events
+     * @return The ScriptEventListener that was registered
+     */
+    public BukkitScriptEventListener registerListener(PyFunction function, Class<? extends Event> eventClass, EventPriority priority, boolean ignoreCancelled, BukkitEventFilter filter, ListenerRateLimiter rateLimiter) {
+        Script script = ScriptContext.require();
+
+        BukkitScriptEventListener listener = new BukkitScriptEventListener(script, function, eventClass, filter, rateLimiter);
+        register(listener, priority, ignoreCancelled);
+        return listener;
+    }
+
+    /**
+     * Register a new batch event listener. Events are buffered and passed to the function once per tick, as a single list of event objects.
+     * <p>
+     * Batch listeners are registered at MONITOR priority and must treat events as read-only. Buffering event objects is only safe for events that the server does not reuse or mutate after firing them; otherwise, specify fields to snapshot.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param function The function that should be called with each batch of events
+     * @param eventClass The type of event to listen to
+     * @param capacity The maximum number of events buffered between deliveries. Further events are dropped
+     * @return The BukkitBatchEventListener that was registered
+     */
+    public BukkitBatchEventListener registerBatchListener(PyFunction function, Class<? extends Event> eventClass, int capacity) {
+        return registerBatchListener(function, eventClass, capacity, false, null);
+    }
+
+    /**
+     * Register a new batch event listener. Events are buffered and passed to the function once per tick, as a single list.
+     * <p>
+     * Batch listeners are registered at MONITOR priority. If fields are specified, each element of the list is a dict containing a snapshot of those fields, taken when the event fired; otherwise, each element is the event object itself.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param function The function that should be called with each batch of events
+     * @param eventClass The type of event to listen to
+     * @param capacity The maximum number of events buffered between deliveries. Further events are dropped
+     * @param ignoreCancelled If true, cancelled events will not be buffered
+     * @param filter The filter events must match to be buffered, or null to buffer all events
+     * @param fields The names of the fields (or getter methods) to snapshot from each event
+     * @return The BukkitBatchEventListener that was registered
+     */
+    public BukkitBatchEventListener registerBatchListener(PyFunction function, Class<? extends Event> eventClass, int capacity, boolean ignoreCancelled, BukkitEventFilter filter, String... fields) {
+        Script script = ScriptContext.require();
+
+        BukkitBatchEventListener listener = new BukkitBatchEventListener(script, function, eventClass, filter, capacity, fields);
+        register(listener, EventPriority.MONITOR, ignoreCancelled);
+        synchronized (this) {
+            batchListeners.add(listener);
+            if (batchFlushTask == null)
+                batchFlushTask = SchedulerUtils.runTimer(this::flushBatchListeners, 1L, 1L);
+        }
+        return listener;
+    }
+
+    /**
+     * Register a new asynchronous event listener. A snapshot of the given fields is captured when the event fires, and the function is called with the snapshot (as a dict of field name to value) on a separate thread.
+     * <p>
+     * Asynchronous listeners are registered at MONITOR priority. Each script's events are delivered one at a time, in the order they were fired, on a shared pool of PySpigot worker threads; if the script's delivery queue is full, further events are dropped.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param function The function that should be called with each event snapshot
+     * @param eventClass The type of event to listen to
+     * @param fields The names of the fields (or getter methods) to snapshot from each event
+     * @return The BukkitAsyncEventListener that was registered
+     */
+    public BukkitAsyncEventListener registerAsyncListener(PyFunction function, Class<? extends Event> eventClass, String... fields) {
+        return registerAsyncListener(function, eventClass, false, null, fields);
+    }
+
+    /**
+     * Register a new asynchronous event listener. A snapshot of the given fields is captured when the event fires, and the function is called with the snapshot (as a dict of field name to value) on a separate thread.
+     * <p>
+     * Asynchronous listeners are registered at MONITOR priority. Each script's events are delivered one at a time, in the order they were fired, on a shared pool of PySpigot worker threads; if the script's delivery queue is full, further events are dropped.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param function The function that should be called with each event snapshot
+     * @param eventClass The type of event to listen to
+     * @param ignoreCancelled If true, cancelled events will not be delivered
+     * @param filter The filter events must match to be delivered, or null to deliver all events
+     * @param fields The names of the fields (or getter methods) to snapshot from each event
+     * @return The BukkitAsyncEventListener that was registered
+     */
+    public BukkitAsyncEventListener registerAsyncListener(PyFunction function, Class<? extends Event> eventClass, boolean ignoreCancelled, BukkitEventFilter filter, String... fields) {
         Script script = ScriptContext.require();
 
-        BukkitScriptEventListener listener = new BukkitScriptEventListener(script, function, eventClass);
-        Bukkit.getPluginManager().registerEvent(eventClass, listener, priority, listener.getEventExecutor(), PySpigot.get().getPlugin(), ignoreCancelled);
-        addListener(script, listener);
+        OrderedExecutor executor;
+        synchronized (this) {
+            executor = eventExecutors.computeIfAbsent(script, k -> new OrderedExecutor(k.getName(), PyCore.get().getConfig().asyncListenerQueueLimit()));
+        }
+        BukkitAsyncEventListener listener = new BukkitAsyncEventListener(script, function, eventClass, filter, fields, executor);
+        register(listener, EventPriority.MONITOR, ignoreCancelled);
         return listener;
     }
 
+    /**
+     * Get the executor that delivers event snapshots to a script's asynchronous listeners.
+     * @param script The script
+     * @return The executor, or null if the script has not registered any asynchronous listeners
+     */
+    public synchronized OrderedExecutor getEventExecutor(Script script) {
+        return eventExecutors.get(script);
+    }
+
     @Override
     public void unregisterListener(BukkitScriptEventListener listener) {
-        removeFromHandlers(listener);
+        if (listener instanceof BukkitBatchEventListener batchListener)
+            removeBatchListener(batchListener);
+        if (listener.getMultiplexer() != null)
+            listener.getMultiplexer().removeHandlers(Set.of(listener));
+        else
+            removeFromHandlers(listener);
         removeListener(listener.getScript(), listener);
     }
 
@@ -84,36 +245,87 @@ public class BukkitListenerManager extends ListenerManager<BukkitScriptEventList
 
     @Override
     public void unregisterListeners(Script script) {
+        Map<BukkitEventMultiplexer, Set<BukkitScriptEventListener>> multiplexed = new HashMap<>();
+        Map<HandlerList, Set<BukkitScriptEventListener>> direct = new HashMap<>();
         for (BukkitScriptEventListener eventListener : getListeners(script)) {
-            removeFromHandlers(eventListener);
+            if (eventListener instanceof BukkitBatchEventListener batchListener)
+                removeBatchListener(batchListener);
+            if (eventListener.getMultiplexer() != null)
+                multiplexed.computeIfAbsent(eventListener.getMultiplexer(), k -> new HashSet<>()).add(eventListener);
+            else {
+                try {
+                    direct.computeIfAbsent(EventClassCache.getHandlerList(eventListener.getEvent()), k -> new HashSet<>()).add(eventListener);
+                } catch (IllegalPluginAccessException e) {
+                    throw new ScriptRuntimeException(script, "Unhandled exception when unregistering listener for event '" + eventListener.getEvent().getSimpleName() + "'", e);
+                }
+            }
         }
+        direct.forEach(this::removeFromHandlers);
+        multiplexed.forEach(BukkitEventMultiplexer::removeHandlers);
         removeListeners(script);
+
+        OrderedExecutor executor;
+        synchronized (this) {
+            executor = eventExecutors.remove(script);
+        }
+        if (executor != null)
+            executor.shutdown();
     }
 
-    private void removeFromHandlers(BukkitScriptEventListener listener) {
-        try {
-            Method method = getRegistrationClass(listener.getEvent()).getDeclaredMethod("getHandlerList");
-            method.setAccessible(true);
-            HandlerList list = (HandlerList) method.invoke(null);
-            list.unregister(listener);
-        } catch (NoSuchMethodException | InvocationTargetException | IllegalAccessException e) {
-            throw new ScriptRuntimeException(listener.getScript(), "Unhandled exception when unregistering listener for event '" + listener.getEvent().getSimpleName() + "'", e);
+    /**
+     * Get all event multiplexers currently registered with Bukkit.
+     * @return An immutable list of event multiplexers
+     */
+    public synchronized List<BukkitEventMultiplexer> getMultiplexers() {
+        return List.copyOf(multiplexers.values());
+    }
+
+    private void register(BukkitScriptEventListener listener, EventPriority priority, boolean ignoreCancelled) {
+        if (PyCore.get().getConfig().multiplexedEventDispatch()) {
+            BukkitEventMultiplexer multiplexer = getMultiplexer(listener.getEvent(), priority, ignoreCancelled);
+            listener.setMultiplexer(multiplexer);
+            multiplexer.addHandler(listener);
+        } else
+            Bukkit.getPluginManager().registerEvent(listener.getEvent(), listener, priority, listener.getEventExecutor(), PySpigot.get().getPlugin(), ignoreCancelled);
+        addListener(listener.getScript(), listener);
+    }
+
+    private synchronized void removeBatchListener(BukkitBatchEventListener listener) {
+        batchListeners.remove(listener);
+        if (batchListeners.isEmpty() && batchFlushTask != null) {
+            batchFlushTask.cancel();
+            batchFlushTask = null;
+        }
+    }
+
+    private void flushBatchListeners() {
+        for (BukkitBatchEventListener listener : batchListeners) {
+            listener.flush();
         }
     }
 
-    //Copied from org.bukkit.plugin.SimplePluginManager#getRegistrationClass. Resolves getHandlerList for events, including those where getHandlerList is defined in a superclass (such as BlockBreakEvent)
-    private Class<? extends Event> getRegistrationClass(Class<? extends Event> clazz) {
+    private synchronized BukkitEventMultiplexer getMultiplexer(Class<? extends Event> eventClass, EventPriority priority, boolean ignoreCancelled) {
+        return multiplexers.computeIfAbsent(BukkitEventMultiplexer.key(eventClass, priority, ignoreCancelled), key -> {
+            BukkitEventMultiplexer multiplexer = new BukkitEventMultiplexer(eventClass, priority, ignoreCancelled);
+            Bukkit.getPluginManager().registerEvent(eventClass, multiplexer, priority, multiplexer, PySpigot.get().getPlugin(), ignoreCancelled);
+            return multiplexer;
+        });
+    }
+
+    //Walks the handler list's listeners once and unregisters matches directly, rather than calling HandlerList#unregister(Listener)
+    //per listener, which scans every priority slot each time. The handler list re-bakes lazily on its next use either way
+    private void removeFromHandlers(HandlerList handlerList, Set<BukkitScriptEventListener> listeners) {
+        for (RegisteredListener registeredListener : handlerList.getRegisteredListeners()) {
+            if (registeredListener.getListener() instanceof BukkitScriptEventListener listener && listeners.contains(listener))
+                handlerList.unregister(registeredListener);
+        }
+    }
+
+    private void removeFromHandlers(BukkitScriptEventListener listener) {
         try {
-            clazz.getDeclaredMethod("getHandlerList");
-            return clazz;
-        } catch (NoSuchMethodException e) {
-            if (clazz.getSuperclass() != null
-                    && !clazz.getSuperclass().equals(Event.class)
-                    && Event.class.isAssignableFrom(clazz.getSuperclass())) {
-                return getRegistrationClass(clazz.getSuperclass().asSubclass(Event.class));
-            } else {
-                throw new IllegalPluginAccessException("Unable to find handler list for event '" + clazz.getName() + "'. Static getHandlerList method required!");
-            }
+            EventClassCache.getHandlerList(listener.getEvent()).unregister(listener);
+        } catch (IllegalPluginAccessException e) {
+            throw new ScriptRuntimeException(listener.getScript(), "Unhandled exception when unregistering listener for event '" + listener.getEvent().getSimpleName() + "'", e);
         }
     }
 
@@ -53,26 +53,40 @@ public class BukkitScriptEventExecutor implements EventExecutor {
      * @param event The event that occurred
      */
     public void execute(Listener listener, Event event) {
-        if (eventClass.isAssignableFrom(event.getClass())) {
-            if (event instanceof ScriptExceptionEvent scriptExceptionEvent) {
-                Script script = scriptExceptionEvent.getScript();
-                if (scriptEventListener.getScript().equals(script)) {
-                    String listenerFunctionName = scriptEventListener.getListenerFunction().__code__.co_name;
-                    String exceptionFunctionName = scriptExceptionEvent.getException().traceback.tb_frame.f_code.co_name;
-                    if (listenerFunctionName.equals(exceptionFunctionName)) {
-                        return;
-                    }
+        if (EventClassCache.isAssignable(eventClass, event.getClass()))
+            callListener(event);
+    }
+
+    /**
+     * Call the script's listener function for an event, without checking whether the event is of the listener's event type.
+     * @param event The event that occurred
+     */
+    protected void callListener(Event event) {
+        //Evaluate the listener's filter before any conversion to Python objects takes place
+        if (!scriptEventListener.accept(event))
+            return;
+
+        if (event instanceof ScriptExceptionEvent scriptExceptionEvent) {
+            Script script = scriptExceptionEvent.getScript();
+            if (scriptEventListener.getScript().equals(script)) {
+                String listenerFunctionName = scriptEventListener.getListenerFunction().__code__.co_name;
+                String exceptionFunctionName = scriptExceptionEvent.getException().traceback.tb_frame.f_code.co_name;
+                if (listenerFunctionName.equals(exceptionFunctionName)) {
+                    return;
                 }
             }
+        }
 
-            try {
-                Py.setSystemState(scriptEventListener.getScript().getInterpreter().getSystemState());
-                ThreadState threadState = Py.getThreadState(scriptEventListener.getScript().getInterpreter().getSystemState());
-                PyObject parameter = Py.java2py(event);
-                ScriptContext.runWith(scriptEventListener.getScript(), () -> scriptEventListener.getListenerFunction().__call__(threadState, parameter));
-            } catch (PyException exception) {
-                ScriptManager.get().handleScriptException(scriptEventListener.getScript(), exception, "Error when executing event listener");
-            }
+        if (scriptEventListener.intercept(event))
+            return;
+
+        try {
+            Py.setSystemState(scriptEventListener.getScript().getInterpreter().getSystemState());
+            ThreadState threadState = Py.getThreadState(scriptEventListener.getScript().getInterpreter().getSystemState());
+            PyObject parameter = Py.java2py(event);
+            ScriptContext.runWith(scriptEventListener.getScript(), () -> scriptEventListener.getListenerFunction().__call__(threadState, parameter));
+        } catch (PyException exception) {
+            ScriptManager.get().handleScriptException(scriptEventListener.getScript(), exception, "Error when executing event listener");
         }
     }
 }
@@ -16,12 +16,15 @@
 
 package dev.magicmq.pyspigot.bukkit.manager.listener;
 
+import dev.magicmq.pyspigot.manager.listener.ListenerRateLimiter;
 import dev.magicmq.pyspigot.manager.listener.ScriptEventListener;
 import dev.magicmq.pyspigot.manager.script.Script;
 import org.bukkit.event.Event;
 import org.bukkit.event.Listener;
 import org.python.core.PyFunction;
 
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * A dummy Bukkit Listener that holds an event a script is currently listening to.
  * @see org.bukkit.event.Listener
@@ -31,7 +34,13 @@ public class BukkitScriptEventListener implements Listener, ScriptEventListener<
     private final Script script;
     private final PyFunction listenerFunction;
     private final Class<? extends Event> event;
+    private final BukkitEventFilter filter;
+    private final ListenerRateLimiter rateLimiter;
     private final BukkitScriptEventExecutor eventExecutor;
+    private final LongAdder delivered;
+    private final LongAdder filtered;
+
+    private BukkitEventMultiplexer multiplexer;
 
     /**
      *
@@ -40,10 +49,37 @@ public class BukkitScriptEventListener implements Listener, ScriptEventListener<
      * @param event The Bukkit event associated with this listener. Should be a {@link Class} of the Bukkit event
      */
     public BukkitScriptEventListener(Script script, PyFunction listenerFunction, Class<? extends Event> event) {
+        this(script, listenerFunction, event, null);
+    }
+
+    /**
+     *
+     * @param script The script listening to events within this listener
+     * @param listenerFunction The script function that should be called when the event occurs
+     * @param event The Bukkit event associated with this listener. Should be a {@link Class} of the Bukkit event
+     * @param filter The filter events must match to be passed to the script function, or null to pass all events
+     */
+    public BukkitScriptEventListener(Script script, PyFunction listenerFunction, Class<? extends Event> event, BukkitEventFilter filter) {
+        this(script, listenerFunction, event, filter, null);
+    }
+
+    /**
+     *
+     * @param script The script listening to events within this listener
+     * @param listenerFunction The script function that should be called when the event occurs
+     * @param event The Bukkit event associated with this listener. Should be a {@link Class} of the Bukkit event
+     * @param filter The filter events must match to be passed to the script function, or null to pass all events
+     * @param rateLimiter The rate limiter applied to events that match the filter, or null to pass all matching events
+     */
+    public BukkitScriptEventListener(Script script, PyFunction listenerFunction, Class<? extends Event> event, BukkitEventFilter filter, ListenerRateLimiter rateLimiter) {
         this.script = script;
         this.listenerFunction = listenerFunction;
         this.event = event;
+        this.filter = filter;
+        this.rateLimiter = rateLimiter;
         this.eventExecutor = new BukkitScriptEventExecutor(this, event);
+        this.delivered = new LongAdder();
+        this.filtered = new LongAdder();
     }
 
     @Override
@@ -69,12 +105,79 @@ public class BukkitScriptEventListener implements Listener, ScriptEventListener<
         return eventExecutor;
     }
 
+    /**
+     * Get the filter events must match to be passed to the script function.
+     * @return The filter, or null if all events are passed to the script function
+     */
+    public BukkitEventFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * Get the rate limiter applied to events that match this listener's filter.
+     * @return The rate limiter, or null if this listener is not rate limited
+     */
+    public ListenerRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Get the number of events that were passed to the script function.
+     * @return The number of delivered events
+     */
+    public long getDeliveredCount() {
+        return delivered.sum();
+    }
+
+    /**
+     * Get the number of events that were rejected by this listener's filter, and therefore never passed to Python.
+     * @return The number of filtered events
+     */
+    public long getFilteredCount() {
+        return filtered.sum();
+    }
+
+    /**
+     * Get the {@link BukkitEventMultiplexer} that dispatches events to this script event listener, if multiplexed event dispatch was enabled when the listener was registered.
+     * @return The multiplexer, or null if this listener is registered directly with Bukkit
+     */
+    public BukkitEventMultiplexer getMultiplexer() {
+        return multiplexer;
+    }
+
+    protected void setMultiplexer(BukkitEventMultiplexer multiplexer) {
+        this.multiplexer = multiplexer;
+    }
+
+    protected boolean accept(Event event) {
+        if (filter != null && !filter.test(event)) {
+            filtered.increment();
+            return false;
+        }
+        if (rateLimiter != null && !rateLimiter.tryAcquire())
+            return false;
+        delivered.increment();
+        return true;
+    }
+
+    /**
+     * Called for each accepted event before it is passed to the script function. Subclasses may override this to take over delivery of the event.
+     * @param event The event that occurred
+     * @return True if the event was handled and should not be passed to the script function, false if otherwise
+     */
+    protected boolean intercept(Event event) {
+        return false;
+    }
+
     /**
      * Prints a representation of this BukkitScriptEventListener in string format, including the event being listened to by the listener
      * @return A string representation of the ScriptEventListener
      */
     @Override
     public String toString() {
-        return String.format("BukkitScriptEventListener[Event: %s]", event.getName());
+        if (filter != null || rateLimiter != null)
+            return String.format("BukkitScriptEventListener[Event: %s, Filter: %s, Rate Limiter: %s, Delivered: %d, Filtered: %d]", event.getName(), filter, rateLimiter, getDeliveredCount(), getFilteredCount());
+        else
+            return String.format("BukkitScriptEventListener[Event: %s]", event.getName());
     }
 }
@@ -0,0 +1,108 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.bukkit.manager.listener;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.bukkit.plugin.IllegalPluginAccessException;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A utility class that caches per-event-class lookups used when registering, unregistering, and dispatching script event
+ * listeners.
+ * <p>
+ * Lookups are cached with {@link ClassValue}, so each event class is resolved only once. Cached values are not released
+ * if the plugin that defines an event class is unloaded at runtime: the cached supertypes and handler list strongly
+ * reference classes of that plugin, which keeps its class loader reachable for as long as this class is loaded. Bukkit
+ * does not support unloading plugins at runtime, so this only affects plugin managers that do so anyway.
+ */
+public final class EventClassCache {
+
+    private static final ClassValue<HandlerList> HANDLER_LISTS = new ClassValue<>() {
+        @Override
+        protected HandlerList computeValue(Class<?> type) {
+            Class<? extends Event> registrationClass = getRegistrationClass(type.asSubclass(Event.class));
+            try {
+                Method method = registrationClass.getDeclaredMethod("getHandlerList");
+                method.setAccessible(true);
+                return (HandlerList) method.invoke(null);
+            } catch (NoSuchMethodException | InvocationTargetException | IllegalAccessException e) {
+                throw new IllegalPluginAccessException("Unable to access handler list for event '" + type.getName() + "': " + e.getMessage());
+            }
+        }
+    };
+
+    private static final ClassValue<Set<Class<?>>> SUPERTYPES = new ClassValue<>() {
+        @Override
+        protected Set<Class<?>> computeValue(Class<?> type) {
+            Set<Class<?>> supertypes = new HashSet<>();
+            collectSupertypes(type, supertypes);
+            return Set.copyOf(supertypes);
+        }
+    };
+
+    private EventClassCache() {}
+
+    /**
+     * Get the {@link HandlerList} that listeners for an event class are registered to. For events that do not declare their own handler list, this is the handler list of the nearest superclass that does.
+     * @param eventClass The event class
+     * @return The handler list
+     * @throws IllegalPluginAccessException If the event class has no accessible handler list
+     */
+    public static HandlerList getHandlerList(Class<? extends Event> eventClass) {
+        return HANDLER_LISTS.get(eventClass);
+    }
+
+    /**
+     * Check whether an event of the given runtime class should be delivered to a listener of the given event class.
+     * @param listenerClass The event class the listener was registered for
+     * @param eventClass The runtime class of the event that occurred
+     * @return True if the event class is the listener class or a subtype of it, false if otherwise
+     */
+    public static boolean isAssignable(Class<?> listenerClass, Class<?> eventClass) {
+        return listenerClass == eventClass || SUPERTYPES.get(eventClass).contains(listenerClass);
+    }
+
+    private static void collectSupertypes(Class<?> type, Set<Class<?>> supertypes) {
+        if (type == null || !supertypes.add(type))
+            return;
+        collectSupertypes(type.getSuperclass(), supertypes);
+        for (Class<?> anInterface : type.getInterfaces()) {
+            collectSupertypes(anInterface, supertypes);
+        }
+    }
+
+    //Copied from org.bukkit.plugin.SimplePluginManager#getRegistrationClass. Resolves getHandlerList for events, including those where getHandlerList is defined in a superclass (such as BlockBreakEvent)
+    private static Class<? extends Event> getRegistrationClass(Class<? extends Event> clazz) {
+        try {
+            clazz.getDeclaredMethod("getHandlerList");
+            return clazz;
+        } catch (NoSuchMethodException e) {
+            if (clazz.getSuperclass() != null
+                    && !clazz.getSuperclass().equals(Event.class)
+                    && Event.class.isAssignableFrom(clazz.getSuperclass())) {
+                return getRegistrationClass(clazz.getSuperclass().asSubclass(Event.class));
+            } else {
+                throw new IllegalPluginAccessException("Unable to find handler list for event '" + clazz.getName() + "'. Static getHandlerList method required!");
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.bukkit.manager.listener;
+
+import dev.magicmq.pyspigot.manager.script.Script;
+import org.bukkit.Location;
+import org.bukkit.event.Event;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.util.Vector;
+import org.python.core.Py;
+import org.python.core.PyDictionary;
+import org.python.core.PyString;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Captures snapshots of selected fields of an event, so that event data can be used after the event has finished firing.
+ * <p>
+ * Fields are resolved to public accessor methods once, when the snapshotter is created. A field name may be the name of
+ * the accessor itself (for example, {@code getTo}) or the name of the property (for example, {@code to}, which resolves to
+ * {@code getTo} or {@code isTo}). Mutable value types ({@link Location}, {@link ItemStack}, and {@link Vector}) are
+ * copied when captured. Collections, maps, and arrays (such as the drops of a death event or the recipients of a chat
+ * event) are copied into unmodifiable collections, with each element copied in the same way. Other values, such as
+ * entities, are captured by reference.
+ * <p>
+ * If an accessor throws, its value is captured as null, and the failure is logged to the script's logger the first time
+ * it happens for that field.
+ */
+public class EventSnapshotter {
+
+    private final Script script;
+    private final String[] fields;
+    private final Method[] accessors;
+    private final AtomicIntegerArray reported;
+
+    /**
+     *
+     * @param script The script the snapshots are captured for
+     * @param eventClass The Bukkit event to capture snapshots of
+     * @param fields The names of the fields to capture
+     * @throws IllegalArgumentException If a field does not exist on the event
+     */
+    public EventSnapshotter(Script script, Class<? extends Event> eventClass, String[] fields) {
+        this.script = script;
+        this.fields = fields;
+        this.accessors = new Method[fields.length];
+        this.reported = new AtomicIntegerArray(fields.length);
+        for (int i = 0; i < fields.length; i++) {
+            accessors[i] = resolveAccessor(eventClass, fields[i]);
+        }
+    }
+
+    /**
+     * Get the names of the fields captured by this snapshotter.
+     * @return An immutable list of field names
+     */
+    public List<String> getFields() {
+        return List.of(fields);
+    }
+
+    /**
+     * Capture the values of this snapshotter's fields from an event.
+     * @param event The event to capture
+     * @return The captured values, in the same order as the fields
+     */
+    public Object[] capture(Event event) {
+        Object[] values = new Object[accessors.length];
+        for (int i = 0; i < accessors.length; i++) {
+            try {
+                values[i] = copy(accessors[i].invoke(event));
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                values[i] = null;
+                if (reported.compareAndSet(i, 0, 1)) {
+                    Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+                    script.getLogger().error("Error when capturing field '" + fields[i] + "' of " + event.getEventName() + ", it will be captured as None", cause);
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Convert captured values to a Python dict of field name to value.
+     * @param values Values previously returned by {@link #capture(Event)}
+     * @return A new dict
+     */
+    public PyDictionary toDict(Object[] values) {
+        PyDictionary dict = new PyDictionary();
+        for (int i = 0; i < fields.length; i++) {
+            dict.__setitem__(new PyString(fields[i]), Py.java2py(values[i]));
+        }
+        return dict;
+    }
+
+    private static Object copy(Object value) {
+        if (value instanceof Location location)
+            return location.clone();
+        else if (value instanceof ItemStack itemStack)
+            return itemStack.clone();
+        else if (value instanceof Vector vector)
+            return vector.clone();
+        else if (value instanceof List<?> list)
+            return Collections.unmodifiableList(copyElements(list, new ArrayList<>(list.size())));
+        else if (value instanceof Set<?> set)
+            return Collections.unmodifiableSet(copyElements(set, new LinkedHashSet<>()));
+        else if (value instanceof Collection<?> collection)
+            return Collections.unmodifiableList(copyElements(collection, new ArrayList<>(collection.size())));
+        else if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                copy.put(copy(entry.getKey()), copy(entry.getValue()));
+            }
+            return Collections.unmodifiableMap(copy);
+        } else if (value instanceof Object[] array) {
+            List<Object> copy = new ArrayList<>(array.length);
+            for (Object element : array) {
+                copy.add(copy(element));
+            }
+            return Collections.unmodifiableList(copy);
+        } else
+            return value;
+    }
+
+    private static <C extends Collection<Object>> C copyElements(Collection<?> source, C target) {
+        for (Object element : source) {
+            target.add(copy(element));
+        }
+        return target;
+    }
+
+    private static Method resolveAccessor(Class<? extends Event> eventClass, String field) {
+        String capitalized = field.isEmpty() ? field : Character.toUpperCase(field.charAt(0)) + field.substring(1);
+        for (String name : new String[]{field, "get" + capitalized, "is" + capitalized}) {
+            try {
+                Method method = eventClass.getMethod(name);
+                if (method.getReturnType() != void.class)
+                    return method;
+            } catch (NoSuchMethodException ignored) {}
+        }
+        throw new IllegalArgumentException("Event '" + eventClass.getSimpleName() + "' has no accessor for field '" + field + "'");
+    }
+}
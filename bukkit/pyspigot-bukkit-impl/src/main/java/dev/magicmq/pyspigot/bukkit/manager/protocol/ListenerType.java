@@ -34,6 +34,11 @@ public enum ListenerType {
     /**
      * An asynchronous timeout listener.
      */
-    ASYNCHRONOUS_TIMEOUT
+    ASYNCHRONOUS_TIMEOUT,
+
+    /**
+     * A normal listener whose function is called on a PySpigot worker thread, in order per player.
+     */
+    ORDERED
 
 }
@@ -0,0 +1,314 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.bukkit.manager.protocol;
+
+import com.comphenix.protocol.PacketType;
+import com.comphenix.protocol.events.PacketContainer;
+import com.comphenix.protocol.injector.netty.WirePacket;
+import dev.magicmq.pyspigot.PyCore;
+import dev.magicmq.pyspigot.bukkit.util.SchedulerUtils;
+import dev.magicmq.pyspigot.manager.script.Script;
+import dev.magicmq.pyspigot.util.ScriptContext;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Queues outgoing packets per player and sends them once per tick, rather than each time a script sends a packet.
+ * <p>
+ * Queued packets are sent by a scheduler task, at the start of the next server tick (so up to one tick after they were
+ * queued), or earlier if {@link #flush()} is called. The task only runs while packets are queued. Packets queued by a
+ * script that is unloaded before they are sent are discarded.
+ * <p>
+ * On versions that support bundle packets (1.19.4 and above), each player's queued packets are sent as bundles, so the
+ * client applies them together and the server writes them to the connection in one flush. On older versions, queued
+ * packets are sent individually. A packet queued for many players is queued as the same instance, so it is only
+ * constructed once regardless of the number of recipients.
+ * <p>
+ * For packets that are sent unchanged to many players, {@link #serialize(PacketContainer)} encodes a packet into its wire
+ * format once, and the encoded bytes can then be written directly to any number of connections.
+ */
+public class PacketBatcher {
+
+    //The client rejects bundles containing more packets than this
+    private static final int MAX_BUNDLE_SIZE = 4096;
+
+    private final com.comphenix.protocol.ProtocolManager protocolManager;
+    private final boolean bundlesSupported;
+    private final Map<Player, Queue<QueuedPacket>> queues;
+    private final LongAdder packetsSent;
+    private final LongAdder bundlesSent;
+    private final LongAdder serializedPacketsSent;
+    private final LongAdder serializedBytesSent;
+    private final LongAdder flushes;
+    private final LongAdder flushNanos;
+    private final AtomicLong maxFlushNanos;
+
+    private SchedulerUtils.TaskHandle flushTask;
+
+    protected PacketBatcher(com.comphenix.protocol.ProtocolManager protocolManager) {
+        this.protocolManager = protocolManager;
+        this.bundlesSupported = PacketType.Play.Server.BUNDLE.isSupported();
+        this.queues = new ConcurrentHashMap<>();
+        this.packetsSent = new LongAdder();
+        this.bundlesSent = new LongAdder();
+        this.serializedPacketsSent = new LongAdder();
+        this.serializedBytesSent = new LongAdder();
+        this.flushes = new LongAdder();
+        this.flushNanos = new LongAdder();
+        this.maxFlushNanos = new AtomicLong();
+    }
+
+    /**
+     * Queue a packet to be sent to a player at the start of the next tick.
+     * @param player The player to send the packet to
+     * @param packet The packet to send
+     */
+    public void queue(Player player, PacketContainer packet) {
+        QueuedPacket queued = new QueuedPacket(ScriptContext.current(), packet);
+        queues.computeIfAbsent(player, p -> new ConcurrentLinkedQueue<>()).add(queued);
+        ensureFlushTask();
+    }
+
+    /**
+     * Queue a packet to be sent to several players at the start of the next tick. The same packet instance is sent to every player.
+     * @param players The players to send the packet to
+     * @param packet The packet to send
+     */
+    public void queue(Collection<? extends Player> players, PacketContainer packet) {
+        QueuedPacket queued = new QueuedPacket(ScriptContext.current(), packet);
+        for (Player player : players) {
+            queues.computeIfAbsent(player, p -> new ConcurrentLinkedQueue<>()).add(queued);
+        }
+        ensureFlushTask();
+    }
+
+    /**
+     * Discard all queued packets that were queued by a script, so that they are not sent after the script is unloaded.
+     * <p>
+     * <b>Note:</b> This should be called from Java only, when a script is unloaded.
+     * @param script The script whose queued packets should be discarded
+     */
+    public void discard(Script script) {
+        for (Queue<QueuedPacket> queue : queues.values()) {
+            queue.removeIf(queued -> queued.script() == script);
+        }
+    }
+
+    /**
+     * Encode a packet into its wire format, so that it can be sent to many players without being encoded again for each one.
+     * <p>
+     * Serialized packets are written directly to the connection. They bypass packet listeners, and are encoded for the
+     * server's protocol version, so they should not be sent to clients connected through a protocol translation plugin.
+     * @param packet The packet to encode
+     * @return The encoded packet
+     */
+    public WirePacket serialize(PacketContainer packet) {
+        return WirePacket.fromPacket(packet);
+    }
+
+    /**
+     * Write a serialized packet to a player's connection immediately.
+     * @param player The player to send the packet to
+     * @param packet The serialized packet
+     */
+    public void send(Player player, WirePacket packet) {
+        protocolManager.sendWirePacket(player, packet);
+        serializedPacketsSent.increment();
+        serializedBytesSent.add(packet.getBytes().length);
+    }
+
+    /**
+     * Write a serialized packet to several players' connections immediately.
+     * @param players The players to send the packet to
+     * @param packet The serialized packet
+     */
+    public void send(Collection<? extends Player> players, WirePacket packet) {
+        int size = packet.getBytes().length;
+        for (Player player : players) {
+            protocolManager.sendWirePacket(player, packet);
+            serializedPacketsSent.increment();
+            serializedBytesSent.add(size);
+        }
+    }
+
+    /**
+     * Send all queued packets immediately, rather than waiting for the next tick.
+     */
+    public void flush() {
+        if (queues.isEmpty()) {
+            stopFlushTaskIfIdle();
+            return;
+        }
+
+        long start = System.nanoTime();
+        for (Map.Entry<Player, Queue<QueuedPacket>> entry : queues.entrySet()) {
+            Player player = entry.getKey();
+            Queue<QueuedPacket> queue = entry.getValue();
+            if (!player.isOnline()) {
+                queues.remove(player, queue);
+                continue;
+            }
+
+            List<PacketContainer> packets = new ArrayList<>(queue.size());
+            QueuedPacket queued;
+            while ((queued = queue.poll()) != null) {
+                packets.add(queued.packet());
+            }
+            if (packets.isEmpty()) {
+                //Only remove idle queues, so that a packet queued concurrently is not lost
+                queues.remove(player, queue);
+                continue;
+            }
+
+            try {
+                send(player, packets);
+            } catch (RuntimeException e) {
+                PyCore.get().getLogger().error("Unhandled exception when sending queued packets to '{}'", player.getName(), e);
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        flushes.increment();
+        flushNanos.add(elapsed);
+        maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+    }
+
+    /**
+     * Get whether queued packets are sent as bundles on this server version.
+     * @return True if bundle packets are supported, false if otherwise
+     */
+    public boolean isBundlesSupported() {
+        return bundlesSupported;
+    }
+
+    /**
+     * Get the number of packets currently queued, across all players.
+     * @return The number of queued packets
+     */
+    public int getQueuedCount() {
+        int count = 0;
+        for (Queue<QueuedPacket> queue : queues.values()) {
+            count += queue.size();
+        }
+        return count;
+    }
+
+    /**
+     * Get the number of queued packets that have been sent, not counting the bundle packets that contained them.
+     * @return The number of packets sent
+     */
+    public long getPacketsSent() {
+        return packetsSent.sum();
+    }
+
+    /**
+     * Get the number of bundle packets that have been sent.
+     * @return The number of bundles sent
+     */
+    public long getBundlesSent() {
+        return bundlesSent.sum();
+    }
+
+    /**
+     * Get the number of serialized packets that have been written to connections.
+     * @return The number of serialized packets sent
+     */
+    public long getSerializedPacketsSent() {
+        return serializedPacketsSent.sum();
+    }
+
+    /**
+     * Get the number of bytes written to connections by serialized packets. Queued packets are encoded by the server, so their size is not known and is not included.
+     * @return The number of bytes sent
+     */
+    public long getSerializedBytesSent() {
+        return serializedBytesSent.sum();
+    }
+
+    /**
+     * Get the average time taken to send all queued packets in one flush.
+     * @return The average flush time, in milliseconds
+     */
+    public double getAverageFlushTime() {
+        long count = flushes.sum();
+        return count > 0 ? toMillis(flushNanos.sum()) / count : 0;
+    }
+
+    /**
+     * Get the longest time taken to send all queued packets in one flush.
+     * @return The maximum flush time, in milliseconds
+     */
+    public double getMaxFlushTime() {
+        return toMillis(maxFlushNanos.get());
+    }
+
+    /**
+     * Prints a representation of this PacketBatcher in string format, including packet and flush statistics
+     * @return A string representation of the PacketBatcher
+     */
+    @Override
+    public String toString() {
+        return String.format("PacketBatcher[Bundles: %b, Queued: %d, Packets Sent: %d, Bundles Sent: %d, Serialized Sent: %d, Serialized Bytes: %d, Avg Flush: %.2fms, Max Flush: %.2fms]",
+                bundlesSupported, getQueuedCount(), getPacketsSent(), getBundlesSent(), getSerializedPacketsSent(), getSerializedBytesSent(), getAverageFlushTime(), getMaxFlushTime());
+    }
+
+    private void send(Player player, List<PacketContainer> packets) {
+        if (packets.size() == 1 || !bundlesSupported) {
+            for (PacketContainer packet : packets) {
+                protocolManager.sendServerPacket(player, packet);
+            }
+        } else {
+            for (int i = 0; i < packets.size(); i += MAX_BUNDLE_SIZE) {
+                List<PacketContainer> contents = packets.subList(i, Math.min(i + MAX_BUNDLE_SIZE, packets.size()));
+                PacketContainer bundle = protocolManager.createPacket(PacketType.Play.Server.BUNDLE);
+                bundle.getPacketBundles().write(0, new ArrayList<>(contents));
+                protocolManager.sendServerPacket(player, bundle);
+                bundlesSent.increment();
+            }
+        }
+        packetsSent.add(packets.size());
+    }
+
+    private synchronized void ensureFlushTask() {
+        if (flushTask == null)
+            flushTask = SchedulerUtils.runTimer(this::flush, 1L, 1L);
+    }
+
+    private synchronized void stopFlushTaskIfIdle() {
+        //Checked under the same lock as ensureFlushTask, so a packet queued concurrently always restarts the task
+        if (queues.isEmpty() && flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private record QueuedPacket(Script script, PacketContainer packet) {}
+}
@@ -20,8 +20,11 @@ import com.comphenix.protocol.PacketType;
 import com.comphenix.protocol.events.ListenerPriority;
 import com.comphenix.protocol.events.PacketEvent;
 import dev.magicmq.pyspigot.manager.script.Script;
+import dev.magicmq.pyspigot.util.OrderedExecutor;
 import org.python.core.PyFunction;
 
+import java.util.function.Predicate;
+
 /**
  * A listener that listens for packets sent by the server to the client.
  * @see ScriptPacketListener
@@ -40,6 +43,19 @@ public class PacketSendingListener extends ScriptPacketListener {
         super(script, function, packetType, listenerPriority, listenerType);
     }
 
+    /**
+     *
+     * @param script The script associated with this packet listener
+     * @param function The function to be called with a copy of the packet when it is sent, on a PySpigot worker thread
+     * @param packetType The packet type to listen for
+     * @param listenerPriority The {@link com.comphenix.protocol.events.ListenerPriority} of this listener
+     * @param cancelIf A predicate evaluated on the network thread that decides whether the packet should be cancelled, or null to never cancel the packet
+     * @param executor The executor to call the function on
+     */
+    public PacketSendingListener(Script script, PyFunction function, PacketType packetType, ListenerPriority listenerPriority, Predicate<PacketEvent> cancelIf, OrderedExecutor executor) {
+        super(script, function, packetType, listenerPriority, cancelIf, executor);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,139 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.bukkit.manager.protocol;
+
+import com.comphenix.protocol.PacketType;
+import com.comphenix.protocol.events.PacketContainer;
+import dev.magicmq.pyspigot.manager.script.Script;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A named, pre-populated packet registered by a script, from which new packets can be produced by cloning rather than being
+ * built and populated from scratch.
+ * <p>
+ * A shallow copy creates a new packet whose fields refer to the same values as the template. Overwriting a field of a
+ * shallow copy does not affect the template, but modifying a mutable value held in a field (for example, adding to a list
+ * of entity metadata) does. Use a deep copy if mutable values will be modified.
+ */
+public class PacketTemplate {
+
+    private final Script script;
+    private final String name;
+    private final PacketContainer packet;
+    private final LongAdder shallowCopies;
+    private final LongAdder deepCopies;
+    private final LongAdder copyNanos;
+
+    /**
+     *
+     * @param script The script that registered this template
+     * @param name The name of this template
+     * @param packet The packet to use as the template. A deep copy of the packet is taken, so later changes to it do not affect the template
+     */
+    public PacketTemplate(Script script, String name, PacketContainer packet) {
+        this.script = script;
+        this.name = name;
+        this.packet = packet.deepClone();
+        this.shallowCopies = new LongAdder();
+        this.deepCopies = new LongAdder();
+        this.copyNanos = new LongAdder();
+    }
+
+    /**
+     * Get the script that registered this template.
+     * @return The script
+     */
+    public Script getScript() {
+        return script;
+    }
+
+    /**
+     * Get the name of this template.
+     * @return The name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the packet type of this template.
+     * @return The packet type
+     */
+    public PacketType getPacketType() {
+        return packet.getType();
+    }
+
+    /**
+     * Create a new packet from this template that shares the template's field values.
+     * @return A shallow copy of the template
+     */
+    public PacketContainer shallowCopy() {
+        long start = System.nanoTime();
+        PacketContainer copy = packet.shallowClone();
+        copyNanos.add(System.nanoTime() - start);
+        shallowCopies.increment();
+        return copy;
+    }
+
+    /**
+     * Create a new packet from this template that has its own copy of every field value.
+     * @return A deep copy of the template
+     */
+    public PacketContainer deepCopy() {
+        long start = System.nanoTime();
+        PacketContainer copy = packet.deepClone();
+        copyNanos.add(System.nanoTime() - start);
+        deepCopies.increment();
+        return copy;
+    }
+
+    /**
+     * Get the number of shallow copies created from this template.
+     * @return The number of shallow copies
+     */
+    public long getShallowCopyCount() {
+        return shallowCopies.sum();
+    }
+
+    /**
+     * Get the number of deep copies created from this template.
+     * @return The number of deep copies
+     */
+    public long getDeepCopyCount() {
+        return deepCopies.sum();
+    }
+
+    /**
+     * Get the average time taken to create a copy of this template, across shallow and deep copies.
+     * @return The average copy time, in microseconds
+     */
+    public double getAverageCopyTime() {
+        long count = shallowCopies.sum() + deepCopies.sum();
+        return count > 0 ? copyNanos.sum() / (double) TimeUnit.MICROSECONDS.toNanos(1) / count : 0;
+    }
+
+    /**
+     * Prints a representation of this PacketTemplate in string format, including the packet type and usage statistics
+     * @return A string representation of the PacketTemplate
+     */
+    @Override
+    public String toString() {
+        return String.format("PacketTemplate[Name: %s, Packet Type: %s, Shallow Copies: %d, Deep Copies: %d, Avg Copy: %.2fus]", name, packet.getType(), getShallowCopyCount(), getDeepCopyCount(), getAverageCopyTime());
+    }
+}
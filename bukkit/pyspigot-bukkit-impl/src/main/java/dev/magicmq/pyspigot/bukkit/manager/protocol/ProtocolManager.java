@@ -20,9 +20,13 @@ import com.comphenix.protocol.PacketType;
 import com.comphenix.protocol.ProtocolLibrary;
 import com.comphenix.protocol.events.ListenerPriority;
 import com.comphenix.protocol.events.PacketContainer;
+import com.comphenix.protocol.events.PacketEvent;
+import dev.magicmq.pyspigot.PyCore;
 import dev.magicmq.pyspigot.exception.ScriptRuntimeException;
 import dev.magicmq.pyspigot.manager.script.Script;
+import dev.magicmq.pyspigot.util.OrderedExecutor;
 import dev.magicmq.pyspigot.util.ScriptContext;
+import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
@@ -32,6 +36,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
 
 /**
  * Manager to interface with ProtocolLib's ProtocolManager. Primarily used by scripts to register and unregister packet listeners on Bukkit/Minecraft.
@@ -45,12 +51,18 @@ public class ProtocolManager {
 
     private final com.comphenix.protocol.ProtocolManager protocolManager;
     private final AsyncProtocolManager asyncProtocolManager;
+    private final PacketBatcher packetBatcher;
     private final HashMap<Script, List<ScriptPacketListener>> registeredListeners;
+    private final HashMap<Script, OrderedExecutor> orderedExecutors;
+    private final HashMap<Script, Map<String, PacketTemplate>> templates;
 
     private ProtocolManager() {
         protocolManager = ProtocolLibrary.getProtocolManager();
         asyncProtocolManager = new AsyncProtocolManager();
+        packetBatcher = new PacketBatcher(protocolManager);
         registeredListeners = new HashMap<>();
+        orderedExecutors = new HashMap<>();
+        templates = new HashMap<>();
     }
 
     /**
@@ -69,6 +81,14 @@ public class ProtocolManager {
         return asyncProtocolManager;
     }
 
+    /**
+     * Get the packet batcher for queueing packets to be sent at the start of the next tick.
+     * @return The {@link PacketBatcher}
+     */
+    public PacketBatcher batcher() {
+        return packetBatcher;
+    }
+
     /**
      * Register a new packet listener with default priority.
      * <p>
@@ -110,6 +130,40 @@ public class ProtocolManager {
         return listener;
     }
 
+    /**
+     * Register a new ordered packet listener, whose function is called on a PySpigot worker thread instead of the server's network thread.
+     * <p>
+     * The function is called with a deep copy of the packet and the player, on the script's {@link OrderedExecutor}. Packets from the same player are passed to the function in order. Changes made to the copy are not written back to the packet.
+     * <p>
+     * Because the function runs after the packet has been processed, it cannot cancel the packet. If cancelIf is provided, it is evaluated on the network thread before the packet is queued, and the packet is cancelled if it returns true. It should be fast and must not block.
+     * <p>
+     * If the script's queue is full (see the {@code listener-options.async-queue-limit} config option), further packets are still processed by the server, but are not passed to the function.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param function The function that should be called when the packet event occurs
+     * @param type The packet type to listen for
+     * @param priority The priority of the packet listener relative to other packet listeners
+     * @param cancelIf A predicate that decides whether the packet should be cancelled, or null to never cancel the packet
+     * @return A {@link ScriptPacketListener} representing the packet listener that was registered
+     */
+    public ScriptPacketListener registerOrderedPacketListener(PyFunction function, PacketType type, ListenerPriority priority, Predicate<PacketEvent> cancelIf) {
+        Script script = ScriptContext.require();
+
+        OrderedExecutor executor = orderedExecutors.computeIfAbsent(script, s -> new OrderedExecutor(s.getName(), PyCore.get().getConfig().asyncListenerQueueLimit()));
+
+        ScriptPacketListener listener = null;
+        if (type.getSender() == PacketType.Sender.CLIENT) {
+            listener = new PacketReceivingListener(script, function, type, priority, cancelIf, executor);
+            addPacketListener(listener);
+            protocolManager.addPacketListener(listener);
+        } else if (type.getSender() == PacketType.Sender.SERVER) {
+            listener = new PacketSendingListener(script, function, type, priority, cancelIf, executor);
+            addPacketListener(listener);
+            protocolManager.addPacketListener(listener);
+        }
+        return listener;
+    }
+
     /**
      * Unregister a packet listener.
      * <p>
@@ -155,7 +209,8 @@ public class ProtocolManager {
     }
 
     /**
-     * Unregister all normal packet listeners belonging to a script, excluding asynchronous packet listeners.
+     * Unregister all normal packet listeners belonging to a script, excluding asynchronous packet listeners. Packets the
+     * script queued with the {@link PacketBatcher} that have not been sent yet are discarded.
      * <p>
      * Use {@link AsyncProtocolManager#unregisterAsyncPacketListeners(Script)} to unregister asynchronous packet listeners.
      * @param script The script whose normal packet listeners should be unregistered
@@ -165,6 +220,22 @@ public class ProtocolManager {
             protocolManager.removePacketListener(listener);
         }
         registeredListeners.remove(script);
+
+        OrderedExecutor executor = orderedExecutors.remove(script);
+        if (executor != null)
+            executor.shutdown();
+
+        templates.remove(script);
+        packetBatcher.discard(script);
+    }
+
+    /**
+     * Get the executor that ordered packet listeners belonging to a script run on, which reports the script's queue statistics.
+     * @param script The script
+     * @return The executor, or null if the script has not registered any ordered packet listeners
+     */
+    public OrderedExecutor getOrderedExecutor(Script script) {
+        return orderedExecutors.get(script);
     }
 
     /**
@@ -209,6 +280,94 @@ public class ProtocolManager {
         return protocolManager.createPacket(type, true);
     }
 
+    /**
+     * Register a packet as a named template, from which packets can later be produced by cloning with {@link #fromTemplate(String)}.
+     * <p>
+     * Build and populate the packet once, with the fields that are the same for every send, then register it. Each later send clones the template and only overwrites the fields that vary. Templates are removed when the script is unloaded.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param name The name of the template, unique within the script. Registering a template with an existing name replaces it
+     * @param packet The populated packet. A copy is taken, so later changes to the packet do not affect the template
+     * @return A {@link PacketTemplate} representing the template that was registered
+     */
+    public PacketTemplate registerTemplate(String name, PacketContainer packet) {
+        Script script = ScriptContext.require();
+
+        PacketTemplate template = new PacketTemplate(script, name, packet);
+        templates.computeIfAbsent(script, s -> new HashMap<>()).put(name, template);
+        return template;
+    }
+
+    /**
+     * Unregister a packet template.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param name The name of the template to unregister
+     */
+    public void unregisterTemplate(String name) {
+        Script script = ScriptContext.require();
+
+        Map<String, PacketTemplate> scriptTemplates = templates.get(script);
+        if (scriptTemplates != null) {
+            scriptTemplates.remove(name);
+            if (scriptTemplates.isEmpty())
+                templates.remove(script);
+        }
+    }
+
+    /**
+     * Get a packet template registered by the calling script.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param name The name of the template
+     * @return The {@link PacketTemplate}, or null if no template with the name is registered
+     */
+    public PacketTemplate getTemplate(String name) {
+        Script script = ScriptContext.require();
+
+        Map<String, PacketTemplate> scriptTemplates = templates.get(script);
+        return scriptTemplates != null ? scriptTemplates.get(name) : null;
+    }
+
+    /**
+     * Create a new packet as a shallow copy of a packet template registered by the calling script.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @see PacketTemplate#shallowCopy()
+     * @param name The name of the template
+     * @return A new {@link com.comphenix.protocol.events.PacketContainer} copied from the template
+     * @throws ScriptRuntimeException If no template with the name is registered
+     */
+    public PacketContainer fromTemplate(String name) {
+        return fromTemplate(name, false);
+    }
+
+    /**
+     * Create a new packet as a copy of a packet template registered by the calling script.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param name The name of the template
+     * @param deep True to create a deep copy, which should be used if mutable field values will be modified. False to create a cheaper shallow copy
+     * @return A new {@link com.comphenix.protocol.events.PacketContainer} copied from the template
+     * @throws ScriptRuntimeException If no template with the name is registered
+     */
+    public PacketContainer fromTemplate(String name, boolean deep) {
+        PacketTemplate template = getTemplate(name);
+        if (template == null)
+            throw new ScriptRuntimeException(ScriptContext.require(), "No packet template named '" + name + "' is registered");
+        return deep ? template.deepCopy() : template.shallowCopy();
+    }
+
+    /**
+     * Get all packet templates registered by a script.
+     * @param script The script
+     * @return An immutable list of {@link PacketTemplate} registered by the script. Will return an empty list if the script has not registered any templates
+     */
+    public List<PacketTemplate> getTemplates(Script script) {
+        Map<String, PacketTemplate> scriptTemplates = templates.get(script);
+        return scriptTemplates != null ? List.copyOf(scriptTemplates.values()) : List.of();
+    }
+
     /**
      * Send a packet to a player.
      * <p>
@@ -279,6 +438,56 @@ public class ProtocolManager {
         protocolManager.broadcastServerPacket(packet, targetPlayers);
     }
 
+    /**
+     * Queue a packet to be sent to a player at the start of the next tick. Queued packets are sent together, as a bundle where the server version supports it.
+     * <p>
+     * Prefer this over {@link #sendServerPacket(Player, PacketContainer)} when sending many packets to the same player in one tick.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @see PacketBatcher
+     * @param player The player to send the packet to
+     * @param packet The packet to send
+     */
+    public void queueServerPacket(Player player, PacketContainer packet) {
+        packetBatcher.queue(player, packet);
+    }
+
+    /**
+     * Queue a packet to be broadcast to the entire server at the start of the next tick. The packet will be sent to all players online at the time it is queued.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @see PacketBatcher
+     * @param packet The packet to broadcast
+     */
+    public void queueBroadcastServerPacket(PacketContainer packet) {
+        packetBatcher.queue(Bukkit.getOnlinePlayers(), packet);
+    }
+
+    /**
+     * Queue a packet to be broadcast to a specified list of players at the start of the next tick.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @see PacketBatcher
+     * @param packet The packet to broadcast
+     * @param targetPlayers The list of players to which the packet should be broadcasted
+     */
+    public void queueBroadcastServerPacket(PacketContainer packet, Collection<? extends Player> targetPlayers) {
+        packetBatcher.queue(targetPlayers, packet);
+    }
+
+    /**
+     * Encode a packet once and immediately write the encoded bytes to a specified list of players.
+     * <p>
+     * The packet bypasses packet listeners and is encoded for the server's protocol version. See {@link PacketBatcher#serialize(PacketContainer)}.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param packet The packet to broadcast
+     * @param targetPlayers The list of players to which the packet should be broadcasted
+     */
+    public void broadcastSerializedServerPacket(PacketContainer packet, Collection<? extends Player> targetPlayers) {
+        packetBatcher.send(targetPlayers, packetBatcher.serialize(packet));
+    }
+
     private void addPacketListener(ScriptPacketListener listener) {
         Script script = listener.getScript();
         if (registeredListeners.containsKey(script))
@@ -19,19 +19,33 @@ package dev.magicmq.pyspigot.bukkit.manager.protocol;
 import com.comphenix.protocol.PacketType;
 import com.comphenix.protocol.events.ListenerPriority;
 import com.comphenix.protocol.events.PacketAdapter;
+import com.comphenix.protocol.events.PacketContainer;
 import com.comphenix.protocol.events.PacketEvent;
 import dev.magicmq.pyspigot.bukkit.PySpigot;
+import dev.magicmq.pyspigot.manager.packet.PacketDirection;
+import dev.magicmq.pyspigot.manager.packet.PacketMetrics;
+import dev.magicmq.pyspigot.manager.packet.PacketMetricsManager;
 import dev.magicmq.pyspigot.manager.script.Script;
 import dev.magicmq.pyspigot.manager.script.ScriptManager;
+import dev.magicmq.pyspigot.util.OrderedExecutor;
 import dev.magicmq.pyspigot.util.ScriptContext;
+import org.bukkit.entity.Player;
 import org.python.core.Py;
 import org.python.core.PyException;
 import org.python.core.PyFunction;
 import org.python.core.PyObject;
 import org.python.core.ThreadState;
 
+import java.util.function.Predicate;
+
 /**
  * An abstract class designed to represent a basic script packet listener.
+ * <p>
+ * Listeners of type {@link ListenerType#ORDERED} do not call the script function on the thread that handles the packet.
+ * Instead, a copy of the packet is passed to the function on a PySpigot worker thread, via the script's
+ * {@link OrderedExecutor}, so that packets from the same player are handled in order and a slow function does not delay
+ * the server's network threads. Ordered listeners cannot modify or cancel the packet; the decision to cancel is made on the
+ * network thread by an optional Java predicate.
  * @see com.comphenix.protocol.events.PacketAdapter
  */
 public abstract class ScriptPacketListener extends PacketAdapter {
@@ -40,6 +54,9 @@ public abstract class ScriptPacketListener extends PacketAdapter {
     private final PyFunction function;
     private final PacketType packetType;
     private final ListenerType listenerType;
+    private final Predicate<PacketEvent> cancelIf;
+    private final OrderedExecutor executor;
+    private final PacketMetrics metrics;
 
     /**
      *
@@ -50,11 +67,31 @@ public abstract class ScriptPacketListener extends PacketAdapter {
      * @param listenerType The {@link ListenerType} of this listener
      */
     public ScriptPacketListener(Script script, PyFunction function, PacketType packetType, ListenerPriority listenerPriority, ListenerType listenerType) {
+        this(script, function, packetType, listenerPriority, listenerType, null, null);
+    }
+
+    /**
+     *
+     * @param script The script associated with this packet listener
+     * @param function The function to be called with a copy of the packet, on a PySpigot worker thread
+     * @param packetType The packet type to listen for
+     * @param listenerPriority The {@link com.comphenix.protocol.events.ListenerPriority} of this listener
+     * @param cancelIf A predicate evaluated on the network thread, before the function is called, that decides whether the packet should be cancelled. Pass null to never cancel the packet
+     * @param executor The executor to call the function on
+     */
+    public ScriptPacketListener(Script script, PyFunction function, PacketType packetType, ListenerPriority listenerPriority, Predicate<PacketEvent> cancelIf, OrderedExecutor executor) {
+        this(script, function, packetType, listenerPriority, ListenerType.ORDERED, cancelIf, executor);
+    }
+
+    private ScriptPacketListener(Script script, PyFunction function, PacketType packetType, ListenerPriority listenerPriority, ListenerType listenerType, Predicate<PacketEvent> cancelIf, OrderedExecutor executor) {
         super(PySpigot.get().getPlugin(), listenerPriority, packetType);
         this.script = script;
         this.function = function;
         this.packetType = packetType;
         this.listenerType = listenerType;
+        this.cancelIf = cancelIf;
+        this.executor = executor;
+        this.metrics = PacketMetricsManager.get().getOrCreate(script, packetType.name(), packetType.getSender() == PacketType.Sender.CLIENT ? PacketDirection.INBOUND : PacketDirection.OUTBOUND);
     }
 
     /**
@@ -89,11 +126,38 @@ public abstract class ScriptPacketListener extends PacketAdapter {
         return listenerType;
     }
 
+    /**
+     * Get the traffic metrics this listener records into, which are shared with the script's other listeners for the same packet type.
+     * @return The metrics
+     */
+    public PacketMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Get the executor this listener calls its function on.
+     * @return The executor, or null if this listener is not of type {@link ListenerType#ORDERED}
+     */
+    public OrderedExecutor getExecutor() {
+        return executor;
+    }
+
     /**
      * A helper method to call a script's packet listener function when the packet event occurs.
      * @param event The event that occurred, will be passed to the script's function
      */
     public void callToScript(PacketEvent event) {
+        long start = System.nanoTime();
+        boolean wasCancelled = event.isCancelled();
+        Object handle = event.getPacket().getHandle();
+        if (executor != null)
+            submitToScript(event);
+        else
+            callFunction(event);
+        metrics.record(System.nanoTime() - start, !wasCancelled && event.isCancelled(), event.getPacket().getHandle() != handle);
+    }
+
+    private void callFunction(PacketEvent event) {
         try {
             Py.setSystemState(script.getInterpreter().getSystemState());
             ThreadState threadState = Py.getThreadState(script.getInterpreter().getSystemState());
@@ -104,12 +168,39 @@ public abstract class ScriptPacketListener extends PacketAdapter {
         }
     }
 
+    private void submitToScript(PacketEvent event) {
+        if (cancelIf != null && cancelIf.test(event))
+            event.setCancelled(true);
+
+        //The event's packet may be modified or reused by the server once this method returns, so pass a copy. The copy is
+        //only made if there is room in the queue for it
+        Player player = event.getPlayer();
+        executor.submitLazily(player, () -> {
+            PacketContainer packet = event.getPacket().deepClone();
+            return () -> deliver(packet, player);
+        });
+    }
+
+    private void deliver(PacketContainer packet, Player player) {
+        try {
+            Py.setSystemState(script.getInterpreter().getSystemState());
+            ThreadState threadState = Py.getThreadState(script.getInterpreter().getSystemState());
+            PyObject[] parameters = Py.javas2pys(packet, player);
+            ScriptContext.runWith(script, () -> function.__call__(threadState, parameters[0], parameters[1]));
+        } catch (PyException exception) {
+            ScriptManager.get().handleScriptException(script, exception, "Error when calling ordered packet listener");
+        }
+    }
+
     /**
      * Prints a representation of this ScriptPacketListener in string format, including the packet type listened to by the listener
      * @return A string representation of the ScriptPacketListener
      */
     @Override
     public String toString() {
-        return String.format("ScriptPacketListener[Packet Type: %s]", packetType.toString());
+        if (executor != null)
+            return String.format("ScriptPacketListener[Packet Type: %s, Ordered: true, Queued: %d]", packetType.toString(), executor.getQueueDepth());
+        else
+            return String.format("ScriptPacketListener[Packet Type: %s]", packetType.toString());
     }
 }
@@ -22,6 +22,7 @@ import dev.magicmq.pyspigot.bukkit.manager.placeholder.PlaceholderManager;
 import dev.magicmq.pyspigot.bukkit.manager.protocol.ProtocolManager;
 import dev.magicmq.pyspigot.manager.script.Script;
 import dev.magicmq.pyspigot.manager.script.ScriptInfo;
+import dev.magicmq.pyspigot.util.OrderedExecutor;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.format.NamedTextColor;
@@ -52,12 +53,25 @@ public class BukkitScriptInfo extends ScriptInfo {
             appendTo.append(Component.text().append(Component.text("Listening to packet types (ProtocolLib): ", NamedTextColor.GOLD)).append(Component.text(packetTypes.toString())));
             appendTo.appendNewline();
 
+            OrderedExecutor orderedExecutor = ProtocolManager.get().getOrderedExecutor(script);
+            if (orderedExecutor != null) {
+                appendTo.append(Component.text().append(Component.text("Ordered packet queue (ProtocolLib): ", NamedTextColor.GOLD)).append(Component.text(orderedExecutor.toString())));
+                appendTo.appendNewline();
+            }
+
             List<String> packetTypesAsync = ProtocolManager.get().asyncManager().getAsyncPacketListeners(script)
                     .stream()
                     .map(Object::toString)
                     .toList();
             appendTo.append(Component.text().append(Component.text("Listening to packet types (async, ProtocolLib): ", NamedTextColor.GOLD)).append(Component.text(packetTypesAsync.toString())));
             appendTo.appendNewline();
+
+            List<String> templates = ProtocolManager.get().getTemplates(script)
+                    .stream()
+                    .map(Object::toString)
+                    .toList();
+            appendTo.append(Component.text().append(Component.text("Packet templates (ProtocolLib): ", NamedTextColor.GOLD)).append(Component.text(templates.toString())));
+            appendTo.appendNewline();
         }
 
         List<String> pluginMessageListeners = PluginMessageManager.get().getListeners(script)
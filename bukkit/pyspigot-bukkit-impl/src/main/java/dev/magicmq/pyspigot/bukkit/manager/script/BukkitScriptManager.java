@@ -25,12 +25,12 @@ import dev.magicmq.pyspigot.bukkit.event.ScriptUnloadEvent;
 import dev.magicmq.pyspigot.bukkit.manager.messaging.PluginMessageManager;
 import dev.magicmq.pyspigot.bukkit.manager.placeholder.PlaceholderManager;
 import dev.magicmq.pyspigot.bukkit.manager.protocol.ProtocolManager;
+import dev.magicmq.pyspigot.bukkit.util.SchedulerUtils;
 import dev.magicmq.pyspigot.manager.script.Script;
 import dev.magicmq.pyspigot.manager.script.ScriptManager;
 import dev.magicmq.pyspigot.manager.script.ScriptOptions;
 import dev.magicmq.pyspigot.manager.script.ScriptLoadService;
 import org.bukkit.Bukkit;
-import org.bukkit.scheduler.BukkitTask;
 import org.python.core.PyException;
 
 import java.nio.file.Path;
@@ -42,8 +42,8 @@ public class BukkitScriptManager extends ScriptManager {
 
     private static BukkitScriptManager instance;
 
-    private BukkitTask startScriptTask;
-    private BukkitTask scriptLoadService;
+    private SchedulerUtils.TaskHandle startScriptTask;
+    private SchedulerUtils.TaskHandle scriptLoadService;
 
     private BukkitScriptManager() {
         super(new BukkitScriptInfo());
@@ -51,7 +51,7 @@ public class BukkitScriptManager extends ScriptManager {
 
     @Override
     protected void scheduleStartScriptTask() {
-        startScriptTask = Bukkit.getScheduler().runTaskLater(PySpigot.get().getPlugin(), () -> this.loadScripts(), PyCore.get().getConfig().getScriptLoadDelay());
+        startScriptTask = SchedulerUtils.runLater(() -> this.loadScripts(), PyCore.get().getConfig().getScriptLoadDelay());
     }
 
     @Override
@@ -63,7 +63,7 @@ public class BukkitScriptManager extends ScriptManager {
 
     @Override
     protected void scheduleScriptLoadService(ScriptLoadService service) {
-        scriptLoadService = Bukkit.getScheduler().runTaskTimer(PySpigot.get().getPlugin(), service, 0L, 1L);
+        scriptLoadService = SchedulerUtils.runTimer(service, 0L, 1L);
     }
 
     @Override
@@ -80,6 +80,7 @@ public class BukkitScriptManager extends ScriptManager {
 
     @Override
     protected boolean callScriptExceptionEvent(Script script, PyException exception) {
+        //On Folia, isPrimaryThread reports whether the current thread is any region's tick thread, so events fired from region threads are correctly marked synchronous
         ScriptExceptionEvent event = new ScriptExceptionEvent(script, exception, !Bukkit.isPrimaryThread());
         Bukkit.getPluginManager().callEvent(event);
         return event.doReportException();
@@ -141,10 +142,8 @@ public class BukkitScriptManager extends ScriptManager {
 
     @Override
     protected void unloadScriptOnMainThread(Script script, boolean error) {
-        if (!Bukkit.isPrimaryThread())
-            Bukkit.getScheduler().runTask(PySpigot.get().getPlugin(), () -> unloadScript(script, error));
-        else
-            unloadScript(script, error);
+        //On Folia, unloading touches server-wide state (commands, listeners), so it must happen on the global region thread
+        SchedulerUtils.runOnGlobalThread(() -> unloadScript(script, error));
     }
 
     /**
@@ -22,10 +22,16 @@ import dev.magicmq.pyspigot.manager.task.SyncCallbackTask;
 import dev.magicmq.pyspigot.manager.task.Task;
 import dev.magicmq.pyspigot.manager.task.TaskManager;
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
 import org.bukkit.scheduler.BukkitTask;
+import org.python.core.PyFunction;
 
 /**
  * The Bukkit-specific implementation of the task manager.
+ * <p>
+ * The entity, location, and global variants of the synchronous scheduling methods mirror those of {@link FoliaTaskManager}
+ * so that scripts can be written once for both Bukkit and Folia servers. On Bukkit, all of them run on the main thread.
  */
 public class BukkitTaskManager extends TaskManager<BukkitTask> {
 
@@ -80,6 +86,16 @@ public class BukkitTaskManager extends TaskManager<BukkitTask> {
         return Bukkit.getScheduler().runTask(PySpigot.get().getPlugin(), runnable);
     }
 
+    @Override
+    protected synchronized BukkitTask scheduleTickingImpl(Runnable runnable) {
+        return Bukkit.getScheduler().runTaskTimer(PySpigot.get().getPlugin(), runnable, 1L, 1L);
+    }
+
+    @Override
+    protected synchronized BukkitTask runAsyncImpl(Runnable runnable) {
+        return Bukkit.getScheduler().runTaskAsynchronously(PySpigot.get().getPlugin(), runnable);
+    }
+
     @Override
     protected synchronized void stopTaskImpl(BukkitTask platformTask) {
         platformTask.cancel();
@@ -90,6 +106,129 @@ public class BukkitTaskManager extends TaskManager<BukkitTask> {
         return String.format("BukkitTask[taskId: %d, isSync: %b]", platformTask.getTaskId(), platformTask.isSync());
     }
 
+    /**
+     * Schedule a new synchronous task. Provided for compatibility with {@link FoliaTaskManager#runTaskAtEntity(Entity, PyFunction, Object...)}; on Bukkit, the task runs on the main thread.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param entity The entity the task concerns
+     * @param function The function that should be called when the synchronous task executes
+     * @param functionArgs Any arguments that should be passed to the function
+     * @return A Task object representing the registered task
+     */
+    public synchronized Task<BukkitTask> runTaskAtEntity(Entity entity, PyFunction function, Object... functionArgs) {
+        return runTask(function, functionArgs);
+    }
+
+    /**
+     * Schedule a new synchronous task to run at a later point in time. Provided for compatibility with {@link FoliaTaskManager#runTaskLaterAtEntity(Entity, PyFunction, long, Object...)}; on Bukkit, the task runs on the main thread.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param entity The entity the task concerns
+     * @param function The function that should be called when the synchronous task executes
+     * @param delay The delay, in ticks, that the scheduler should wait before executing the synchronous task
+     * @param functionArgs Any arguments that should be passed to the function
+     * @return A Task object representing the registered task
+     */
+    public synchronized Task<BukkitTask> runTaskLaterAtEntity(Entity entity, PyFunction function, long delay, Object... functionArgs) {
+        return runTaskLater(function, delay, functionArgs);
+    }
+
+    /**
+     * Schedule a new synchronous repeating task. Provided for compatibility with {@link FoliaTaskManager#scheduleRepeatingTaskAtEntity(Entity, PyFunction, long, long, Object...)}; on Bukkit, the task runs on the main thread.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param entity The entity the task concerns
+     * @param function The function that should be called each time the synchronous task executes
+     * @param delay The delay, in ticks, to wait before beginning this synchronous repeating task
+     * @param interval The interval, in ticks, that the synchronous repeating task should be executed
+     * @param functionArgs Any arguments that should be passed to the function
+     * @return A RepeatingTask object representing the registered task
+     */
+    public synchronized RepeatingTask<BukkitTask> scheduleRepeatingTaskAtEntity(Entity entity, PyFunction function, long delay, long interval, Object... functionArgs) {
+        return scheduleRepeatingTask(function, delay, interval, functionArgs);
+    }
+
+    /**
+     * Schedule a new synchronous task. Provided for compatibility with {@link FoliaTaskManager#runTaskAtLocation(Location, PyFunction, Object...)}; on Bukkit, the task runs on the main thread.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param location The location the task concerns
+     * @param function The function that should be called when the synchronous task executes
+     * @param functionArgs Any arguments that should be passed to the function
+     * @return A Task object representing the registered task
+     */
+    public synchronized Task<BukkitTask> runTaskAtLocation(Location location, PyFunction function, Object... functionArgs) {
+        return runTask(function, functionArgs);
+    }
+
+    /**
+     * Schedule a new synchronous task to run at a later point in time. Provided for compatibility with {@link FoliaTaskManager#runTaskLaterAtLocation(Location, PyFunction, long, Object...)}; on Bukkit, the task runs on the main thread.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param location The location the task concerns
+     * @param function The function that should be called when the synchronous task executes
+     * @param delay The delay, in ticks, that the scheduler should wait before executing the synchronous task
+     * @param functionArgs Any arguments that should be passed to the function
+     * @return A Task object representing the registered task
+     */
+    public synchronized Task<BukkitTask> runTaskLaterAtLocation(Location location, PyFunction function, long delay, Object... functionArgs) {
+        return runTaskLater(function, delay, functionArgs);
+    }
+
+    /**
+     * Schedule a new synchronous repeating task. Provided for compatibility with {@link FoliaTaskManager#scheduleRepeatingTaskAtLocation(Location, PyFunction, long, long, Object...)}; on Bukkit, the task runs on the main thread.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param location The location the task concerns
+     * @param function The function that should be called each time the synchronous task executes
+     * @param delay The delay, in ticks, to wait before beginning this synchronous repeating task
+     * @param interval The interval, in ticks, that the synchronous repeating task should be executed
+     * @param functionArgs Any arguments that should be passed to the function
+     * @return A RepeatingTask object representing the registered task
+     */
+    public synchronized RepeatingTask<BukkitTask> scheduleRepeatingTaskAtLocation(Location location, PyFunction function, long delay, long interval, Object... functionArgs) {
+        return scheduleRepeatingTask(function, delay, interval, functionArgs);
+    }
+
+    /**
+     * Schedule a new synchronous task. Provided for compatibility with {@link FoliaTaskManager#runTaskGlobal(PyFunction, Object...)}.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param function The function that should be called when the synchronous task executes
+     * @param functionArgs Any arguments that should be passed to the function
+     * @return A Task object representing the registered task
+     */
+    public synchronized Task<BukkitTask> runTaskGlobal(PyFunction function, Object... functionArgs) {
+        return runTask(function, functionArgs);
+    }
+
+    /**
+     * Schedule a new synchronous task to run at a later point in time. Provided for compatibility with {@link FoliaTaskManager#runTaskLaterGlobal(PyFunction, long, Object...)}.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param function The function that should be called when the synchronous task executes
+     * @param delay The delay, in ticks, that the scheduler should wait before executing the synchronous task
+     * @param functionArgs Any arguments that should be passed to the function
+     * @return A Task object representing the registered task
+     */
+    public synchronized Task<BukkitTask> runTaskLaterGlobal(PyFunction function, long delay, Object... functionArgs) {
+        return runTaskLater(function, delay, functionArgs);
+    }
+
+    /**
+     * Schedule a new synchronous repeating task. Provided for compatibility with {@link FoliaTaskManager#scheduleRepeatingTaskGlobal(PyFunction, long, long, Object...)}.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param function The function that should be called each time the synchronous task executes
+     * @param delay The delay, in ticks, to wait before beginning this synchronous repeating task
+     * @param interval The interval, in ticks, that the synchronous repeating task should be executed
+     * @param functionArgs Any arguments that should be passed to the function
+     * @return A RepeatingTask object representing the registered task
+     */
+    public synchronized RepeatingTask<BukkitTask> scheduleRepeatingTaskGlobal(PyFunction function, long delay, long interval, Object... functionArgs) {
+        return scheduleRepeatingTask(function, delay, interval, functionArgs);
+    }
+
     /**
      * Get the singleton instance of this BukkitTaskManager.
      * @return The instance
@@ -0,0 +1,283 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.bukkit.manager.task;
+
+import dev.magicmq.pyspigot.bukkit.PySpigot;
+import dev.magicmq.pyspigot.bukkit.util.SchedulerUtils;
+import dev.magicmq.pyspigot.manager.script.Script;
+import dev.magicmq.pyspigot.manager.task.RepeatingTask;
+import dev.magicmq.pyspigot.manager.task.SyncCallbackTask;
+import dev.magicmq.pyspigot.manager.task.Task;
+import dev.magicmq.pyspigot.manager.task.TaskManager;
+import dev.magicmq.pyspigot.util.ScriptContext;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.python.core.PyFunction;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * The Folia-specific implementation of the task manager. Used in place of {@link BukkitTaskManager} when PySpigot is
+ * running on a Folia server.
+ * <p>
+ * Folia has no single main thread. Synchronous tasks scheduled via the standard task manager methods run on the global
+ * region thread, which owns world-independent state such as the world time and weather. Work that touches entities or
+ * blocks should instead be scheduled on the region that owns them, using the entity and location variants in this class.
+ * Asynchronous tasks run on Folia's asynchronous scheduler.
+ */
+public class FoliaTaskManager extends TaskManager<ScheduledTask> {
+
+    private static FoliaTaskManager instance;
+
+    private FoliaTaskManager() {
+        super();
+    }
+
+    @Override
+    protected synchronized ScheduledTask runTaskImpl(Task<ScheduledTask> task) {
+        return Bukkit.getGlobalRegionScheduler().run(PySpigot.get().getPlugin(), t -> task.run());
+    }
+
+    @Override
+    protected synchronized ScheduledTask runTaskAsyncImpl(Task<ScheduledTask> task) {
+        return Bukkit.getAsyncScheduler().runNow(PySpigot.get().getPlugin(), t -> task.run());
+    }
+
+    @Override
+    protected synchronized ScheduledTask runTaskLaterImpl(Task<ScheduledTask> task, long delay) {
+        if (delay < 1)
+            return runTaskImpl(task);
+        return Bukkit.getGlobalRegionScheduler().runDelayed(PySpigot.get().getPlugin(), t -> task.run(), delay);
+    }
+
+    @Override
+    protected synchronized ScheduledTask runTaskLaterAsyncImpl(Task<ScheduledTask> task, long delay) {
+        return Bukkit.getAsyncScheduler().runDelayed(PySpigot.get().getPlugin(), t -> task.run(), SchedulerUtils.ticksToMillis(delay), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected synchronized ScheduledTask scheduleRepeatingTaskImpl(RepeatingTask<ScheduledTask> task, long delay, long interval) {
+        return Bukkit.getGlobalRegionScheduler().runAtFixedRate(PySpigot.get().getPlugin(), t -> task.run(), Math.max(1L, delay), Math.max(1L, interval));
+    }
+
+    @Override
+    protected synchronized ScheduledTask scheduleAsyncRepeatingTaskImpl(RepeatingTask<ScheduledTask> task, long delay, long interval) {
+        return Bukkit.getAsyncScheduler().runAtFixedRate(PySpigot.get().getPlugin(), t -> task.run(), SchedulerUtils.ticksToMillis(delay), SchedulerUtils.ticksToMillis(Math.max(1L, interval)), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected synchronized ScheduledTask runSyncCallbackTaskImpl(SyncCallbackTask<ScheduledTask> task) {
+        return Bukkit.getAsyncScheduler().runNow(PySpigot.get().getPlugin(), t -> task.run());
+    }
+
+    @Override
+    protected synchronized ScheduledTask runSyncCallbackTaskLaterImpl(SyncCallbackTask<ScheduledTask> task, long delay) {
+        return Bukkit.getAsyncScheduler().runDelayed(PySpigot.get().getPlugin(), t -> task.run(), SchedulerUtils.ticksToMillis(delay), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected synchronized ScheduledTask runSyncCallbackImpl(Runnable runnable) {
+        return Bukkit.getGlobalRegionScheduler().run(PySpigot.get().getPlugin(), t -> runnable.run());
+    }
+
+    @Override
+    protected synchronized ScheduledTask scheduleTickingImpl(Runnable runnable) {
+        return Bukkit.getGlobalRegionScheduler().runAtFixedRate(PySpigot.get().getPlugin(), t -> runnable.run(), 1L, 1L);
+    }
+
+    @Override
+    protected synchronized ScheduledTask runAsyncImpl(Runnable runnable) {
+        return Bukkit.getAsyncScheduler().runNow(PySpigot.get().getPlugin(), t -> runnable.run());
+    }
+
+    @Override
+    protected synchronized void stopTaskImpl(ScheduledTask platformTask) {
+        platformTask.cancel();
+    }
+
+    @Override
+    protected String describeTask(ScheduledTask platformTask) {
+        return String.format("ScheduledTask[repeating: %b, state: %s]", platformTask.isRepeatingTask(), platformTask.getExecutionState());
+    }
+
+    /**
+     * Schedule a new task on the region that owns an entity. The task follows the entity if it moves between regions.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param entity The entity whose owning region should run the task
+     * @param function The function that should be called when the task executes
+     * @param functionArgs Any arguments that should be passed to the function
+     * @return A Task object representing the registered task
+     * @throws IllegalArgumentException If the entity is no longer valid
+     */
+    public synchronized Task<ScheduledTask> runTaskAtEntity(Entity entity, PyFunction function, Object... functionArgs) {
+        Script script = ScriptContext.require();
+        return submitTask(new Task<>(script, function, functionArgs, false, 0),
+                task -> entity.getScheduler().run(PySpigot.get().getPlugin(), t -> task.run(), () -> retireTask(task)));
+    }
+
+    /**
+     * Schedule a new task on the region that owns an entity, to run at a later point in time. The task follows the entity if it moves between regions.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param entity The entity whose owning region should run the task
+     * @param function The function that should be called when the task executes
+     * @param delay The delay, in ticks, that the scheduler should wait before executing the task
+     * @param functionArgs Any arguments that should be passed to the function
+     * @return A Task object representing the registered task
+     * @throws IllegalArgumentException If the entity is no longer valid
+     */
+    public synchronized Task<ScheduledTask> runTaskLaterAtEntity(Entity entity, PyFunction function, long delay, Object... functionArgs) {
+        Script script = ScriptContext.require();
+        return submitTask(new Task<>(script, function, functionArgs, false, delay),
+                task -> entity.getScheduler().runDelayed(PySpigot.get().getPlugin(), t -> task.run(), () -> retireTask(task), Math.max(1L, delay)));
+    }
+
+    /**
+     * Schedule a new repeating task on the region that owns an entity. The task follows the entity if it moves between regions, and is terminated when the entity is removed.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param entity The entity whose owning region should run the task
+     * @param function The function that should be called each time the task executes
+     * @param delay The delay, in ticks, to wait before beginning this repeating task
+     * @param interval The interval, in ticks, that the repeating task should be executed
+     * @param functionArgs Any arguments that should be passed to the function
+     * @return A RepeatingTask object representing the registered task
+     * @throws IllegalArgumentException If the entity is no longer valid
+     */
+    public synchronized RepeatingTask<ScheduledTask> scheduleRepeatingTaskAtEntity(Entity entity, PyFunction function, long delay, long interval, Object... functionArgs) {
+        Script script = ScriptContext.require();
+        return submitTask(new RepeatingTask<>(script, function, functionArgs, false, delay, interval),
+                task -> entity.getScheduler().runAtFixedRate(PySpigot.get().getPlugin(), t -> task.run(), () -> retireTask(task), Math.max(1L, delay), Math.max(1L, interval)));
+    }
+
+    /**
+     * Schedule a new task on the region that owns a location.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param location The location whose owning region should run the task
+     * @param function The function that should be called when the task executes
+     * @param functionArgs Any arguments that should be passed to the function
+     * @return A Task object representing the registered task
+     */
+    public synchronized Task<ScheduledTask> runTaskAtLocation(Location location, PyFunction function, Object... functionArgs) {
+        Script script = ScriptContext.require();
+        return submitTask(new Task<>(script, function, functionArgs, false, 0),
+                task -> Bukkit.getRegionScheduler().run(PySpigot.get().getPlugin(), location, t -> task.run()));
+    }
+
+    /**
+     * Schedule a new task on the region that owns a location, to run at a later point in time.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param location The location whose owning region should run the task
+     * @param function The function that should be called when the task executes
+     * @param delay The delay, in ticks, that the scheduler should wait before executing the task
+     * @param functionArgs Any arguments that should be passed to the function
+     * @return A Task object representing the registered task
+     */
+    public synchronized Task<ScheduledTask> runTaskLaterAtLocation(Location location, PyFunction function, long delay, Object... functionArgs) {
+        Script script = ScriptContext.require();
+        return submitTask(new Task<>(script, function, functionArgs, false, delay),
+                task -> Bukkit.getRegionScheduler().runDelayed(PySpigot.get().getPlugin(), location, t -> task.run(), Math.max(1L, delay)));
+    }
+
+    /**
+     * Schedule a new repeating task on the region that owns a location.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param location The location whose owning region should run the task
+     * @param function The function that should be called each time the task executes
+     * @param delay The delay, in ticks, to wait before beginning this repeating task
+     * @param interval The interval, in ticks, that the repeating task should be executed
+     * @param functionArgs Any arguments that should be passed to the function
+     * @return A RepeatingTask object representing the registered task
+     */
+    public synchronized RepeatingTask<ScheduledTask> scheduleRepeatingTaskAtLocation(Location location, PyFunction function, long delay, long interval, Object... functionArgs) {
+        Script script = ScriptContext.require();
+        return submitTask(new RepeatingTask<>(script, function, functionArgs, false, delay, interval),
+                task -> Bukkit.getRegionScheduler().runAtFixedRate(PySpigot.get().getPlugin(), location, t -> task.run(), Math.max(1L, delay), Math.max(1L, interval)));
+    }
+
+    /**
+     * Schedule a new task on the global region. Equivalent to {@link TaskManager#runTask(PyFunction, Object...)}.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param function The function that should be called when the task executes
+     * @param functionArgs Any arguments that should be passed to the function
+     * @return A Task object representing the registered task
+     */
+    public synchronized Task<ScheduledTask> runTaskGlobal(PyFunction function, Object... functionArgs) {
+        return runTask(function, functionArgs);
+    }
+
+    /**
+     * Schedule a new task on the global region, to run at a later point in time. Equivalent to {@link TaskManager#runTaskLater(PyFunction, long, Object...)}.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param function The function that should be called when the task executes
+     * @param delay The delay, in ticks, that the scheduler should wait before executing the task
+     * @param functionArgs Any arguments that should be passed to the function
+     * @return A Task object representing the registered task
+     */
+    public synchronized Task<ScheduledTask> runTaskLaterGlobal(PyFunction function, long delay, Object... functionArgs) {
+        return runTaskLater(function, delay, functionArgs);
+    }
+
+    /**
+     * Schedule a new repeating task on the global region. Equivalent to {@link TaskManager#scheduleRepeatingTask(PyFunction, long, long, Object...)}.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param function The function that should be called each time the task executes
+     * @param delay The delay, in ticks, to wait before beginning this repeating task
+     * @param interval The interval, in ticks, that the repeating task should be executed
+     * @param functionArgs Any arguments that should be passed to the function
+     * @return A RepeatingTask object representing the registered task
+     */
+    public synchronized RepeatingTask<ScheduledTask> scheduleRepeatingTaskGlobal(PyFunction function, long delay, long interval, Object... functionArgs) {
+        return scheduleRepeatingTask(function, delay, interval, functionArgs);
+    }
+
+    private <K extends Task<ScheduledTask>> K submitTask(K task, Function<K, ScheduledTask> scheduler) {
+        addTask(task);
+        ScheduledTask platformTask = scheduler.apply(task);
+        if (platformTask == null) {
+            removeTask(task);
+            throw new IllegalArgumentException("Cannot schedule a task on an entity that is no longer valid");
+        }
+        task.setPlatformTask(platformTask);
+        return task;
+    }
+
+    private synchronized void retireTask(Task<ScheduledTask> task) {
+        if (getTasks(task.getScript()).contains(task))
+            taskFinished(task);
+    }
+
+    /**
+     * Get the singleton instance of this FoliaTaskManager.
+     * @return The instance
+     */
+    public static FoliaTaskManager get() {
+        if (instance == null)
+            instance = new FoliaTaskManager();
+        return instance;
+    }
+}
@@ -1,4 +1,4 @@
 /**
- * Contains the Bukkit-specific task manager implementation.
+ * Contains the Bukkit-specific task manager implementations (Bukkit and Folia).
  */
 package dev.magicmq.pyspigot.bukkit.manager.task;
\ No newline at end of file
@@ -0,0 +1,150 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.bukkit.util;
+
+import dev.magicmq.pyspigot.bukkit.PySpigot;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Entity;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A utility class for scheduling PySpigot's own internal tasks on either the Bukkit scheduler or, on Folia, the region
+ * schedulers.
+ * <p>
+ * On Folia, "main thread" work is routed to the global region, and work concerning a single entity is routed to the
+ * region that owns the entity.
+ */
+public final class SchedulerUtils {
+
+    private SchedulerUtils() {}
+
+    /**
+     * Run a task on the main thread (or the global region thread on Folia) after a delay.
+     * @param runnable The task to run
+     * @param delay The delay, in ticks
+     * @return A handle that can be used to cancel the task
+     */
+    public static TaskHandle runLater(Runnable runnable, long delay) {
+        if (PySpigot.get().isFolia()) {
+            ScheduledTask task = delay < 1
+                    ? Bukkit.getGlobalRegionScheduler().run(PySpigot.get().getPlugin(), t -> runnable.run())
+                    : Bukkit.getGlobalRegionScheduler().runDelayed(PySpigot.get().getPlugin(), t -> runnable.run(), delay);
+            return task::cancel;
+        } else {
+            BukkitTask task = Bukkit.getScheduler().runTaskLater(PySpigot.get().getPlugin(), runnable, delay);
+            return task::cancel;
+        }
+    }
+
+    /**
+     * Run a task on the thread that owns an entity after a delay. Outside of Folia, this is the main thread.
+     * @param entity The entity whose owning thread should run the task
+     * @param runnable The task to run
+     * @param delay The delay, in ticks
+     * @return A handle that can be used to cancel the task, or null if the entity is no longer valid
+     */
+    public static TaskHandle runLater(Entity entity, Runnable runnable, long delay) {
+        if (PySpigot.get().isFolia()) {
+            ScheduledTask task = entity.getScheduler().runDelayed(PySpigot.get().getPlugin(), t -> runnable.run(), null, Math.max(1L, delay));
+            return task != null ? task::cancel : null;
+        } else
+            return runLater(runnable, delay);
+    }
+
+    /**
+     * Run a repeating task on the main thread (or the global region thread on Folia).
+     * @param runnable The task to run
+     * @param delay The delay, in ticks, before the first execution
+     * @param interval The interval, in ticks, between executions
+     * @return A handle that can be used to cancel the task
+     */
+    public static TaskHandle runTimer(Runnable runnable, long delay, long interval) {
+        if (PySpigot.get().isFolia()) {
+            ScheduledTask task = Bukkit.getGlobalRegionScheduler().runAtFixedRate(PySpigot.get().getPlugin(), t -> runnable.run(), Math.max(1L, delay), Math.max(1L, interval));
+            return task::cancel;
+        } else {
+            BukkitTask task = Bukkit.getScheduler().runTaskTimer(PySpigot.get().getPlugin(), runnable, delay, interval);
+            return task::cancel;
+        }
+    }
+
+    /**
+     * Run an asynchronous repeating task.
+     * @param runnable The task to run
+     * @param delay The delay, in ticks, before the first execution
+     * @param interval The interval, in ticks, between executions
+     * @return A handle that can be used to cancel the task
+     */
+    public static TaskHandle runTimerAsync(Runnable runnable, long delay, long interval) {
+        if (PySpigot.get().isFolia()) {
+            ScheduledTask task = Bukkit.getAsyncScheduler().runAtFixedRate(PySpigot.get().getPlugin(), t -> runnable.run(), ticksToMillis(delay), ticksToMillis(Math.max(1L, interval)), TimeUnit.MILLISECONDS);
+            return task::cancel;
+        } else {
+            BukkitTask task = Bukkit.getScheduler().runTaskTimerAsynchronously(PySpigot.get().getPlugin(), runnable, delay, interval);
+            return task::cancel;
+        }
+    }
+
+    /**
+     * Run a task on the main thread (or the global region thread on Folia). If the current thread is already that thread,
+     * the task runs immediately.
+     * @param runnable The task to run
+     */
+    public static void runOnGlobalThread(Runnable runnable) {
+        if (isGlobalThread())
+            runnable.run();
+        else if (PySpigot.get().isFolia())
+            Bukkit.getGlobalRegionScheduler().execute(PySpigot.get().getPlugin(), runnable);
+        else
+            Bukkit.getScheduler().runTask(PySpigot.get().getPlugin(), runnable);
+    }
+
+    /**
+     * Check if the current thread is the main thread (or the global region thread on Folia).
+     * @return True if the current thread is the main thread or global region thread, false if otherwise
+     */
+    public static boolean isGlobalThread() {
+        if (PySpigot.get().isFolia())
+            return Bukkit.isGlobalTickThread();
+        else
+            return Bukkit.isPrimaryThread();
+    }
+
+    /**
+     * Convert server ticks to milliseconds, assuming 20 ticks per second.
+     * @param ticks The number of ticks
+     * @return The equivalent number of milliseconds
+     */
+    public static long ticksToMillis(long ticks) {
+        return ticks * 1000 / 20;
+    }
+
+    /**
+     * A handle to a task scheduled through this utility class.
+     */
+    @FunctionalInterface
+    public interface TaskHandle {
+
+        /**
+         * Cancel the task.
+         */
+        void cancel();
+    }
+}
@@ -5,20 +5,122 @@ Contains decorators for registering event listeners.
 import pyspigot as ps
 
 from org.bukkit.event import EventPriority
+from dev.magicmq.pyspigot.bukkit.manager.listener import BukkitEventFilter
+from decorators._rate_limit import build_rate_limiter
 
-def event_listener(event_class, priority=EventPriority.NORMAL, ignore_cancelled=False):
+def _build_filter(worlds, entity_types, materials, permission, cancelled, sample_rate):
+    if worlds is None and entity_types is None and materials is None and permission is None and cancelled is None and sample_rate is None:
+        return None
+
+    builder = BukkitEventFilter.builder()
+    if worlds is not None:
+        builder.worlds(*worlds)
+    if entity_types is not None:
+        builder.entityTypes(*entity_types)
+    if materials is not None:
+        builder.materials(*materials)
+    if permission is not None:
+        builder.permission(permission)
+    if cancelled is not None:
+        builder.cancelled(cancelled)
+    if sample_rate is not None:
+        builder.sampleRate(sample_rate)
+    return builder.build()
+
+def event_listener(event_class, priority=EventPriority.NORMAL, ignore_cancelled=False, worlds=None, entity_types=None, materials=None, permission=None, cancelled=None, sample_rate=None, max_per_tick=None, one_in=None, adaptive_mspt=None, adaptive_one_in=None):
     """
     Register an event listener by decorating a function. The decorated function will be called when the event occurs.
 
+    The filter and rate limit options are evaluated in Java before the function is called, so events that do not match (or that are suppressed) never enter Python.
+
     :param event_class: The event class to listen to
     :param priority: The priority of the event
     :param ignore_cancelled: Whether to ignore calling the event listener if the event was cancelled previously
+    :param worlds: If set, a list of world names. Only events occurring in one of these worlds are delivered
+    :param entity_types: If set, a list of EntityTypes. Only events concerning an entity of one of these types are delivered
+    :param materials: If set, a list of Materials. Only events concerning a block or item of one of these materials are delivered
+    :param permission: If set, only events whose player has this permission are delivered
+    :param cancelled: If set, only events with this cancelled state are delivered
+    :param sample_rate: If set, only this fraction (greater than 0 and at most 1) of events is delivered, chosen at random
+    :param max_per_tick: If set, the function is called at most this many times per tick (50 milliseconds). Further events are suppressed
+    :param one_in: If set, the function is only called for one in every this many events
+    :param adaptive_mspt: If set, while the server's MSPT is above this value, the function is only called for one in every adaptive_one_in events
+    :param adaptive_one_in: The sampling interval used while the server's MSPT is above adaptive_mspt. Defaults to 2
+    :return:
+    """
+
+    def _decorator(function):
+        listener_manager = ps.listener_manager()
+        event_filter = _build_filter(worlds, entity_types, materials, permission, cancelled, sample_rate)
+        rate_limiter = build_rate_limiter(max_per_tick, one_in, adaptive_mspt, adaptive_one_in)
+        listener = listener_manager.registerListener(function, event_class, priority, ignore_cancelled, event_filter, rate_limiter)
+        function.registered_listener = listener
+
+        def _unregister():
+            listener_manager.unregisterListener(listener)
+
+        function.unregister = _unregister
+
+        return function
+
+    return _decorator
+
+def batch_event_listener(event_class, capacity=1024, fields=None, ignore_cancelled=False, worlds=None, entity_types=None, materials=None, permission=None, cancelled=None, sample_rate=None):
+    """
+    Register a batch event listener by decorating a function. Events are buffered and the decorated function is called once per tick with a list of the events that occurred.
+
+    Batch listeners are registered at MONITOR priority and must treat events as read-only.
+
+    :param event_class: The event class to listen to
+    :param capacity: The maximum number of events buffered between deliveries. Further events are dropped until the next delivery
+    :param fields: If set, a list of field names (for example, 'player' or 'getTo'). Each element of the list passed to the function is then a dict containing a snapshot of these fields. If not set, the event objects themselves are passed, which is only safe for events the server does not reuse
+    :param ignore_cancelled: Whether to ignore buffering the event if the event was cancelled previously
+    :param worlds: If set, a list of world names. Only events occurring in one of these worlds are buffered
+    :param entity_types: If set, a list of EntityTypes. Only events concerning an entity of one of these types are buffered
+    :param materials: If set, a list of Materials. Only events concerning a block or item of one of these materials are buffered
+    :param permission: If set, only events whose player has this permission are buffered
+    :param cancelled: If set, only events with this cancelled state are buffered
+    :param sample_rate: If set, only this fraction (greater than 0 and at most 1) of events is buffered, chosen at random
+    :return:
+    """
+
+    def _decorator(function):
+        listener_manager = ps.listener_manager()
+        event_filter = _build_filter(worlds, entity_types, materials, permission, cancelled, sample_rate)
+        listener = listener_manager.registerBatchListener(function, event_class, capacity, ignore_cancelled, event_filter, *(fields or []))
+        function.registered_listener = listener
+
+        def _unregister():
+            listener_manager.unregisterListener(listener)
+
+        function.unregister = _unregister
+
+        return function
+
+    return _decorator
+
+def async_event_listener(event_class, fields, ignore_cancelled=False, worlds=None, entity_types=None, materials=None, permission=None, cancelled=None, sample_rate=None):
+    """
+    Register an asynchronous event listener by decorating a function. A snapshot of the given fields is captured when the event fires, and the decorated function is called with the snapshot (a dict of field name to value) on a separate thread.
+
+    Asynchronous listeners are registered at MONITOR priority. Events are delivered to the script in the order they were fired. The decorated function must not use server APIs that require the main thread.
+
+    :param event_class: The event class to listen to
+    :param fields: A list of field names (for example, 'player' or 'getTo') to snapshot from each event
+    :param ignore_cancelled: Whether to ignore delivering the event if the event was cancelled previously
+    :param worlds: If set, a list of world names. Only events occurring in one of these worlds are delivered
+    :param entity_types: If set, a list of EntityTypes. Only events concerning an entity of one of these types are delivered
+    :param materials: If set, a list of Materials. Only events concerning a block or item of one of these materials are delivered
+    :param permission: If set, only events whose player has this permission are delivered
+    :param cancelled: If set, only events with this cancelled state are delivered
+    :param sample_rate: If set, only this fraction (greater than 0 and at most 1) of events is delivered, chosen at random
     :return:
     """
 
     def _decorator(function):
         listener_manager = ps.listener_manager()
-        listener = listener_manager.registerListener(function, event_class, priority, ignore_cancelled)
+        event_filter = _build_filter(worlds, entity_types, materials, permission, cancelled, sample_rate)
+        listener = listener_manager.registerAsyncListener(function, event_class, ignore_cancelled, event_filter, *fields)
         function.registered_listener = listener
 
         def _unregister():
@@ -31,4 +133,4 @@ def event_listener(event_class, priority=EventPriority.NORMAL, ignore_cancelled=
     return _decorator
 
 
-__all__ = ['event_listener']
+__all__ = ['event_listener', 'batch_event_listener', 'async_event_listener']
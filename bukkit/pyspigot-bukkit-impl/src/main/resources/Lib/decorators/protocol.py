@@ -35,6 +35,31 @@ def packet_listener(packet_type, priority=ListenerPriority.NORMAL):
     return _decorator
 
 
+def ordered_packet_listener(packet_type, priority=ListenerPriority.NORMAL, cancel_if=None):
+    """
+    Register a packet listener that runs off the network thread by decorating a function. The decorated function will be
+    called with a copy of the packet and the player on a PySpigot worker thread, in order for each player.
+
+    :param packet_type: The packet type to listen for
+    :param priority: The priority of the listener
+    :param cancel_if: If set, a function that accepts the packet event and returns True if the packet should be cancelled. It is called on the network thread, so it should be fast and must not block
+    """
+
+    def _decorator(function):
+        protocol_manager = ps.protocol_manager()
+        registered_listener = protocol_manager.registerOrderedPacketListener(function, packet_type, priority, cancel_if)
+
+        function.registered_listener = registered_listener
+
+        def _unregister():
+            protocol_manager.unregisterPacketListener(registered_listener)
+
+        function.unregister = _unregister
+
+        return function
+    return _decorator
+
+
 def async_packet_listener(packet_type, priority=ListenerPriority.NORMAL):
     """
     Register an asynchronous packet listener by decorating a function. The decorated function will be called when the packet is sent/received.
@@ -83,6 +108,7 @@ def timeout_packet_listener(packet_type, priority=ListenerPriority.NORMAL):
 
 __all__ = [
     'packet_listener',
+    'ordered_packet_listener',
     'async_packet_listener',
     'timeout_packet_listener'
 ]
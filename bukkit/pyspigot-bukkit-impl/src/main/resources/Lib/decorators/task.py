@@ -4,6 +4,8 @@ Contains decorators for scheduling tasks with the task manager.
 
 import pyspigot as ps
 
+from decorators.coroutines import coroutine
+
 
 def _schedule(is_async, function, delay, interval, function_args):
     task_manager = ps.task_manager()
@@ -128,5 +130,6 @@ def sync_callback_task(delay=0, *args):
 __all__ = [
     'task',
     'async_task',
-    'sync_callback_task'
+    'sync_callback_task',
+    'coroutine'
 ]
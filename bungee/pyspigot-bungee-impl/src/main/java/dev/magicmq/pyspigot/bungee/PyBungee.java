@@ -189,6 +189,12 @@ public class PyBungee implements LoaderBootstrap, PlatformAdapter {
         return ProxyServer.getInstance().getPluginManager().getPlugin("PacketEvents") != null;
     }
 
+    @Override
+    public double getAverageTickTime() {
+        //BungeeCord does not have a tick loop
+        return -1;
+    }
+
     /**
      * Get the underlying BungeeCord plugin object.
      * @return The underlying BungeeCord plugin.
@@ -21,6 +21,7 @@ import dev.magicmq.pyspigot.bungee.PyBungee;
 import dev.magicmq.pyspigot.exception.PluginInitializationException;
 import dev.magicmq.pyspigot.exception.ScriptRuntimeException;
 import dev.magicmq.pyspigot.manager.listener.ListenerManager;
+import dev.magicmq.pyspigot.manager.listener.ListenerRateLimiter;
 import dev.magicmq.pyspigot.manager.script.Script;
 import dev.magicmq.pyspigot.util.ScriptContext;
 import net.md_5.bungee.api.ProxyServer;
@@ -35,6 +36,8 @@ import org.python.core.PyFunction;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -44,6 +47,11 @@ import java.util.concurrent.locks.Lock;
 
 /**
  * The BungeeCord-specific implementation of the listener manager.
+ * <p>
+ * Listeners are registered directly with BungeeCord's EventBus. Because the EventBus re-bakes an event's handlers under a
+ * global lock on every change, listeners registered while a script is starting are staged and registered together once the
+ * script has finished starting, so that each affected event is baked only once. Unregistering a script's listeners is
+ * batched in the same way.
  */
 public class BungeeListenerManager extends ListenerManager<BungeeScriptEventListener, Event, Byte> {
 
@@ -54,6 +62,8 @@ public class BungeeListenerManager extends ListenerManager<BungeeScriptEventList
     private final Lock lock;
     private final EventBus eventBus;
     private final Method bakeHandlers;
+    private final Method[] callToScript;
+    private final Map<Script, List<BungeeScriptEventListener>> staged;
 
     private BungeeListenerManager() {
         super();
@@ -80,10 +90,14 @@ public class BungeeListenerManager extends ListenerManager<BungeeScriptEventList
 
             this.bakeHandlers = eventBusClass.getDeclaredMethod("bakeHandlers", Class.class);
             this.bakeHandlers.setAccessible(true);
+
+            this.callToScript = new Method[]{BungeeScriptEventListener.class.getDeclaredMethod("callToScript", Object.class)};
         } catch (NoSuchFieldException | NoSuchMethodException | IllegalAccessException e) {
             //This should not happen, reflection checks done on plugin enable
             throw new PluginInitializationException("Error when initializing listener manager, event listeners will not work correctly.", e);
         }
+
+        this.staged = new HashMap<>();
     }
 
     @Override
@@ -93,10 +107,25 @@ public class BungeeListenerManager extends ListenerManager<BungeeScriptEventList
 
     @Override
     public BungeeScriptEventListener registerListener(PyFunction function, Class<? extends Event> eventClass, Byte priority) {
+        return registerListener(function, eventClass, priority, null);
+    }
+
+    /**
+     * Register a new event listener, whose events are rate limited in Java before being passed to the function.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param function The function that should be called when the event occurs
+     * @param eventClass The type of event to listen to
+     * @param priority The priority of the event relative to other listeners
+     * @param rateLimiter The rate limiter applied to events, or null to pass all events
+     * @return The ScriptEventListener that was registered
+     */
+    public BungeeScriptEventListener registerListener(PyFunction function, Class<? extends Event> eventClass, Byte priority, ListenerRateLimiter rateLimiter) {
         Script script = ScriptContext.require();
 
-        BungeeScriptEventListener listener = new BungeeScriptEventListener(script, function, eventClass, priority);
-        registerWithBungee(listener);
+        BungeeScriptEventListener listener = new BungeeScriptEventListener(script, function, eventClass, priority, rateLimiter);
+        if (!stage(listener))
+            registerWithBungee(script, List.of(listener));
         addListener(script, listener);
         return listener;
     }
@@ -125,9 +154,14 @@ public class BungeeListenerManager extends ListenerManager<BungeeScriptEventList
 
     @Override
     public void unregisterListener(BungeeScriptEventListener listener) {
+        if (unstage(listener)) {
+            removeListener(listener.getScript(), listener);
+            return;
+        }
+
         ProxyServer.getInstance().getPluginManager().unregisterListener(listener);
         removeListener(listener.getScript(), listener);
-        unregisterWithBungee(listener);
+        unregisterWithBungee(listener.getScript(), List.of(listener));
     }
 
     public void unregisterListener(PyFunction function, Class<? extends Event> eventClass) {
@@ -140,79 +174,121 @@ public class BungeeListenerManager extends ListenerManager<BungeeScriptEventList
 
     @Override
     public void unregisterListeners(Script script) {
-        for (BungeeScriptEventListener eventListener : getListeners(script)) {
-            unregisterWithBungee(eventListener);
+        List<BungeeScriptEventListener> pending;
+        synchronized (staged) {
+            pending = staged.remove(script);
         }
+
+        List<BungeeScriptEventListener> registered = new ArrayList<>(getListeners(script));
+        if (pending != null)
+            registered.removeAll(pending);
+        unregisterWithBungee(script, registered);
         removeListeners(script);
     }
 
-    private Map<Class<?>, Map<Byte, Set<Method>>> createDummyHandler(BungeeScriptEventListener listener) {
-        Map<Class<?>, Map<Byte, Set<Method>>> handler = new HashMap<>();
-        Set<Method> methods = new HashSet<>();
-        try {
-            methods.add(BungeeScriptEventListener.class.getDeclaredMethod("callToScript", Object.class));
-        } catch (NoSuchMethodException e) {
-            //This should not happen
-            throw new ScriptRuntimeException(listener.getScript(), "Unhandled exception when registering listener for event '" + listener.getEvent().getSimpleName() + "'", e);
+    /**
+     * Begin staging listeners registered by a script, rather than registering them with BungeeCord immediately.
+     * <p>
+     * Called internally when a script is starting. Staged listeners do not receive events until {@link #commitListeners(Script)} is called.
+     * @param script The script whose listeners should be staged
+     */
+    public void stageListeners(Script script) {
+        synchronized (staged) {
+            staged.putIfAbsent(script, new ArrayList<>());
         }
-        Map<Byte, Set<Method>> prioritiesMap = new HashMap<>();
-        prioritiesMap.put(listener.getPriority(), methods);
-        handler.put(listener.getEvent(), prioritiesMap);
-        return handler;
     }
 
-    private void registerWithBungee(BungeeScriptEventListener listener) {
-        Map<Class<?>, Map<Byte, Set<Method>>> handler = createDummyHandler(listener);
+    /**
+     * Register all listeners staged by a script with BungeeCord, and stop staging listeners for the script.
+     * <p>
+     * Called internally once a script has finished starting.
+     * @param script The script whose staged listeners should be registered
+     */
+    public void commitListeners(Script script) {
+        List<BungeeScriptEventListener> pending;
+        synchronized (staged) {
+            pending = staged.remove(script);
+        }
+        if (pending != null)
+            registerWithBungee(script, pending);
+    }
+
+    private boolean stage(BungeeScriptEventListener listener) {
+        synchronized (staged) {
+            List<BungeeScriptEventListener> pending = staged.get(listener.getScript());
+            if (pending == null)
+                return false;
+            pending.add(listener);
+            return true;
+        }
+    }
+
+    private boolean unstage(BungeeScriptEventListener listener) {
+        synchronized (staged) {
+            List<BungeeScriptEventListener> pending = staged.get(listener.getScript());
+            return pending != null && pending.remove(listener);
+        }
+    }
+
+    private void registerWithBungee(Script script, Collection<BungeeScriptEventListener> listeners) {
+        if (listeners.isEmpty())
+            return;
+
+        Set<Class<?>> affected = new HashSet<>();
         lock.lock();
         try {
-            for (Map.Entry<Class<?>, Map<Byte, Set<Method>>> e : handler.entrySet()) {
-                Map<Byte, Map<Object, Method[]>> prioritiesMap = byListenerAndPriority.computeIfAbsent(e.getKey(), k -> new HashMap<>());
-                for (Map.Entry<Byte, Set<Method>> entry : e.getValue().entrySet()) {
-                    Map<Object, Method[]> currentPriorityMap = prioritiesMap.computeIfAbsent(entry.getKey(), k -> new HashMap<>());
-                    currentPriorityMap.put(listener, entry.getValue().toArray(new Method[0]));
-                }
-                try {
-                    bakeHandlers.invoke(eventBus, e.getKey());
-                } catch (IllegalAccessException | InvocationTargetException exception) {
-                    throw new ScriptRuntimeException(listener.getScript(), "Unhandled exception when registering listener for event '" + listener.getEvent().getSimpleName() + "'", exception);
-                }
+            for (BungeeScriptEventListener listener : listeners) {
+                Map<Byte, Map<Object, Method[]>> prioritiesMap = byListenerAndPriority.computeIfAbsent(listener.getEvent(), k -> new HashMap<>());
+                Map<Object, Method[]> currentPriorityMap = prioritiesMap.computeIfAbsent(listener.getPriority(), k -> new HashMap<>());
+                currentPriorityMap.put(listener, callToScript);
+                affected.add(listener.getEvent());
             }
+            bake(script, affected, "registering");
         } finally {
             lock.unlock();
         }
-        this.listenersByPlugin.put(PyBungee.get().getPlugin(), listener);
+        listenersByPlugin.putAll(PyBungee.get().getPlugin(), listeners);
     }
 
-    private void unregisterWithBungee(BungeeScriptEventListener listener) {
-        Map<Class<?>, Map<Byte, Set<Method>>> handler = createDummyHandler(listener);
+    private void unregisterWithBungee(Script script, Collection<BungeeScriptEventListener> listeners) {
+        if (listeners.isEmpty())
+            return;
+
+        Set<Class<?>> affected = new HashSet<>();
         lock.lock();
         try {
-            for (Map.Entry<Class<?>, Map<Byte, Set<Method>>> e : handler.entrySet()) {
-                Map<Byte, Map<Object, Method[]>> prioritiesMap = byListenerAndPriority.get(e.getKey());
+            for (BungeeScriptEventListener listener : listeners) {
+                Map<Byte, Map<Object, Method[]>> prioritiesMap = byListenerAndPriority.get(listener.getEvent());
                 if (prioritiesMap != null) {
-                    for (Byte priority : e.getValue().keySet()) {
-                        Map<Object, Method[]> currentPriority = prioritiesMap.get(priority);
-                        if (currentPriority != null) {
-                            currentPriority.remove(listener);
-                            if (currentPriority.isEmpty()) {
-                                prioritiesMap.remove(priority);
-                            }
+                    Map<Object, Method[]> currentPriority = prioritiesMap.get(listener.getPriority());
+                    if (currentPriority != null) {
+                        currentPriority.remove(listener);
+                        if (currentPriority.isEmpty()) {
+                            prioritiesMap.remove(listener.getPriority());
                         }
                     }
                     if (prioritiesMap.isEmpty()) {
-                        byListenerAndPriority.remove(e.getKey());
+                        byListenerAndPriority.remove(listener.getEvent());
                     }
                 }
-                try {
-                    bakeHandlers.invoke(eventBus, e.getKey());
-                } catch (IllegalAccessException | InvocationTargetException exception) {
-                    throw new ScriptRuntimeException(listener.getScript(), "Unhandled exception when unregistering listener for event '" + listener.getEvent().getSimpleName() + "'", exception);
-                }
+                affected.add(listener.getEvent());
             }
+            bake(script, affected, "unregistering");
         } finally {
             lock.unlock();
         }
-        listenersByPlugin.values().remove(listener);
+        listenersByPlugin.get(PyBungee.get().getPlugin()).removeAll(new HashSet<>(listeners));
+    }
+
+    //Must be called while holding the EventBus lock
+    private void bake(Script script, Set<Class<?>> events, String action) {
+        for (Class<?> event : events) {
+            try {
+                bakeHandlers.invoke(eventBus, event);
+            } catch (IllegalAccessException | InvocationTargetException exception) {
+                throw new ScriptRuntimeException(script, "Unhandled exception when " + action + " listener for event '" + event.getSimpleName() + "'", exception);
+            }
+        }
     }
 
     /**
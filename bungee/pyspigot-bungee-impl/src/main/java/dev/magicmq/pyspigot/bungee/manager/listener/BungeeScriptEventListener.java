@@ -17,6 +17,7 @@
 package dev.magicmq.pyspigot.bungee.manager.listener;
 
 import dev.magicmq.pyspigot.bungee.event.ScriptExceptionEvent;
+import dev.magicmq.pyspigot.manager.listener.ListenerRateLimiter;
 import dev.magicmq.pyspigot.manager.listener.ScriptEventListener;
 import dev.magicmq.pyspigot.manager.script.Script;
 import dev.magicmq.pyspigot.manager.script.ScriptManager;
@@ -39,6 +40,7 @@ public class BungeeScriptEventListener implements Listener, ScriptEventListener<
     private final PyFunction listenerFunction;
     private final Class<? extends Event> event;
     private final byte priority;
+    private final ListenerRateLimiter rateLimiter;
 
     /**
      *
@@ -48,10 +50,23 @@ public class BungeeScriptEventListener implements Listener, ScriptEventListener<
      * @param priority The priority of this event listener
      */
     public BungeeScriptEventListener(Script script, PyFunction listenerFunction, Class<? extends Event> event, byte priority) {
+        this(script, listenerFunction, event, priority, null);
+    }
+
+    /**
+     *
+     * @param script The script listening to events within this listener
+     * @param listenerFunction The script function that should be called when the event occurs
+     * @param event The BungeeCord event associated with this listener. Should be a {@link Class} of the BungeeCord event
+     * @param priority The priority of this event listener
+     * @param rateLimiter The rate limiter applied to events before they are passed to the script function, or null to pass all events
+     */
+    public BungeeScriptEventListener(Script script, PyFunction listenerFunction, Class<? extends Event> event, byte priority, ListenerRateLimiter rateLimiter) {
         this.script = script;
         this.listenerFunction = listenerFunction;
         this.event = event;
         this.priority = priority;
+        this.rateLimiter = rateLimiter;
     }
 
     /**
@@ -70,6 +85,9 @@ public class BungeeScriptEventListener implements Listener, ScriptEventListener<
             }
         }
 
+        if (rateLimiter != null && !rateLimiter.tryAcquire())
+            return;
+
         try {
             Py.setSystemState(script.getInterpreter().getSystemState());
             ThreadState threadState = Py.getThreadState(script.getInterpreter().getSystemState());
@@ -103,12 +121,23 @@ public class BungeeScriptEventListener implements Listener, ScriptEventListener<
         return priority;
     }
 
+    /**
+     * Get the rate limiter applied to events before they are passed to the script function.
+     * @return The rate limiter, or null if this listener is not rate limited
+     */
+    public ListenerRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
     /**
      * Prints a representation of this BungeeScriptEventListener in string format, including the event being listened to by the listener
      * @return A string representation of the ScriptEventListener
      */
     @Override
     public String toString() {
-        return String.format("BungeeScriptEventListener[Event: %s]", event.getName());
+        if (rateLimiter != null)
+            return String.format("BungeeScriptEventListener[Event: %s, Rate Limiter: %s]", event.getName(), rateLimiter);
+        else
+            return String.format("BungeeScriptEventListener[Event: %s]", event.getName());
     }
 }
@@ -28,12 +28,18 @@ import org.python.core.PyFunction;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /**
  * Manager to interface with Protocolize. Primarily used by scripts to register and unregister packet listeners on the BungeeCord proxy.
  * <p>
+ * Script packet listeners are not registered with Protocolize individually. Instead, one {@link ProtocolizeDispatcher} is
+ * registered per packet, direction, and priority, which dispatches to all script listeners for that combination.
+ * <p>
  * Do not call this manager if Protocolize is not loaded and enabled on the server! It will not work.
  * @see dev.simplix.protocolize.api.Protocolize
  */
@@ -42,9 +48,11 @@ public class ProtocolManager {
     private static ProtocolManager instance;
 
     private final HashMap<Script, List<ScriptPacketListener<?>>> registeredListeners;
+    private final HashMap<ProtocolizeDispatcher.Key, ProtocolizeDispatcher<?>> dispatchers;
 
     private ProtocolManager() {
         registeredListeners = new HashMap<>();
+        dispatchers = new HashMap<>();
     }
 
     /**
@@ -76,8 +84,10 @@ public class ProtocolManager {
         Script script = ScriptContext.require();
 
         ScriptPacketListener<?> listener = new ScriptPacketListener<>(script, receiveFunction, sendFunction, packet, direction, priority);
+        ProtocolizeDispatcher<?> dispatcher = getOrCreateDispatcher(packet, direction, priority);
+        dispatcher.addHandler(listener);
+        listener.setDispatcher(dispatcher);
         addPacketListener(listener);
-        Protocolize.listenerProvider().registerListener(listener);
         return listener;
     }
 
@@ -88,7 +98,7 @@ public class ProtocolManager {
      * @param listener The packet listener to unregister
      */
     public void unregisterPacketListener(ScriptPacketListener<?> listener) {
-        Protocolize.listenerProvider().unregisterListener(listener);
+        removeFromDispatcher(listener.getDispatcher(), Set.of(listener));
         removePacketListener(listener);
     }
 
@@ -102,7 +112,7 @@ public class ProtocolManager {
         Script script = ScriptContext.require();
         List<ScriptPacketListener<?>> listeners = getPacketListeners(script);
         for (ScriptPacketListener<?> listener : listeners) {
-            if (listener.getReceiveFunction().equals(function) || listener.getSendFunction().equals(function)) {
+            if (function.equals(listener.getReceiveFunction()) || function.equals(listener.getSendFunction())) {
                 unregisterPacketListener(listener);
             }
         }
@@ -119,8 +129,7 @@ public class ProtocolManager {
         Script script = ScriptContext.require();
         List<ScriptPacketListener<?>> listeners = getPacketListeners(script);
         for (ScriptPacketListener<?> listener : listeners) {
-            if (listener.getReceiveFunction().equals(function)
-                    || listener.getSendFunction().equals(function)
+            if ((function.equals(listener.getReceiveFunction()) || function.equals(listener.getSendFunction()))
                     && listener.type().equals(packet)) {
                 unregisterPacketListener(listener);
             }
@@ -132,12 +141,22 @@ public class ProtocolManager {
      * @param script The script whose normal packet listeners should be unregistered
      */
     public void unregisterPacketListeners(Script script) {
+        Map<ProtocolizeDispatcher<?>, Set<ScriptPacketListener<?>>> byDispatcher = new HashMap<>();
         for (ScriptPacketListener<?> listener : getPacketListeners(script)) {
-            Protocolize.listenerProvider().unregisterListener(listener);
+            byDispatcher.computeIfAbsent(listener.getDispatcher(), k -> new HashSet<>()).add(listener);
         }
+        byDispatcher.forEach(this::removeFromDispatcher);
         registeredListeners.remove(script);
     }
 
+    /**
+     * Get all dispatchers currently registered with Protocolize.
+     * @return An immutable list of dispatchers
+     */
+    public List<ProtocolizeDispatcher<?>> getDispatchers() {
+        return List.copyOf(dispatchers.values());
+    }
+
     /**
      * Get all packet listeners associated with a script.
      * @param script The script to get normal packet listeners from
@@ -197,6 +216,23 @@ public class ProtocolManager {
         }
     }
 
+    private ProtocolizeDispatcher<?> getOrCreateDispatcher(Class<?> packet, Direction direction, int priority) {
+        return dispatchers.computeIfAbsent(ProtocolizeDispatcher.key(packet, direction, priority), key -> {
+            ProtocolizeDispatcher<?> dispatcher = new ProtocolizeDispatcher<>(packet, direction, priority);
+            Protocolize.listenerProvider().registerListener(dispatcher);
+            return dispatcher;
+        });
+    }
+
+    private void removeFromDispatcher(ProtocolizeDispatcher<?> dispatcher, Set<ScriptPacketListener<?>> listeners) {
+        dispatcher.removeHandlers(listeners);
+        if (dispatcher.isEmpty()) {
+            //Unregister empty dispatchers, so that Protocolize does not call into PySpigot when no scripts are listening
+            dispatchers.remove(ProtocolizeDispatcher.key(dispatcher.type(), dispatcher.direction(), dispatcher.priority()), dispatcher);
+            Protocolize.listenerProvider().unregisterListener(dispatcher);
+        }
+    }
+
     private void addPacketListener(ScriptPacketListener<?> listener) {
         Script script = listener.getScript();
         if (registeredListeners.containsKey(script))
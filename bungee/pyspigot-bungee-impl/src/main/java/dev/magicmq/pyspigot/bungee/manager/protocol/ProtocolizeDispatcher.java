@@ -0,0 +1,157 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.bungee.manager.protocol;
+
+import dev.magicmq.pyspigot.PyCore;
+import dev.simplix.protocolize.api.Direction;
+import dev.simplix.protocolize.api.listener.AbstractPacketListener;
+import dev.simplix.protocolize.api.listener.PacketReceiveEvent;
+import dev.simplix.protocolize.api.listener.PacketSendEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A single Protocolize listener that dispatches a packet to every script packet listener registered with the same packet
+ * class, direction, and priority.
+ * <p>
+ * Script listeners are held in a copy-on-write array, so Protocolize only has one listener to call per packet class,
+ * direction, and priority, regardless of how many script functions are listening. The dispatcher is unregistered from
+ * Protocolize once its last script listener is removed.
+ * @param <T> The packet to listen for
+ */
+public class ProtocolizeDispatcher<T> extends AbstractPacketListener<T> {
+
+    private static final ScriptPacketListener<?>[] EMPTY = new ScriptPacketListener<?>[0];
+
+    private volatile ScriptPacketListener<?>[] handlers;
+
+    /**
+     *
+     * @param packet The packet this dispatcher listens for
+     * @param direction The {@link dev.simplix.protocolize.api.Direction} of this dispatcher
+     * @param priority The priority this dispatcher is registered at
+     */
+    public ProtocolizeDispatcher(Class<T> packet, Direction direction, int priority) {
+        super(packet, direction, priority);
+        this.handlers = EMPTY;
+    }
+
+    /**
+     * Called internally when the packet is received.
+     * @param event The packet receive event
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void packetReceive(PacketReceiveEvent<T> event) {
+        for (ScriptPacketListener<?> handler : handlers) {
+            try {
+                ((ScriptPacketListener<T>) handler).packetReceive(event);
+            } catch (RuntimeException e) {
+                //Isolate scripts from one another; a non-Python exception in one listener should not prevent the remaining listeners from running
+                PyCore.get().getLogger().error("Unhandled exception when dispatching received packet '{}' to script '{}'", type().getSimpleName(), handler.getScript().getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Called internally when the packet is sent.
+     * @param event The packet send event
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void packetSend(PacketSendEvent<T> event) {
+        for (ScriptPacketListener<?> handler : handlers) {
+            try {
+                ((ScriptPacketListener<T>) handler).packetSend(event);
+            } catch (RuntimeException e) {
+                PyCore.get().getLogger().error("Unhandled exception when dispatching sent packet '{}' to script '{}'", type().getSimpleName(), handler.getScript().getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Get the script packet listeners this dispatcher currently dispatches to, in registration order.
+     * @return An immutable list of script packet listeners
+     */
+    public List<ScriptPacketListener<?>> getHandlers() {
+        return List.of(handlers);
+    }
+
+    /**
+     * Prints a representation of this ProtocolizeDispatcher in string format, including the packet, direction, priority, and number of script packet listeners
+     * @return A string representation of the ProtocolizeDispatcher
+     */
+    @Override
+    public String toString() {
+        return String.format("ProtocolizeDispatcher[Packet: %s, Direction: %s, Priority: %d, Handlers: %d]", type().getSimpleName(), direction(), priority(), handlers.length);
+    }
+
+    protected synchronized void addHandler(ScriptPacketListener<?> listener) {
+        ScriptPacketListener<?>[] current = handlers;
+        ScriptPacketListener<?>[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        handlers = updated;
+    }
+
+    protected synchronized void removeHandlers(Collection<ScriptPacketListener<?>> listeners) {
+        List<ScriptPacketListener<?>> remaining = new ArrayList<>(handlers.length);
+        for (ScriptPacketListener<?> handler : handlers) {
+            if (!listeners.contains(handler))
+                remaining.add(handler);
+        }
+        handlers = remaining.isEmpty() ? EMPTY : remaining.toArray(EMPTY);
+    }
+
+    protected boolean isEmpty() {
+        return handlers.length == 0;
+    }
+
+    protected static Key key(Class<?> packet, Direction direction, int priority) {
+        return new Key(packet, direction, priority);
+    }
+
+    protected static final class Key {
+
+        private final Class<?> packet;
+        private final Direction direction;
+        private final int priority;
+
+        private Key(Class<?> packet, Direction direction, int priority) {
+            this.packet = packet;
+            this.direction = direction;
+            this.priority = priority;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key other))
+                return false;
+            return packet.equals(other.packet) && direction == other.direction && priority == other.priority;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(packet, direction, priority);
+        }
+    }
+}
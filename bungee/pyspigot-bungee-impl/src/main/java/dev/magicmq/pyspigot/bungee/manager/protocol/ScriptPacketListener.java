@@ -16,6 +16,9 @@
 
 package dev.magicmq.pyspigot.bungee.manager.protocol;
 
+import dev.magicmq.pyspigot.manager.packet.PacketDirection;
+import dev.magicmq.pyspigot.manager.packet.PacketMetrics;
+import dev.magicmq.pyspigot.manager.packet.PacketMetricsManager;
 import dev.magicmq.pyspigot.manager.script.Script;
 import dev.magicmq.pyspigot.manager.script.ScriptManager;
 import dev.magicmq.pyspigot.util.ScriptContext;
@@ -31,6 +34,9 @@ import org.python.core.ThreadState;
 
 /**
  * A script listener that listens for BungeeCord packets.
+ * <p>
+ * Script listeners are not registered with Protocolize individually. Each one is dispatched to by the
+ * {@link ProtocolizeDispatcher} for its packet, direction, and priority.
  * @param <T> The packet to listen for
  */
 public class ScriptPacketListener<T> extends AbstractPacketListener<T> {
@@ -38,12 +44,16 @@ public class ScriptPacketListener<T> extends AbstractPacketListener<T> {
     private final Script script;
     private final PyFunction receiveFunction;
     private final PyFunction sendFunction;
+    private final PacketMetrics receiveMetrics;
+    private final PacketMetrics sendMetrics;
+
+    private ProtocolizeDispatcher<?> dispatcher;
 
     /**
      *
      * @param script The script associated with this packet listener
-     * @param receiveFunction The function to be called when the packet is received
-     * @param sendFunction The function to be called when the packet is sent
+     * @param receiveFunction The function to be called when the packet is received, or null if received packets should not be handled
+     * @param sendFunction The function to be called when the packet is sent, or null if sent packets should not be handled
      * @param packet The packet to listen for
      * @param direction The {@link dev.simplix.protocolize.api.Direction} of the listener
      * @param priority The priority of the listener
@@ -53,6 +63,10 @@ public class ScriptPacketListener<T> extends AbstractPacketListener<T> {
         this.script = script;
         this.receiveFunction = receiveFunction;
         this.sendFunction = sendFunction;
+
+        String name = packet.getSimpleName() + " (" + direction.name() + ")";
+        this.receiveMetrics = receiveFunction != null ? PacketMetricsManager.get().getOrCreate(script, name, PacketDirection.INBOUND) : null;
+        this.sendMetrics = sendFunction != null ? PacketMetricsManager.get().getOrCreate(script, name, PacketDirection.OUTBOUND) : null;
     }
 
     /**
@@ -71,12 +85,34 @@ public class ScriptPacketListener<T> extends AbstractPacketListener<T> {
         return sendFunction;
     }
 
+    /**
+     * Get the traffic metrics this listener records received packets into.
+     * @return The metrics for received packets, or null if this listener does not handle received packets
+     */
+    public PacketMetrics getReceiveMetrics() {
+        return receiveMetrics;
+    }
+
+    /**
+     * Get the traffic metrics this listener records sent packets into.
+     * @return The metrics for sent packets, or null if this listener does not handle sent packets
+     */
+    public PacketMetrics getSendMetrics() {
+        return sendMetrics;
+    }
+
     /**
      * Called internally when the packet is received.
      * @param event The packet receive event
      */
     @Override
     public void packetReceive(PacketReceiveEvent<T> event) {
+        if (receiveFunction == null)
+            return;
+
+        long start = System.nanoTime();
+        boolean wasCancelled = event.cancelled();
+        T packet = event.packet();
         try {
             Py.setSystemState(script.getInterpreter().getSystemState());
             ThreadState threadState = Py.getThreadState(script.getInterpreter().getSystemState());
@@ -85,6 +121,7 @@ public class ScriptPacketListener<T> extends AbstractPacketListener<T> {
         } catch (PyException exception) {
             ScriptManager.get().handleScriptException(script, exception, "Error when calling packet receive listener");
         }
+        receiveMetrics.record(System.nanoTime() - start, !wasCancelled && event.cancelled(), event.packet() != packet);
     }
 
     /**
@@ -93,6 +130,12 @@ public class ScriptPacketListener<T> extends AbstractPacketListener<T> {
      */
     @Override
     public void packetSend(PacketSendEvent<T> event) {
+        if (sendFunction == null)
+            return;
+
+        long start = System.nanoTime();
+        boolean wasCancelled = event.cancelled();
+        T packet = event.packet();
         try {
             Py.setSystemState(script.getInterpreter().getSystemState());
             ThreadState threadState = Py.getThreadState(script.getInterpreter().getSystemState());
@@ -101,6 +144,7 @@ public class ScriptPacketListener<T> extends AbstractPacketListener<T> {
         } catch (PyException exception) {
             ScriptManager.get().handleScriptException(script, exception, "Error when calling packet send listener");
         }
+        sendMetrics.record(System.nanoTime() - start, !wasCancelled && event.cancelled(), event.packet() != packet);
     }
 
     /**
@@ -111,6 +155,18 @@ public class ScriptPacketListener<T> extends AbstractPacketListener<T> {
         return script;
     }
 
+    /**
+     * Get the dispatcher that dispatches packets to this listener.
+     * @return The dispatcher
+     */
+    public ProtocolizeDispatcher<?> getDispatcher() {
+        return dispatcher;
+    }
+
+    protected void setDispatcher(ProtocolizeDispatcher<?> dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
     /**
      * Prints a representation of this ScriptPacketListener in string format, including the packet type listened to by the listener
      * @return A string representation of the ScriptPacketListener
@@ -22,6 +22,7 @@ import dev.magicmq.pyspigot.bungee.config.BungeeProjectOptionsConfig;
 import dev.magicmq.pyspigot.bungee.event.ScriptExceptionEvent;
 import dev.magicmq.pyspigot.bungee.event.ScriptLoadEvent;
 import dev.magicmq.pyspigot.bungee.event.ScriptUnloadEvent;
+import dev.magicmq.pyspigot.bungee.manager.listener.BungeeListenerManager;
 import dev.magicmq.pyspigot.bungee.manager.protocol.ProtocolManager;
 import dev.magicmq.pyspigot.config.ProjectOptionsConfig;
 import dev.magicmq.pyspigot.manager.script.Script;
@@ -143,6 +144,21 @@ public class BungeeScriptManager extends ScriptManager {
         unloadScript(script, error);
     }
 
+    @Override
+    protected void onScriptStarting(Script script) {
+        BungeeListenerManager.get().stageListeners(script);
+    }
+
+    @Override
+    protected void onScriptStarted(Script script) {
+        BungeeListenerManager.get().commitListeners(script);
+    }
+
+    @Override
+    protected void onScriptStartFailed(Script script) {
+        BungeeListenerManager.get().unregisterListeners(script);
+    }
+
     /**
      * Get the singleton instance of this BungeeScriptManager.
      * @return The instance
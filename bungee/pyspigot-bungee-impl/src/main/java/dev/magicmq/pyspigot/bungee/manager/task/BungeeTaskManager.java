@@ -107,7 +107,7 @@ public class BungeeTaskManager extends TaskManager<ScheduledTask> {
      */
     public synchronized Task<ScheduledTask> runTaskLaterAsync(PyFunction function, long delay, TimeUnit delayUnit, Object... functionArgs) {
         Script script = ScriptContext.require();
-        Task<ScheduledTask> task = new Task<>(script, function, functionArgs, true, delay);
+        Task<ScheduledTask> task = new Task<>(script, function, functionArgs, true, delay, delayUnit);
         addTask(task);
         task.setPlatformTask(runTaskLaterAsyncImpl(task, delay, delayUnit));
         return task;
@@ -126,7 +126,7 @@ public class BungeeTaskManager extends TaskManager<ScheduledTask> {
      */
     public synchronized RepeatingTask<ScheduledTask> scheduleAsyncRepeatingTask(PyFunction function, long delay, long interval, TimeUnit intervalUnit, Object... functionArgs) {
         Script script = ScriptContext.require();
-        RepeatingTask<ScheduledTask> task = new RepeatingTask<>(script, function, functionArgs, true, delay, interval);
+        RepeatingTask<ScheduledTask> task = new RepeatingTask<>(script, function, functionArgs, true, delay, intervalUnit, interval, intervalUnit);
         addTask(task);
         task.setPlatformTask(scheduleAsyncRepeatingTaskImpl(task, delay, interval, intervalUnit));
         return task;
@@ -201,6 +201,19 @@ public class BungeeTaskManager extends TaskManager<ScheduledTask> {
         return null;
     }
 
+    @Override
+    protected synchronized ScheduledTask scheduleTickingImpl(Runnable runnable) {
+        //Synchronous tasks not implemented in BungeeCord, so ticking runnables run asynchronously once per tick-equivalent
+        return ProxyServer.getInstance()
+                .getScheduler()
+                .schedule(PyBungee.get().getPlugin(), runnable, ticksToMillis(1), ticksToMillis(1), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected synchronized ScheduledTask runAsyncImpl(Runnable runnable) {
+        return ProxyServer.getInstance().getScheduler().runAsync(PyBungee.get().getPlugin(), runnable);
+    }
+
     @Override
     protected void stopTaskImpl(ScheduledTask platformTask) {
         ProxyServer.getInstance().getScheduler().cancel(platformTask);
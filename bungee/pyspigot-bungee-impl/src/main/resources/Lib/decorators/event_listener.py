@@ -5,8 +5,9 @@ Contains decorators for registering event listeners.
 import pyspigot as ps
 
 from net.md_5.bungee.event import EventPriority
+from decorators._rate_limit import build_rate_limiter
 
-def event_listener(event_class, priority=EventPriority.NORMAL):
+def event_listener(event_class, priority=EventPriority.NORMAL, max_per_tick=None, one_in=None, adaptive_mspt=None, adaptive_one_in=None):
     """
     Register an event listener by decorating a function. The decorated function will be called when the event occurs.
 
@@ -15,11 +16,16 @@ def event_listener(event_class, priority=EventPriority.NORMAL):
 
     :param event_class: The event class to listen to
     :param priority: The priority of the event
+    :param max_per_tick: If set, the function is called at most this many times per tick (50 milliseconds). Further events are suppressed
+    :param one_in: If set, the function is only called for one in every this many events
+    :param adaptive_mspt: If set, while the server's MSPT is above this value, the function is only called for one in every adaptive_one_in events. BungeeCord does not have a tick loop, so this never engages
+    :param adaptive_one_in: The sampling interval used while the server's MSPT is above adaptive_mspt. Defaults to 2
     """
 
     def _decorator(function):
         listener_manager = ps.listener_manager()
-        listener = listener_manager.registerListener(function, event_class, priority)
+        rate_limiter = build_rate_limiter(max_per_tick, one_in, adaptive_mspt, adaptive_one_in)
+        listener = listener_manager.registerListener(function, event_class, priority, rate_limiter)
         function.registered_listener = listener
 
         def _unregister():
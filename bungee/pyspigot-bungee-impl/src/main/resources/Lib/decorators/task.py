@@ -7,6 +7,8 @@ synchronous tasks are not supported here.
 
 import pyspigot as ps
 
+from decorators.coroutines import coroutine
+
 
 def _schedule(function, delay, interval, time_unit, function_args):
     task_manager = ps.task_manager()
@@ -57,4 +59,7 @@ def async_task(delay=0, interval=0, time_unit=None, *args):
     return _decorator
 
 
-__all__ = ['async_task']
+__all__ = [
+    'async_task',
+    'coroutine'
+]
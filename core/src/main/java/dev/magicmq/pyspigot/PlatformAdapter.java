@@ -134,4 +134,10 @@ public interface PlatformAdapter {
      */
     boolean isPacketEventsAvailable();
 
+    /**
+     * Get the server's average tick time via a platform-specific implementation.
+     * @return The average tick time (MSPT), in milliseconds, or -1 if the platform does not run a tick loop
+     */
+    double getAverageTickTime();
+
 }
@@ -25,6 +25,7 @@ import dev.magicmq.pyspigot.manager.packetevents.PacketEventsManager;
 import dev.magicmq.pyspigot.manager.redis.RedisManager;
 import dev.magicmq.pyspigot.manager.script.GlobalVariables;
 import dev.magicmq.pyspigot.manager.script.ScriptManager;
+import dev.magicmq.pyspigot.util.OrderedExecutor;
 import dev.magicmq.pyspigot.util.StringUtils;
 import org.slf4j.Logger;
 
@@ -142,6 +143,7 @@ public class PyCore {
             ScriptManager.get().shutdown();
         if (LibraryManager.get() != null)
             LibraryManager.get().shutdown();
+        OrderedExecutor.shutdownWorkers();
 
         if (metrics != null)
             metrics.shutdown();
@@ -231,6 +233,14 @@ public class PyCore {
         return adapter.isPacketEventsAvailable();
     }
 
+    /**
+     * Get the server's average tick time.
+     * @return The average tick time (MSPT), in milliseconds, or -1 if the platform does not run a tick loop (such as a proxy)
+     */
+    public double getAverageTickTime() {
+        return adapter.getAverageTickTime();
+    }
+
     /**
      * Get the plugin configuration for PySpigot.
      * @return The PySpigot plugin config
@@ -22,9 +22,11 @@ import dev.magicmq.pyspigot.command.subcommands.InfoCommand;
 import dev.magicmq.pyspigot.command.subcommands.ListScriptsCommand;
 import dev.magicmq.pyspigot.command.subcommands.LoadCommand;
 import dev.magicmq.pyspigot.command.subcommands.LoadLibraryCommand;
+import dev.magicmq.pyspigot.command.subcommands.PacketsCommand;
 import dev.magicmq.pyspigot.command.subcommands.ReloadAllCommand;
 import dev.magicmq.pyspigot.command.subcommands.ReloadCommand;
 import dev.magicmq.pyspigot.command.subcommands.ReloadConfigCommand;
+import dev.magicmq.pyspigot.command.subcommands.TasksCommand;
 import dev.magicmq.pyspigot.command.subcommands.UnloadCommand;
 import dev.magicmq.pyspigot.util.player.CommandSenderAdapter;
 import net.kyori.adventure.text.Component;
@@ -61,6 +63,8 @@ public class PySpigotCommand {
         subCommands.add(new HelpCommand());
         subCommands.add(new ReloadAllCommand());
         subCommands.add(new InfoCommand());
+        subCommands.add(new TasksCommand());
+        subCommands.add(new PacketsCommand());
         subCommands.sort((o1, o2) -> {
             SubCommandMeta subCommandMeta1 = o1.getClass().getAnnotation(SubCommandMeta.class);
             SubCommandMeta subCommandMeta2 = o2.getClass().getAnnotation(SubCommandMeta.class);
@@ -0,0 +1,136 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.command.subcommands;
+
+import dev.magicmq.pyspigot.command.SubCommand;
+import dev.magicmq.pyspigot.command.SubCommandMeta;
+import dev.magicmq.pyspigot.manager.packet.PacketMetrics;
+import dev.magicmq.pyspigot.manager.packet.PacketMetricsManager;
+import dev.magicmq.pyspigot.manager.script.Script;
+import dev.magicmq.pyspigot.manager.script.ScriptManager;
+import dev.magicmq.pyspigot.util.player.CommandSenderAdapter;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+@SubCommandMeta(
+        command = "packets",
+        aliases = {"packetmetrics"},
+        permission = "pyspigot.command.packets",
+        description = "Print packet listener metrics (packets intercepted, cancelled and modified, handling time) per script and packet type, optionally for a single script or project",
+        usage = "[script/project]"
+)
+public class PacketsCommand implements SubCommand {
+
+    @Override
+    public boolean onCommand(CommandSenderAdapter sender, String[] args) {
+        if (args.length > 0) {
+            Script script = ScriptManager.get().getScriptByName(args[0]);
+            if (script == null) {
+                sender.sendMessage(Component.text("No running script or project found with the name '" + args[0] + "'.", NamedTextColor.RED));
+                return true;
+            }
+
+            List<PacketMetrics> metrics = PacketMetricsManager.get().getMetrics(script);
+            if (metrics.isEmpty()) {
+                sender.sendMessage(Component.text("The script '" + script.getName() + "' has not registered any packet listeners.", NamedTextColor.YELLOW));
+                return true;
+            }
+
+            sender.sendMessage(printMetrics(script, metrics));
+        } else {
+            Map<Script, List<PacketMetrics>> allMetrics = PacketMetricsManager.get().getMetrics();
+            if (allMetrics.isEmpty()) {
+                sender.sendMessage(Component.text("No scripts have registered any packet listeners.", NamedTextColor.YELLOW));
+                return true;
+            }
+
+            TextComponent.Builder builder = Component.text();
+            builder.append(Component.text("Packet metrics (sorted by total handling time)", NamedTextColor.GOLD, TextDecoration.BOLD, TextDecoration.UNDERLINED));
+            allMetrics.entrySet().stream()
+                    .sorted(Comparator.comparingDouble((Map.Entry<Script, List<PacketMetrics>> entry) -> totalMillis(entry.getValue())).reversed())
+                    .forEach(entry -> {
+                        long intercepted = 0;
+                        long cancelled = 0;
+                        long modified = 0;
+                        double max = 0;
+                        for (PacketMetrics metrics : entry.getValue()) {
+                            intercepted += metrics.getIntercepted();
+                            cancelled += metrics.getCancelled();
+                            modified += metrics.getModified();
+                            max = Math.max(max, metrics.getMaxMillis());
+                        }
+                        builder.appendNewline();
+                        builder.append(Component.text()
+                                .append(Component.text(entry.getKey().getName() + ": ", NamedTextColor.GOLD))
+                                .append(Component.text(String.format("%d packet types, %d intercepted, %d cancelled, %d modified, handling total %.2fms / max %.3fms",
+                                        entry.getValue().size(),
+                                        intercepted,
+                                        cancelled,
+                                        modified,
+                                        totalMillis(entry.getValue()),
+                                        max))));
+                    });
+            sender.sendMessage(builder.build());
+        }
+        return true;
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSenderAdapter sender, String[] args) {
+        if (args.length > 0) {
+            return List.copyOf(ScriptManager.get().getLoadedScriptNames());
+        } else {
+            return List.of();
+        }
+    }
+
+    private TextComponent printMetrics(Script script, List<PacketMetrics> metrics) {
+        TextComponent.Builder builder = Component.text();
+
+        builder.append(Component.text("Packet metrics for " + script.getName() + " (sorted by total handling time)", NamedTextColor.GOLD, TextDecoration.BOLD, TextDecoration.UNDERLINED));
+        for (PacketMetrics packetMetrics : metrics) {
+            builder.appendNewline();
+            builder.append(Component.text()
+                    .append(Component.text(packetMetrics.getPacketType() + " (" + packetMetrics.getDirection().name().toLowerCase() + "): ", NamedTextColor.GOLD))
+                    .append(Component.text(String.format("%d intercepted, %d cancelled, %d modified, handling avg %.3fms / p50 %.3fms / p99 %.3fms / max %.3fms / total %.2fms",
+                            packetMetrics.getIntercepted(),
+                            packetMetrics.getCancelled(),
+                            packetMetrics.getModified(),
+                            packetMetrics.getAverageMillis(),
+                            packetMetrics.getPercentileMillis(50),
+                            packetMetrics.getPercentileMillis(99),
+                            packetMetrics.getMaxMillis(),
+                            packetMetrics.getTotalMillis()))));
+        }
+
+        return builder.build();
+    }
+
+    private static double totalMillis(List<PacketMetrics> metrics) {
+        double total = 0;
+        for (PacketMetrics packetMetrics : metrics) {
+            total += packetMetrics.getTotalMillis();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package dev.magicmq.pyspigot.command.subcommands;
+
+import dev.magicmq.pyspigot.command.SubCommand;
+import dev.magicmq.pyspigot.command.SubCommandMeta;
+import dev.magicmq.pyspigot.manager.script.Script;
+import dev.magicmq.pyspigot.manager.script.ScriptManager;
+import dev.magicmq.pyspigot.manager.task.TaskManager;
+import dev.magicmq.pyspigot.manager.task.TaskMetrics;
+import dev.magicmq.pyspigot.util.player.CommandSenderAdapter;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+@SubCommandMeta(
+        command = "tasks",
+        aliases = {"taskmetrics", "scheduler"},
+        permission = "pyspigot.command.tasks",
+        description = "Print scheduler metrics (queue latency, execution time, overruns) for tasks, optionally for a single script or project",
+        usage = "[script/project]"
+)
+public class TasksCommand implements SubCommand {
+
+    @Override
+    public boolean onCommand(CommandSenderAdapter sender, String[] args) {
+        if (args.length > 0) {
+            Script script = ScriptManager.get().getScriptByName(args[0]);
+            if (script == null) {
+                sender.sendMessage(Component.text("No running script or project found with the name '" + args[0] + "'.", NamedTextColor.RED));
+                return true;
+            }
+
+            TaskMetrics metrics = TaskManager.get().getTaskMetrics(script);
+            if (metrics == null) {
+                sender.sendMessage(Component.text("The script '" + script.getName() + "' has not scheduled any tasks.", NamedTextColor.YELLOW));
+                return true;
+            }
+
+            sender.sendMessage(printMetrics(script, metrics));
+        } else {
+            Map<Script, TaskMetrics> allMetrics = TaskManager.get().getTaskMetrics();
+            if (allMetrics.isEmpty()) {
+                sender.sendMessage(Component.text("No scripts have scheduled any tasks.", NamedTextColor.YELLOW));
+                return true;
+            }
+
+            TextComponent.Builder builder = Component.text();
+            builder.append(Component.text("Task metrics (sorted by total execution time)", NamedTextColor.GOLD, TextDecoration.BOLD, TextDecoration.UNDERLINED));
+            allMetrics.entrySet().stream()
+                    .sorted(Comparator.comparingDouble((Map.Entry<Script, TaskMetrics> entry) -> entry.getValue().getTotalExecutionMillis()).reversed())
+                    .forEach(entry -> {
+                        TaskMetrics metrics = entry.getValue();
+                        builder.appendNewline();
+                        builder.append(Component.text()
+                                .append(Component.text(entry.getKey().getName() + ": ", NamedTextColor.GOLD))
+                                .append(Component.text(String.format("%d runs, latency avg %.2fms / max %.2fms, execution avg %.2fms / max %.2fms, %d overruns",
+                                        metrics.getRuns(),
+                                        metrics.getAverageQueueLatencyMillis(),
+                                        metrics.getMaxQueueLatencyMillis(),
+                                        metrics.getAverageExecutionMillis(),
+                                        metrics.getMaxExecutionMillis(),
+                                        metrics.getOverruns()))));
+                    });
+            sender.sendMessage(builder.build());
+        }
+        return true;
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSenderAdapter sender, String[] args) {
+        if (args.length > 0) {
+            return List.copyOf(ScriptManager.get().getLoadedScriptNames());
+        } else {
+            return List.of();
+        }
+    }
+
+    private TextComponent printMetrics(Script script, TaskMetrics metrics) {
+        TextComponent.Builder builder = Component.text();
+
+        builder.append(Component.text("Task metrics for " + script.getName(), NamedTextColor.GOLD, TextDecoration.BOLD, TextDecoration.UNDERLINED));
+        builder.appendNewline();
+        builder.append(line("Active tasks: ", String.valueOf(TaskManager.get().getTasks(script).size())));
+        builder.appendNewline();
+        builder.append(line("Executions: ", String.valueOf(metrics.getRuns())));
+        builder.appendNewline();
+        builder.append(line("Queue latency: ", String.format("avg %.2fms, max %.2fms", metrics.getAverageQueueLatencyMillis(), metrics.getMaxQueueLatencyMillis())));
+        builder.appendNewline();
+        builder.append(line("Execution time: ", String.format("avg %.2fms, max %.2fms, total %.2fms", metrics.getAverageExecutionMillis(), metrics.getMaxExecutionMillis(), metrics.getTotalExecutionMillis())));
+        builder.appendNewline();
+        builder.append(line("Repeating task overruns: ", String.valueOf(metrics.getOverruns())));
+        builder.appendNewline();
+        builder.append(line("Sync callback hops: ", String.format("%d, avg %.2fms, max %.2fms", metrics.getCallbackHops(), metrics.getAverageCallbackHopMillis(), metrics.getMaxCallbackHopMillis())));
+
+        return builder.build();
+    }
+
+    private Component line(String label, String value) {
+        return Component.text().append(Component.text(label, NamedTextColor.GOLD)).append(Component.text(value)).build();
+    }
+}
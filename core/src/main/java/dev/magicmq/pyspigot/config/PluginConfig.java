@@ -60,6 +60,26 @@ public interface PluginConfig {
 
     Map<String, Object> scriptOptionPermissions();
 
+    boolean multiplexedEventDispatch();
+
+    int asyncListenerQueueLimit();
+
+    String asyncListenerExecutor();
+
+    int asyncListenerThreads();
+
+    int databaseExecutorThreads();
+
+    boolean databaseVirtualThreads();
+
+    int databaseQueueLimit();
+
+    int databaseQueryTimeout();
+
+    int databaseWriteBehindBatchSize();
+
+    long databaseWriteBehindInterval();
+
     boolean shouldShowUpdateMessages();
 
     String jythonLoggingLevel();
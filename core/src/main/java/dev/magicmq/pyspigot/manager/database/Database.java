@@ -2,6 +2,9 @@ package dev.magicmq.pyspigot.manager.database;
 
 import dev.magicmq.pyspigot.manager.script.Script;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Represents a database to which a script is connected and can read/write.
  */
@@ -49,6 +52,47 @@ public abstract class Database {
         return databaseId;
     }
 
+    /**
+     * Called by the {@link DatabaseManager} before this database is disconnected, while asynchronous operations can still
+     * be submitted and complete. Subclasses may override this to write out any buffered work. Does nothing by default.
+     */
+    protected void prepareDisconnect() {
+    }
+
+    /**
+     * Run an operation against this database asynchronously, on the script's {@link DatabaseExecutor}.
+     * @param operation The operation to run
+     * @return A {@link DatabaseFuture} that completes with the result of the operation
+     * @param <R> The type of the operation's result
+     */
+    protected <R> DatabaseFuture<R> submitAsync(Callable<R> operation) {
+        return submitAsync(operation, true);
+    }
+
+    /**
+     * Run an operation against this database asynchronously, on the script's {@link DatabaseExecutor}.
+     * @param operation The operation to run
+     * @param timed Whether the operation's future should fail once the executor's timeout elapses. Operations whose
+     *              completion must reflect when they actually finished running should pass false
+     * @return A {@link DatabaseFuture} that completes with the result of the operation
+     * @param <R> The type of the operation's result
+     */
+    protected <R> DatabaseFuture<R> submitAsync(Callable<R> operation, boolean timed) {
+        DatabaseExecutor executor = DatabaseManager.get().getOrCreateExecutor(script);
+        return new DatabaseFuture<>(executor, executor.submit(operation, timed));
+    }
+
+    /**
+     * Wrap a future that is completed elsewhere (rather than on the script's {@link DatabaseExecutor}) as a
+     * {@link DatabaseFuture}, so that scripts can handle it in the same way as other asynchronous operations.
+     * @param future The future to wrap
+     * @return A DatabaseFuture backed by the future
+     * @param <R> The type of the operation's result
+     */
+    protected <R> DatabaseFuture<R> wrapAsync(CompletableFuture<R> future) {
+        return new DatabaseFuture<>(DatabaseManager.get().getOrCreateExecutor(script), future);
+    }
+
     /**
      * Prints a representation of this Database in string format.
      * @return A string representation of this Database
@@ -0,0 +1,307 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.database;
+
+
+import dev.magicmq.pyspigot.manager.script.Script;
+import dev.magicmq.pyspigot.util.ScriptContext;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An executor that runs a script's asynchronous database operations, backed by either a bounded thread pool or virtual
+ * threads.
+ * <p>
+ * The number of operations in flight (running or waiting to run) is limited to the number of threads plus the queue
+ * limit; once the limit is reached, further operations fail immediately rather than queueing without bound. With virtual
+ * threads, where every operation starts on its own thread immediately, this means at most queue limit operations may be
+ * running or blocked waiting for a connection at once. Operations run with the owning script bound as the current
+ * {@link ScriptContext}. Operations that are still queued when the executor is shut down are cancelled.
+ * <p>
+ * The timeout only fails an operation's future; an operation that is already running is not interrupted, and may still
+ * complete (and take effect) after its future has failed.
+ * @see DatabaseManager
+ */
+public class DatabaseExecutor {
+
+    private final Script script;
+    private final String name;
+    private final ExecutorService executor;
+    private final int threads;
+    private final int queueLimit;
+    private final int timeout;
+    private final Semaphore permits;
+    private final AtomicInteger pending;
+    private final LongAdder completed;
+    private final LongAdder failed;
+    private final LongAdder rejected;
+    private final LongAdder queueNanos;
+    private final AtomicLong maxQueueNanos;
+    private final LongAdder runNanos;
+
+    private volatile boolean shutdown;
+
+    /**
+     *
+     * @param script The script whose database operations this executor runs
+     * @param threads The number of threads in the pool, or 0 to run each operation on a new virtual thread
+     * @param queueLimit The maximum number of operations that may be waiting to run, in addition to those running on the
+     *                   pool's threads. With virtual threads, the maximum number of operations running or waiting at once
+     * @param timeout The maximum time, in seconds, after which an operation's future fails if the operation has not
+     *                completed, or 0 for no limit
+     */
+    protected DatabaseExecutor(Script script, int threads, int queueLimit, int timeout) {
+        this.script = script;
+        this.name = "PySpigot-db-" + script.getName();
+        this.threads = Math.max(threads, 0);
+        this.queueLimit = Math.max(queueLimit, 1);
+        this.timeout = Math.max(timeout, 0);
+        this.permits = new Semaphore(this.threads + this.queueLimit);
+        this.pending = new AtomicInteger();
+        this.completed = new LongAdder();
+        this.failed = new LongAdder();
+        this.rejected = new LongAdder();
+        this.queueNanos = new LongAdder();
+        this.maxQueueNanos = new AtomicLong();
+        this.runNanos = new LongAdder();
+
+        if (this.threads > 0) {
+            AtomicInteger count = new AtomicInteger();
+            ThreadFactory factory = runnable -> {
+                Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(this.threads, this.threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), factory);
+            pool.allowCoreThreadTimeOut(true);
+            this.executor = pool;
+        } else
+            this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 1).factory());
+    }
+
+    /**
+     * Get the script whose database operations this executor runs.
+     * @return The script
+     */
+    public Script getScript() {
+        return script;
+    }
+
+    /**
+     * Get the name of this executor, which is also the prefix of its thread names.
+     * @return The name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Check if this executor runs operations on virtual threads.
+     * @return True if this executor uses virtual threads, false if it uses a bounded thread pool
+     */
+    public boolean isVirtual() {
+        return threads == 0;
+    }
+
+    /**
+     * Get the maximum time an operation may take from submission to completion.
+     * @return The timeout, in seconds. Will be 0 if operations are not timed out
+     */
+    public int getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Get the number of operations that have been submitted but have not yet started running.
+     * @return The queue depth
+     */
+    public int getQueueDepth() {
+        return pending.get();
+    }
+
+    /**
+     * Get the number of operations that completed successfully.
+     * @return The number of completed operations
+     */
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    /**
+     * Get the number of operations that threw an exception while running.
+     * @return The number of failed operations
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * Get the number of operations that were rejected because the queue was full or the executor was shut down.
+     * @return The number of rejected operations
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Get the average time operations waited in the queue before they started running.
+     * @return The average queue latency, in milliseconds
+     */
+    public double getAverageQueueLatency() {
+        long count = completed.sum() + failed.sum();
+        return count > 0 ? toMillis(queueNanos.sum()) / count : 0;
+    }
+
+    /**
+     * Get the longest time an operation waited in the queue before it started running.
+     * @return The maximum queue latency, in milliseconds
+     */
+    public double getMaxQueueLatency() {
+        return toMillis(maxQueueNanos.get());
+    }
+
+    /**
+     * Get the average time operations took to run, once started.
+     * @return The average execution time, in milliseconds
+     */
+    public double getAverageExecutionTime() {
+        long count = completed.sum() + failed.sum();
+        return count > 0 ? toMillis(runNanos.sum()) / count : 0;
+    }
+
+    /**
+     * Check if this executor has been shut down.
+     * @return True if this executor has been shut down, false if otherwise
+     */
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    /**
+     * Prints a representation of this DatabaseExecutor in string format, including queue and latency statistics
+     * @return A string representation of the DatabaseExecutor
+     */
+    @Override
+    public String toString() {
+        return String.format("DatabaseExecutor[Name: %s, Threads: %s, Queued: %d/%d, Completed: %d, Failed: %d, Rejected: %d, Avg Queue: %.2fms, Max Queue: %.2fms, Avg Run: %.2fms]",
+                name, isVirtual() ? "virtual" : threads, getQueueDepth(), queueLimit, getCompletedCount(), getFailedCount(), getRejectedCount(), getAverageQueueLatency(), getMaxQueueLatency(), getAverageExecutionTime());
+    }
+
+    protected <R> CompletableFuture<R> submit(Callable<R> operation) {
+        return submit(operation, true);
+    }
+
+    protected <R> CompletableFuture<R> submit(Callable<R> operation, boolean timed) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        if (shutdown) {
+            rejected.increment();
+            future.completeExceptionally(new RejectedExecutionException("Database executor for script '" + script.getName() + "' has been shut down"));
+            return future;
+        }
+
+        //Permits are held until the operation finishes, so that operations blocked on a connection still count
+        if (!permits.tryAcquire()) {
+            rejected.increment();
+            future.completeExceptionally(new RejectedExecutionException("Database queue for script '" + script.getName() + "' is full (" + (threads + queueLimit) + " operations in flight)"));
+            return future;
+        }
+
+        pending.incrementAndGet();
+        try {
+            executor.execute(new Task<>(operation, future));
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            permits.release();
+            rejected.increment();
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        if (timed && timeout > 0)
+            future.orTimeout(timeout, TimeUnit.SECONDS);
+        return future;
+    }
+
+    protected void shutdown() {
+        shutdown = true;
+        for (Runnable runnable : executor.shutdownNow()) {
+            if (runnable instanceof Task<?> task)
+                task.cancel();
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private final class Task<R> implements Runnable {
+
+        private final Callable<R> operation;
+        private final CompletableFuture<R> future;
+        private final long queuedAt;
+
+        private Task(Callable<R> operation, CompletableFuture<R> future) {
+            this.operation = operation;
+            this.future = future;
+            this.queuedAt = System.nanoTime();
+        }
+
+        @Override
+        public void run() {
+            pending.decrementAndGet();
+            //The operation timed out or was cancelled by the script while it was queued
+            if (future.isDone()) {
+                permits.release();
+                return;
+            }
+
+            long startedAt = System.nanoTime();
+            long waited = startedAt - queuedAt;
+            queueNanos.add(waited);
+            maxQueueNanos.accumulateAndGet(waited, Math::max);
+            try (ScriptContext.Scope ignored = ScriptContext.enter(script)) {
+                future.complete(operation.call());
+                completed.increment();
+            } catch (Exception e) {
+                failed.increment();
+                future.completeExceptionally(e);
+            } finally {
+                runNanos.add(System.nanoTime() - startedAt);
+                permits.release();
+            }
+        }
+
+        private void cancel() {
+            pending.decrementAndGet();
+            permits.release();
+            future.completeExceptionally(new CancellationException("Database executor for script '" + script.getName() + "' was shut down"));
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.database;
+
+
+import dev.magicmq.pyspigot.manager.script.Script;
+import dev.magicmq.pyspigot.manager.script.ScriptManager;
+import dev.magicmq.pyspigot.manager.task.TaskManager;
+import dev.magicmq.pyspigot.util.ScriptContext;
+import org.python.core.Py;
+import org.python.core.PyException;
+import org.python.core.PyFunction;
+import org.python.core.PyObject;
+import org.python.core.ThreadState;
+
+import java.sql.SQLException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The pending result of an asynchronous database operation started by a script.
+ * <p>
+ * Scripts will usually register a callback with {@link #thenSync(PyFunction)}, which is called on the main thread once
+ * the operation completes. Callbacks registered after the operation has completed are still called. Callbacks are not
+ * called if the script was unloaded in the meantime.
+ * @param <R> The type of the operation's result
+ */
+public class DatabaseFuture<R> {
+
+    private final Script script;
+    private final DatabaseExecutor executor;
+    private final CompletableFuture<R> future;
+
+    /**
+     *
+     * @param executor The executor the operation was submitted to
+     * @param future The underlying future, completed by the executor
+     */
+    public DatabaseFuture(DatabaseExecutor executor, CompletableFuture<R> future) {
+        this.script = executor.getScript();
+        this.executor = executor;
+        this.future = future;
+    }
+
+    /**
+     * Call a function on the main thread with the result of the operation once it completes successfully. If the
+     * operation fails, the error is logged to the script's logger.
+     * <p>
+     * On platforms without a main thread (BungeeCord and Velocity), the function is called on the thread that completed
+     * the operation.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param callback The function to call with the result. Called with no arguments if the result is null
+     * @return This DatabaseFuture, for chaining
+     */
+    public DatabaseFuture<R> thenSync(PyFunction callback) {
+        return thenSync(callback, null);
+    }
+
+    /**
+     * Call a function on the main thread with the result of the operation once it completes successfully, or another
+     * function with the error if the operation fails.
+     * <p>
+     * On platforms without a main thread (BungeeCord and Velocity), the functions are called on the thread that completed
+     * the operation.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param callback The function to call with the result. Called with no arguments if the result is null. May be null if only failures are of interest
+     * @param errorCallback The function to call with the exception that caused the operation to fail. May be null, in which case the error is logged to the script's logger
+     * @return This DatabaseFuture, for chaining
+     */
+    public DatabaseFuture<R> thenSync(PyFunction callback, PyFunction errorCallback) {
+        future.whenComplete((result, error) -> TaskManager.get().runOnMainThread(() -> deliver(callback, errorCallback, result, error)));
+        return this;
+    }
+
+    /**
+     * Wait for the operation to complete and get its result. This blocks the calling thread, so it should not be called
+     * from the main thread.
+     * @return The result of the operation
+     * @throws SQLException If the operation failed, was cancelled, or timed out
+     */
+    public R get() throws SQLException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for database operation", e);
+        } catch (ExecutionException | CancellationException e) {
+            throw toSQLException(e);
+        }
+    }
+
+    /**
+     * Wait up to the given time for the operation to complete and get its result. This blocks the calling thread, so it
+     * should not be called from the main thread.
+     * @param timeout The maximum time to wait, in milliseconds
+     * @return The result of the operation
+     * @throws SQLException If the operation failed, was cancelled, timed out, or did not complete in the given time
+     */
+    public R get(long timeout) throws SQLException {
+        try {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for database operation", e);
+        } catch (TimeoutException e) {
+            throw new SQLException("Database operation did not complete within " + timeout + "ms", e);
+        } catch (ExecutionException | CancellationException e) {
+            throw toSQLException(e);
+        }
+    }
+
+    /**
+     * Check if the operation has completed, whether successfully, with an error, or by cancellation.
+     * @return True if the operation has completed, false if otherwise
+     */
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    /**
+     * Cancel the operation if it has not yet started running. Operations that are already running are not interrupted.
+     * @return True if the operation was cancelled, false if it had already completed or started
+     */
+    public boolean cancel() {
+        return future.cancel(false);
+    }
+
+    /**
+     * Get the underlying {@link java.util.concurrent.CompletableFuture} for this operation.
+     * @return The underlying future
+     */
+    public CompletableFuture<R> getFuture() {
+        return future;
+    }
+
+    /**
+     * Prints a representation of this DatabaseFuture in string format, including its completion state
+     * @return A string representation of the DatabaseFuture
+     */
+    @Override
+    public String toString() {
+        String state;
+        if (!future.isDone())
+            state = "pending";
+        else if (future.isCancelled())
+            state = "cancelled";
+        else if (future.isCompletedExceptionally())
+            state = "failed";
+        else
+            state = "completed";
+        return String.format("DatabaseFuture[Script: %s, State: %s]", script.getName(), state);
+    }
+
+    private void deliver(PyFunction callback, PyFunction errorCallback, R result, Throwable error) {
+        if (executor.isShutdown())
+            return;
+
+        Throwable cause = unwrap(error);
+        if (cause != null && errorCallback == null) {
+            script.getLogger().error("Asynchronous database operation failed", cause);
+            return;
+        }
+        if (cause == null && callback == null)
+            return;
+
+        try {
+            Py.setSystemState(script.getInterpreter().getSystemState());
+            ThreadState threadState = Py.getThreadState(script.getInterpreter().getSystemState());
+            if (cause != null) {
+                PyObject parameter = Py.java2py(cause);
+                ScriptContext.runWith(script, () -> errorCallback.__call__(threadState, parameter));
+            } else if (result == null)
+                ScriptContext.runWith(script, () -> callback.__call__(threadState));
+            else {
+                PyObject parameter = Py.java2py(result);
+                ScriptContext.runWith(script, () -> callback.__call__(threadState, parameter));
+            }
+        } catch (PyException e) {
+            ScriptManager.get().handleScriptException(script, e, "Error when executing database callback");
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while (error instanceof CompletionException || error instanceof ExecutionException) {
+            if (error.getCause() == null)
+                break;
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    private static SQLException toSQLException(Exception e) {
+        Throwable cause = unwrap(e);
+        if (cause instanceof SQLException sqlException)
+            return sqlException;
+        else if (cause instanceof TimeoutException)
+            return new SQLException("Database operation timed out", cause);
+        else if (cause instanceof CancellationException)
+            return new SQLException("Database operation was cancelled", cause);
+        else
+            return new SQLException("Database operation failed", cause);
+    }
+}
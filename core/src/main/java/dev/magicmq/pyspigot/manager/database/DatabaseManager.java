@@ -3,8 +3,10 @@ package dev.magicmq.pyspigot.manager.database;
 import com.mongodb.ConnectionString;
 import com.mongodb.MongoClientSettings;
 import com.zaxxer.hikari.HikariConfig;
+import dev.magicmq.pyspigot.PyCore;
 import dev.magicmq.pyspigot.exception.ScriptRuntimeException;
 import dev.magicmq.pyspigot.manager.database.mongo.MongoDatabase;
+import dev.magicmq.pyspigot.manager.database.sql.ManagedSQLiteDatabase;
 import dev.magicmq.pyspigot.manager.database.sql.SQLDatabase;
 import dev.magicmq.pyspigot.manager.database.sql.SQLiteDatabase;
 import dev.magicmq.pyspigot.manager.script.Script;
@@ -26,9 +28,11 @@ public class DatabaseManager {
     private static DatabaseManager instance;
 
     private final HashMap<Script, List<Database>> activeConnections;
+    private final HashMap<Script, DatabaseExecutor> executors;
 
     private DatabaseManager() {
         activeConnections = new HashMap<>();
+        executors = new HashMap<>();
     }
 
     /**
@@ -57,6 +61,7 @@ public class DatabaseManager {
         hikariConfig.addDataSourceProperty("cachePrepStmts", true);
         hikariConfig.addDataSourceProperty("prepStmtCacheSize", 250);
         hikariConfig.addDataSourceProperty("prepStmtCacheSqlLimit", 2048);
+        hikariConfig.addDataSourceProperty("rewriteBatchedStatements", true);
 
         return connectSql(host, port, database, username, password, hikariConfig);
     }
@@ -90,6 +95,7 @@ public class DatabaseManager {
         hikariConfig.addDataSourceProperty("cachePrepStmts", true);
         hikariConfig.addDataSourceProperty("prepStmtCacheSize", 250);
         hikariConfig.addDataSourceProperty("prepStmtCacheSqlLimit", 2048);
+        hikariConfig.addDataSourceProperty("rewriteBatchedStatements", true);
         hikariConfig.setJdbcUrl(uri);
 
         return connectSql(hikariConfig);
@@ -192,6 +198,62 @@ public class DatabaseManager {
             throw new ScriptRuntimeException(script, "Failed to open a connection to the SQLite database");
     }
 
+    /**
+     * Open a new managed connection to an SQLite database file, with four read-only connections.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param filePath The path to the database file. This could be a relative path (relative to the root directory of the
+     *                 Minecraft/proxy server), or an absolute path. A new file will be created automatically if one does
+     *                 not already exist
+     * @return A {@link ManagedSQLiteDatabase} object representing an open connection to the database
+     * @throws ScriptRuntimeException If the database file cannot be created or the connection fails to open
+     * @see ManagedSQLiteDatabase
+     */
+    public ManagedSQLiteDatabase connectManagedSQLite(String filePath) {
+        return connectManagedSQLite(filePath, 4);
+    }
+
+    /**
+     * Open a new managed connection to an SQLite database file. Managed SQLite databases are safe to use from several
+     * threads at once (such as asynchronous tasks and asynchronous database operations): the file is opened in WAL mode,
+     * writes are queued to a dedicated writer thread, and reads are served by a pool of read-only connections.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param filePath The path to the database file. This could be a relative path (relative to the root directory of the
+     *                 Minecraft/proxy server), or an absolute path. A new file will be created automatically if one does
+     *                 not already exist
+     * @param readers The number of read-only connections to open
+     * @return A {@link ManagedSQLiteDatabase} object representing an open connection to the database
+     * @throws ScriptRuntimeException If the file path refers to an in-memory database, if the database file cannot be
+     *                                created, or if the connection fails to open
+     * @see ManagedSQLiteDatabase
+     */
+    public ManagedSQLiteDatabase connectManagedSQLite(String filePath, int readers) {
+        Script script = ScriptContext.require();
+
+        if (filePath == null || filePath.isEmpty() || filePath.equals(":memory:"))
+            throw new ScriptRuntimeException(script, "Managed SQLite databases must be backed by a file");
+
+        Path path = Paths.get(filePath);
+        if (!Files.exists(path)) {
+            try {
+                Files.createFile(path);
+            } catch (IOException e) {
+                throw new ScriptRuntimeException("Error when creating database file", e);
+            }
+        }
+
+        String uri = String.format(DatabaseType.MANAGED_SQLITE.getUri(), filePath);
+
+        ManagedSQLiteDatabase connection = new ManagedSQLiteDatabase(script, uri, readers);
+
+        if (connection.open()) {
+            addConnection(connection);
+            return connection;
+        } else
+            throw new ScriptRuntimeException(script, "Failed to open a connection to the SQLite database");
+    }
+
     /**
      * Get a new {@link com.mongodb.MongoClientSettings.Builder} for specifying client settings.
      * <p>
@@ -295,6 +357,7 @@ public class DatabaseManager {
      */
     public boolean disconnect(Database connection) {
         removeConnection(connection);
+        connection.prepareDisconnect();
         return connection.close();
     }
 
@@ -306,6 +369,12 @@ public class DatabaseManager {
     public boolean disconnectAll(Script script) {
         boolean toReturn = false;
 
+        for (Database connection : getConnections(script)) {
+            connection.prepareDisconnect();
+        }
+        //Cancel queued asynchronous operations before their connections are closed out from under them
+        shutdownExecutor(script);
+
         for (Database connection : getConnections(script)) {
             toReturn = connection.close();
         }
@@ -337,6 +406,28 @@ public class DatabaseManager {
                 .toList();
     }
 
+    /**
+     * Get the executor that runs a script's asynchronous database operations.
+     * @param script The script to get the executor for
+     * @return The script's database executor, or null if the script has not performed any asynchronous database operations
+     */
+    public synchronized DatabaseExecutor getExecutor(Script script) {
+        return executors.get(script);
+    }
+
+    protected synchronized DatabaseExecutor getOrCreateExecutor(Script script) {
+        return executors.computeIfAbsent(script, k -> {
+            int threads = PyCore.get().getConfig().databaseVirtualThreads() ? 0 : Math.max(PyCore.get().getConfig().databaseExecutorThreads(), 1);
+            return new DatabaseExecutor(k, threads, PyCore.get().getConfig().databaseQueueLimit(), PyCore.get().getConfig().databaseQueryTimeout());
+        });
+    }
+
+    private synchronized void shutdownExecutor(Script script) {
+        DatabaseExecutor executor = executors.remove(script);
+        if (executor != null)
+            executor.shutdown();
+    }
+
     private void addConnection(Database connection) {
         Script script = connection.getScript();
         if (activeConnections.containsKey(script))
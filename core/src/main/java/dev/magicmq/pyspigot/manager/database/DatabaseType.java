@@ -1,6 +1,7 @@
 package dev.magicmq.pyspigot.manager.database;
 
 import dev.magicmq.pyspigot.manager.database.mongo.MongoDatabase;
+import dev.magicmq.pyspigot.manager.database.sql.ManagedSQLiteDatabase;
 import dev.magicmq.pyspigot.manager.database.sql.SQLDatabase;
 import dev.magicmq.pyspigot.manager.database.sql.SQLiteDatabase;
 
@@ -19,6 +20,11 @@ public enum DatabaseType {
      */
     SQLITE(SQLiteDatabase.class, /*File name*/ "jdbc:sqlite:%s"),
 
+    /**
+     * A managed SQLite database type, with a dedicated writer thread and a pool of read-only connections.
+     */
+    MANAGED_SQLITE(ManagedSQLiteDatabase.class, /*File name*/ "jdbc:sqlite:%s"),
+
     /**
      * A MongoDB database type.
      */
@@ -17,7 +17,9 @@
 package dev.magicmq.pyspigot.manager.database.sql;
 
 
+import dev.magicmq.pyspigot.PyCore;
 import dev.magicmq.pyspigot.manager.database.Database;
+import dev.magicmq.pyspigot.manager.database.DatabaseFuture;
 import dev.magicmq.pyspigot.manager.script.Script;
 
 import java.sql.Connection;
@@ -29,18 +31,26 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
 
 /**
  * An abstraction for all SQL-type databases, including MySQL, MariaDB, and SQLite.
  */
 public abstract class GenericSQLDatabase extends Database {
 
+    private final Set<SQLCursor> openCursors;
+
+    private SQLWriteQueue writeQueue;
+
     /**
      *
      * @param script The script associated with this GenericSQLDatabase
      */
     public GenericSQLDatabase(Script script) {
         super(script);
+        this.openCursors = ConcurrentHashMap.newKeySet();
     }
 
     /**
@@ -69,14 +79,277 @@ public abstract class GenericSQLDatabase extends Database {
      */
     public abstract int update(String sql, Object... values) throws SQLException;
 
-    protected List<Map<String, Object>> select(Connection connection, String sql, Object... values) throws SQLException {
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-            if (values != null) {
-                for (int i = 0; i < values.length; i++) {
-                    statement.setObject(i + 1, values[i]);
+    /**
+     * Select from the SQL database with the provided values that should be inserted into the select statement, returning
+     * the rows in a compact form.
+     * <p>
+     * The result behaves like the result of {@link #select(String, Object...)} (a list of rows that can be read by column
+     * name), but stores the column labels once and each row as a plain array of values, so it uses several times less
+     * memory for large results. Rows can also be read by column index.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param sql The select statement
+     * @param values Optional argument. The values that should be inserted into the select statement
+     * @return An {@link SQLResult} containing the data returned from the selection
+     * @throws SQLException If there was an error when selecting from the database
+     */
+    public SQLResult selectCompact(String sql, Object... values) throws SQLException {
+        return withConnection(connection -> selectCompact(connection, sql, values, 0));
+    }
+
+    /**
+     * Execute a parameterized statement once for each set of provided values, as a single JDBC batch.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param sql The SQL statement
+     * @param values A list of values that should be inserted for each time the statement is executed
+     * @return The number of rows affected by each execution of the statement, in the order of the provided values
+     * @throws SQLException If there was an error when executing the batch
+     */
+    public int[] batch(String sql, List<Object[]> values) throws SQLException {
+        return withWriteConnection(connection -> batch(connection, sql, values, 0));
+    }
+
+    /**
+     * Select from the SQL database with the provided values that should be inserted into the select statement, returning
+     * a cursor that reads rows from the database as they are needed rather than all at once.
+     * <p>
+     * Use this instead of {@link #select(String, Object...)} for large results, such as when exporting or migrating a
+     * table. The cursor should be closed if it is not read to the end; it is also closed when this database is closed
+     * or the script is unloaded.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param sql The select statement
+     * @param fetchSize The number of rows the driver should fetch from the database at a time
+     * @param values Optional argument. The values that should be inserted into the select statement
+     * @return An open {@link SQLCursor} over the selected rows
+     * @throws SQLException If there was an error when executing the select statement
+     * @throws IllegalArgumentException If the fetch size is less than 1
+     */
+    public SQLCursor stream(String sql, int fetchSize, Object... values) throws SQLException {
+        if (fetchSize < 1)
+            throw new IllegalArgumentException("Fetch size must be at least 1");
+
+        SQLCursor cursor = openCursor(sql, fetchSize, values);
+        openCursors.add(cursor);
+        return cursor;
+    }
+
+    /**
+     * Get all cursors opened with {@link #stream(String, int, Object...)} that have not yet been closed.
+     * @return An immutable list of open cursors
+     */
+    public List<SQLCursor> getOpenCursors() {
+        return List.copyOf(openCursors);
+    }
+
+    /**
+     * Get this database's write-behind queue, creating it with the default batch size and flush interval (see the
+     * {@code database-options} section of the config) if it does not already exist.
+     * <p>
+     * Use the write-behind queue for frequent updates whose results are not needed immediately, such as persisting player
+     * statistics. Statements are combined into JDBC batches and written in the background; see {@link SQLWriteQueue}.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @return The write-behind queue
+     */
+    public synchronized SQLWriteQueue writeQueue() {
+        if (writeQueue == null)
+            writeQueue = new SQLWriteQueue(this, PyCore.get().getConfig().databaseWriteBehindBatchSize(), PyCore.get().getConfig().databaseWriteBehindInterval());
+        return writeQueue;
+    }
+
+    /**
+     * Add a parameterized update statement to this database's write-behind queue. Shorthand for
+     * {@code writeQueue().enqueue(sql, values)}.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param sql The update statement
+     * @param values Optional argument. The values that should be inserted into the update statement
+     */
+    public void enqueueUpdate(String sql, Object... values) {
+        writeQueue().enqueue(sql, values);
+    }
+
+    /**
+     * Asynchronously select from the SQL database with the provided values that should be inserted into the select statement.
+     * <p>
+     * The selection runs on the script's database executor (see the {@code database-options} section of the config),
+     * with the statement's query timeout set to the configured {@code query-timeout}.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param sql The select statement
+     * @param values Optional argument. The values that should be inserted into the select statement
+     * @return A {@link DatabaseFuture} that completes with the selected rows, in the same form as {@link #select(String, Object...)}
+     */
+    public DatabaseFuture<List<Map<String, Object>>> selectAsync(String sql, Object... values) {
+        int timeout = PyCore.get().getConfig().databaseQueryTimeout();
+        return submitAsync(() -> withConnection(connection -> select(connection, sql, values, timeout)));
+    }
+
+    /**
+     * Asynchronously select from the SQL database with the provided values that should be inserted into the select
+     * statement, returning the rows in a compact form (see {@link #selectCompact(String, Object...)}).
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param sql The select statement
+     * @param values Optional argument. The values that should be inserted into the select statement
+     * @return A {@link DatabaseFuture} that completes with an {@link SQLResult} containing the selected rows
+     */
+    public DatabaseFuture<SQLResult> selectCompactAsync(String sql, Object... values) {
+        int timeout = PyCore.get().getConfig().databaseQueryTimeout();
+        return submitAsync(() -> withConnection(connection -> selectCompact(connection, sql, values, timeout)));
+    }
+
+    /**
+     * Asynchronously update the SQL database with the provided values that should be inserted into the update statement.
+     * <p>
+     * The update runs on the script's database executor (see the {@code database-options} section of the config), with
+     * the statement's query timeout set to the configured {@code query-timeout}.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param sql The update statement
+     * @param values Optional argument. The values that should be inserted into the update statement
+     * @return A {@link DatabaseFuture} that completes with the number of rows that were affected by the update statement
+     */
+    public DatabaseFuture<Integer> updateAsync(String sql, Object... values) {
+        int timeout = PyCore.get().getConfig().databaseQueryTimeout();
+        return submitAsync(() -> withWriteConnection(connection -> update(connection, sql, values, timeout)));
+    }
+
+    /**
+     * Asynchronously execute a parameterized statement once for each set of provided values, as a single JDBC batch.
+     * <p>
+     * The batch runs on the script's database executor (see the {@code database-options} section of the config), with
+     * the statement's query timeout set to the configured {@code query-timeout}.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param sql The SQL statement
+     * @param values A list of values that should be inserted for each time the statement is executed
+     * @return A {@link DatabaseFuture} that completes with the number of rows affected by each execution of the statement
+     */
+    public DatabaseFuture<int[]> batchAsync(String sql, List<Object[]> values) {
+        int timeout = PyCore.get().getConfig().databaseQueryTimeout();
+        List<Object[]> copy = new ArrayList<>(values);
+        return submitAsync(() -> withWriteConnection(connection -> batch(connection, sql, copy, timeout)));
+    }
+
+    /**
+     * Run a function with a connection to this database. Implementations decide where the connection comes from (for
+     * example, a connection pool) and are responsible for any synchronization the connection requires.
+     * @param function The function to run
+     * @return The value returned by the function
+     * @param <R> The type of value returned by the function
+     * @throws SQLException If there was an error when obtaining the connection, or if the function threw an SQLException
+     */
+    protected abstract <R> R withConnection(ConnectionFunction<R> function) throws SQLException;
+
+    /**
+     * Run a function that writes to this database with a connection to the database. By default, writes use the same
+     * connections as reads; implementations that route writes separately (such as {@link ManagedSQLiteDatabase})
+     * override this.
+     * @param function The function to run
+     * @return The value returned by the function
+     * @param <R> The type of value returned by the function
+     * @throws SQLException If there was an error when obtaining the connection, or if the function threw an SQLException
+     */
+    protected <R> R withWriteConnection(ConnectionFunction<R> function) throws SQLException {
+        return withConnection(function);
+    }
+
+    /**
+     * Execute a select statement and open a cursor over its result. Implementations decide which connection the cursor
+     * reads from, and whether the cursor owns (and should close) that connection.
+     * @param sql The select statement
+     * @param fetchSize The number of rows the driver should fetch from the database at a time
+     * @param values The values that should be inserted into the select statement
+     * @return An open cursor
+     * @throws SQLException If there was an error when executing the select statement
+     */
+    protected abstract SQLCursor openCursor(String sql, int fetchSize, Object[] values) throws SQLException;
+
+    protected SQLCursor openCursor(Connection connection, boolean ownsConnection, Lock lock, String sql, int fetchSize, Object[] values) throws SQLException {
+        PreparedStatement statement = null;
+        try {
+            statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            bind(statement, values);
+            return new SQLCursor(this, ownsConnection ? connection : null, statement, statement.executeQuery(), lock);
+        } catch (SQLException e) {
+            if (statement != null)
+                statement.close();
+            if (ownsConnection)
+                connection.close();
+            throw e;
+        }
+    }
+
+    @Override
+    protected void prepareDisconnect() {
+        closeWriteQueue();
+    }
+
+    protected void closeWriteQueue() {
+        SQLWriteQueue queue;
+        synchronized (this) {
+            queue = writeQueue;
+        }
+        if (queue != null)
+            queue.close();
+    }
+
+    protected int writeBatches(Map<String, List<Object[]>> statements) throws SQLException {
+        return withWriteConnection(connection -> {
+            //Write all batches in one transaction, unless the script is already managing a transaction on this connection
+            boolean autoCommit = connection.getAutoCommit();
+            if (autoCommit)
+                connection.setAutoCommit(false);
+            try {
+                int count = 0;
+                int timeout = PyCore.get().getConfig().databaseQueryTimeout();
+                for (Map.Entry<String, List<Object[]>> entry : statements.entrySet()) {
+                    batch(connection, entry.getKey(), entry.getValue(), timeout);
+                    count += entry.getValue().size();
                 }
+                if (autoCommit)
+                    connection.commit();
+                return count;
+            } catch (SQLException e) {
+                if (autoCommit)
+                    connection.rollback();
+                throw e;
+            } finally {
+                if (autoCommit)
+                    connection.setAutoCommit(true);
             }
+        });
+    }
+
+    protected DatabaseFuture<Integer> writeBatchesAsync(Map<String, List<Object[]>> statements) {
+        //Not timed, so that the future only completes once the flush has actually finished and another may safely start
+        return submitAsync(() -> writeBatches(statements), false);
+    }
+
+    protected void cursorClosed(SQLCursor cursor) {
+        openCursors.remove(cursor);
+    }
+
+    protected void closeCursors() {
+        for (SQLCursor cursor : List.copyOf(openCursors)) {
+            try {
+                cursor.close();
+            } catch (RuntimeException e) {
+                getScript().getLogger().error("Error when closing SQL cursor", e);
+            }
+        }
+    }
+
+    protected List<Map<String, Object>> select(Connection connection, String sql, Object... values) throws SQLException {
+        return select(connection, sql, values, 0);
+    }
 
+    protected List<Map<String, Object>> select(Connection connection, String sql, Object[] values, int timeout) throws SQLException {
+        try (PreparedStatement statement = prepare(connection, sql, values, timeout)) {
             ResultSet result = statement.executeQuery();
 
             ResultSetMetaData metaData = result.getMetaData();
@@ -101,15 +374,87 @@ public abstract class GenericSQLDatabase extends Database {
         }
     }
 
-    protected int update(Connection connection, String sql, Object... values) throws SQLException {
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-            if (values != null) {
-                for (int i = 0; i < values.length; i++) {
-                    statement.setObject(i + 1, values[i]);
+    protected SQLResult selectCompact(Connection connection, String sql, Object[] values, int timeout) throws SQLException {
+        try (PreparedStatement statement = prepare(connection, sql, values, timeout)) {
+            ResultSet result = statement.executeQuery();
+
+            ResultSetMetaData metaData = result.getMetaData();
+            int columnCount = metaData.getColumnCount();
+
+            String[] labels = new String[columnCount];
+            for (int i = 1; i <= columnCount; i++) {
+                labels[i - 1] = metaData.getColumnLabel(i);
+            }
+
+            List<Object[]> rows = new ArrayList<>();
+            while (result.next()) {
+                Object[] row = new Object[columnCount];
+                for (int i = 1; i <= columnCount; i++) {
+                    row[i - 1] = result.getObject(i);
                 }
+                rows.add(row);
             }
+            result.close();
+            return new SQLResult(labels, rows);
+        }
+    }
 
+    protected int update(Connection connection, String sql, Object... values) throws SQLException {
+        return update(connection, sql, values, 0);
+    }
+
+    protected int update(Connection connection, String sql, Object[] values, int timeout) throws SQLException {
+        try (PreparedStatement statement = prepare(connection, sql, values, timeout)) {
             return statement.executeUpdate();
         }
     }
+
+    protected int[] batch(Connection connection, String sql, List<Object[]> values, int timeout) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            if (timeout > 0)
+                statement.setQueryTimeout(timeout);
+            for (Object[] value : values) {
+                bind(statement, value);
+                statement.addBatch();
+            }
+            return statement.executeBatch();
+        }
+    }
+
+    private static PreparedStatement prepare(Connection connection, String sql, Object[] values, int timeout) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        try {
+            if (timeout > 0)
+                statement.setQueryTimeout(timeout);
+            bind(statement, values);
+            return statement;
+        } catch (SQLException e) {
+            statement.close();
+            throw e;
+        }
+    }
+
+    private static void bind(PreparedStatement statement, Object[] values) throws SQLException {
+        if (values != null) {
+            for (int i = 0; i < values.length; i++) {
+                statement.setObject(i + 1, values[i]);
+            }
+        }
+    }
+
+    /**
+     * A function that is run with a connection to the database.
+     * @param <R> The type of value returned by the function
+     */
+    @FunctionalInterface
+    protected interface ConnectionFunction<R> {
+
+        /**
+         * Run the function.
+         * @param connection The connection to the database
+         * @return The result of the function
+         * @throws SQLException If there was an error when accessing the database
+         */
+        R apply(Connection connection) throws SQLException;
+    }
 }
@@ -0,0 +1,625 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.database.sql;
+
+
+import dev.magicmq.pyspigot.PyCore;
+import dev.magicmq.pyspigot.exception.ScriptRuntimeException;
+import dev.magicmq.pyspigot.manager.database.DatabaseFuture;
+import dev.magicmq.pyspigot.manager.script.Script;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Represents a managed, thread-safe connection to an SQLite database file.
+ * <p>
+ * Unlike {@link SQLiteDatabase}, which uses a single connection for everything, a managed SQLite database opens the file
+ * in WAL mode and uses:
+ * <ul>
+ *     <li>A single writer connection, owned by a dedicated writer thread. All writes (updates, batches, and write-behind
+ *     flushes) are queued to the writer thread, which commits whatever writes are waiting together in one transaction.
+ *     Each write runs in its own savepoint, so a failing write does not affect the others committed with it.</li>
+ *     <li>A small pool of read-only connections for selects, which in WAL mode run concurrently with each other and with
+ *     the writer.</li>
+ * </ul>
+ * Because the writer thread manages transactions, managed SQLite databases do not offer manual commit, rollback, or
+ * auto-commit control, and statements that cannot run inside a transaction (such as {@code VACUUM}) are not supported.
+ * In-memory databases are not supported, as their contents cannot be shared between connections in WAL mode.
+ */
+public class ManagedSQLiteDatabase extends GenericSQLDatabase {
+
+    private static final int MAX_GROUP_SIZE = 256;
+
+    private final String uri;
+    private final int readerCount;
+    private final BlockingQueue<WriteOperation<?>> writes;
+    private final BlockingQueue<Connection> readers;
+    private final List<Connection> allReaders;
+    private final List<Pragma> readerPragmas;
+    private final LongAdder writesCompleted;
+    private final LongAdder writesFailed;
+    private final LongAdder transactions;
+    private final LongAdder commitNanos;
+    private final AtomicLong maxGroupSize;
+    private final LongAdder readerWaits;
+
+    private Connection writer;
+    private Thread writerThread;
+    private volatile boolean closed;
+
+    /**
+     *
+     * @param script The script associated with this ManagedSQLiteDatabase
+     * @param uri The connection URI for the database. This should be in the form "jdbc:sqlite:%s", where %s is the path
+     *            to the database file
+     * @param readerCount The number of read-only connections to open
+     */
+    public ManagedSQLiteDatabase(Script script, String uri, int readerCount) {
+        super(script);
+        this.uri = uri;
+        this.readerCount = Math.max(readerCount, 1);
+        this.writes = new LinkedBlockingQueue<>();
+        this.readers = new ArrayBlockingQueue<>(this.readerCount);
+        this.allReaders = new ArrayList<>(this.readerCount);
+        this.readerPragmas = new CopyOnWriteArrayList<>();
+        this.writesCompleted = new LongAdder();
+        this.writesFailed = new LongAdder();
+        this.transactions = new LongAdder();
+        this.commitNanos = new LongAdder();
+        this.maxGroupSize = new AtomicLong();
+        this.readerWaits = new LongAdder();
+    }
+
+    @Override
+    public boolean open() {
+        try {
+            Class.forName("org.sqlite.JDBC");
+        } catch (ClassNotFoundException e) {
+            throw new ScriptRuntimeException(getScript(), "SQLite JDBC driver not found on the class path");
+        }
+
+        try {
+            writer = DriverManager.getConnection(uri);
+            try (Statement statement = writer.createStatement()) {
+                statement.execute("PRAGMA journal_mode = WAL");
+                statement.execute("PRAGMA synchronous = NORMAL");
+                statement.execute("PRAGMA busy_timeout = 5000");
+                statement.execute("PRAGMA temp_store = MEMORY");
+            }
+
+            synchronized (allReaders) {
+                for (int i = 0; i < readerCount; i++) {
+                    Connection reader = openReader();
+                    allReaders.add(reader);
+                    readers.add(reader);
+                }
+            }
+        } catch (SQLException e) {
+            closeConnections();
+            throw new ScriptRuntimeException(getScript(), "Error when opening connection to SQLite database", e);
+        }
+
+        writerThread = new Thread(this::runWriter, "PySpigot-sqlite-writer-" + getScript().getName() + "-" + getDatabaseId());
+        writerThread.setDaemon(true);
+        writerThread.start();
+        return true;
+    }
+
+    @Override
+    public boolean close() {
+        if (closed)
+            return false;
+
+        closeWriteQueue();
+        closeCursors();
+        closed = true;
+
+        //Let the writer finish what has already been queued, then fail anything that could not be written
+        writerThread.interrupt();
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        WriteOperation<?> operation;
+        while ((operation = writes.poll()) != null) {
+            operation.future.completeExceptionally(new SQLException("Database was closed before the write could run"));
+        }
+
+        awaitReaders();
+        return closeConnections();
+    }
+
+    @Override
+    public List<Map<String, Object>> select(String sql, Object... values) throws SQLException {
+        return withConnection(connection -> select(connection, sql, values));
+    }
+
+    @Override
+    public int update(String sql, Object... values) throws SQLException {
+        return withWriteConnection(connection -> update(connection, sql, values));
+    }
+
+    /**
+     * Execute an SQL statement with optional provided values that should be inserted into the statement. Select
+     * statements and pragma reads run on a read-only connection; all other statements are queued to the writer thread.
+     * <p>
+     * Pragmas that set a value must be written in the {@code PRAGMA name = value} form. They run on the writer connection
+     * outside of any transaction and, if they configure the connection rather than the database file, are also applied
+     * to every read-only connection (including ones opened later). {@code PRAGMA query_only} only applies to the writer
+     * connection, as read-only connections must stay read-only.
+     * <p>
+     * If no values should be inserted into the statement, do not pass anything for the {@code values} argument.
+     * @param sql The SQL statement
+     * @param values Optional argument. The values that should be inserted into the statement
+     * @return A {@link java.util.Map} containing the data the database returned. Functionally identical to a Python
+     *         dict, where keys are column names and values are column data, with preserved order. Note that statements
+     *         other than select and pragma statements return {@code null}.
+     * @throws SQLException If there was an error when executing the statement
+     */
+    public List<Map<String, Object>> execute(String sql, Object... values) throws SQLException {
+        String trimmed = sql.trim().toUpperCase();
+        if (trimmed.startsWith("PRAGMA") && trimmed.contains("=")) {
+            return setPragma(sql, values, !trimmed.replaceAll("\\s+", "").startsWith("PRAGMAQUERY_ONLY"));
+        } else if (trimmed.startsWith("SELECT") || trimmed.startsWith("PRAGMA")) {
+            return select(sql, values);
+        } else {
+            update(sql, values);
+            return null;
+        }
+    }
+
+    /**
+     * Repeatedly execute a parameterized statement, for each set of provided values, on the writer thread.
+     * @param sql The SQL statement
+     * @param values A list of values that should be inserted for each time the statement is executed
+     * @throws SQLException If there was an error when executing the statement
+     */
+    public void executemany(String sql, List<Object[]> values) throws SQLException {
+        batch(sql, values);
+    }
+
+    /**
+     * Asynchronously update the database. The update is queued directly to the writer thread, without occupying a thread
+     * of the script's database executor.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param sql The update statement
+     * @param values Optional argument. The values that should be inserted into the update statement
+     * @return A {@link DatabaseFuture} that completes with the number of rows that were affected by the update statement
+     */
+    @Override
+    public DatabaseFuture<Integer> updateAsync(String sql, Object... values) {
+        int timeout = PyCore.get().getConfig().databaseQueryTimeout();
+        return wrapAsync(submitWrite(connection -> update(connection, sql, values, timeout)));
+    }
+
+    /**
+     * Asynchronously execute a parameterized statement once for each set of provided values. The batch is queued
+     * directly to the writer thread, without occupying a thread of the script's database executor.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param sql The SQL statement
+     * @param values A list of values that should be inserted for each time the statement is executed
+     * @return A {@link DatabaseFuture} that completes with the number of rows affected by each execution of the statement
+     */
+    @Override
+    public DatabaseFuture<int[]> batchAsync(String sql, List<Object[]> values) {
+        int timeout = PyCore.get().getConfig().databaseQueryTimeout();
+        List<Object[]> copy = new ArrayList<>(values);
+        return wrapAsync(submitWrite(connection -> batch(connection, sql, copy, timeout)));
+    }
+
+    /**
+     * Get the number of writes waiting for the writer thread.
+     * @return The number of queued writes
+     */
+    public int getWriteQueueDepth() {
+        return writes.size();
+    }
+
+    /**
+     * Get the number of read-only connections that are not currently in use.
+     * @return The number of idle read-only connections
+     */
+    public int getIdleReaderCount() {
+        return readers.size();
+    }
+
+    /**
+     * Prints a representation of this ManagedSQLiteDatabase in string format, including the ID, database URI, and writer statistics
+     * @return A string representation of the ManagedSQLiteDatabase
+     */
+    @Override
+    public String toString() {
+        long transactionCount = transactions.sum();
+        double averageCommit = transactionCount > 0 ? commitNanos.sum() / (double) TimeUnit.MILLISECONDS.toNanos(1) / transactionCount : 0;
+        double averageGroup = transactionCount > 0 ? (writesCompleted.sum() + writesFailed.sum()) / (double) transactionCount : 0;
+        return String.format("ManagedSQLiteDatabase[ID: %d, URI: %s, Readers: %d/%d idle, Reader Waits: %d, Queued Writes: %d, Writes: %d, Failed: %d, Transactions: %d, Avg Group: %.1f, Max Group: %d, Avg Transaction: %.2fms]",
+                getDatabaseId(), uri, getIdleReaderCount(), readerCount, readerWaits.sum(), getWriteQueueDepth(), writesCompleted.sum(), writesFailed.sum(), transactionCount, averageGroup, maxGroupSize.get(), averageCommit);
+    }
+
+    @Override
+    protected <R> R withConnection(ConnectionFunction<R> function) throws SQLException {
+        if (closed)
+            throw new SQLException("Database is closed");
+
+        Connection reader = readers.poll();
+        if (reader == null) {
+            readerWaits.increment();
+            try {
+                reader = readers.poll(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a read connection", e);
+            }
+            if (reader == null)
+                throw new SQLException(closed ? "Database is closed" : "Timed out waiting for a read connection");
+        }
+
+        try {
+            return function.apply(reader);
+        } finally {
+            releaseReader(reader);
+        }
+    }
+
+    @Override
+    protected <R> R withWriteConnection(ConnectionFunction<R> function) throws SQLException {
+        if (Thread.currentThread() == writerThread)
+            return function.apply(writer);
+
+        return awaitWrite(submitWrite(function));
+    }
+
+    @Override
+    protected DatabaseFuture<Integer> writeBatchesAsync(Map<String, List<Object[]>> statements) {
+        //writeBatches already routes through the writer thread, where it runs inside the current transaction
+        return wrapAsync(submitWrite(connection -> writeBatches(statements)));
+    }
+
+    @Override
+    protected SQLCursor openCursor(String sql, int fetchSize, Object[] values) throws SQLException {
+        if (closed)
+            throw new SQLException("Database is closed");
+        //Cursors may be held open for a long time, so each gets its own read-only connection rather than one from the pool
+        return openCursor(openReader(), true, new ReentrantLock(), sql, fetchSize, values);
+    }
+
+    private List<Map<String, Object>> setPragma(String sql, Object[] values, boolean applyToReaders) throws SQLException {
+        //Some pragmas have no effect or fail inside a transaction, so this runs on the writer thread on its own
+        List<Map<String, Object>> result;
+        if (Thread.currentThread() == writerThread)
+            result = select(writer, sql, values);
+        else
+            result = awaitWrite(submitWrite(connection -> select(connection, sql, values), false));
+
+        if (applyToReaders)
+            applyToReaders(new Pragma(sql, values));
+        return result;
+    }
+
+    private void applyToReaders(Pragma pragma) throws SQLException {
+        synchronized (readerPragmas) {
+            //Take every pooled read connection, so that none is in use while its settings change
+            List<Connection> taken = new ArrayList<>(readerCount);
+            try {
+                if (!takeReaders(taken, 5, TimeUnit.SECONDS))
+                    throw new SQLException("Timed out waiting for read connections to apply pragma");
+                for (int i = 0; i < taken.size(); i++) {
+                    try {
+                        select(taken.get(i), pragma.sql(), pragma.values());
+                    } catch (SQLException e) {
+                        //Pragmas that change the database file cannot run on a read-only connection, and the writer has
+                        //already applied them
+                        if (i == 0)
+                            return;
+                        throw e;
+                    }
+                }
+                readerPragmas.add(pragma);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for read connections", e);
+            } finally {
+                for (Connection reader : taken) {
+                    releaseReader(reader);
+                }
+            }
+        }
+    }
+
+    private <R> R awaitWrite(CompletableFuture<R> future) throws SQLException {
+        int timeout = PyCore.get().getConfig().databaseQueryTimeout();
+        try {
+            return timeout > 0 ? future.get(timeout, TimeUnit.SECONDS) : future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for write", e);
+        } catch (TimeoutException e) {
+            //The writer skips writes whose future is already done, so a write that has not started yet will not run
+            future.cancel(false);
+            throw new SQLException("Write did not complete within " + timeout + " seconds", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException sqlException)
+                throw sqlException;
+            throw new SQLException("Write failed", e.getCause());
+        }
+    }
+
+    private <R> CompletableFuture<R> submitWrite(ConnectionFunction<R> function) {
+        return submitWrite(function, true);
+    }
+
+    private <R> CompletableFuture<R> submitWrite(ConnectionFunction<R> function, boolean transactional) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        if (closed) {
+            future.completeExceptionally(new SQLException("Database is closed"));
+            return future;
+        }
+
+        WriteOperation<R> operation = new WriteOperation<>(function, future, transactional);
+        writes.add(operation);
+        //If close ran between the check and the add, the writer may already have drained the queue for the last time.
+        //Whoever removes the write from the queue is responsible for completing it
+        if (closed && writes.remove(operation))
+            future.completeExceptionally(new SQLException("Database is closed"));
+        return future;
+    }
+
+    private void releaseReader(Connection reader) {
+        boolean dead;
+        try {
+            dead = reader.isClosed();
+        } catch (SQLException e) {
+            dead = true;
+        }
+
+        if (dead) {
+            reader = replaceReader(reader);
+            if (reader == null)
+                return;
+        }
+        readers.offer(reader);
+    }
+
+    private Connection replaceReader(Connection dead) {
+        synchronized (allReaders) {
+            allReaders.remove(dead);
+            if (closed)
+                return null;
+            try {
+                Connection reader = openReader();
+                allReaders.add(reader);
+                return reader;
+            } catch (SQLException e) {
+                getScript().getLogger().error("Error when replacing closed read connection to SQLite database", e);
+                return null;
+            }
+        }
+    }
+
+    private void awaitReaders() {
+        //Wait for read connections that are checked out to be returned, so they are not closed while in use
+        try {
+            if (!takeReaders(new ArrayList<>(readerCount), 30, TimeUnit.SECONDS))
+                getScript().getLogger().warn("Timed out waiting for read connections to be returned when closing SQLite database");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean takeReaders(List<Connection> taken, long timeout, TimeUnit unit) throws InterruptedException {
+        int expected;
+        synchronized (allReaders) {
+            expected = allReaders.size();
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (taken.size() < expected) {
+            Connection reader = readers.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (reader == null)
+                return false;
+            taken.add(reader);
+        }
+        return true;
+    }
+
+    private Connection openReader() throws SQLException {
+        Connection reader = DriverManager.getConnection(uri);
+        try (Statement statement = reader.createStatement()) {
+            statement.execute("PRAGMA query_only = true");
+            statement.execute("PRAGMA busy_timeout = 5000");
+            statement.execute("PRAGMA temp_store = MEMORY");
+            for (Pragma pragma : readerPragmas) {
+                select(reader, pragma.sql(), pragma.values());
+            }
+        } catch (SQLException e) {
+            reader.close();
+            throw e;
+        }
+        return reader;
+    }
+
+    private void runWriter() {
+        List<WriteOperation<?>> group = new ArrayList<>(MAX_GROUP_SIZE);
+        while (true) {
+            try {
+                if (closed) {
+                    //Drain without blocking once closed, so that writes queued before close are still written
+                    WriteOperation<?> next = writes.poll();
+                    if (next == null)
+                        return;
+                    group.add(next);
+                } else
+                    group.add(writes.take());
+            } catch (InterruptedException e) {
+                //Interrupted by close; loop around to drain what remains
+                continue;
+            }
+
+            writes.drainTo(group, MAX_GROUP_SIZE - 1);
+            group.removeIf(operation -> operation.future.isDone());
+            write(group);
+            group.clear();
+        }
+    }
+
+    private void write(List<WriteOperation<?>> operations) {
+        //Writes that cannot run inside a transaction split the group, and run on their own with auto-commit enabled
+        int start = 0;
+        for (int i = 0; i < operations.size(); i++) {
+            WriteOperation<?> operation = operations.get(i);
+            if (!operation.transactional) {
+                if (i > start)
+                    writeGroup(operations.subList(start, i));
+                operation.runAlone(writer);
+                start = i + 1;
+            }
+        }
+        if (start < operations.size())
+            writeGroup(operations.subList(start, operations.size()));
+    }
+
+    private void writeGroup(List<WriteOperation<?>> group) {
+        long start = System.nanoTime();
+        maxGroupSize.accumulateAndGet(group.size(), Math::max);
+        try {
+            writer.setAutoCommit(false);
+            for (WriteOperation<?> operation : group) {
+                operation.run(writer);
+            }
+            writer.commit();
+            for (WriteOperation<?> operation : group) {
+                operation.complete();
+            }
+        } catch (SQLException e) {
+            try {
+                writer.rollback();
+            } catch (SQLException rollbackException) {
+                e.addSuppressed(rollbackException);
+            }
+            for (WriteOperation<?> operation : group) {
+                operation.fail(e);
+            }
+        } finally {
+            try {
+                writer.setAutoCommit(true);
+            } catch (SQLException e) {
+                getScript().getLogger().error("Error when restoring auto-commit on SQLite writer connection", e);
+            }
+            transactions.increment();
+            commitNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private boolean closeConnections() {
+        boolean success = true;
+        synchronized (allReaders) {
+            for (Connection reader : allReaders) {
+                success &= closeQuietly(reader);
+            }
+            allReaders.clear();
+        }
+        readers.clear();
+        if (writer != null)
+            success &= closeQuietly(writer);
+        return success;
+    }
+
+    private boolean closeQuietly(Connection connection) {
+        try {
+            connection.close();
+            return connection.isClosed();
+        } catch (SQLException e) {
+            getScript().getLogger().error("Error when closing connection to SQLite database", e);
+            return false;
+        }
+    }
+
+    private final class WriteOperation<R> {
+
+        private final ConnectionFunction<R> function;
+        private final CompletableFuture<R> future;
+        private final boolean transactional;
+
+        private R result;
+        private Exception error;
+
+        private WriteOperation(ConnectionFunction<R> function, CompletableFuture<R> future, boolean transactional) {
+            this.function = function;
+            this.future = future;
+            this.transactional = transactional;
+        }
+
+        private void runAlone(Connection connection) {
+            try {
+                result = function.apply(connection);
+            } catch (SQLException | RuntimeException e) {
+                error = e;
+            }
+            complete();
+        }
+
+        private void run(Connection connection) throws SQLException {
+            //Each write gets its own savepoint, so that a failing write is undone without affecting the rest of the group
+            Savepoint savepoint = connection.setSavepoint();
+            try {
+                result = function.apply(connection);
+                connection.releaseSavepoint(savepoint);
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback(savepoint);
+                connection.releaseSavepoint(savepoint);
+                error = e;
+            }
+        }
+
+        private void complete() {
+            if (error == null) {
+                writesCompleted.increment();
+                future.complete(result);
+            } else {
+                writesFailed.increment();
+                future.completeExceptionally(error);
+            }
+        }
+
+        private void fail(SQLException e) {
+            writesFailed.increment();
+            future.completeExceptionally(error != null ? error : e);
+        }
+    }
+
+    private record Pragma(String sql, Object[] values) {}
+}
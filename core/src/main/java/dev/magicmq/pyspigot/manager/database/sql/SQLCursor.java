@@ -0,0 +1,274 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.database.sql;
+
+
+import dev.magicmq.pyspigot.exception.ScriptRuntimeException;
+import org.python.core.Py;
+import org.python.core.PyFunction;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * A forward-only cursor over the rows of an SQL select statement, which reads rows from the database as they are needed
+ * rather than loading the entire result into memory.
+ * <p>
+ * Rows are returned in the same form as {@link GenericSQLDatabase#select(String, Object...)}. A cursor may be iterated
+ * directly from Python (for example, {@code for row in cursor:}), read in chunks with {@link #fetchmany(int)} or
+ * {@link #chunks(int, PyFunction)}, and used in a {@code with} statement. The cursor (along with its statement and,
+ * for pooled databases, its connection) is closed automatically once all rows have been read, when the database is
+ * closed, or when the script is unloaded. Cursors that are abandoned early should be closed with {@link #close()}.
+ */
+public class SQLCursor implements Iterable<Map<String, Object>>, Iterator<Map<String, Object>>, AutoCloseable {
+
+    private final GenericSQLDatabase database;
+    private final Connection connection;
+    private final PreparedStatement statement;
+    private final ResultSet resultSet;
+    private final Lock lock;
+    private final String[] labels;
+
+    private Map<String, Object> next;
+    private boolean fetched;
+    private long rowCount;
+    private volatile boolean closed;
+
+    /**
+     *
+     * @param database The database this cursor reads from
+     * @param connection The connection this cursor owns and should close, or null if the connection is shared with the database
+     * @param statement The statement that was executed
+     * @param resultSet The result of the statement
+     * @param lock The lock to hold when reading from the result
+     * @throws SQLException If there was an error when reading the result's column labels
+     */
+    protected SQLCursor(GenericSQLDatabase database, Connection connection, PreparedStatement statement, ResultSet resultSet, Lock lock) throws SQLException {
+        this.database = database;
+        this.connection = connection;
+        this.statement = statement;
+        this.resultSet = resultSet;
+        this.lock = lock;
+
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        this.labels = new String[metaData.getColumnCount()];
+        for (int i = 1; i <= labels.length; i++) {
+            labels[i - 1] = metaData.getColumnLabel(i);
+        }
+    }
+
+    /**
+     * Get this cursor. Allows the cursor to be iterated with a for loop.
+     * @return This cursor
+     */
+    @Override
+    public Iterator<Map<String, Object>> iterator() {
+        return this;
+    }
+
+    /**
+     * Check if there is another row to read. If there are no more rows, the cursor is closed.
+     * @return True if there is another row, false if otherwise
+     */
+    @Override
+    public boolean hasNext() {
+        lock.lock();
+        try {
+            if (!fetched) {
+                next = read();
+                fetched = true;
+            }
+            return next != null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Read the next row.
+     * @return The next row
+     * @throws NoSuchElementException If there are no more rows
+     */
+    @Override
+    public Map<String, Object> next() {
+        lock.lock();
+        try {
+            if (!hasNext())
+                throw new NoSuchElementException("No more rows in SQL cursor");
+            fetched = false;
+            return next;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Read the next row.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @return The next row, or null if there are no more rows
+     */
+    public Map<String, Object> fetchone() {
+        lock.lock();
+        try {
+            return hasNext() ? next() : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Read up to the given number of rows.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param size The maximum number of rows to read
+     * @return A list of rows. Will contain fewer than {@code size} rows if the end of the result was reached, and will be empty if there are no more rows
+     */
+    public List<Map<String, Object>> fetchmany(int size) {
+        lock.lock();
+        try {
+            List<Map<String, Object>> rows = new ArrayList<>(Math.min(Math.max(size, 0), 4096));
+            while (rows.size() < size && hasNext()) {
+                rows.add(next());
+            }
+            return rows;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Read all remaining rows in chunks, calling a function with each chunk. The cursor is closed once all rows have been
+     * read, or if the function raises an exception.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param size The number of rows in each chunk. The last chunk may contain fewer rows
+     * @param callback The function to call with each chunk, as a list of rows
+     * @return The number of rows read
+     * @throws IllegalArgumentException If the chunk size is less than 1
+     */
+    public long chunks(int size, PyFunction callback) {
+        if (size < 1)
+            throw new IllegalArgumentException("Chunk size must be at least 1");
+
+        long count = 0;
+        try {
+            List<Map<String, Object>> chunk;
+            while (!(chunk = fetchmany(size)).isEmpty()) {
+                count += chunk.size();
+                callback.__call__(Py.java2py(chunk));
+            }
+        } finally {
+            close();
+        }
+        return count;
+    }
+
+    /**
+     * Get the column labels of the result, in order.
+     * @return An immutable list of column labels
+     */
+    public List<String> getColumns() {
+        return List.of(labels);
+    }
+
+    /**
+     * Get the number of rows read from this cursor so far.
+     * @return The number of rows read
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Check if this cursor has been closed.
+     * @return True if this cursor has been closed, false if otherwise
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Close this cursor, along with its statement and, for pooled databases, its connection. Has no effect if the cursor
+     * is already closed.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed)
+                return;
+            closed = true;
+            next = null;
+            fetched = true;
+
+            try {
+                resultSet.close();
+                statement.close();
+                if (connection != null)
+                    connection.close();
+            } catch (SQLException e) {
+                throw new ScriptRuntimeException(database.getScript(), "Error when closing SQL cursor", e);
+            } finally {
+                database.cursorClosed(this);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Prints a representation of this SQLCursor in string format, including the columns and the number of rows read
+     * @return A string representation of the SQLCursor
+     */
+    @Override
+    public String toString() {
+        return String.format("SQLCursor[Database ID: %d, Columns: %s, Rows Read: %d, Closed: %b]", database.getDatabaseId(), getColumns(), rowCount, closed);
+    }
+
+    private Map<String, Object> read() {
+        if (closed)
+            return null;
+
+        try {
+            if (!resultSet.next()) {
+                close();
+                return null;
+            }
+
+            Map<String, Object> row = new LinkedHashMap<>(labels.length);
+            for (int i = 1; i <= labels.length; i++) {
+                row.put(labels[i - 1], resultSet.getObject(i));
+            }
+            rowCount++;
+            return row;
+        } catch (SQLException e) {
+            close();
+            throw new ScriptRuntimeException(database.getScript(), "Error when reading from SQL cursor", e);
+        }
+    }
+}
@@ -9,6 +9,7 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Represents an open connection to an SQL database.
@@ -44,22 +45,43 @@ public class SQLDatabase extends GenericSQLDatabase {
 
     @Override
     public boolean close() {
+        closeWriteQueue();
+        closeCursors();
         hikariDataSource.close();
         return !hikariDataSource.isRunning() && hikariDataSource.isClosed();
     }
 
     @Override
     public List<Map<String, Object>> select(String sql, Object... values) throws SQLException {
-        try (Connection connection = hikariDataSource.getConnection()) {
-            return select(connection, sql, values);
-        }
+        return withConnection(connection -> select(connection, sql, values));
     }
 
     @Override
     public int update(String sql, Object... values) throws SQLException {
+        return withConnection(connection -> update(connection, sql, values));
+    }
+
+    @Override
+    protected <R> R withConnection(ConnectionFunction<R> function) throws SQLException {
         try (Connection connection = hikariDataSource.getConnection()) {
-            return update(connection, sql, values);
+            return function.apply(connection);
+        }
+    }
+
+    @Override
+    protected SQLCursor openCursor(String sql, int fetchSize, Object[] values) throws SQLException {
+        Connection connection = hikariDataSource.getConnection();
+        try {
+            //MySQL Connector/J ignores the fetch size (and buffers the whole result) unless useCursorFetch is enabled; otherwise, it only streams rows one at a time
+            String url = connection.getMetaData().getURL();
+            if (url != null && url.startsWith("jdbc:mysql:") && !url.contains("useCursorFetch=true"))
+                fetchSize = Integer.MIN_VALUE;
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
         }
+        //The cursor owns its connection, so reads from it do not need to be synchronized with other operations
+        return openCursor(connection, true, new ReentrantLock(), sql, fetchSize, values);
     }
 
     /**
@@ -0,0 +1,245 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.database.sql;
+
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A compact, read-only result of an SQL select statement.
+ * <p>
+ * Instead of a separate map per row, the column labels are stored once and shared by every row, and each row is stored
+ * as a plain array of values. This uses several times less memory per row than the result of
+ * {@link GenericSQLDatabase#select(String, Object...)}, while still behaving as a list of maps: each {@link Row} can be
+ * read by column name ({@code row["name"]}) or by column index ({@code row[0]}) from Python.
+ * <p>
+ * If the result has more than one column with the same label, the label refers to the last such column (as with
+ * {@code select}), while every column remains accessible by index.
+ */
+public class SQLResult extends AbstractList<Map<String, Object>> {
+
+    private final String[] labels;
+    private final Map<String, Integer> index;
+    private final Object[][] rows;
+
+    /**
+     *
+     * @param labels The column labels, in order
+     * @param rows The rows of the result. Each row should have one value per column, in the same order as the labels
+     */
+    public SQLResult(String[] labels, List<Object[]> rows) {
+        this.labels = labels.clone();
+        this.index = new LinkedHashMap<>(labels.length);
+        for (int i = 0; i < labels.length; i++) {
+            index.put(labels[i], i);
+        }
+        this.rows = rows.toArray(new Object[0][]);
+    }
+
+    /**
+     * Get a row of this result.
+     * @param row The index of the row
+     * @return A read-only view of the row
+     * @throws IndexOutOfBoundsException If the row index is out of range
+     */
+    @Override
+    public Row get(int row) {
+        return new Row(rows[row]);
+    }
+
+    /**
+     * Get the number of rows in this result.
+     * @return The number of rows
+     */
+    @Override
+    public int size() {
+        return rows.length;
+    }
+
+    /**
+     * Get the column labels of this result, in order.
+     * @return An immutable list of column labels
+     */
+    public List<String> getColumns() {
+        return List.of(labels);
+    }
+
+    /**
+     * Get the index of a column by its label.
+     * @param label The column label
+     * @return The index of the column, or -1 if this result has no column with the label
+     */
+    public int getColumnIndex(String label) {
+        Integer column = index.get(label);
+        return column != null ? column : -1;
+    }
+
+    /**
+     * Get a single value of this result, without creating a row view.
+     * @param row The index of the row
+     * @param column The index of the column
+     * @return The value
+     * @throws IndexOutOfBoundsException If the row or column index is out of range
+     */
+    public Object getValue(int row, int column) {
+        return rows[row][column];
+    }
+
+    /**
+     * Get all values of a single column.
+     * @param label The column label
+     * @return A list containing the column's value for each row, in row order
+     * @throws IllegalArgumentException If this result has no column with the label
+     */
+    public List<Object> column(String label) {
+        int column = getColumnIndex(label);
+        if (column == -1)
+            throw new IllegalArgumentException("No column with label '" + label + "'");
+        return column(column);
+    }
+
+    /**
+     * Get all values of a single column.
+     * @param column The index of the column
+     * @return A list containing the column's value for each row, in row order
+     * @throws IndexOutOfBoundsException If the column index is out of range
+     */
+    public List<Object> column(int column) {
+        if (column < 0 || column >= labels.length)
+            throw new IndexOutOfBoundsException("Column index " + column + " out of range for " + labels.length + " columns");
+        List<Object> values = new ArrayList<>(rows.length);
+        for (Object[] row : rows) {
+            values.add(row[column]);
+        }
+        return values;
+    }
+
+    /**
+     * Prints a representation of this SQLResult in string format, including the columns and number of rows
+     * @return A string representation of the SQLResult
+     */
+    @Override
+    public String toString() {
+        return String.format("SQLResult[Columns: %s, Rows: %d]", getColumns(), rows.length);
+    }
+
+    /**
+     * A read-only view of a single row of an {@link SQLResult}, accessible by column label (as a map) or by column index.
+     */
+    public class Row extends AbstractMap<String, Object> {
+
+        private final Object[] values;
+
+        private Row(Object[] values) {
+            this.values = values;
+        }
+
+        /**
+         * Get a value of this row by column index.
+         * @param column The index of the column
+         * @return The value
+         * @throws IndexOutOfBoundsException If the column index is out of range
+         */
+        public Object get(int column) {
+            return values[column];
+        }
+
+        /**
+         * Get a value of this row by column label or, if a number is passed, by column index.
+         * @param key The column label or index
+         * @return The value, or null if there is no such column
+         */
+        @Override
+        public Object get(Object key) {
+            if (key instanceof String label) {
+                Integer column = index.get(label);
+                return column != null ? values[column] : null;
+            } else if (key instanceof Number number) {
+                int column = number.intValue();
+                return column >= 0 && column < values.length ? values[column] : null;
+            } else
+                return null;
+        }
+
+        /**
+         * Check if this row has a column with the given label or, if a number is passed, the given index. Agrees with
+         * {@link #get(Object)}, so that {@code row[0]} works from Python.
+         * @param key The column label or index
+         * @return True if there is such a column, false if otherwise
+         */
+        @Override
+        public boolean containsKey(Object key) {
+            if (key instanceof String label)
+                return index.containsKey(label);
+            else if (key instanceof Number number) {
+                int column = number.intValue();
+                return column >= 0 && column < values.length;
+            } else
+                return false;
+        }
+
+        @Override
+        public int size() {
+            return index.size();
+        }
+
+        /**
+         * Get the values of this row, in column order.
+         * @return An immutable list of values
+         */
+        public List<Object> toList() {
+            return Collections.unmodifiableList(Arrays.asList(values));
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    Iterator<Entry<String, Integer>> columns = index.entrySet().iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return columns.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            Entry<String, Integer> column = columns.next();
+                            return new SimpleImmutableEntry<>(column.getKey(), values[column.getValue()]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return index.size();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,391 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.database.sql;
+
+
+import dev.magicmq.pyspigot.manager.database.DatabaseFuture;
+import org.python.core.PyFunction;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A write-behind queue for parameterized update statements on an SQL database.
+ * <p>
+ * Statements enqueued with {@link #enqueue(String, Object...)} are not executed immediately. Instead, they are collected
+ * and periodically flushed on the script's database executor, with statements that share the same SQL text combined into
+ * a single JDBC batch, and all batches of a flush run in one transaction. A flush happens once the number of pending
+ * statements reaches the batch size, once the flush interval elapses, and (synchronously) when the database is closed or
+ * the script is unloaded.
+ * <p>
+ * Statements with the same SQL text are executed in the order they were enqueued. Groups of statements with different SQL
+ * text are executed in the order each SQL text was first enqueued since the last flush, so statements that depend on the
+ * effects of a statement with a different SQL text enqueued <i>after</i> them should not be mixed in one queue.
+ * <p>
+ * If a flush fails, its transaction is rolled back, its statements are dropped (and counted), and the error callback (if
+ * any) is called on the main thread with the exception. Otherwise, the error is logged to the script's logger. If the
+ * script has disabled auto-commit on the database's connection, a flush instead runs as part of the script's own
+ * transaction and is neither committed nor rolled back by the queue, so the script decides whether its statements are
+ * kept. A flush that could not be started because the database executor rejected it (for example, because its queue
+ * is full) is not counted as failed; its statements are kept and retried ahead of newer statements on the next flush.
+ * <p>
+ * Only one flush runs at a time. Flushes are not failed early by the executor's query timeout (each statement is still
+ * subject to it), so the next flush only starts once the previous one has actually committed or rolled back.
+ */
+public class SQLWriteQueue {
+
+    private static ScheduledExecutorService timer;
+
+    private final GenericSQLDatabase database;
+    private final LongAdder flushes;
+    private final LongAdder failedFlushes;
+    private final LongAdder written;
+    private final LongAdder dropped;
+    private final LongAdder batches;
+    private final LongAdder flushNanos;
+    private final AtomicLong maxFlushNanos;
+
+    private int batchSize;
+    private long flushInterval;
+    private PyFunction errorCallback;
+    private Map<String, List<Object[]>> pending;
+    private int pendingCount;
+    private CompletableFuture<Integer> inFlight;
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean closed;
+
+    /**
+     *
+     * @param database The database statements should be written to
+     * @param batchSize The number of pending statements that triggers a flush
+     * @param flushInterval The maximum time, in milliseconds, statements are held before they are flushed
+     */
+    protected SQLWriteQueue(GenericSQLDatabase database, int batchSize, long flushInterval) {
+        this.database = database;
+        this.flushes = new LongAdder();
+        this.failedFlushes = new LongAdder();
+        this.written = new LongAdder();
+        this.dropped = new LongAdder();
+        this.batches = new LongAdder();
+        this.flushNanos = new LongAdder();
+        this.maxFlushNanos = new AtomicLong();
+        this.pending = new LinkedHashMap<>();
+
+        setBatchSize(batchSize);
+        setFlushInterval(flushInterval);
+    }
+
+    /**
+     * Add a parameterized statement to the queue, to be executed with the next flush.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param sql The SQL statement
+     * @param values Optional argument. The values that should be inserted into the statement
+     * @throws IllegalStateException If the queue has been closed
+     */
+    public synchronized void enqueue(String sql, Object... values) {
+        if (closed)
+            throw new IllegalStateException("Write queue has been closed");
+
+        pending.computeIfAbsent(sql, k -> new ArrayList<>()).add(values);
+        pendingCount++;
+        if (pendingCount >= batchSize)
+            flushAsync();
+    }
+
+    /**
+     * Flush all pending statements asynchronously, without waiting for the batch size or flush interval. If a flush is
+     * already running, the pending statements are flushed once it completes.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     */
+    public synchronized void flush() {
+        flushAsync();
+    }
+
+    /**
+     * Set the number of pending statements that triggers a flush.
+     * @param batchSize The batch size
+     * @throws IllegalArgumentException If the batch size is less than 1
+     */
+    public synchronized void setBatchSize(int batchSize) {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Set the maximum time statements are held before they are flushed.
+     * @param flushInterval The flush interval, in milliseconds
+     * @throws IllegalArgumentException If the flush interval is less than 1
+     */
+    public synchronized void setFlushInterval(long flushInterval) {
+        if (flushInterval < 1)
+            throw new IllegalArgumentException("Flush interval must be at least 1 millisecond");
+        this.flushInterval = flushInterval;
+        if (scheduledFlush != null)
+            scheduledFlush.cancel(false);
+        if (!closed)
+            scheduledFlush = getTimer().scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Set the function that is called on the main thread when a flush fails.
+     * @param errorCallback The function to call with the exception that caused the flush to fail, or null to log failures to the script's logger instead
+     */
+    public synchronized void setErrorCallback(PyFunction errorCallback) {
+        this.errorCallback = errorCallback;
+    }
+
+    /**
+     * Get the number of pending statements that triggers a flush.
+     * @return The batch size
+     */
+    public synchronized int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Get the maximum time statements are held before they are flushed.
+     * @return The flush interval, in milliseconds
+     */
+    public synchronized long getFlushInterval() {
+        return flushInterval;
+    }
+
+    /**
+     * Get the number of statements waiting for the next flush.
+     * @return The number of pending statements
+     */
+    public synchronized int getPendingCount() {
+        return pendingCount;
+    }
+
+    /**
+     * Get the number of flushes that completed successfully.
+     * @return The number of flushes
+     */
+    public long getFlushCount() {
+        return flushes.sum();
+    }
+
+    /**
+     * Get the number of flushes that failed.
+     * @return The number of failed flushes
+     */
+    public long getFailedFlushCount() {
+        return failedFlushes.sum();
+    }
+
+    /**
+     * Get the number of statements that were written to the database.
+     * @return The number of written statements
+     */
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    /**
+     * Get the number of statements that were dropped because the flush they were part of failed.
+     * @return The number of dropped statements
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Get the number of JDBC batches executed. Each flush executes one batch per distinct SQL text.
+     * @return The number of batches
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * Get the average time a flush took to run.
+     * @return The average flush time, in milliseconds
+     */
+    public double getAverageFlushTime() {
+        long count = flushes.sum() + failedFlushes.sum();
+        return count > 0 ? toMillis(flushNanos.sum()) / count : 0;
+    }
+
+    /**
+     * Get the longest time a flush took to run.
+     * @return The maximum flush time, in milliseconds
+     */
+    public double getMaxFlushTime() {
+        return toMillis(maxFlushNanos.get());
+    }
+
+    /**
+     * Check if this queue has been closed.
+     * @return True if this queue has been closed, false if otherwise
+     */
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Prints a representation of this SQLWriteQueue in string format, including thresholds and flush statistics
+     * @return A string representation of the SQLWriteQueue
+     */
+    @Override
+    public String toString() {
+        return String.format("SQLWriteQueue[Batch Size: %d, Interval: %dms, Pending: %d, Flushes: %d, Failed: %d, Written: %d, Dropped: %d, Batches: %d, Avg Flush: %.2fms, Max Flush: %.2fms]",
+                getBatchSize(), getFlushInterval(), getPendingCount(), getFlushCount(), getFailedFlushCount(), getWrittenCount(), getDroppedCount(), getBatchCount(), getAverageFlushTime(), getMaxFlushTime());
+    }
+
+    protected void close() {
+        CompletableFuture<Integer> running;
+        synchronized (this) {
+            if (closed)
+                return;
+            closed = true;
+            if (scheduledFlush != null)
+                scheduledFlush.cancel(false);
+            running = inFlight;
+        }
+
+        //Let a flush that is already running finish, so that statements are written in order. Each of its statements is
+        //bounded by the query timeout, so this does not wait forever
+        if (running != null) {
+            try {
+                running.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException ignored) {
+                //Failures are already recorded and reported by the flush itself
+            }
+        }
+
+        Map<String, List<Object[]>> remaining;
+        int count;
+        synchronized (this) {
+            remaining = pending;
+            count = pendingCount;
+            pending = new LinkedHashMap<>();
+            pendingCount = 0;
+        }
+        if (count == 0)
+            return;
+
+        long start = System.nanoTime();
+        try {
+            database.writeBatches(remaining);
+            recordFlush(remaining, count, start, null);
+        } catch (SQLException e) {
+            recordFlush(remaining, count, start, e);
+            database.getScript().getLogger().error("Failed to write " + count + " pending statement(s) when closing write queue", e);
+        }
+    }
+
+    private void flushAsync() {
+        if (pendingCount == 0 || inFlight != null)
+            return;
+
+        Map<String, List<Object[]>> toFlush = pending;
+        int count = pendingCount;
+        pending = new LinkedHashMap<>();
+        pendingCount = 0;
+
+        long start = System.nanoTime();
+        PyFunction callback = errorCallback;
+        DatabaseFuture<Integer> future = database.writeBatchesAsync(toFlush);
+        CompletableFuture<Integer> flush = future.getFuture().whenComplete((result, error) -> flushCompleted(future, callback, toFlush, count, start, error));
+        //A rejected flush completes (and runs flushCompleted) before whenComplete returns
+        inFlight = flush.isDone() ? null : flush;
+    }
+
+    private synchronized void flushCompleted(DatabaseFuture<Integer> future, PyFunction callback, Map<String, List<Object[]>> flushed, int count, long start, Throwable error) {
+        inFlight = null;
+        if (isRejected(error)) {
+            //The flush never ran, so keep its statements ahead of any enqueued since, and wait for the next flush to retry
+            requeue(flushed, count);
+            return;
+        }
+
+        recordFlush(flushed, count, start, error);
+        if (error != null)
+            future.thenSync(null, callback);
+        if (!closed && pendingCount >= batchSize)
+            flushAsync();
+    }
+
+    private void requeue(Map<String, List<Object[]>> statements, int count) {
+        Map<String, List<Object[]>> merged = new LinkedHashMap<>(statements);
+        for (Map.Entry<String, List<Object[]>> entry : pending.entrySet()) {
+            merged.merge(entry.getKey(), entry.getValue(), (first, second) -> {
+                List<Object[]> combined = new ArrayList<>(first.size() + second.size());
+                combined.addAll(first);
+                combined.addAll(second);
+                return combined;
+            });
+        }
+        pending = merged;
+        pendingCount += count;
+    }
+
+    private void recordFlush(Map<String, List<Object[]>> flushed, int count, long start, Throwable error) {
+        long elapsed = System.nanoTime() - start;
+        flushNanos.add(elapsed);
+        maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+        if (error == null) {
+            flushes.increment();
+            written.add(count);
+            batches.add(flushed.size());
+        } else {
+            failedFlushes.increment();
+            dropped.add(count);
+        }
+    }
+
+    private static boolean isRejected(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error instanceof RejectedExecutionException;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static synchronized ScheduledExecutorService getTimer() {
+        if (timer == null) {
+            timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "PySpigot-db-write-behind");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return timer;
+    }
+}
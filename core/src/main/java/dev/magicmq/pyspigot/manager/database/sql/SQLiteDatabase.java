@@ -24,11 +24,11 @@ import java.nio.file.InvalidPathException;
 import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.DriverManager;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Represents an open connection to an SQLite database file or an SQLite database in memory.
@@ -36,6 +36,7 @@ import java.util.Map;
 public class SQLiteDatabase extends GenericSQLDatabase {
 
     private final String uri;
+    private final ReentrantLock lock;
 
     private Connection connection;
 
@@ -48,6 +49,7 @@ public class SQLiteDatabase extends GenericSQLDatabase {
     public SQLiteDatabase(Script script, String uri) {
         super(script);
         this.uri = uri;
+        this.lock = new ReentrantLock();
     }
 
     @Override
@@ -69,6 +71,8 @@ public class SQLiteDatabase extends GenericSQLDatabase {
     @Override
     public boolean close() {
         if (connection != null) {
+            closeWriteQueue();
+            closeCursors();
             try {
                 connection.close();
                 return connection.isClosed();
@@ -81,12 +85,38 @@ public class SQLiteDatabase extends GenericSQLDatabase {
 
     @Override
     public List<Map<String, Object>> select(String sql, Object... values) throws SQLException {
-        return select(connection, sql, values);
+        return withConnection(connection -> select(connection, sql, values));
     }
 
     @Override
     public int update(String sql, Object... values) throws SQLException {
-        return update(connection, sql, values);
+        return withConnection(connection -> update(connection, sql, values));
+    }
+
+    /**
+     * Runs the function with this database's single connection. Access is serialized, so that asynchronous operations
+     * (and any synchronous calls made while they are running) do not interleave on the connection. A lock is used rather
+     * than synchronization, so that virtual threads waiting for the connection do not pin their carrier threads.
+     */
+    @Override
+    protected <R> R withConnection(ConnectionFunction<R> function) throws SQLException {
+        lock.lock();
+        try {
+            return function.apply(connection);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    protected SQLCursor openCursor(String sql, int fetchSize, Object[] values) throws SQLException {
+        //Cursors read from the shared connection, one row at a time under the same lock as other operations
+        lock.lock();
+        try {
+            return openCursor(connection, false, lock, sql, fetchSize, values);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -122,9 +152,9 @@ public class SQLiteDatabase extends GenericSQLDatabase {
     public List<Map<String, Object>> execute(String sql, Object... values) throws SQLException {
         String trimmed = sql.trim().toUpperCase();
         if (trimmed.startsWith("SELECT") || trimmed.startsWith("PRAGMA")) {
-            return select(connection, sql, values);
+            return withConnection(connection -> select(connection, sql, values));
         } else {
-            update(connection, sql, values);
+            withConnection(connection -> update(connection, sql, values));
             return null;
         }
     }
@@ -136,17 +166,7 @@ public class SQLiteDatabase extends GenericSQLDatabase {
      * @throws SQLException If there was an error when executing the statement
      */
     public void executemany(String sql, List<Object[]> values) throws SQLException {
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-            for (Object[] value : values) {
-                if (value != null) {
-                    for (int i = 0; i < value.length; i++) {
-                        statement.setObject(i + 1, value[i]);
-                    }
-                }
-                statement.addBatch();
-            }
-            statement.executeBatch();
-        }
+        batch(sql, values);
     }
 
     /**
@@ -0,0 +1,217 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.listener;
+
+
+import dev.magicmq.pyspigot.PyCore;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A per-listener rate limit, evaluated in Java before an event is passed to the script.
+ * <p>
+ * A rate limiter may combine the following policies, each of which suppresses calls independently:
+ * <ul>
+ *     <li>Max per tick: at most N calls are let through in each tick-length (50 millisecond) window</li>
+ *     <li>One in K: only every Kth event is let through</li>
+ *     <li>Adaptive: while the server's average tick time (MSPT) is above a threshold, only every Kth event is let through.
+ *     The MSPT is sampled once per window. Proxies do not have a tick loop, so adaptive sampling never engages on BungeeCord or Velocity</li>
+ * </ul>
+ * Windows are measured in wall-clock time rather than server ticks, so that rate limits behave the same way on every platform.
+ */
+public class ListenerRateLimiter {
+
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final int maxPerTick;
+    private final int oneIn;
+    private final double adaptiveThreshold;
+    private final int adaptiveOneIn;
+
+    private final AtomicLong window;
+    private final AtomicLong windowState;
+    private final AtomicLong seen;
+    private final LongAdder allowed;
+    private final LongAdder suppressed;
+    private volatile boolean overloaded;
+
+    private ListenerRateLimiter(int maxPerTick, int oneIn, double adaptiveThreshold, int adaptiveOneIn) {
+        this.maxPerTick = maxPerTick;
+        this.oneIn = oneIn;
+        this.adaptiveThreshold = adaptiveThreshold;
+        this.adaptiveOneIn = adaptiveOneIn;
+
+        this.window = new AtomicLong(Long.MIN_VALUE);
+        this.windowState = new AtomicLong((System.nanoTime() / WINDOW_NANOS & 0xFFFFFFFFL) << 32);
+        this.seen = new AtomicLong();
+        this.allowed = new LongAdder();
+        this.suppressed = new LongAdder();
+    }
+
+    /**
+     * Check whether a call to the listener should be let through, counting the call as either allowed or suppressed.
+     * @return True if the listener should be called, false if the call should be suppressed
+     */
+    public boolean tryAcquire() {
+        long now = System.nanoTime() / WINDOW_NANOS;
+        long current = window.get();
+        if (now != current && window.compareAndSet(current, now)) {
+            if (adaptiveThreshold > 0) {
+                double mspt = PyCore.get().getAverageTickTime();
+                overloaded = mspt >= 0 && mspt > adaptiveThreshold;
+            }
+        }
+
+        int every = overloaded ? Math.max(oneIn, adaptiveOneIn) : oneIn;
+        if (every > 1 && seen.getAndIncrement() % every != 0) {
+            suppressed.increment();
+            return false;
+        }
+
+        if (maxPerTick > 0 && !acquireWindowSlot(now)) {
+            suppressed.increment();
+            return false;
+        }
+
+        allowed.increment();
+        return true;
+    }
+
+    /**
+     * Get the number of calls that were let through.
+     * @return The number of allowed calls
+     */
+    public long getAllowedCount() {
+        return allowed.sum();
+    }
+
+    /**
+     * Get the number of calls that were suppressed by this rate limiter.
+     * @return The number of suppressed calls
+     */
+    public long getSuppressedCount() {
+        return suppressed.sum();
+    }
+
+    /**
+     * Check if adaptive sampling is currently engaged because the server's MSPT is above the threshold.
+     * @return True if adaptive sampling is engaged, false if otherwise
+     */
+    public boolean isOverloaded() {
+        return overloaded;
+    }
+
+    /**
+     * Prints a representation of this ListenerRateLimiter in string format, including its policies and counters
+     * @return A string representation of the ListenerRateLimiter
+     */
+    @Override
+    public String toString() {
+        return String.format("ListenerRateLimiter[Max Per Tick: %d, One In: %d, Adaptive MSPT: %.1f, Adaptive One In: %d, Allowed: %d, Suppressed: %d]", maxPerTick, oneIn, adaptiveThreshold, adaptiveOneIn, getAllowedCount(), getSuppressedCount());
+    }
+
+    private boolean acquireWindowSlot(long now) {
+        //The window (upper 32 bits) and the number of calls counted in it (lower 32 bits) are packed into one value, so
+        //that starting a new window and counting the first call in it happen atomically
+        long nowWindow = now & 0xFFFFFFFFL;
+        while (true) {
+            long state = windowState.get();
+            long next;
+            if ((int) (nowWindow - (state >>> 32)) <= 0) {
+                //Count calls from the current window, or from a thread that read the clock just before another started a new window
+                if ((int) state >= maxPerTick)
+                    return false;
+                next = state + 1;
+            } else
+                next = (nowWindow << 32) | 1;
+            if (windowState.compareAndSet(state, next))
+                return true;
+        }
+    }
+
+    /**
+     * Get a new builder for declaring a rate limiter.
+     * @return A new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * A helper class for declaring new rate limiters.
+     */
+    public static class Builder {
+
+        private int maxPerTick;
+        private int oneIn = 1;
+        private double adaptiveThreshold;
+        private int adaptiveOneIn = 1;
+
+        /**
+         * Let through at most the given number of calls per tick (50 milliseconds).
+         * @param maxPerTick The maximum number of calls per tick
+         * @return The builder
+         * @throws IllegalArgumentException If maxPerTick is less than 1
+         */
+        public Builder maxPerTick(int maxPerTick) {
+            if (maxPerTick < 1)
+                throw new IllegalArgumentException("Max per tick must be at least 1");
+            this.maxPerTick = maxPerTick;
+            return this;
+        }
+
+        /**
+         * Let through only one in every K events.
+         * @param oneIn K, the sampling interval
+         * @return The builder
+         * @throws IllegalArgumentException If oneIn is less than 1
+         */
+        public Builder oneIn(int oneIn) {
+            if (oneIn < 1)
+                throw new IllegalArgumentException("Sampling interval must be at least 1");
+            this.oneIn = oneIn;
+            return this;
+        }
+
+        /**
+         * While the server's MSPT is above a threshold, let through only one in every K events.
+         * @param msptThreshold The MSPT above which sampling engages, in milliseconds
+         * @param oneIn K, the sampling interval while the server is above the threshold
+         * @return The builder
+         * @throws IllegalArgumentException If msptThreshold is not positive, or if oneIn is less than 1
+         */
+        public Builder adaptive(double msptThreshold, int oneIn) {
+            if (msptThreshold <= 0)
+                throw new IllegalArgumentException("MSPT threshold must be positive");
+            if (oneIn < 1)
+                throw new IllegalArgumentException("Sampling interval must be at least 1");
+            this.adaptiveThreshold = msptThreshold;
+            this.adaptiveOneIn = oneIn;
+            return this;
+        }
+
+        /**
+         * Build a new rate limiter from the Builder.
+         * @return A new ListenerRateLimiter object, built from the Builder's values
+         */
+        public ListenerRateLimiter build() {
+            return new ListenerRateLimiter(maxPerTick, oneIn, adaptiveThreshold, adaptiveOneIn);
+        }
+    }
+}
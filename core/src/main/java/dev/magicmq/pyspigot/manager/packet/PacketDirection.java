@@ -0,0 +1,33 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package dev.magicmq.pyspigot.manager.packet;
+
+/**
+ * The direction of a packet, relative to the server.
+ */
+public enum PacketDirection {
+
+    /**
+     * A packet received by the server from a client.
+     */
+    INBOUND,
+
+    /**
+     * A packet sent by the server to a client.
+     */
+    OUTBOUND
+
+}
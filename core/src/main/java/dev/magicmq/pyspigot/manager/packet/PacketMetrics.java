@@ -0,0 +1,216 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package dev.magicmq.pyspigot.manager.packet;
+
+import dev.magicmq.pyspigot.manager.script.Script;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Traffic metrics for all packet listeners belonging to a single script, for a single packet type and direction.
+ * <p>
+ * Handling time is the time a listener held the thread that delivered the packet (typically a Netty event loop thread),
+ * including the time spent in the script function. Handling times are also counted into a fixed set of latency buckets,
+ * from which approximate percentiles are derived.
+ */
+public class PacketMetrics {
+
+    private static final long[] BUCKET_BOUNDS = {
+            TimeUnit.MICROSECONDS.toNanos(10),
+            TimeUnit.MICROSECONDS.toNanos(50),
+            TimeUnit.MICROSECONDS.toNanos(100),
+            TimeUnit.MICROSECONDS.toNanos(500),
+            TimeUnit.MILLISECONDS.toNanos(1),
+            TimeUnit.MILLISECONDS.toNanos(5),
+            TimeUnit.MILLISECONDS.toNanos(10),
+            TimeUnit.MILLISECONDS.toNanos(50)
+    };
+
+    private final Script script;
+    private final String packetType;
+    private final PacketDirection direction;
+    private final LongAdder intercepted;
+    private final LongAdder cancelled;
+    private final LongAdder modified;
+    private final LongAdder totalTime;
+    private final AtomicLong maxTime;
+    private final LongAdder[] buckets;
+
+    protected PacketMetrics(Script script, String packetType, PacketDirection direction) {
+        this.script = script;
+        this.packetType = packetType;
+        this.direction = direction;
+        this.intercepted = new LongAdder();
+        this.cancelled = new LongAdder();
+        this.modified = new LongAdder();
+        this.totalTime = new LongAdder();
+        this.maxTime = new AtomicLong();
+        this.buckets = new LongAdder[BUCKET_BOUNDS.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Record a packet handled by one of the script's listeners. Called internally by packet listeners.
+     * @param handlingNanos The time the listener took to handle the packet, in nanoseconds
+     * @param cancelled True if the listener cancelled the packet
+     * @param modified True if the listener modified or replaced the packet
+     */
+    public void record(long handlingNanos, boolean cancelled, boolean modified) {
+        intercepted.increment();
+        if (cancelled)
+            this.cancelled.increment();
+        if (modified)
+            this.modified.increment();
+        totalTime.add(handlingNanos);
+        maxTime.accumulateAndGet(handlingNanos, Math::max);
+        buckets[bucketOf(handlingNanos)].increment();
+    }
+
+    /**
+     * Get the script these metrics belong to.
+     * @return The script
+     */
+    public Script getScript() {
+        return script;
+    }
+
+    /**
+     * Get the name of the packet type these metrics cover.
+     * @return The packet type
+     */
+    public String getPacketType() {
+        return packetType;
+    }
+
+    /**
+     * Get the direction of the packets these metrics cover.
+     * @return The direction
+     */
+    public PacketDirection getDirection() {
+        return direction;
+    }
+
+    /**
+     * Get the number of packets handled by the script's listeners.
+     * @return The number of intercepted packets
+     */
+    public long getIntercepted() {
+        return intercepted.sum();
+    }
+
+    /**
+     * Get the number of packets cancelled by the script's listeners.
+     * @return The number of cancelled packets
+     */
+    public long getCancelled() {
+        return cancelled.sum();
+    }
+
+    /**
+     * Get the number of packets modified or replaced by the script's listeners.
+     * @return The number of modified packets
+     */
+    public long getModified() {
+        return modified.sum();
+    }
+
+    /**
+     * Get the average time taken to handle a packet.
+     * @return The average handling time, in milliseconds
+     */
+    public double getAverageMillis() {
+        long count = intercepted.sum();
+        return count > 0 ? toMillis(totalTime.sum()) / count : 0;
+    }
+
+    /**
+     * Get the longest time taken to handle a single packet.
+     * @return The maximum handling time, in milliseconds
+     */
+    public double getMaxMillis() {
+        return toMillis(maxTime.get());
+    }
+
+    /**
+     * Get the total time spent handling packets.
+     * @return The total handling time, in milliseconds
+     */
+    public double getTotalMillis() {
+        return toMillis(totalTime.sum());
+    }
+
+    /**
+     * Get an approximate percentile of handling time, as the upper bound of the latency bucket the percentile falls into.
+     * @param percentile The percentile, between 0 and 100
+     * @return The approximate handling time at the percentile, in milliseconds. If the percentile falls into the highest bucket, the maximum handling time is returned
+     */
+    public double getPercentileMillis(double percentile) {
+        long[] counts = getHistogram();
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0)
+            return 0;
+
+        long target = (long) Math.ceil(total * Math.min(100, Math.max(0, percentile)) / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+            seen += counts[i];
+            if (seen >= target)
+                return toMillis(BUCKET_BOUNDS[i]);
+        }
+        return getMaxMillis();
+    }
+
+    /**
+     * Get the number of packets in each latency bucket. The buckets are bounded above by 0.01, 0.05, 0.1, 0.5, 1, 5, 10 and 50 milliseconds, and the final bucket holds all longer handling times.
+     * @return The bucket counts
+     */
+    public long[] getHistogram() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    /**
+     * Prints a representation of these PacketMetrics in string format
+     * @return A string representation of the PacketMetrics
+     */
+    @Override
+    public String toString() {
+        return String.format("PacketMetrics[Packet Type: %s, Direction: %s, Intercepted: %d, Cancelled: %d, Modified: %d, Handling (avg/p99/max/total): %.3fms/%.3fms/%.3fms/%.2fms]",
+                packetType, direction, getIntercepted(), getCancelled(), getModified(), getAverageMillis(), getPercentileMillis(99), getMaxMillis(), getTotalMillis());
+    }
+
+    private static int bucketOf(long nanos) {
+        for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+            if (nanos <= BUCKET_BOUNDS[i])
+                return i;
+        }
+        return BUCKET_BOUNDS.length;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000D;
+    }
+}
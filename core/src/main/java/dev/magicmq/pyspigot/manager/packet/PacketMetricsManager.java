@@ -0,0 +1,97 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package dev.magicmq.pyspigot.manager.packet;
+
+import dev.magicmq.pyspigot.manager.script.Script;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Manager that tracks traffic metrics for script packet listeners, per script, packet type, and direction.
+ * <p>
+ * Metrics are recorded by the packet listeners of every supported packet library (ProtocolLib, PacketEvents, and
+ * Protocolize). Each listener obtains its {@link PacketMetrics} once, when it is created, so recording a packet does not
+ * involve a lookup. Metrics are kept while the script is running, even if the listener that recorded them is unregistered,
+ * and are discarded when the script is unloaded.
+ */
+public class PacketMetricsManager {
+
+    private static PacketMetricsManager instance;
+
+    private final ConcurrentHashMap<Script, ConcurrentHashMap<Key, PacketMetrics>> metrics;
+
+    private PacketMetricsManager() {
+        metrics = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Get the metrics for a script, packet type and direction, creating them if they do not yet exist. Called internally when a packet listener is created.
+     * @param script The script
+     * @param packetType The name of the packet type
+     * @param direction The direction of the packet
+     * @return The metrics
+     */
+    public PacketMetrics getOrCreate(Script script, String packetType, PacketDirection direction) {
+        return metrics.computeIfAbsent(script, s -> new ConcurrentHashMap<>())
+                .computeIfAbsent(new Key(packetType, direction), key -> new PacketMetrics(script, packetType, direction));
+    }
+
+    /**
+     * Get all packet metrics recorded for a script, sorted by total handling time, highest first.
+     * @param script The script
+     * @return An immutable list of {@link PacketMetrics}. Will return an empty list if the script has no packet listeners
+     */
+    public List<PacketMetrics> getMetrics(Script script) {
+        Map<Key, PacketMetrics> scriptMetrics = metrics.get(script);
+        if (scriptMetrics == null)
+            return List.of();
+        return scriptMetrics.values().stream()
+                .sorted(Comparator.comparingDouble(PacketMetrics::getTotalMillis).reversed())
+                .toList();
+    }
+
+    /**
+     * Get all packet metrics recorded for all scripts.
+     * @return An immutable map of script to that script's {@link PacketMetrics}, each sorted by total handling time, highest first
+     */
+    public Map<Script, List<PacketMetrics>> getMetrics() {
+        return metrics.keySet().stream().collect(Collectors.toUnmodifiableMap(script -> script, this::getMetrics));
+    }
+
+    /**
+     * Discard all packet metrics recorded for a script. Called internally when the script is unloaded.
+     * @param script The script
+     */
+    public void clearMetrics(Script script) {
+        metrics.remove(script);
+    }
+
+    /**
+     * Get the singleton instance of this PacketMetricsManager.
+     * @return The instance
+     */
+    public static PacketMetricsManager get() {
+        if (instance == null)
+            instance = new PacketMetricsManager();
+        return instance;
+    }
+
+    private record Key(String packetType, PacketDirection direction) {}
+}
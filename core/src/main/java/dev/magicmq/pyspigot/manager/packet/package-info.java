@@ -0,0 +1,4 @@
+/**
+ * Contains classes for recording traffic metrics of script packet listeners, across all supported packet libraries.
+ */
+package dev.magicmq.pyspigot.manager.packet;
@@ -0,0 +1,219 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.packetevents;
+
+
+import com.github.retrooper.packetevents.event.PacketListener;
+import com.github.retrooper.packetevents.event.PacketListenerCommon;
+import com.github.retrooper.packetevents.event.PacketListenerPriority;
+import com.github.retrooper.packetevents.event.PacketReceiveEvent;
+import com.github.retrooper.packetevents.event.PacketSendEvent;
+import com.github.retrooper.packetevents.event.ProtocolPacketEvent;
+import com.github.retrooper.packetevents.protocol.PacketSide;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+import dev.magicmq.pyspigot.PyCore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A single PacketEvents listener that dispatches packets to every script packet listener registered for one side and priority.
+ * <p>
+ * Script listeners are indexed by packet type in a lookup table that is rebuilt (copy-on-write) whenever a script listener
+ * is added or removed. Dispatching a packet is a lookup by the packet type's enum class and ordinal, so packets of a type
+ * that no script listens to are discarded without calling any script listener.
+ */
+public class PacketEventsDispatcher implements PacketListener {
+
+    private static final Index EMPTY = new Index(new Class<?>[0], new ScriptPacketListener[0][][]);
+
+    private final PacketSide side;
+    private final PacketListenerPriority priority;
+    private final List<ScriptPacketListener> handlers;
+
+    private volatile Index index;
+    private PacketListenerCommon registeredListener;
+
+    /**
+     *
+     * @param side The side of the packets this dispatcher handles. {@link PacketSide#CLIENT} for received packets, {@link PacketSide#SERVER} for sent packets
+     * @param priority The priority this dispatcher is registered at
+     */
+    public PacketEventsDispatcher(PacketSide side, PacketListenerPriority priority) {
+        this.side = side;
+        this.priority = priority;
+        this.handlers = new ArrayList<>();
+        this.index = EMPTY;
+    }
+
+    /**
+     * Called internally when a packet is received.
+     */
+    @Override
+    public void onPacketReceive(PacketReceiveEvent event) {
+        if (side == PacketSide.CLIENT)
+            dispatch(event);
+    }
+
+    /**
+     * Called internally when a packet is sent.
+     */
+    @Override
+    public void onPacketSend(PacketSendEvent event) {
+        if (side == PacketSide.SERVER)
+            dispatch(event);
+    }
+
+    /**
+     * Get the side of the packets this dispatcher handles.
+     * @return The packet side
+     */
+    public PacketSide getSide() {
+        return side;
+    }
+
+    /**
+     * Get the priority this dispatcher is registered at.
+     * @return The priority
+     */
+    public PacketListenerPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Get the script packet listeners this dispatcher currently dispatches to, in registration order.
+     * @return An immutable list of script packet listeners
+     */
+    public synchronized List<ScriptPacketListener> getHandlers() {
+        return List.copyOf(handlers);
+    }
+
+    /**
+     * Get the registered PacketEvents listener that corresponds to this dispatcher.
+     * @return The registered listener, or null if this dispatcher is not currently registered with PacketEvents
+     */
+    public PacketListenerCommon getRegisteredListener() {
+        return registeredListener;
+    }
+
+    /**
+     * Prints a representation of this PacketEventsDispatcher in string format, including the side, priority, and number of script packet listeners
+     * @return A string representation of the PacketEventsDispatcher
+     */
+    @Override
+    public synchronized String toString() {
+        return String.format("PacketEventsDispatcher[Side: %s, Priority: %s, Handlers: %d]", side, priority, handlers.size());
+    }
+
+    protected void setRegisteredListener(PacketListenerCommon registeredListener) {
+        this.registeredListener = registeredListener;
+    }
+
+    protected synchronized void addHandler(ScriptPacketListener listener) {
+        handlers.add(listener);
+        index = Index.build(handlers);
+    }
+
+    protected synchronized void removeHandlers(Collection<ScriptPacketListener> listeners) {
+        handlers.removeAll(listeners);
+        index = Index.build(handlers);
+    }
+
+    protected synchronized boolean isEmpty() {
+        return handlers.isEmpty();
+    }
+
+    private void dispatch(ProtocolPacketEvent event) {
+        ScriptPacketListener[] targets = index.lookup(event.getPacketType());
+        if (targets == null)
+            return;
+
+        for (ScriptPacketListener target : targets) {
+            try {
+                target.callToScript(event);
+            } catch (RuntimeException e) {
+                //Isolate scripts from one another; a non-Python exception in one listener should not prevent the remaining listeners from running
+                PyCore.get().getLogger().error("Unhandled exception when dispatching packet '{}' to script '{}'", target.getPacketType(), target.getScript().getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Validate that a packet type can be indexed by a dispatcher.
+     * @param type The packet type
+     * @throws IllegalArgumentException If the packet type is not an enum constant
+     */
+    protected static void checkIndexable(PacketTypeCommon type) {
+        if (!(type instanceof Enum<?>))
+            throw new IllegalArgumentException("Unsupported packet type '" + type + "'. Use a packet type from com.github.retrooper.packetevents.protocol.packettype.PacketType");
+    }
+
+    //PacketEvents packet types are enum constants, grouped into one enum per connection state and side. Listeners are indexed by enum class, then by ordinal
+    private static final class Index {
+
+        private final Class<?>[] groups;
+        private final ScriptPacketListener[][][] tables;
+
+        private Index(Class<?>[] groups, ScriptPacketListener[][][] tables) {
+            this.groups = groups;
+            this.tables = tables;
+        }
+
+        private ScriptPacketListener[] lookup(PacketTypeCommon type) {
+            if (!(type instanceof Enum<?> constant))
+                return null;
+
+            Class<?> group = constant.getDeclaringClass();
+            for (int i = 0; i < groups.length; i++) {
+                if (groups[i] == group)
+                    return tables[i][constant.ordinal()];
+            }
+            return null;
+        }
+
+        private static Index build(List<ScriptPacketListener> listeners) {
+            if (listeners.isEmpty())
+                return EMPTY;
+
+            List<Class<?>> groups = new ArrayList<>();
+            List<ScriptPacketListener[][]> tables = new ArrayList<>();
+            for (ScriptPacketListener listener : listeners) {
+                Enum<?> constant = (Enum<?>) listener.getPacketType();
+                Class<?> group = constant.getDeclaringClass();
+                int groupIndex = groups.indexOf(group);
+                if (groupIndex < 0) {
+                    groupIndex = groups.size();
+                    groups.add(group);
+                    tables.add(new ScriptPacketListener[group.getEnumConstants().length][]);
+                }
+
+                ScriptPacketListener[][] table = tables.get(groupIndex);
+                ScriptPacketListener[] current = table[constant.ordinal()];
+                if (current == null)
+                    table[constant.ordinal()] = new ScriptPacketListener[]{listener};
+                else {
+                    ScriptPacketListener[] updated = Arrays.copyOf(current, current.length + 1);
+                    updated[current.length] = listener;
+                    table[constant.ordinal()] = updated;
+                }
+            }
+            return new Index(groups.toArray(new Class<?>[0]), tables.toArray(new ScriptPacketListener[0][][]));
+        }
+    }
+}
@@ -20,20 +20,32 @@ package dev.magicmq.pyspigot.manager.packetevents;
 import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.PacketEventsAPI;
 import com.github.retrooper.packetevents.event.PacketListenerPriority;
+import com.github.retrooper.packetevents.event.ProtocolPacketEvent;
 import com.github.retrooper.packetevents.protocol.PacketSide;
 import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import dev.magicmq.pyspigot.PyCore;
 import dev.magicmq.pyspigot.manager.script.Script;
+import dev.magicmq.pyspigot.util.OrderedExecutor;
 import dev.magicmq.pyspigot.util.ScriptContext;
 import org.python.core.PyFunction;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
 
 /**
  * Manager to interface with PacketEvents. Primarily used by scripts to register and unregister packet listeners.
  * <p>
  * <b>Note:</b> This manager is platform-agnostic, however, it requires the appropriate PacketEvents platform-specific plugin to be present.
+ * <p>
+ * Script packet listeners are not registered with PacketEvents individually. Instead, one {@link PacketEventsDispatcher} is
+ * registered per packet side and priority, which routes each packet only to the script listeners for its packet type.
  * @see com.github.retrooper.packetevents.PacketEventsAPI
  */
 public class PacketEventsManager {
@@ -42,10 +54,16 @@ public class PacketEventsManager {
 
     private final PacketEventsAPI<?> packetEvents;
     private final HashMap<Script, List<ScriptPacketListener>> registeredListeners;
+    private final EnumMap<PacketListenerPriority, PacketEventsDispatcher> receiveDispatchers;
+    private final EnumMap<PacketListenerPriority, PacketEventsDispatcher> sendDispatchers;
+    private final HashMap<Script, OrderedExecutor> orderedExecutors;
 
     private PacketEventsManager() {
         this.packetEvents = PacketEvents.getAPI();
         this.registeredListeners = new HashMap<>();
+        this.receiveDispatchers = new EnumMap<>(PacketListenerPriority.class);
+        this.sendDispatchers = new EnumMap<>(PacketListenerPriority.class);
+        this.orderedExecutors = new HashMap<>();
     }
 
     /**
@@ -82,17 +100,87 @@ public class PacketEventsManager {
      * @return A {@link ScriptPacketListener} representing the packet listener that was registered
      */
     public ScriptPacketListener registerPacketListener(PyFunction function, PacketTypeCommon type, PacketListenerPriority priority) {
+        return registerPacketListener(function, type, priority, null, false);
+    }
+
+    /**
+     * Register a new packet listener that is passed a decoded packet wrapper instead of the packet event.
+     * <p>
+     * The wrapper is shared with every other listener that requests the same wrapper class for the same packet, so the packet is only decoded once. See {@link PacketWrapperCache}. If the function accepts two arguments, the packet event is passed as the second argument.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param function The function that should be called when the packet event occurs
+     * @param type The packet type to listen for
+     * @param priority The priority of the packet listener, relative to other packet listeners
+     * @param wrapperClass The wrapper class to decode the packet into, for example {@code WrapperPlayClientInteractEntity}. Pass null to pass the packet event itself
+     * @param writeBack If true, the wrapper is marked as modified after the function is called, so that changes are written back to the packet
+     * @return A {@link ScriptPacketListener} representing the packet listener that was registered
+     * @throws IllegalArgumentException If the wrapper class cannot be constructed from packets of the given type's side
+     */
+    public ScriptPacketListener registerPacketListener(PyFunction function, PacketTypeCommon type, PacketListenerPriority priority, Class<? extends PacketWrapper<?>> wrapperClass, boolean writeBack) {
         Script script = ScriptContext.require();
 
+        PacketEventsDispatcher.checkIndexable(type);
+        if (wrapperClass != null && !PacketWrapperCache.supports(wrapperClass, type.getSide()))
+            throw new IllegalArgumentException("Wrapper '" + wrapperClass.getSimpleName() + "' cannot be used for packet type '" + type + "'");
+
         ScriptPacketListener listener = null;
-        if (type.getSide() == PacketSide.CLIENT) {
-            listener = new PacketReceiveListener(script, function, type);
+        if (type.getSide() == PacketSide.CLIENT)
+            listener = new PacketReceiveListener(script, function, type, wrapperClass, writeBack);
+        else if (type.getSide() == PacketSide.SERVER)
+            listener = new PacketSendListener(script, function, type, wrapperClass, writeBack);
+
+        if (listener != null) {
+            PacketEventsDispatcher dispatcher = getOrCreateDispatcher(type.getSide(), priority);
+            dispatcher.addHandler(listener);
+            listener.setDispatcher(dispatcher);
+            listener.setRegisteredListener(dispatcher.getRegisteredListener());
             addPacketListener(listener);
-            listener.setRegisteredListener(packetEvents.getEventManager().registerListener(listener, priority));
-        } else if (type.getSide() == PacketSide.SERVER) {
-            listener = new PacketSendListener(script, function, type);
+        }
+        return listener;
+    }
+
+    /**
+     * Register a new ordered packet listener, whose function is called on a PySpigot worker thread instead of the Netty event loop.
+     * <p>
+     * The packet is decoded into the wrapper class on the event loop, and the function is called with the wrapper (and, if it accepts two arguments, the packet's {@link com.github.retrooper.packetevents.protocol.player.User}) on the script's {@link OrderedExecutor}. Packets from the same connection are passed to the function in order. The function receives a shallow private copy of the wrapper (see {@link PacketWrapperCache#copyWrapper}), so changes made by an ordered listener are not written back to the packet. Nested mutable values (such as lists, entity metadata, and item stacks) are shared with the wrapper seen by other listeners, so neither side should modify them in place. If the script's queue is full, the packet is not decoded for this listener at all.
+     * <p>
+     * Because the function runs after the packet has been processed, it cannot cancel the packet. If cancelIf is provided, it is evaluated on the event loop before the packet is queued, and the packet is cancelled if it returns true. It should be fast and must not block.
+     * <p>
+     * If the script's queue is full (see the {@code listener-options.async-queue-limit} config option), further packets are still processed by the server, but are not passed to the function.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param function The function that should be called when the packet event occurs
+     * @param type The packet type to listen for
+     * @param priority The priority of the packet listener, relative to other packet listeners
+     * @param wrapperClass The wrapper class to decode the packet into, for example {@code WrapperPlayClientInteractEntity}
+     * @param cancelIf A predicate that decides whether the packet should be cancelled, or null to never cancel the packet
+     * @return A {@link ScriptPacketListener} representing the packet listener that was registered
+     * @throws IllegalArgumentException If the wrapper class is null, or if it cannot be constructed from packets of the given type's side
+     */
+    public ScriptPacketListener registerOrderedPacketListener(PyFunction function, PacketTypeCommon type, PacketListenerPriority priority, Class<? extends PacketWrapper<?>> wrapperClass, Predicate<ProtocolPacketEvent> cancelIf) {
+        Script script = ScriptContext.require();
+
+        PacketEventsDispatcher.checkIndexable(type);
+        if (wrapperClass == null)
+            throw new IllegalArgumentException("Ordered packet listeners require a wrapper class, as the packet event cannot be used outside of the event loop");
+        if (!PacketWrapperCache.supports(wrapperClass, type.getSide()))
+            throw new IllegalArgumentException("Wrapper '" + wrapperClass.getSimpleName() + "' cannot be used for packet type '" + type + "'");
+
+        OrderedExecutor executor = orderedExecutors.computeIfAbsent(script, s -> new OrderedExecutor(s.getName(), PyCore.get().getConfig().asyncListenerQueueLimit()));
+
+        ScriptPacketListener listener = null;
+        if (type.getSide() == PacketSide.CLIENT)
+            listener = new PacketReceiveListener(script, function, type, wrapperClass, cancelIf, executor);
+        else if (type.getSide() == PacketSide.SERVER)
+            listener = new PacketSendListener(script, function, type, wrapperClass, cancelIf, executor);
+
+        if (listener != null) {
+            PacketEventsDispatcher dispatcher = getOrCreateDispatcher(type.getSide(), priority);
+            dispatcher.addHandler(listener);
+            listener.setDispatcher(dispatcher);
+            listener.setRegisteredListener(dispatcher.getRegisteredListener());
             addPacketListener(listener);
-            listener.setRegisteredListener(packetEvents.getEventManager().registerListener(listener, priority));
         }
         return listener;
     }
@@ -102,7 +190,7 @@ public class PacketEventsManager {
      * @param listener The listener to unregister
      */
     public void unregisterPacketListener(ScriptPacketListener listener) {
-        packetEvents.getEventManager().unregisterListener(listener.getRegisteredListener());
+        removeFromDispatcher(listener.getDispatcher(), Set.of(listener));
         removePacketListener(listener);
     }
 
@@ -124,10 +212,35 @@ public class PacketEventsManager {
      * @param script The script whose packet listeners should be unregistered
      */
     public void unregisterPacketListeners(Script script) {
+        Map<PacketEventsDispatcher, Set<ScriptPacketListener>> byDispatcher = new HashMap<>();
         for (ScriptPacketListener listener : getPacketListeners(script)) {
-            packetEvents.getEventManager().unregisterListener(listener.getRegisteredListener());
+            byDispatcher.computeIfAbsent(listener.getDispatcher(), k -> new HashSet<>()).add(listener);
         }
+        byDispatcher.forEach(this::removeFromDispatcher);
         registeredListeners.remove(script);
+
+        OrderedExecutor executor = orderedExecutors.remove(script);
+        if (executor != null)
+            executor.shutdown();
+    }
+
+    /**
+     * Get the executor that ordered packet listeners belonging to a script run on, which reports the script's queue statistics.
+     * @param script The script
+     * @return The executor, or null if the script has not registered any ordered packet listeners
+     */
+    public OrderedExecutor getOrderedExecutor(Script script) {
+        return orderedExecutors.get(script);
+    }
+
+    /**
+     * Get all dispatchers currently registered with PacketEvents.
+     * @return An immutable list of dispatchers
+     */
+    public List<PacketEventsDispatcher> getDispatchers() {
+        List<PacketEventsDispatcher> dispatchers = new ArrayList<>(receiveDispatchers.values());
+        dispatchers.addAll(sendDispatchers.values());
+        return List.copyOf(dispatchers);
     }
 
     /**
@@ -155,6 +268,28 @@ public class PacketEventsManager {
         return scriptPacketListeners != null ? List.copyOf(scriptPacketListeners) : List.of();
     }
 
+    private PacketEventsDispatcher getOrCreateDispatcher(PacketSide side, PacketListenerPriority priority) {
+        EnumMap<PacketListenerPriority, PacketEventsDispatcher> dispatchers = side == PacketSide.CLIENT ? receiveDispatchers : sendDispatchers;
+        PacketEventsDispatcher dispatcher = dispatchers.get(priority);
+        if (dispatcher == null) {
+            dispatcher = new PacketEventsDispatcher(side, priority);
+            dispatcher.setRegisteredListener(packetEvents.getEventManager().registerListener(dispatcher, priority));
+            dispatchers.put(priority, dispatcher);
+        }
+        return dispatcher;
+    }
+
+    private void removeFromDispatcher(PacketEventsDispatcher dispatcher, Set<ScriptPacketListener> listeners) {
+        dispatcher.removeHandlers(listeners);
+        if (dispatcher.isEmpty()) {
+            //Unregister empty dispatchers, so that PacketEvents does not call into PySpigot when no scripts are listening
+            EnumMap<PacketListenerPriority, PacketEventsDispatcher> dispatchers = dispatcher.getSide() == PacketSide.CLIENT ? receiveDispatchers : sendDispatchers;
+            dispatchers.remove(dispatcher.getPriority(), dispatcher);
+            packetEvents.getEventManager().unregisterListener(dispatcher.getRegisteredListener());
+            dispatcher.setRegisteredListener(null);
+        }
+    }
+
     private void addPacketListener(ScriptPacketListener listener) {
         Script script = listener.getScript();
         if (registeredListeners.containsKey(script))
@@ -18,10 +18,15 @@ package dev.magicmq.pyspigot.manager.packetevents;
 
 
 import com.github.retrooper.packetevents.event.PacketSendEvent;
+import com.github.retrooper.packetevents.event.ProtocolPacketEvent;
 import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
 import dev.magicmq.pyspigot.manager.script.Script;
+import dev.magicmq.pyspigot.util.OrderedExecutor;
 import org.python.core.PyFunction;
 
+import java.util.function.Predicate;
+
 /**
  * A listener that listens for packets sent by the server to the client.
  * @see ScriptPacketListener
@@ -38,6 +43,31 @@ public class PacketSendListener extends ScriptPacketListener {
         super(script, function, packetType);
     }
 
+    /**
+     *
+     * @param script The script associated with this packet listener
+     * @param function The function to be called when the packet is sent
+     * @param packetType The packet type to listen for
+     * @param wrapperClass The wrapper class to decode the packet into, which is passed to the function in place of the event. Pass null to pass the event itself
+     * @param writeBack If true, changes made to the wrapper are written back to the packet
+     */
+    public PacketSendListener(Script script, PyFunction function, PacketTypeCommon packetType, Class<? extends PacketWrapper<?>> wrapperClass, boolean writeBack) {
+        super(script, function, packetType, wrapperClass, writeBack);
+    }
+
+    /**
+     *
+     * @param script The script associated with this packet listener
+     * @param function The function to be called with the decoded wrapper when the packet is sent, on a PySpigot worker thread
+     * @param packetType The packet type to listen for
+     * @param wrapperClass The wrapper class to decode the packet into
+     * @param cancelIf A predicate evaluated on the event loop that decides whether the packet should be cancelled, or null to never cancel the packet
+     * @param executor The executor to call the function on
+     */
+    public PacketSendListener(Script script, PyFunction function, PacketTypeCommon packetType, Class<? extends PacketWrapper<?>> wrapperClass, Predicate<ProtocolPacketEvent> cancelIf, OrderedExecutor executor) {
+        super(script, function, packetType, wrapperClass, cancelIf, executor);
+    }
+
     /**
      * Called internally when the packet is sent.
      */
@@ -0,0 +1,135 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.manager.packetevents;
+
+
+import com.github.retrooper.packetevents.event.PacketReceiveEvent;
+import com.github.retrooper.packetevents.event.PacketSendEvent;
+import com.github.retrooper.packetevents.event.ProtocolPacketEvent;
+import com.github.retrooper.packetevents.protocol.PacketSide;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * A utility class that shares one decoded packet wrapper between all listeners handling the same packet event.
+ * <p>
+ * The wrapper is cached in the event's last used wrapper slot. The first listener to request a wrapper of a given class
+ * decodes the packet, and later listeners requesting the same class receive the same instance, rather than decoding the
+ * packet's buffer again. Because all listeners share one instance, modifications made by any listener are written back to
+ * the packet once, when PacketEvents re-encodes the event after all listeners have run.
+ */
+public final class PacketWrapperCache {
+
+    private static final ClassValue<Constructor<?>[]> CONSTRUCTORS = new ClassValue<>() {
+        @Override
+        protected Constructor<?>[] computeValue(Class<?> type) {
+            Constructor<?> receive = null;
+            Constructor<?> send = null;
+            for (Constructor<?> constructor : type.getConstructors()) {
+                if (constructor.getParameterCount() != 1)
+                    continue;
+                Class<?> parameter = constructor.getParameterTypes()[0];
+                if (parameter == PacketReceiveEvent.class)
+                    receive = constructor;
+                else if (parameter == PacketSendEvent.class)
+                    send = constructor;
+            }
+            return new Constructor<?>[]{receive, send};
+        }
+    };
+
+    private PacketWrapperCache() {}
+
+    /**
+     * Get the decoded wrapper of the given class for a packet event, decoding the packet only if no listener has already done so.
+     * @param event The packet event
+     * @param wrapperClass The wrapper class to decode the packet into, for example {@code WrapperPlayClientInteractEntity}
+     * @return The shared wrapper
+     * @param <W> The wrapper type
+     * @throws IllegalArgumentException If the wrapper class cannot be constructed from this kind of packet event
+     * @throws IllegalStateException If the packet could not be decoded
+     */
+    public static <W extends PacketWrapper<?>> W getWrapper(ProtocolPacketEvent event, Class<W> wrapperClass) {
+        PacketWrapper<?> cached = event.getLastUsedWrapper();
+        if (wrapperClass.isInstance(cached))
+            return wrapperClass.cast(cached);
+
+        W wrapper = construct(event, wrapperClass);
+        event.setLastUsedWrapper(wrapper);
+        return wrapper;
+    }
+
+    /**
+     * Get a shallow copy of the decoded wrapper of the given class for a packet event, which is not shared with other
+     * listeners. The packet is decoded into the shared wrapper first (if no listener has already done so), and the copy is
+     * made from the shared wrapper with the wrapper's own {@code copy} method.
+     * <p>
+     * Use this when the wrapper is read on another thread. Replacing a field of the shared wrapper (for example, with a
+     * setter) does not affect the copy, but the copy shares mutable field values, such as lists, entity metadata, and item
+     * stacks, with the shared wrapper. Listeners on the event loop should therefore replace such values rather than
+     * modifying them in place while a copy may still be read.
+     * @param event The packet event
+     * @param wrapperClass The wrapper class to decode the packet into, for example {@code WrapperPlayClientInteractEntity}
+     * @return A private copy of the wrapper
+     * @param <W> The wrapper type
+     * @throws IllegalArgumentException If the wrapper class cannot be constructed from this kind of packet event
+     * @throws IllegalStateException If the packet could not be decoded
+     */
+    public static <W extends PacketWrapper<?>> W copyWrapper(ProtocolPacketEvent event, Class<W> wrapperClass) {
+        W shared = getWrapper(event, wrapperClass);
+        //Wrappers constructed from an event copy the event's last used wrapper, rather than reading the packet's buffer again
+        W copy = construct(event, wrapperClass);
+        event.setLastUsedWrapper(shared);
+        return copy;
+    }
+
+    /**
+     * Mark a packet event's shared wrapper as modified, so that it is written back to the packet once all listeners have run.
+     * @param event The packet event
+     */
+    public static void markModified(ProtocolPacketEvent event) {
+        event.markForReEncode(true);
+    }
+
+    /**
+     * Check if a wrapper class can be constructed from packet events of the given side.
+     * @param wrapperClass The wrapper class
+     * @param side The packet side. {@link PacketSide#CLIENT} for received packets, {@link PacketSide#SERVER} for sent packets
+     * @return True if the wrapper class has a public constructor accepting the side's packet event, false if otherwise
+     */
+    public static boolean supports(Class<?> wrapperClass, PacketSide side) {
+        return getConstructor(wrapperClass, side) != null;
+    }
+
+    private static <W extends PacketWrapper<?>> W construct(ProtocolPacketEvent event, Class<W> wrapperClass) {
+        Constructor<?> constructor = getConstructor(wrapperClass, event instanceof PacketReceiveEvent ? PacketSide.CLIENT : PacketSide.SERVER);
+        if (constructor == null)
+            throw new IllegalArgumentException("Wrapper '" + wrapperClass.getSimpleName() + "' cannot be constructed from a " + event.getClass().getSimpleName());
+
+        try {
+            return wrapperClass.cast(constructor.newInstance(event));
+        } catch (InvocationTargetException | InstantiationException | IllegalAccessException e) {
+            throw new IllegalStateException("Unable to decode packet '" + event.getPacketType() + "' into '" + wrapperClass.getSimpleName() + "'", e);
+        }
+    }
+
+    private static Constructor<?> getConstructor(Class<?> wrapperClass, PacketSide side) {
+        return CONSTRUCTORS.get(wrapperClass)[side == PacketSide.CLIENT ? 0 : 1];
+    }
+}
@@ -20,26 +20,49 @@ package dev.magicmq.pyspigot.manager.packetevents;
 import com.github.retrooper.packetevents.event.PacketListener;
 import com.github.retrooper.packetevents.event.PacketListenerCommon;
 import com.github.retrooper.packetevents.event.ProtocolPacketEvent;
+import com.github.retrooper.packetevents.protocol.PacketSide;
 import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import dev.magicmq.pyspigot.manager.packet.PacketDirection;
+import dev.magicmq.pyspigot.manager.packet.PacketMetrics;
+import dev.magicmq.pyspigot.manager.packet.PacketMetricsManager;
 import dev.magicmq.pyspigot.manager.script.Script;
 import dev.magicmq.pyspigot.manager.script.ScriptManager;
+import dev.magicmq.pyspigot.util.OrderedExecutor;
 import dev.magicmq.pyspigot.util.ScriptContext;
 import org.python.core.Py;
+import org.python.core.PyBaseCode;
 import org.python.core.PyException;
 import org.python.core.PyFunction;
 import org.python.core.PyObject;
 import org.python.core.ThreadState;
 
+import java.util.function.Predicate;
+
 /**
  * A packet listener belonging to a script, which encompasses both sending and receiving packet listeners.
+ * <p>
+ * Listeners are normally called on the Netty event loop that handles the packet's connection. Ordered listeners instead
+ * decode a shallow private copy of the packet on the event loop and call the script function on a PySpigot worker thread, via the script's
+ * {@link OrderedExecutor}. Packets from the same connection are handled in the order they were received or sent, and a slow
+ * function does not delay the event loop. Because the packet has already been processed by the time an ordered listener
+ * runs, ordered listeners cannot modify or cancel the packet; the decision to cancel is made on the event loop by an
+ * optional Java predicate.
  */
 public class ScriptPacketListener implements PacketListener {
 
     private final Script script;
     private final PyFunction function;
     private final PacketTypeCommon packetType;
+    private final Class<? extends PacketWrapper<?>> wrapperClass;
+    private final boolean writeBack;
+    private final boolean passEvent;
+    private final Predicate<ProtocolPacketEvent> cancelIf;
+    private final OrderedExecutor executor;
+    private final PacketMetrics metrics;
 
     private PacketListenerCommon registeredListener;
+    private PacketEventsDispatcher dispatcher;
 
     /**
      *
@@ -48,9 +71,44 @@ public class ScriptPacketListener implements PacketListener {
      * @param packetType The packet type to listen for
      */
     public ScriptPacketListener(Script script, PyFunction function, PacketTypeCommon packetType) {
+        this(script, function, packetType, null, false);
+    }
+
+    /**
+     *
+     * @param script The script associated with this packet listener
+     * @param function The function to be called when the packet event occurs
+     * @param packetType The packet type to listen for
+     * @param wrapperClass The wrapper class to decode the packet into, which is passed to the function in place of the event. Pass null to pass the event itself
+     * @param writeBack If true, the shared wrapper is marked as modified after the function is called, so that changes are written back to the packet. Has no effect if wrapperClass is null
+     */
+    public ScriptPacketListener(Script script, PyFunction function, PacketTypeCommon packetType, Class<? extends PacketWrapper<?>> wrapperClass, boolean writeBack) {
+        this(script, function, packetType, wrapperClass, writeBack, null, null);
+    }
+
+    /**
+     *
+     * @param script The script associated with this packet listener
+     * @param function The function to be called with the decoded wrapper, on a PySpigot worker thread
+     * @param packetType The packet type to listen for
+     * @param wrapperClass The wrapper class to decode the packet into. If the function accepts two arguments, the packet's {@link com.github.retrooper.packetevents.protocol.player.User} is passed as the second argument
+     * @param cancelIf A predicate evaluated on the event loop, before the function is called, that decides whether the packet should be cancelled. Pass null to never cancel the packet
+     * @param executor The executor to call the function on
+     */
+    public ScriptPacketListener(Script script, PyFunction function, PacketTypeCommon packetType, Class<? extends PacketWrapper<?>> wrapperClass, Predicate<ProtocolPacketEvent> cancelIf, OrderedExecutor executor) {
+        this(script, function, packetType, wrapperClass, false, cancelIf, executor);
+    }
+
+    private ScriptPacketListener(Script script, PyFunction function, PacketTypeCommon packetType, Class<? extends PacketWrapper<?>> wrapperClass, boolean writeBack, Predicate<ProtocolPacketEvent> cancelIf, OrderedExecutor executor) {
         this.script = script;
         this.function = function;
         this.packetType = packetType;
+        this.wrapperClass = wrapperClass;
+        this.writeBack = writeBack;
+        this.passEvent = wrapperClass != null && ((PyBaseCode) function.__code__).co_argcount >= 2;
+        this.cancelIf = cancelIf;
+        this.executor = executor;
+        this.metrics = PacketMetricsManager.get().getOrCreate(script, packetType.getName(), packetType.getSide() == PacketSide.CLIENT ? PacketDirection.INBOUND : PacketDirection.OUTBOUND);
     }
 
     /**
@@ -78,7 +136,47 @@ public class ScriptPacketListener implements PacketListener {
     }
 
     /**
-     * Get the registered PacketEvents listener that corresponds to this listener.
+     * Get the wrapper class packets are decoded into before being passed to the function.
+     * @return The wrapper class, or null if the packet event itself is passed to the function
+     */
+    public Class<? extends PacketWrapper<?>> getWrapperClass() {
+        return wrapperClass;
+    }
+
+    /**
+     * Get if the shared wrapper is marked as modified after the function is called.
+     * @return True if modifications are written back to the packet, false if otherwise
+     */
+    public boolean isWriteBack() {
+        return writeBack;
+    }
+
+    /**
+     * Get if this listener calls its function on a PySpigot worker thread rather than on the event loop.
+     * @return True if this is an ordered listener, false if otherwise
+     */
+    public boolean isOrdered() {
+        return executor != null;
+    }
+
+    /**
+     * Get the executor this listener calls its function on.
+     * @return The executor, or null if this listener is not an ordered listener
+     */
+    public OrderedExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Get the traffic metrics this listener records into, which are shared with the script's other listeners for the same packet type.
+     * @return The metrics
+     */
+    public PacketMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Get the registered PacketEvents listener that corresponds to this listener. This is the registered listener of the {@link PacketEventsDispatcher} that dispatches packets to this listener.
      * @return The PacketEvents {@link com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon} registered listener
      */
     public PacketListenerCommon getRegisteredListener() {
@@ -93,16 +191,77 @@ public class ScriptPacketListener implements PacketListener {
         this.registeredListener = registeredListener;
     }
 
+    /**
+     * Get the dispatcher that dispatches packets to this listener.
+     * @return The dispatcher
+     */
+    public PacketEventsDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    protected void setDispatcher(PacketEventsDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
     protected void callToScript(ProtocolPacketEvent event) {
         if (event.getPacketType().equals(packetType)) {
-            try {
-                Py.setSystemState(script.getInterpreter().getSystemState());
-                ThreadState threadState = Py.getThreadState(script.getInterpreter().getSystemState());
+            long start = System.nanoTime();
+            boolean wasCancelled = event.isCancelled();
+            boolean wasModified = event.needsReEncode();
+            if (executor != null)
+                submitToScript(event);
+            else
+                callFunction(event);
+            metrics.record(System.nanoTime() - start, !wasCancelled && event.isCancelled(), !wasModified && event.needsReEncode());
+        }
+    }
+
+    private void callFunction(ProtocolPacketEvent event) {
+        try {
+            Py.setSystemState(script.getInterpreter().getSystemState());
+            ThreadState threadState = Py.getThreadState(script.getInterpreter().getSystemState());
+            if (wrapperClass == null) {
                 PyObject parameter = Py.java2py(event);
                 ScriptContext.runWith(script, () -> function.__call__(threadState, parameter));
-            } catch (PyException exception) {
-                ScriptManager.get().handleScriptException(script, exception, "Error when calling packet events listener");
+            } else {
+                PyObject[] parameters = Py.javas2pys(PacketWrapperCache.getWrapper(event, wrapperClass), event);
+                if (passEvent)
+                    ScriptContext.runWith(script, () -> function.__call__(threadState, parameters[0], parameters[1]));
+                else
+                    ScriptContext.runWith(script, () -> function.__call__(threadState, parameters[0]));
+                if (writeBack)
+                    PacketWrapperCache.markModified(event);
             }
+        } catch (PyException exception) {
+            ScriptManager.get().handleScriptException(script, exception, "Error when calling packet events listener");
+        }
+    }
+
+    private void submitToScript(ProtocolPacketEvent event) {
+        if (cancelIf != null && cancelIf.test(event))
+            event.setCancelled(true);
+
+        //Decode on the event loop, as the packet's buffer is released once all listeners have run. The worker gets a shallow
+        //private copy, so that fields replaced by other listeners on the event loop are not seen; nested mutable values are
+        //still shared (see PacketWrapperCache#copyWrapper)
+        Object user = event.getUser();
+        executor.submitLazily(user, () -> {
+            PacketWrapper<?> wrapper = PacketWrapperCache.copyWrapper(event, wrapperClass);
+            return () -> deliver(wrapper, user);
+        });
+    }
+
+    private void deliver(PacketWrapper<?> wrapper, Object user) {
+        try {
+            Py.setSystemState(script.getInterpreter().getSystemState());
+            ThreadState threadState = Py.getThreadState(script.getInterpreter().getSystemState());
+            PyObject[] parameters = Py.javas2pys(wrapper, user);
+            if (passEvent)
+                ScriptContext.runWith(script, () -> function.__call__(threadState, parameters[0], parameters[1]));
+            else
+                ScriptContext.runWith(script, () -> function.__call__(threadState, parameters[0]));
+        } catch (PyException exception) {
+            ScriptManager.get().handleScriptException(script, exception, "Error when calling ordered packet events listener");
         }
     }
 
@@ -112,6 +271,11 @@ public class ScriptPacketListener implements PacketListener {
      */
     @Override
     public String toString() {
-        return String.format("ScriptPacketListener[Packet Type: %s]", packetType.toString());
+        if (executor != null)
+            return String.format("ScriptPacketListener[Packet Type: %s, Wrapper: %s, Ordered: true, Queued: %d]", packetType.toString(), wrapperClass.getSimpleName(), executor.getQueueDepth());
+        else if (wrapperClass != null)
+            return String.format("ScriptPacketListener[Packet Type: %s, Wrapper: %s]", packetType.toString(), wrapperClass.getSimpleName());
+        else
+            return String.format("ScriptPacketListener[Packet Type: %s]", packetType.toString());
     }
 }
@@ -18,11 +18,13 @@ package dev.magicmq.pyspigot.manager.script;
 
 import dev.magicmq.pyspigot.PyCore;
 import dev.magicmq.pyspigot.manager.command.CommandManager;
+import dev.magicmq.pyspigot.manager.database.DatabaseExecutor;
 import dev.magicmq.pyspigot.manager.database.DatabaseManager;
 import dev.magicmq.pyspigot.manager.listener.ListenerManager;
 import dev.magicmq.pyspigot.manager.packetevents.PacketEventsManager;
 import dev.magicmq.pyspigot.manager.redis.RedisManager;
 import dev.magicmq.pyspigot.manager.task.TaskManager;
+import dev.magicmq.pyspigot.util.OrderedExecutor;
 import dev.magicmq.pyspigot.util.StringUtils;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.TextComponent;
@@ -92,6 +94,12 @@ public abstract class ScriptInfo {
         builder.append(Component.text().append(Component.text("Database connections: ", NamedTextColor.GOLD)).append(Component.text(databasesInfo.toString())));
         builder.appendNewline();
 
+        DatabaseExecutor databaseExecutor = DatabaseManager.get().getExecutor(script);
+        if (databaseExecutor != null) {
+            builder.append(Component.text().append(Component.text("Async database operations: ", NamedTextColor.GOLD)).append(Component.text(databaseExecutor.toString())));
+            builder.appendNewline();
+        }
+
         List<String> redisInfo = RedisManager.get().getRedisClients(script)
                 .stream()
                 .map(Object::toString)
@@ -106,6 +114,12 @@ public abstract class ScriptInfo {
                     .toList();
             builder.append(Component.text().append(Component.text("Listening to packet types (PacketEvents): ", NamedTextColor.GOLD)).append(Component.text(packetListeners.toString())));
             builder.appendNewline();
+
+            OrderedExecutor orderedExecutor = PacketEventsManager.get().getOrderedExecutor(script);
+            if (orderedExecutor != null) {
+                builder.append(Component.text().append(Component.text("Ordered packet queue (PacketEvents): ", NamedTextColor.GOLD)).append(Component.text(orderedExecutor.toString())));
+                builder.appendNewline();
+            }
         }
 
         printPlatformManagerInfo(script, builder);
@@ -23,9 +23,11 @@ import dev.magicmq.pyspigot.manager.command.CommandManager;
 import dev.magicmq.pyspigot.manager.database.DatabaseManager;
 import dev.magicmq.pyspigot.manager.libraries.LibraryManager;
 import dev.magicmq.pyspigot.manager.listener.ListenerManager;
+import dev.magicmq.pyspigot.manager.packet.PacketMetricsManager;
 import dev.magicmq.pyspigot.manager.packetevents.PacketEventsManager;
 import dev.magicmq.pyspigot.manager.redis.RedisManager;
 import dev.magicmq.pyspigot.manager.task.TaskManager;
+import dev.magicmq.pyspigot.util.ParallelHelper;
 import dev.magicmq.pyspigot.util.ScriptContext;
 import dev.magicmq.pyspigot.util.ScriptUtils;
 import dev.magicmq.pyspigot.util.logging.JythonLogHandler;
@@ -202,6 +204,24 @@ public abstract class ScriptManager {
      */
     protected abstract void unloadScriptOnMainThread(Script script, boolean error);
 
+    /**
+     * Called before a script's main file is executed. Platform-specific implementations may override this to prepare state that should be in place while the script is starting.
+     * @param script The script that is starting
+     */
+    protected void onScriptStarting(Script script) {}
+
+    /**
+     * Called after a script's main file and start functions have executed successfully, immediately before the ScriptLoadEvent is called.
+     * @param script The script that started
+     */
+    protected void onScriptStarted(Script script) {}
+
+    /**
+     * Called if a script could not be started because its main file could not be read, after {@link #onScriptStarting(Script)} may have been called. Platform-specific implementations may override this to discard state prepared for the script.
+     * @param script The script that failed to start
+     */
+    protected void onScriptStartFailed(Script script) {}
+
     /**
      * Initialize Jython. Will only initialize once; subsequent calls to this method have no effect.
      */
@@ -761,6 +781,7 @@ public abstract class ScriptManager {
 
         try (FileInputStream scriptFileReader = new FileInputStream(script.getMainScriptPath().toFile())) {
             initScriptPermissions(script);
+            onScriptStarting(script);
 
             ScriptContext.runWith(script, () -> script.getInterpreter().execfile(scriptFileReader, script.getMainScriptPath().toString()));
 
@@ -806,6 +827,7 @@ public abstract class ScriptManager {
                 }
             }
 
+            onScriptStarted(script);
             callScriptLoadEvent(script);
 
             return RunResult.SUCCESS;
@@ -827,6 +849,7 @@ public abstract class ScriptManager {
                 return RunResult.FAIL_ERROR;
             }
         } catch (IOException e) {
+            onScriptStartFailed(script);
             scripts.remove(script.getMainScriptPath());
             scriptNames.remove(script.getName().toLowerCase());
             script.getModules().forEach(moduleMap::remove);
@@ -883,6 +906,7 @@ public abstract class ScriptManager {
 
         ListenerManager.get().unregisterListeners(script);
         TaskManager.get().stopTasks(script);
+        ParallelHelper.shutdown(script);
         CommandManager.get().unregisterCommands(script);
         DatabaseManager.get().disconnectAll(script);
         RedisManager.get().closeRedisClients(script, false);
@@ -891,6 +915,7 @@ public abstract class ScriptManager {
             PacketEventsManager.get().unregisterPacketListeners(script);
 
         unregisterFromPlatformManagers(script);
+        PacketMetricsManager.get().clearMetrics(script);
 
         script.close();
 
@@ -0,0 +1,220 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package dev.magicmq.pyspigot.manager.task;
+
+import dev.magicmq.pyspigot.manager.script.Script;
+import dev.magicmq.pyspigot.manager.script.ScriptManager;
+import dev.magicmq.pyspigot.util.ScriptContext;
+import org.python.core.Py;
+import org.python.core.PyException;
+import org.python.core.PyGenerator;
+import org.python.core.PyInteger;
+import org.python.core.PyLong;
+import org.python.core.PyObject;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Represents a coroutine defined by a script. A coroutine wraps a Python generator that yields wait instructions, and is resumed by the script's {@link CoroutineDriver} once the instruction is satisfied.
+ * <p>
+ * A coroutine may yield any of the following:
+ * <ul>
+ *     <li>{@code None}, to resume on the next run of the driver</li>
+ *     <li>An integer, to wait the given number of ticks before resuming</li>
+ *     <li>A {@link Future}, to wait until the future completes. The result of the future is sent back into the generator</li>
+ *     <li>A {@link CoroutineHop}, to move execution to an asynchronous thread or back to the driver's thread</li>
+ * </ul>
+ * @param <T> The platform-specific scheduled task type. For example, {@code BukkitTask} for Bukkit, and {@code ScheduledTask} for BungeeCord
+ */
+public class Coroutine<T> {
+
+    private final Script script;
+    private final PyGenerator generator;
+    private final CoroutineDriver<T> driver;
+
+    private volatile long resumeTick;
+    private volatile Future<?> awaiting;
+    private volatile boolean running;
+    private volatile boolean cancelled;
+    private volatile boolean done;
+
+    /**
+     *
+     * @param script The script associated with this coroutine
+     * @param generator The Python generator that this coroutine should drive
+     * @param driver The driver that resumes this coroutine
+     */
+    public Coroutine(Script script, PyGenerator generator, CoroutineDriver<T> driver) {
+        this.script = script;
+        this.generator = generator;
+        this.driver = driver;
+
+        this.resumeTick = driver.getCurrentTick();
+        this.awaiting = null;
+        this.running = false;
+        this.cancelled = false;
+        this.done = false;
+    }
+
+    /**
+     * Get the script associated with this coroutine.
+     * @return The script associated with this coroutine
+     */
+    public Script getScript() {
+        return script;
+    }
+
+    /**
+     * Get the Python generator that this coroutine drives.
+     * @return The Python generator
+     */
+    public PyGenerator getGenerator() {
+        return generator;
+    }
+
+    /**
+     * Check if this coroutine has finished, either because the generator was exhausted, an error occurred, or the coroutine was cancelled.
+     * @return True if this coroutine has finished, false if otherwise
+     */
+    public boolean isDone() {
+        return done || cancelled;
+    }
+
+    /**
+     * Check if this coroutine was cancelled.
+     * @return True if this coroutine was cancelled, false if otherwise
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Cancel this coroutine. Any current step will continue, but the coroutine will not be resumed again.
+     */
+    public void cancel() {
+        TaskManager.<T>getTyped().stopCoroutine(this);
+    }
+
+    /**
+     * Prints a representation of this Coroutine in string format, including its current state
+     * @return A string representation of the Coroutine
+     */
+    @Override
+    public String toString() {
+        String state;
+        if (isDone())
+            state = cancelled ? "CANCELLED" : "DONE";
+        else if (running)
+            state = "RUNNING";
+        else if (awaiting != null)
+            state = "AWAITING_FUTURE";
+        else
+            state = "WAITING";
+        return String.format("Coroutine[State: %s, Resume Tick: %d]", state, resumeTick);
+    }
+
+    protected void markCancelled() {
+        cancelled = true;
+    }
+
+    protected boolean isReady(long currentTick) {
+        if (isDone() || running)
+            return false;
+
+        Future<?> future = awaiting;
+        if (future != null)
+            return future.isDone();
+        else
+            return resumeTick <= currentTick;
+    }
+
+    protected void resume() {
+        PyObject value = Py.None;
+        Future<?> future = awaiting;
+        if (future != null) {
+            awaiting = null;
+            try {
+                value = Py.java2py(future.get());
+            } catch (ExecutionException e) {
+                fail(Py.JavaError(e.getCause() != null ? e.getCause() : e));
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(Py.JavaError(e));
+                return;
+            } catch (CancellationException e) {
+                fail(Py.JavaError(e));
+                return;
+            }
+        }
+
+        step(value);
+    }
+
+    private void step(PyObject value) {
+        if (isDone())
+            return;
+
+        running = true;
+        boolean hopped = false;
+        try {
+            Py.setSystemState(script.getInterpreter().getSystemState());
+            PyObject yielded = ScriptContext.supplyWith(script, () -> generator.send(value));
+            hopped = handleYielded(yielded);
+        } catch (PyException e) {
+            if (e.match(Py.StopIteration))
+                done = true;
+            else
+                fail(e);
+        } catch (RuntimeException e) {
+            fail(Py.JavaError(e));
+        } finally {
+            //An async hop hands the running state over to the async step, which resets it when it finishes
+            if (!hopped)
+                running = false;
+        }
+    }
+
+    private boolean handleYielded(PyObject yielded) {
+        if (yielded == null || yielded == Py.None) {
+            resumeTick = driver.getCurrentTick() + 1;
+        } else if (yielded instanceof PyInteger || yielded instanceof PyLong) {
+            resumeTick = driver.getCurrentTick() + Math.max(1L, yielded.asLong());
+        } else {
+            Object instruction = yielded.__tojava__(Object.class);
+            if (instruction == CoroutineHop.ASYNC) {
+                TaskManager.<T>getTyped().runAsyncImpl(() -> step(Py.None));
+                return true;
+            } else if (instruction == CoroutineHop.SYNC) {
+                resumeTick = driver.getCurrentTick();
+            } else if (instruction instanceof Future<?> future) {
+                awaiting = future;
+            } else {
+                fail(Py.TypeError("Coroutine yielded an unsupported value: " + yielded.getType().fastGetName()));
+            }
+        }
+        return false;
+    }
+
+    private void fail(PyException exception) {
+        done = true;
+        ScriptManager.get().handleScriptException(script, exception, "Error while executing coroutine");
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package dev.magicmq.pyspigot.manager.task;
+
+import dev.magicmq.pyspigot.manager.script.Script;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drives all coroutines belonging to a single script. The driver is scheduled once per script as a repeating platform task that runs every tick, and resumes each coroutine whose wait instruction has been satisfied.
+ * @param <T> The platform-specific scheduled task type. For example, {@code BukkitTask} for Bukkit, and {@code ScheduledTask} for BungeeCord
+ * @see Coroutine
+ */
+public class CoroutineDriver<T> implements Runnable {
+
+    private final Script script;
+    private final List<Coroutine<T>> coroutines;
+
+    private volatile long currentTick;
+    private T platformTask;
+
+    /**
+     *
+     * @param script The script whose coroutines this driver should resume
+     */
+    public CoroutineDriver(Script script) {
+        this.script = script;
+        this.coroutines = new ArrayList<>();
+
+        this.currentTick = 0;
+    }
+
+    /**
+     * Called internally every tick.
+     */
+    @Override
+    public void run() {
+        long tick = ++currentTick;
+
+        List<Coroutine<T>> snapshot;
+        synchronized (this) {
+            coroutines.removeIf(Coroutine::isDone);
+            snapshot = List.copyOf(coroutines);
+        }
+
+        for (Coroutine<T> coroutine : snapshot) {
+            if (coroutine.isReady(tick))
+                coroutine.resume();
+        }
+
+        if (snapshot.isEmpty())
+            TaskManager.<T>getTyped().coroutineDriverIdle(this);
+    }
+
+    /**
+     * Get the script associated with this driver.
+     * @return The script associated with this driver
+     */
+    public Script getScript() {
+        return script;
+    }
+
+    /**
+     * Get the number of times this driver has run.
+     * @return The current tick of this driver
+     */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Get all coroutines currently being driven by this driver.
+     * @return An immutable list containing all coroutines that have not yet finished
+     */
+    public synchronized List<Coroutine<T>> getCoroutines() {
+        return coroutines.stream().filter(coroutine -> !coroutine.isDone()).toList();
+    }
+
+    /**
+     * Get the platform-specific task object for this driver.
+     * @return The platform-specific task object
+     */
+    public T getPlatformTask() {
+        return platformTask;
+    }
+
+    /**
+     * Set the platform-specific task object for this driver.
+     * @param platformTask The platform-specific task object to set
+     * @throws UnsupportedOperationException If the platform-specific task object was already set for this driver
+     */
+    public void setPlatformTask(T platformTask) {
+        if (this.platformTask != null)
+            throw new UnsupportedOperationException("The platformTask has already been set for this coroutine driver");
+
+        this.platformTask = platformTask;
+    }
+
+    /**
+     * Prints a representation of this CoroutineDriver in string format, including the task ID and number of coroutines
+     * @return A string representation of the CoroutineDriver
+     */
+    @Override
+    public String toString() {
+        return String.format("CoroutineDriver[Platform Task: %s, Coroutines: %d]", TaskManager.<T>getTyped().describeTask(platformTask), getCoroutines().size());
+    }
+
+    protected synchronized void addCoroutine(Coroutine<T> coroutine) {
+        coroutines.add(coroutine);
+    }
+
+    protected synchronized boolean isIdle() {
+        coroutines.removeIf(Coroutine::isDone);
+        return coroutines.isEmpty();
+    }
+
+    protected synchronized void cancelAll() {
+        coroutines.forEach(Coroutine::markCancelled);
+        coroutines.clear();
+    }
+}
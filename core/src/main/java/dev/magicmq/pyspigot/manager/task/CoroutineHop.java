@@ -0,0 +1,36 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package dev.magicmq.pyspigot.manager.task;
+
+/**
+ * Special instructions that a coroutine may yield to move its execution between threads.
+ * @see Coroutine
+ */
+public enum CoroutineHop {
+
+    /**
+     * Resume the coroutine on an asynchronous thread. The coroutine will continue to run asynchronously until it yields again.
+     */
+    ASYNC,
+
+    /**
+     * Resume the coroutine on the coroutine driver's thread (the main thread, on platforms that support synchronous tasks) on the next run of the driver.
+     */
+    SYNC
+
+}
@@ -0,0 +1,218 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package dev.magicmq.pyspigot.manager.task;
+
+import dev.magicmq.pyspigot.manager.script.Script;
+import org.python.core.Py;
+import org.python.core.PyFunction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A staged processing pipeline defined by a script. Items submitted to the pipeline flow through a sequence of {@link PipelineStage}s, each with its own thread affinity, bounded input queue, and batch size.
+ * <p>
+ * Backpressure is applied between stages: a stage stops draining while the next stage's queue is full, so when a synchronous stage falls behind, items accumulate in the upstream queues until {@link #submit(Object)} starts rejecting new items.
+ * @param <T> The platform-specific scheduled task type. For example, {@code BukkitTask} for Bukkit, and {@code ScheduledTask} for BungeeCord
+ */
+public class Pipeline<T> implements Runnable {
+
+    private final Script script;
+    private final String name;
+    private final List<PipelineStage<T>> stages;
+    private final long startTime;
+
+    private volatile boolean closed;
+    private T platformTask;
+
+    private Pipeline(Script script, String name) {
+        this.script = script;
+        this.name = name;
+        this.stages = new ArrayList<>();
+        this.startTime = System.nanoTime();
+
+        this.closed = false;
+    }
+
+    /**
+     * Called internally every tick. Drains synchronous stages and resumes asynchronous stages that were held back by backpressure.
+     */
+    @Override
+    public void run() {
+        for (PipelineStage<T> stage : stages) {
+            if (closed)
+                return;
+
+            if (stage.getAffinity() == StageAffinity.SYNC)
+                stage.drain();
+            else
+                stage.requestAsyncDrain();
+        }
+    }
+
+    /**
+     * Submit an item to the first stage of this pipeline. This method never blocks.
+     * @param item The item to submit
+     * @return True if the item was accepted, false if the first stage's queue is full (I.E. the pipeline is applying backpressure) or the pipeline was closed
+     */
+    public boolean submit(Object item) {
+        if (closed)
+            return false;
+
+        PipelineStage<T> first = stages.getFirst();
+        boolean accepted = first.offer(Py.java2py(item));
+        if (!accepted)
+            first.recordDropped();
+        return accepted;
+    }
+
+    /**
+     * Close this pipeline. Items still queued in the pipeline are discarded.
+     */
+    public void close() {
+        TaskManager.<T>getTyped().stopPipeline(this);
+    }
+
+    /**
+     * Get the script associated with this pipeline.
+     * @return The script associated with this pipeline
+     */
+    public Script getScript() {
+        return script;
+    }
+
+    /**
+     * Get the name of this pipeline.
+     * @return The name of this pipeline
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the stages of this pipeline, in order.
+     * @return An immutable list of the pipeline's stages
+     */
+    public List<PipelineStage<T>> getStages() {
+        return List.copyOf(stages);
+    }
+
+    /**
+     * Check if this pipeline was closed.
+     * @return True if the pipeline was closed, false if otherwise
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Get the platform-specific task object that drives this pipeline every tick.
+     * @return The platform-specific task object
+     */
+    public T getPlatformTask() {
+        return platformTask;
+    }
+
+    /**
+     * Prints a representation of this Pipeline in string format, including its stages and their metrics
+     * @return A string representation of the Pipeline
+     */
+    @Override
+    public String toString() {
+        return String.format("Pipeline[Name: %s, Closed: %b, Stages: %s]", name, closed, stages);
+    }
+
+    protected long getStartTime() {
+        return startTime;
+    }
+
+    protected void setPlatformTask(T platformTask) {
+        this.platformTask = platformTask;
+    }
+
+    protected void markClosed() {
+        closed = true;
+    }
+
+    /**
+     * A builder for declaring the stages of a new pipeline. Obtain a builder via {@link TaskManager#newPipeline(String)}.
+     * @param <T> The platform-specific scheduled task type
+     */
+    public static class Builder<T> {
+
+        private final Pipeline<T> pipeline;
+
+        protected Builder(Script script, String name) {
+            this.pipeline = new Pipeline<>(script, name);
+        }
+
+        /**
+         * Add a new stage to the pipeline.
+         * @param name The name of the stage
+         * @param affinity The thread affinity of the stage
+         * @param function The script function that should be called for each item. Its return value is passed to the next stage; returning None drops the item
+         * @param capacity The capacity of the stage's input queue
+         * @param batchSize The maximum number of items the stage should process each time it is drained (for synchronous stages, once per tick)
+         * @return The builder
+         */
+        public Builder<T> stage(String name, StageAffinity affinity, PyFunction function, int capacity, int batchSize) {
+            PipelineStage<T> stage = new PipelineStage<>(pipeline, name, affinity, function, capacity, batchSize);
+            if (!pipeline.stages.isEmpty())
+                pipeline.stages.getLast().setNext(stage);
+            pipeline.stages.add(stage);
+            return this;
+        }
+
+        /**
+         * Add a new asynchronous stage to the pipeline.
+         * @param name The name of the stage
+         * @param function The script function that should be called for each item
+         * @param capacity The capacity of the stage's input queue
+         * @param batchSize The maximum number of items the stage should process each time it is drained
+         * @return The builder
+         */
+        public Builder<T> asyncStage(String name, PyFunction function, int capacity, int batchSize) {
+            return stage(name, StageAffinity.ASYNC, function, capacity, batchSize);
+        }
+
+        /**
+         * Add a new synchronous stage to the pipeline.
+         * @param name The name of the stage
+         * @param function The script function that should be called for each item
+         * @param capacity The capacity of the stage's input queue
+         * @param batchSize The maximum number of items the stage should process each tick
+         * @return The builder
+         */
+        public Builder<T> syncStage(String name, PyFunction function, int capacity, int batchSize) {
+            return stage(name, StageAffinity.SYNC, function, capacity, batchSize);
+        }
+
+        /**
+         * Build and start the pipeline.
+         * @return The started pipeline
+         * @throws UnsupportedOperationException If no stages were added to the pipeline
+         */
+        public Pipeline<T> build() {
+            if (pipeline.stages.isEmpty())
+                throw new UnsupportedOperationException("A pipeline must have at least one stage");
+
+            TaskManager.<T>getTyped().addPipeline(pipeline);
+            return pipeline;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package dev.magicmq.pyspigot.manager.task;
+
+import dev.magicmq.pyspigot.manager.script.Script;
+import dev.magicmq.pyspigot.manager.script.ScriptManager;
+import dev.magicmq.pyspigot.util.ScriptContext;
+import org.python.core.Py;
+import org.python.core.PyException;
+import org.python.core.PyFunction;
+import org.python.core.PyObject;
+import org.python.core.ThreadState;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A single stage of a {@link Pipeline}. Each stage has a bounded input queue, a thread affinity, and a batch size that limits how many items the stage processes each time it is drained.
+ * <p>
+ * The stage function is called once per item. Its return value is passed to the next stage; returning {@code None} drops the item.
+ * If the next stage refuses a result because it filled up in the meantime, the result is held by this stage and offered again
+ * the next time the stage is drained, before any further items are processed.
+ * @param <T> The platform-specific scheduled task type. For example, {@code BukkitTask} for Bukkit, and {@code ScheduledTask} for BungeeCord
+ */
+public class PipelineStage<T> {
+
+    private final Pipeline<T> pipeline;
+    private final String name;
+    private final StageAffinity affinity;
+    private final PyFunction function;
+    private final int capacity;
+    private final int batchSize;
+    private final ArrayBlockingQueue<Entry> queue;
+    private final AtomicBoolean draining;
+
+    private final AtomicLong processed;
+    private final AtomicLong dropped;
+    private final AtomicLong errors;
+    private final AtomicLong totalLagNanos;
+    private final AtomicLong maxLagNanos;
+
+    private PipelineStage<T> next;
+    private volatile PyObject refused;
+
+    /**
+     *
+     * @param pipeline The pipeline this stage belongs to
+     * @param name The name of this stage
+     * @param affinity The thread affinity of this stage
+     * @param function The script function that should be called for each item
+     * @param capacity The capacity of this stage's input queue
+     * @param batchSize The maximum number of items this stage should process each time it is drained
+     */
+    public PipelineStage(Pipeline<T> pipeline, String name, StageAffinity affinity, PyFunction function, int capacity, int batchSize) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Pipeline stage capacity must be at least 1");
+        if (batchSize < 1)
+            throw new IllegalArgumentException("Pipeline stage batch size must be at least 1");
+
+        this.pipeline = pipeline;
+        this.name = name;
+        this.affinity = affinity;
+        this.function = function;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.draining = new AtomicBoolean(false);
+
+        this.processed = new AtomicLong();
+        this.dropped = new AtomicLong();
+        this.errors = new AtomicLong();
+        this.totalLagNanos = new AtomicLong();
+        this.maxLagNanos = new AtomicLong();
+    }
+
+    /**
+     * Get the name of this stage.
+     * @return The name of this stage
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the thread affinity of this stage.
+     * @return The thread affinity of this stage
+     */
+    public StageAffinity getAffinity() {
+        return affinity;
+    }
+
+    /**
+     * Get the capacity of this stage's input queue.
+     * @return The queue capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Get the maximum number of items this stage processes each time it is drained.
+     * @return The batch size
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Get the number of items currently waiting in this stage's input queue.
+     * @return The current queue size
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * Get the number of items this stage has processed.
+     * @return The number of processed items
+     */
+    public long getProcessedCount() {
+        return processed.get();
+    }
+
+    /**
+     * Get the number of items this stage dropped, either because the stage function returned {@code None} or because the item could not be offered to the pipeline.
+     * @return The number of dropped items
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Get the number of items for which the stage function raised an exception.
+     * @return The number of errors
+     */
+    public long getErrorCount() {
+        return errors.get();
+    }
+
+    /**
+     * Get the throughput of this stage since the pipeline was started.
+     * @return The throughput, in items per second
+     */
+    public double getThroughput() {
+        double elapsedSeconds = (System.nanoTime() - pipeline.getStartTime()) / 1_000_000_000D;
+        return elapsedSeconds > 0 ? processed.get() / elapsedSeconds : 0;
+    }
+
+    /**
+     * Get the average time items spent waiting in this stage's input queue before being processed.
+     * @return The average queue lag, in milliseconds
+     */
+    public double getAverageQueueLagMillis() {
+        long count = processed.get() + errors.get();
+        return count > 0 ? (totalLagNanos.get() / (double) count) / 1_000_000D : 0;
+    }
+
+    /**
+     * Get the longest time an item spent waiting in this stage's input queue before being processed.
+     * @return The maximum queue lag, in milliseconds
+     */
+    public double getMaxQueueLagMillis() {
+        return maxLagNanos.get() / 1_000_000D;
+    }
+
+    /**
+     * Prints a representation of this PipelineStage in string format, including its metrics
+     * @return A string representation of the PipelineStage
+     */
+    @Override
+    public String toString() {
+        return String.format("PipelineStage[Name: %s, Affinity: %s, Queue: %d/%d, Processed: %d, Dropped: %d, Errors: %d, Throughput: %.2f/s, Avg Lag: %.2fms, Max Lag: %.2fms]",
+                name, affinity, queue.size(), capacity, processed.get(), dropped.get(), errors.get(), getThroughput(), getAverageQueueLagMillis(), getMaxQueueLagMillis());
+    }
+
+    protected void setNext(PipelineStage<T> next) {
+        this.next = next;
+    }
+
+    protected boolean offer(PyObject item) {
+        boolean accepted = queue.offer(new Entry(item, System.nanoTime()));
+        if (accepted && affinity == StageAffinity.ASYNC)
+            requestAsyncDrain();
+        return accepted;
+    }
+
+    protected boolean isFull() {
+        return queue.remainingCapacity() == 0;
+    }
+
+    protected void recordDropped() {
+        dropped.incrementAndGet();
+    }
+
+    protected void requestAsyncDrain() {
+        if ((!queue.isEmpty() || refused != null) && !pipeline.isClosed() && draining.compareAndSet(false, true))
+            TaskManager.<T>getTyped().runAsyncImpl(this::drainAsync);
+    }
+
+    protected void drain() {
+        Script script = pipeline.getScript();
+        Py.setSystemState(script.getInterpreter().getSystemState());
+        ThreadState threadState = Py.getThreadState(script.getInterpreter().getSystemState());
+
+        //Deliver a result the next stage refused last time before processing anything else, so that order is kept
+        if (refused != null) {
+            if (!next.offer(refused))
+                return;
+            refused = null;
+        }
+
+        int count = 0;
+        while (count < batchSize && !pipeline.isClosed()) {
+            //Apply backpressure by leaving items queued while the next stage is full
+            if (queue.isEmpty() || (next != null && next.isFull()))
+                break;
+
+            Entry entry = queue.poll();
+            if (entry == null)
+                break;
+
+            long lag = System.nanoTime() - entry.enqueued;
+            totalLagNanos.addAndGet(lag);
+            maxLagNanos.accumulateAndGet(lag, Math::max);
+
+            PyObject result;
+            try {
+                result = ScriptContext.supplyWith(script, () -> function.__call__(threadState, entry.item));
+                processed.incrementAndGet();
+            } catch (PyException e) {
+                errors.incrementAndGet();
+                ScriptManager.get().handleScriptException(script, e, "Error in pipeline stage '" + name + "'");
+                count++;
+                continue;
+            } catch (RuntimeException e) {
+                errors.incrementAndGet();
+                ScriptManager.get().handleScriptException(script, Py.JavaError(e), "Error in pipeline stage '" + name + "'");
+                count++;
+                continue;
+            }
+            count++;
+
+            if (next != null) {
+                if (result == null || result == Py.None)
+                    dropped.incrementAndGet();
+                else if (!next.offer(result)) {
+                    //The next stage filled up since the check above. Hold the result rather than dropping it
+                    refused = result;
+                    break;
+                }
+            }
+        }
+    }
+
+    private void drainAsync() {
+        try {
+            drain();
+        } finally {
+            draining.set(false);
+        }
+
+        //Keep draining while there is work and the next stage has room. Otherwise, the pipeline's tick will retry
+        if (next == null || !next.isFull())
+            requestAsyncDrain();
+    }
+
+    private static class Entry {
+
+        private final PyObject item;
+        private final long enqueued;
+
+        private Entry(PyObject item, long enqueued) {
+            this.item = item;
+            this.enqueued = enqueued;
+        }
+    }
+}
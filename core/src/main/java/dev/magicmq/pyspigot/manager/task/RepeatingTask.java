@@ -21,6 +21,8 @@ import dev.magicmq.pyspigot.manager.script.ScriptManager;
 import org.python.core.PyException;
 import org.python.core.PyFunction;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Represents a repeating task defined by a script.
  * @param <T> The platform-specific scheduled task type. For example, {@code BukkitTask} for Bukkit, and {@code ScheduledTask} for BungeeCord
@@ -28,6 +30,9 @@ import org.python.core.PyFunction;
 public class RepeatingTask<T> extends Task<T> {
 
     private final long interval;
+    private final long intervalNanos;
+
+    private long lastStart;
 
     /**
      *
@@ -39,8 +44,26 @@ public class RepeatingTask<T> extends Task<T> {
      * @param interval The interval, in ticks, between each repeat of the task
      */
     public RepeatingTask(Script script, PyFunction function, Object[] functionArgs, boolean async, long delay, long interval) {
-        super(script, function, functionArgs, async, delay);
+        super(script, function, functionArgs, async, delay, delay * NANOS_PER_TICK);
+        this.interval = interval;
+        this.intervalNanos = interval * NANOS_PER_TICK;
+    }
+
+    /**
+     *
+     * @param script The script associated with this repeating task
+     * @param function The script function that should be called every time the repeating task executes
+     * @param functionArgs Any arguments that should be passed to the function
+     * @param async True if the task is asynchronous, false if otherwise
+     * @param delay The delay to wait until running the task
+     * @param delayUnit The time unit for the delay
+     * @param interval The interval between each repeat of the task
+     * @param intervalUnit The time unit for the interval
+     */
+    public RepeatingTask(Script script, PyFunction function, Object[] functionArgs, boolean async, long delay, TimeUnit delayUnit, long interval, TimeUnit intervalUnit) {
+        super(script, function, functionArgs, async, delay, delayUnit.toNanos(delay));
         this.interval = interval;
+        this.intervalNanos = intervalUnit.toNanos(interval);
     }
 
     /**
@@ -48,10 +71,18 @@ public class RepeatingTask<T> extends Task<T> {
      */
     @Override
     public void run() {
+        long start = System.nanoTime();
+        long expectedStart = lastStart == 0 ? scheduledAt + delayNanos : lastStart + intervalNanos;
+        lastStart = start;
         try {
             callTaskFunction();
         } catch (PyException e) {
             ScriptManager.get().handleScriptException(script, e, "Error while executing repeating task");
+        } finally {
+            long execution = System.nanoTime() - start;
+            recordRun(start - expectedStart, execution);
+            if (metrics != null && execution > intervalNanos)
+                metrics.recordOverrun();
         }
     }
 
@@ -0,0 +1,35 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package dev.magicmq.pyspigot.manager.task;
+
+/**
+ * The thread affinity of a {@link PipelineStage}.
+ */
+public enum StageAffinity {
+
+    /**
+     * The stage runs on an asynchronous thread.
+     */
+    ASYNC,
+
+    /**
+     * The stage runs on the main thread, once per tick. On platforms that do not support synchronous tasks, the stage runs on the pipeline's ticking thread instead.
+     */
+    SYNC
+
+}
@@ -57,11 +57,14 @@ public class SyncCallbackTask<T> extends Task<T> {
      */
     @Override
     public void run() {
+        long start = System.nanoTime();
+        long asyncEnd = 0;
         try {
             PyObject outcome = callTaskFunction();
+            asyncEnd = System.nanoTime();
 
             if (!cancelled) {
-                callback = new Callback<>(this, outcome);
+                callback = new Callback<>(this, outcome, asyncEnd);
                 callback.setPlatformTask(TaskManager.<T>getTyped().runSyncCallbackImpl(callback));
                 synchronized (this) {
                     try {
@@ -74,6 +77,9 @@ public class SyncCallbackTask<T> extends Task<T> {
         } catch (PyException e) {
             ScriptManager.get().handleScriptException(script, e, "Error while executing callback task");
         } finally {
+            long asyncExecution = (asyncEnd != 0 ? asyncEnd : System.nanoTime()) - start;
+            long callbackExecution = callback != null ? callback.executionNanos : 0;
+            recordRun(start - (scheduledAt + delayNanos), asyncExecution + callbackExecution);
             if (!cancelled)
                 TaskManager.<T>getTyped().taskFinished(this);
         }
@@ -105,17 +111,21 @@ public class SyncCallbackTask<T> extends Task<T> {
 
         private final SyncCallbackTask<T> task;
         private final PyObject outcome;
+        private final long requestedAt;
 
         private T platformTask;
+        private volatile long executionNanos;
 
         /**
          *
          * @param task The asynchronous portion of the task
          * @param outcome The value(s) returned from the function called during the asynchronous portion of the task
+         * @param requestedAt The time, in nanoseconds, at which the synchronous callback was requested
          */
-        private Callback(SyncCallbackTask<T> task, PyObject outcome) {
+        private Callback(SyncCallbackTask<T> task, PyObject outcome, long requestedAt) {
             this.task = task;
             this.outcome = outcome;
+            this.requestedAt = requestedAt;
         }
 
         /**
@@ -131,6 +141,10 @@ public class SyncCallbackTask<T> extends Task<T> {
          */
         @Override
         public void run() {
+            long start = System.nanoTime();
+            if (task.metrics != null)
+                task.metrics.recordCallbackHop(start - requestedAt);
+
             Py.setSystemState(task.script.getInterpreter().getSystemState());
             ThreadState threadState = Py.getThreadState(task.script.getInterpreter().getSystemState());
 
@@ -142,6 +156,7 @@ public class SyncCallbackTask<T> extends Task<T> {
             } catch (PyException e) {
                 ScriptManager.get().handleScriptException(task.script, e, "Error while executing callback task");
             } finally {
+                executionNanos = System.nanoTime() - start;
                 synchronized (task) {
                     task.notify();
                 }
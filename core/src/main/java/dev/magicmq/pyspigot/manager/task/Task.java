@@ -27,6 +27,7 @@ import org.python.core.PyObject;
 import org.python.core.ThreadState;
 
 import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Represents a task defined by a script.
@@ -34,13 +35,18 @@ import java.util.Arrays;
  */
 public class Task<T> implements Runnable {
 
+    protected static final long NANOS_PER_TICK = 50_000_000L;
+
     protected final Script script;
     protected final PyFunction function;
     protected final Object[] functionArgs;
     protected final boolean async;
     protected final long delay;
+    protected final long delayNanos;
+    protected final long scheduledAt;
 
     protected T platformTask;
+    protected TaskMetrics metrics;
 
     /**
      *
@@ -51,6 +57,23 @@ public class Task<T> implements Runnable {
      * @param delay The delay, in ticks, to wait until running the task
      */
     public Task(Script script, PyFunction function, Object[] functionArgs, boolean async, long delay) {
+        this(script, function, functionArgs, async, delay, delay * NANOS_PER_TICK);
+    }
+
+    /**
+     *
+     * @param script The script associated with this task
+     * @param function The script function that should be called when the task executes
+     * @param functionArgs Any arguments that should be passed to the function
+     * @param async True if the task is asynchronous, false if otherwise
+     * @param delay The delay to wait until running the task
+     * @param delayUnit The time unit for the delay
+     */
+    public Task(Script script, PyFunction function, Object[] functionArgs, boolean async, long delay, TimeUnit delayUnit) {
+        this(script, function, functionArgs, async, delay, delayUnit.toNanos(delay));
+    }
+
+    protected Task(Script script, PyFunction function, Object[] functionArgs, boolean async, long delay, long delayNanos) {
         this.script = script;
         this.function = function;
 
@@ -64,6 +87,8 @@ public class Task<T> implements Runnable {
 
         this.async = async;
         this.delay = delay;
+        this.delayNanos = delayNanos;
+        this.scheduledAt = System.nanoTime();
     }
 
     /**
@@ -71,11 +96,13 @@ public class Task<T> implements Runnable {
      */
     @Override
     public void run() {
+        long start = System.nanoTime();
         try {
             callTaskFunction();
         } catch (PyException e) {
             ScriptManager.get().handleScriptException(script, e, "Error while executing task");
         } finally {
+            recordRun(start - (scheduledAt + delayNanos), System.nanoTime() - start);
             TaskManager.<T>getTyped().taskFinished(this);
         }
     }
@@ -132,6 +159,15 @@ public class Task<T> implements Runnable {
         return String.format("Task[Platform Task: %s, Async: %b, Delay: %d]", TaskManager.<T>getTyped().describeTask(platformTask), async, (int) delay);
     }
 
+    protected void setMetrics(TaskMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    protected void recordRun(long queueLatencyNanos, long executionNanos) {
+        if (metrics != null)
+            metrics.recordRun(Math.max(0L, queueLatencyNanos), executionNanos);
+    }
+
     protected PyObject callTaskFunction() {
         Py.setSystemState(script.getInterpreter().getSystemState());
         ThreadState threadState = Py.getThreadState(script.getInterpreter().getSystemState());
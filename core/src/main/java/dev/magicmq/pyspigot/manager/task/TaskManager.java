@@ -19,10 +19,12 @@ package dev.magicmq.pyspigot.manager.task;
 import dev.magicmq.pyspigot.manager.script.Script;
 import dev.magicmq.pyspigot.util.ScriptContext;
 import org.python.core.PyFunction;
+import org.python.core.PyGenerator;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Manager to interface with a server platform's scheduler. Primarily used by scripts to register and unregister tasks.
@@ -33,11 +35,17 @@ public abstract class TaskManager<T> {
     private static TaskManager<?> instance;
 
     private final HashMap<Script, List<Task<T>>> activeTasks;
+    private final HashMap<Script, CoroutineDriver<T>> coroutineDrivers;
+    private final HashMap<Script, List<Pipeline<T>>> pipelines;
+    private final HashMap<Script, TaskMetrics> taskMetrics;
 
     protected TaskManager() {
         instance = this;
 
         activeTasks = new HashMap<>();
+        coroutineDrivers = new HashMap<>();
+        pipelines = new HashMap<>();
+        taskMetrics = new HashMap<>();
     }
 
     /**
@@ -110,6 +118,20 @@ public abstract class TaskManager<T> {
      */
     protected abstract T runSyncCallbackImpl(Runnable runnable);
 
+    /**
+     * Schedule an internal runnable (such as a coroutine driver or a pipeline's synchronous stages) to run every tick using the platform-specific scheduler. On platforms that support synchronous tasks, the runnable should run on the main thread.
+     * @param runnable The runnable to schedule
+     * @return The platform-specific task object returned by the platform's scheduler
+     */
+    protected abstract T scheduleTickingImpl(Runnable runnable);
+
+    /**
+     * Run an internal runnable (such as an asynchronous coroutine step or pipeline stage) once, asynchronously, using the platform-specific scheduler.
+     * @param runnable The runnable to run
+     * @return The platform-specific task object returned by the platform's scheduler
+     */
+    protected abstract T runAsyncImpl(Runnable runnable);
+
     /**
      * Stop a task using the platform-specific scheduler.
      * @param platformTask The platform-specific task object to stop
@@ -259,6 +281,85 @@ public abstract class TaskManager<T> {
         return task;
     }
 
+    /**
+     * Start a new coroutine. The coroutine is driven by a single per-script driver that runs every tick, and is first resumed on the driver's next run.
+     * <p>
+     * The generator may yield {@code None} (resume next tick), an integer (wait that many ticks), a {@link java.util.concurrent.Future} (resume once the future completes, sending its result into the generator), or a {@link CoroutineHop} (move execution to an asynchronous thread or back to the driver's thread).
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param generator The Python generator that the coroutine should drive
+     * @return A Coroutine object representing the started coroutine
+     */
+    public synchronized Coroutine<T> startCoroutine(PyGenerator generator) {
+        Script script = ScriptContext.require();
+        CoroutineDriver<T> driver = coroutineDrivers.get(script);
+        if (driver == null) {
+            driver = new CoroutineDriver<>(script);
+            coroutineDrivers.put(script, driver);
+            driver.setPlatformTask(scheduleTickingImpl(driver));
+        }
+
+        Coroutine<T> coroutine = new Coroutine<>(script, generator, driver);
+        driver.addCoroutine(coroutine);
+        return coroutine;
+    }
+
+    /**
+     * Cancel the given coroutine. Any current step will continue, but the coroutine will not be resumed again.
+     * @param coroutine The coroutine to cancel
+     */
+    public synchronized void stopCoroutine(Coroutine<T> coroutine) {
+        coroutine.markCancelled();
+    }
+
+    /**
+     * Get all running coroutines associated with a script.
+     * @param script The script whose coroutines should be gotten
+     * @return An immutable list containing all running coroutines associated with the script. Will return an empty list if the script has no running coroutines
+     */
+    public synchronized List<Coroutine<T>> getCoroutines(Script script) {
+        CoroutineDriver<T> driver = coroutineDrivers.get(script);
+        return driver != null ? driver.getCoroutines() : List.of();
+    }
+
+    /**
+     * Create a builder for a new staged pipeline. Stages are declared on the returned builder, and the pipeline starts when {@link Pipeline.Builder#build()} is called.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param name The name of the pipeline
+     * @return A new pipeline builder
+     */
+    public Pipeline.Builder<T> newPipeline(String name) {
+        Script script = ScriptContext.require();
+        return new Pipeline.Builder<>(script, name);
+    }
+
+    /**
+     * Close the given pipeline. Items still queued in the pipeline are discarded.
+     * @param pipeline The pipeline to close
+     */
+    public synchronized void stopPipeline(Pipeline<T> pipeline) {
+        pipeline.markClosed();
+        stopTaskImpl(pipeline.getPlatformTask());
+
+        List<Pipeline<T>> scriptPipelines = pipelines.get(pipeline.getScript());
+        if (scriptPipelines != null) {
+            scriptPipelines.remove(pipeline);
+            if (scriptPipelines.isEmpty())
+                pipelines.remove(pipeline.getScript());
+        }
+    }
+
+    /**
+     * Get all running pipelines associated with a script.
+     * @param script The script whose pipelines should be gotten
+     * @return An immutable list containing all running pipelines associated with the script. Will return an empty list if the script has no running pipelines
+     */
+    public synchronized List<Pipeline<T>> getPipelines(Script script) {
+        List<Pipeline<T>> scriptPipelines = pipelines.get(script);
+        return scriptPipelines != null ? List.copyOf(scriptPipelines) : List.of();
+    }
+
     /**
      * Terminate the task associated with the function.
      * @param function The function whose task should be cancelled
@@ -283,7 +384,7 @@ public abstract class TaskManager<T> {
     }
 
     /**
-     * Terminate all scheduled tasks belonging to a script.
+     * Terminate all scheduled tasks, running coroutines, and pipelines belonging to a script.
      * @param script The script whose scheduled tasks should be terminated
      */
     public synchronized void stopTasks(Script script) {
@@ -291,6 +392,17 @@ public abstract class TaskManager<T> {
             stopTaskImpl(task.getPlatformTask());
         }
         activeTasks.remove(script);
+        taskMetrics.remove(script);
+
+        CoroutineDriver<T> driver = coroutineDrivers.remove(script);
+        if (driver != null) {
+            driver.cancelAll();
+            stopTaskImpl(driver.getPlatformTask());
+        }
+
+        for (Pipeline<T> pipeline : getPipelines(script)) {
+            stopPipeline(pipeline);
+        }
     }
 
     /**
@@ -303,12 +415,51 @@ public abstract class TaskManager<T> {
         return scriptTasks != null ? List.copyOf(scriptTasks) : List.of();
     }
 
+    /**
+     * Get the aggregated scheduler metrics (queue latency, execution time, overruns, and callback hop latency) for all tasks belonging to a script.
+     * @param script The script whose task metrics should be gotten
+     * @return The task metrics for the script, or null if the script has not scheduled any tasks
+     */
+    public synchronized TaskMetrics getTaskMetrics(Script script) {
+        return taskMetrics.get(script);
+    }
+
+    /**
+     * Get the aggregated scheduler metrics for all scripts that have scheduled tasks.
+     * @return An immutable map of scripts to their task metrics
+     */
+    public synchronized Map<Script, TaskMetrics> getTaskMetrics() {
+        return Map.copyOf(taskMetrics);
+    }
+
+    /**
+     * Run an internal runnable (such as the callback of an asynchronous database operation) on the main thread as soon as possible. On platforms that do not support synchronous tasks, the runnable is run immediately on the calling thread instead.
+     * @param runnable The runnable to run
+     */
+    public void runOnMainThread(Runnable runnable) {
+        if (runSyncCallbackImpl(runnable) == null)
+            runnable.run();
+    }
+
     protected synchronized void taskFinished(Task<T> task) {
         removeTask(task);
     }
 
+    protected synchronized void coroutineDriverIdle(CoroutineDriver<T> driver) {
+        if (coroutineDrivers.get(driver.getScript()) == driver && driver.isIdle()) {
+            coroutineDrivers.remove(driver.getScript());
+            stopTaskImpl(driver.getPlatformTask());
+        }
+    }
+
+    protected synchronized void addPipeline(Pipeline<T> pipeline) {
+        pipelines.computeIfAbsent(pipeline.getScript(), k -> new ArrayList<>()).add(pipeline);
+        pipeline.setPlatformTask(scheduleTickingImpl(pipeline));
+    }
+
     protected synchronized void addTask(Task<T> task) {
         Script script = task.getScript();
+        task.setMetrics(taskMetrics.computeIfAbsent(script, k -> new TaskMetrics()));
         if (activeTasks.containsKey(script))
             activeTasks.get(script).add(task);
         else {
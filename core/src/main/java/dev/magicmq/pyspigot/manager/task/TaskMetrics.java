@@ -0,0 +1,166 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package dev.magicmq.pyspigot.manager.task;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregated scheduler metrics for all tasks belonging to a single script.
+ * <p>
+ * Queue latency is the time between when a task was expected to start (its scheduling time plus its delay, or its previous start plus its interval for repeating tasks) and when it actually started. Execution time is the time the task function took to run. Callback hop latency is the time between when a sync callback task's asynchronous portion finished and when its synchronous callback started.
+ */
+public class TaskMetrics {
+
+    private final LongAdder runs;
+    private final LongAdder totalQueueLatency;
+    private final AtomicLong maxQueueLatency;
+    private final LongAdder totalExecutionTime;
+    private final AtomicLong maxExecutionTime;
+    private final LongAdder overruns;
+    private final LongAdder callbackHops;
+    private final LongAdder totalCallbackHopLatency;
+    private final AtomicLong maxCallbackHopLatency;
+
+    public TaskMetrics() {
+        this.runs = new LongAdder();
+        this.totalQueueLatency = new LongAdder();
+        this.maxQueueLatency = new AtomicLong();
+        this.totalExecutionTime = new LongAdder();
+        this.maxExecutionTime = new AtomicLong();
+        this.overruns = new LongAdder();
+        this.callbackHops = new LongAdder();
+        this.totalCallbackHopLatency = new LongAdder();
+        this.maxCallbackHopLatency = new AtomicLong();
+    }
+
+    /**
+     * Get the number of task executions recorded.
+     * @return The number of task executions
+     */
+    public long getRuns() {
+        return runs.sum();
+    }
+
+    /**
+     * Get the average queue latency of task executions.
+     * @return The average queue latency, in milliseconds
+     */
+    public double getAverageQueueLatencyMillis() {
+        long count = runs.sum();
+        return count > 0 ? toMillis(totalQueueLatency.sum()) / count : 0;
+    }
+
+    /**
+     * Get the maximum queue latency of a single task execution.
+     * @return The maximum queue latency, in milliseconds
+     */
+    public double getMaxQueueLatencyMillis() {
+        return toMillis(maxQueueLatency.get());
+    }
+
+    /**
+     * Get the average execution time of task executions.
+     * @return The average execution time, in milliseconds
+     */
+    public double getAverageExecutionMillis() {
+        long count = runs.sum();
+        return count > 0 ? toMillis(totalExecutionTime.sum()) / count : 0;
+    }
+
+    /**
+     * Get the maximum execution time of a single task execution.
+     * @return The maximum execution time, in milliseconds
+     */
+    public double getMaxExecutionMillis() {
+        return toMillis(maxExecutionTime.get());
+    }
+
+    /**
+     * Get the total time spent executing tasks.
+     * @return The total execution time, in milliseconds
+     */
+    public double getTotalExecutionMillis() {
+        return toMillis(totalExecutionTime.sum());
+    }
+
+    /**
+     * Get the number of times a repeating task's execution took longer than its interval.
+     * @return The number of overruns
+     */
+    public long getOverruns() {
+        return overruns.sum();
+    }
+
+    /**
+     * Get the number of sync callback hops recorded.
+     * @return The number of callback hops
+     */
+    public long getCallbackHops() {
+        return callbackHops.sum();
+    }
+
+    /**
+     * Get the average latency between the end of a sync callback task's asynchronous portion and the start of its synchronous callback.
+     * @return The average callback hop latency, in milliseconds
+     */
+    public double getAverageCallbackHopMillis() {
+        long count = callbackHops.sum();
+        return count > 0 ? toMillis(totalCallbackHopLatency.sum()) / count : 0;
+    }
+
+    /**
+     * Get the maximum latency of a single sync callback hop.
+     * @return The maximum callback hop latency, in milliseconds
+     */
+    public double getMaxCallbackHopMillis() {
+        return toMillis(maxCallbackHopLatency.get());
+    }
+
+    /**
+     * Prints a representation of these TaskMetrics in string format
+     * @return A string representation of the TaskMetrics
+     */
+    @Override
+    public String toString() {
+        return String.format("TaskMetrics[Runs: %d, Queue Latency (avg/max): %.2fms/%.2fms, Execution (avg/max/total): %.2fms/%.2fms/%.2fms, Overruns: %d, Callback Hops: %d, Callback Hop Latency (avg/max): %.2fms/%.2fms]",
+                getRuns(), getAverageQueueLatencyMillis(), getMaxQueueLatencyMillis(), getAverageExecutionMillis(), getMaxExecutionMillis(), getTotalExecutionMillis(), getOverruns(), getCallbackHops(), getAverageCallbackHopMillis(), getMaxCallbackHopMillis());
+    }
+
+    protected void recordRun(long queueLatencyNanos, long executionNanos) {
+        runs.increment();
+        totalQueueLatency.add(queueLatencyNanos);
+        maxQueueLatency.accumulateAndGet(queueLatencyNanos, Math::max);
+        totalExecutionTime.add(executionNanos);
+        maxExecutionTime.accumulateAndGet(executionNanos, Math::max);
+    }
+
+    protected void recordOverrun() {
+        overruns.increment();
+    }
+
+    protected void recordCallbackHop(long latencyNanos) {
+        callbackHops.increment();
+        totalCallbackHopLatency.add(latencyNanos);
+        maxCallbackHopLatency.accumulateAndGet(latencyNanos, Math::max);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000D;
+    }
+}
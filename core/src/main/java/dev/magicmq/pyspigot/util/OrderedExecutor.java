@@ -0,0 +1,309 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.util;
+
+
+import dev.magicmq.pyspigot.PyCore;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * An executor that runs tasks on a shared pool of PySpigot worker threads, while guaranteeing that tasks submitted with the
+ * same key (for example, the same player connection) run one at a time, in the order they were submitted.
+ * <p>
+ * Each key has its own serial queue, which exists only while it has pending tasks. Queues for different keys run in
+ * parallel on the worker pool. A queue runs a limited number of tasks before yielding its worker, so that a busy connection
+ * cannot starve others.
+ * <p>
+ * The total number of pending tasks is bounded. When the limit is reached, further tasks are dropped (and counted) rather
+ * than blocking the submitting thread, which is typically a network thread.
+ */
+public class OrderedExecutor {
+
+    private static final int TASKS_PER_TURN = 64;
+
+    private static ExecutorService workers;
+
+    private final String name;
+    private final int queueLimit;
+    private final ConcurrentHashMap<Object, SerialQueue> queues;
+    private final AtomicInteger pending;
+    private final LongAdder completed;
+    private final LongAdder dropped;
+    private final LongAdder latencyNanos;
+    private final AtomicLong maxLatencyNanos;
+
+    private volatile boolean shutdown;
+
+    /**
+     *
+     * @param name A descriptive name for this executor, such as the name of the script it belongs to
+     * @param queueLimit The maximum number of pending tasks across all keys. Values less than 1 are treated as 1
+     */
+    public OrderedExecutor(String name, int queueLimit) {
+        this.name = name;
+        this.queueLimit = Math.max(1, queueLimit);
+        this.queues = new ConcurrentHashMap<>();
+        this.pending = new AtomicInteger();
+        this.completed = new LongAdder();
+        this.dropped = new LongAdder();
+        this.latencyNanos = new LongAdder();
+        this.maxLatencyNanos = new AtomicLong();
+    }
+
+    /**
+     * Submit a task to run after all tasks previously submitted with the same key.
+     * @param key The key to order the task by
+     * @param task The task to run
+     * @return True if the task was queued, false if it was dropped because the queue limit was reached or the executor was shut down
+     */
+    public boolean submit(Object key, Runnable task) {
+        if (!reserve())
+            return false;
+
+        enqueue(key, task);
+        return true;
+    }
+
+    /**
+     * Submit a task to run after all tasks previously submitted with the same key, creating the task only if there is room
+     * for it in the queue. Use this instead of {@link #submit(Object, Runnable)} when preparing the task is expensive (for
+     * example, decoding or copying a packet), so that no work is done for tasks that would be dropped.
+     * @param key The key to order the task by
+     * @param taskSupplier Creates the task to run. Called on the submitting thread, only if the task will be queued
+     * @return True if the task was queued, false if it was dropped because the queue limit was reached or the executor was shut down
+     */
+    public boolean submitLazily(Object key, Supplier<? extends Runnable> taskSupplier) {
+        if (!reserve())
+            return false;
+
+        Runnable task;
+        try {
+            task = taskSupplier.get();
+        } catch (RuntimeException e) {
+            pending.decrementAndGet();
+            throw e;
+        }
+        enqueue(key, task);
+        return true;
+    }
+
+    /**
+     * Get the descriptive name of this executor.
+     * @return The name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the number of tasks waiting to run, across all keys.
+     * @return The queue depth
+     */
+    public int getQueueDepth() {
+        return pending.get();
+    }
+
+    /**
+     * Get the number of keys that currently have pending tasks.
+     * @return The number of active keys
+     */
+    public int getActiveKeyCount() {
+        return queues.size();
+    }
+
+    /**
+     * Get the number of tasks that have finished running.
+     * @return The number of completed tasks
+     */
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    /**
+     * Get the number of tasks that were dropped because the queue limit was reached.
+     * @return The number of dropped tasks
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Get the average time tasks waited in their queue before starting to run.
+     * @return The average queue latency, in milliseconds
+     */
+    public double getAverageLatency() {
+        long count = completed.sum();
+        return count > 0 ? latencyNanos.sum() / (double) TimeUnit.MILLISECONDS.toNanos(1) / count : 0;
+    }
+
+    /**
+     * Get the longest time a task waited in its queue before starting to run.
+     * @return The maximum queue latency, in milliseconds
+     */
+    public double getMaxLatency() {
+        return maxLatencyNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Stop accepting tasks and discard all pending tasks. Tasks that are already running are allowed to finish.
+     */
+    public void shutdown() {
+        shutdown = true;
+        queues.clear();
+        pending.set(0);
+    }
+
+    /**
+     * Prints a representation of this OrderedExecutor in string format, including queue statistics
+     * @return A string representation of the OrderedExecutor
+     */
+    @Override
+    public String toString() {
+        return String.format("OrderedExecutor[Name: %s, Queued: %d/%d, Active Keys: %d, Completed: %d, Dropped: %d, Avg Latency: %.2fms, Max Latency: %.2fms]",
+                name, getQueueDepth(), queueLimit, getActiveKeyCount(), getCompletedCount(), getDroppedCount(), getAverageLatency(), getMaxLatency());
+    }
+
+    /**
+     * Shut down the shared pool of worker threads used by all ordered executors. Called internally when the plugin is disabled.
+     * Tasks that are already running are interrupted; if an ordered executor is used afterwards, a new pool is created.
+     */
+    public static synchronized void shutdownWorkers() {
+        if (workers != null) {
+            workers.shutdownNow();
+            workers = null;
+        }
+    }
+
+    private boolean reserve() {
+        if (shutdown)
+            return false;
+        if (pending.incrementAndGet() > queueLimit) {
+            pending.decrementAndGet();
+            dropped.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private void enqueue(Object key, Runnable task) {
+        Entry entry = new Entry(task, System.nanoTime());
+        boolean[] schedule = new boolean[1];
+        SerialQueue queue = queues.compute(key, (k, existing) -> {
+            SerialQueue serialQueue = existing != null ? existing : new SerialQueue(k);
+            serialQueue.tasks.add(entry);
+            if (!serialQueue.scheduled) {
+                serialQueue.scheduled = true;
+                schedule[0] = true;
+            }
+            return serialQueue;
+        });
+        if (schedule[0])
+            getWorkers().execute(queue);
+    }
+
+    private static synchronized ExecutorService getWorkers() {
+        if (workers == null) {
+            AtomicInteger count = new AtomicInteger();
+            int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+            workers = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "PySpigot-ordered-worker-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            ((ThreadPoolExecutor) workers).allowCoreThreadTimeOut(true);
+        }
+        return workers;
+    }
+
+    private static final class Entry {
+
+        private final Runnable task;
+        private final long queuedAt;
+
+        private Entry(Runnable task, long queuedAt) {
+            this.task = task;
+            this.queuedAt = queuedAt;
+        }
+    }
+
+    private final class SerialQueue implements Runnable {
+
+        private final Object key;
+        //Guarded by the queues map's lock for this key, via ConcurrentHashMap#compute
+        private final ArrayDeque<Entry> tasks;
+        private boolean scheduled;
+
+        private SerialQueue(Object key) {
+            this.key = key;
+            this.tasks = new ArrayDeque<>();
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < TASKS_PER_TURN; i++) {
+                Entry next = poll();
+                if (next == null)
+                    return;
+                runTask(next);
+            }
+            //Yield the worker to other queues, then continue
+            getWorkers().execute(this);
+        }
+
+        private Entry poll() {
+            Entry[] next = new Entry[1];
+            queues.computeIfPresent(key, (k, queue) -> {
+                if (queue != this)
+                    return queue;
+                next[0] = tasks.poll();
+                if (next[0] == null) {
+                    scheduled = false;
+                    return null;
+                }
+                return queue;
+            });
+            return next[0];
+        }
+
+        private void runTask(Entry entry) {
+            if (shutdown)
+                return;
+
+            pending.decrementAndGet();
+            long waited = System.nanoTime() - entry.queuedAt;
+            latencyNanos.add(waited);
+            maxLatencyNanos.accumulateAndGet(waited, Math::max);
+            try {
+                entry.task.run();
+            } catch (RuntimeException e) {
+                PyCore.get().getLogger().error("Unhandled exception in ordered task for '{}'", name, e);
+            } finally {
+                completed.increment();
+            }
+        }
+    }
+}
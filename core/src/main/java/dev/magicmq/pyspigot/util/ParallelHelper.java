@@ -0,0 +1,371 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.util;
+
+
+import dev.magicmq.pyspigot.manager.script.Script;
+import org.python.core.Py;
+import org.python.core.PyList;
+import org.python.core.PyObject;
+import org.python.core.PySystemState;
+import org.python.core.ThreadState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A class that contains fork/join helpers for processing collections in parallel from within the Python scripting
+ * environment.
+ * <p>
+ * Each script receives its own dedicated {@link ForkJoinPool}, created lazily on first use and shut down when the script
+ * is unloaded. Work is split recursively until chunks reach a size threshold, and every worker thread enters the
+ * owning script's {@link ScriptContext} and Jython thread state before calling into Python.
+ * <p>
+ * These methods block the calling thread until all work completes. They are intended for CPU-bound work performed off
+ * the main thread (for example, from an asynchronous task). Functions passed to these methods must be thread-safe.
+ * <p>
+ * Meant to be used via the {@code parallel.py} module. Scripts should never call methods in this class directly.
+ */
+public final class ParallelHelper {
+
+    private static final int SPLITS_PER_THREAD = 4;
+
+    private static final Map<Script, ForkJoinPool> pools = new ConcurrentHashMap<>();
+
+    private ParallelHelper() {}
+
+    /**
+     * Apply a function to every element of a collection in parallel.
+     * @param function The function to apply to each element
+     * @param items The items to process. Can be a Python iterable or a Java collection
+     * @return A list containing the results, in the same order as the input
+     */
+    public static PyList parallelMap(PyObject function, PyObject items) {
+        return parallelMap(function, items, 0);
+    }
+
+    /**
+     * Apply a function to every element of a collection in parallel.
+     * @param function The function to apply to each element
+     * @param items The items to process. Can be a Python iterable or a Java collection
+     * @param threshold The maximum number of elements processed sequentially by a single worker. A value of 0 or less
+     *                  selects a threshold automatically based on the pool's parallelism
+     * @return A list containing the results, in the same order as the input
+     */
+    public static PyList parallelMap(PyObject function, PyObject items, int threshold) {
+        Script script = ScriptContext.require();
+        List<PyObject> elements = toList(items);
+        ForkJoinPool pool = getPool(script);
+        List<PyObject> results = invoke(pool, new MapTask(script, function, elements, 0, elements.size(), getThreshold(pool, elements.size(), threshold), new AtomicReference<>()));
+        return new PyList(results);
+    }
+
+    /**
+     * Filter the elements of a collection in parallel.
+     * @param function The predicate to test each element with. Elements for which the predicate returns a truthy value are kept
+     * @param items The items to filter. Can be a Python iterable or a Java collection
+     * @return A list containing the elements that passed the predicate, in the same order as the input
+     */
+    public static PyList parallelFilter(PyObject function, PyObject items) {
+        return parallelFilter(function, items, 0);
+    }
+
+    /**
+     * Filter the elements of a collection in parallel.
+     * @param function The predicate to test each element with. Elements for which the predicate returns a truthy value are kept
+     * @param items The items to filter. Can be a Python iterable or a Java collection
+     * @param threshold The maximum number of elements processed sequentially by a single worker. A value of 0 or less
+     *                  selects a threshold automatically based on the pool's parallelism
+     * @return A list containing the elements that passed the predicate, in the same order as the input
+     */
+    public static PyList parallelFilter(PyObject function, PyObject items, int threshold) {
+        Script script = ScriptContext.require();
+        List<PyObject> elements = toList(items);
+        ForkJoinPool pool = getPool(script);
+        List<PyObject> results = invoke(pool, new FilterTask(script, function, elements, 0, elements.size(), getThreshold(pool, elements.size(), threshold), new AtomicReference<>()));
+        return new PyList(results);
+    }
+
+    /**
+     * Reduce the elements of a collection in parallel.
+     * <p>
+     * Each chunk is reduced sequentially, and the partial results are then combined with the same function. The function
+     * must therefore be associative; the order of elements is preserved, so it need not be commutative.
+     * @param function The function to combine two values with
+     * @param items The items to reduce. Can be a Python iterable or a Java collection
+     * @return The reduced value
+     * @throws org.python.core.PyException A TypeError if the collection is empty
+     */
+    public static PyObject parallelReduce(PyObject function, PyObject items) {
+        return parallelReduce(function, items, 0);
+    }
+
+    /**
+     * Reduce the elements of a collection in parallel.
+     * <p>
+     * Each chunk is reduced sequentially, and the partial results are then combined with the same function. The function
+     * must therefore be associative; the order of elements is preserved, so it need not be commutative.
+     * @param function The function to combine two values with
+     * @param items The items to reduce. Can be a Python iterable or a Java collection
+     * @param threshold The maximum number of elements processed sequentially by a single worker. A value of 0 or less
+     *                  selects a threshold automatically based on the pool's parallelism
+     * @return The reduced value
+     * @throws org.python.core.PyException A TypeError if the collection is empty
+     */
+    public static PyObject parallelReduce(PyObject function, PyObject items, int threshold) {
+        return parallelReduce(function, items, null, threshold);
+    }
+
+    /**
+     * Reduce the elements of a collection in parallel, starting from an initial value.
+     * <p>
+     * Each chunk is reduced sequentially, and the partial results are then combined with the same function. The function
+     * must therefore be associative; the order of elements is preserved, so it need not be commutative. The initial value
+     * is combined exactly once, with the result of the reduction.
+     * @param function The function to combine two values with
+     * @param items The items to reduce. Can be a Python iterable or a Java collection
+     * @param initial The initial value, or null if there is none
+     * @param threshold The maximum number of elements processed sequentially by a single worker. A value of 0 or less
+     *                  selects a threshold automatically based on the pool's parallelism
+     * @return The reduced value, or the initial value if the collection is empty
+     * @throws org.python.core.PyException A TypeError if the collection is empty and no initial value was provided
+     */
+    public static PyObject parallelReduce(PyObject function, PyObject items, PyObject initial, int threshold) {
+        Script script = ScriptContext.require();
+        List<PyObject> elements = toList(items);
+        if (elements.isEmpty()) {
+            if (initial == null)
+                throw Py.TypeError("parallel_reduce() of empty sequence with no initial value");
+            return initial;
+        }
+
+        ForkJoinPool pool = getPool(script);
+        PyObject result = invoke(pool, new ReduceTask(script, function, elements, 0, elements.size(), getThreshold(pool, elements.size(), threshold), new AtomicReference<>()));
+        if (initial != null)
+            result = call(script, function, initial, result);
+        return result;
+    }
+
+    /**
+     * Get the parallelism of the fork/join pool belonging to the script currently executing.
+     * @return The number of worker threads the pool targets
+     */
+    public static int getParallelism() {
+        return getPool(ScriptContext.require()).getParallelism();
+    }
+
+    /**
+     * Shut down the fork/join pool belonging to a script, if one exists.
+     * <p>
+     * <b>Note:</b> This should be called from Java only, when a script is unloaded.
+     * @param script The script whose pool should be shut down
+     */
+    public static void shutdown(Script script) {
+        ForkJoinPool pool = pools.remove(script);
+        if (pool != null)
+            pool.shutdownNow();
+    }
+
+    private static ForkJoinPool getPool(Script script) {
+        return pools.computeIfAbsent(script, s -> new ForkJoinPool(
+                Runtime.getRuntime().availableProcessors(),
+                pool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("PySpigot-" + s.getName() + "-parallel-" + thread.getPoolIndex());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                null,
+                false));
+    }
+
+    private static <R> R invoke(ForkJoinPool pool, ChunkTask<R> task) {
+        try {
+            return pool.invoke(task);
+        } catch (RuntimeException e) {
+            //The exception seen here may be a reflective copy made by the fork/join framework (for PyExceptions, one
+            //without a Python type), so rethrow the original exception raised by the worker instead
+            RuntimeException failure = task.failure.get();
+            throw failure != null ? failure : e;
+        }
+    }
+
+    private static int getThreshold(ForkJoinPool pool, int size, int threshold) {
+        if (threshold > 0)
+            return threshold;
+        return Math.max(1, size / (pool.getParallelism() * SPLITS_PER_THREAD));
+    }
+
+    private static List<PyObject> toList(PyObject items) {
+        List<PyObject> elements = new ArrayList<>();
+        for (PyObject item : items.asIterable()) {
+            elements.add(item);
+        }
+        return elements;
+    }
+
+    private static PyObject call(Script script, PyObject function, PyObject... args) {
+        PySystemState systemState = script.getInterpreter().getSystemState();
+        Py.setSystemState(systemState);
+        ThreadState threadState = Py.getThreadState(systemState);
+        return ScriptContext.supplyWith(script, () -> function.__call__(threadState, args));
+    }
+
+    private static abstract class ChunkTask<R> extends RecursiveTask<R> {
+
+        protected final Script script;
+        protected final PyObject function;
+        protected final List<PyObject> elements;
+        protected final int from;
+        protected final int to;
+        protected final int threshold;
+        protected final AtomicReference<RuntimeException> failure;
+
+        private ChunkTask(Script script, PyObject function, List<PyObject> elements, int from, int to, int threshold, AtomicReference<RuntimeException> failure) {
+            this.script = script;
+            this.function = function;
+            this.elements = elements;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.failure = failure;
+        }
+
+        @Override
+        protected R compute() {
+            try {
+                return computeChunk();
+            } catch (RuntimeException e) {
+                //Only the first failure is kept, which is the original exception raised in the worker that failed
+                failure.compareAndSet(null, e);
+                throw e;
+            }
+        }
+
+        private R computeChunk() {
+            if (to - from <= threshold) {
+                PySystemState systemState = script.getInterpreter().getSystemState();
+                Py.setSystemState(systemState);
+                ThreadState threadState = Py.getThreadState(systemState);
+                try (ScriptContext.Scope ignored = ScriptContext.enter(script)) {
+                    return computeDirectly(threadState);
+                }
+            }
+
+            int middle = (from + to) >>> 1;
+            ChunkTask<R> left = split(from, middle);
+            ChunkTask<R> right = split(middle, to);
+            left.fork();
+            R rightResult = right.compute();
+            return combine(left.join(), rightResult);
+        }
+
+        protected abstract R computeDirectly(ThreadState threadState);
+
+        protected abstract ChunkTask<R> split(int from, int to);
+
+        protected abstract R combine(R left, R right);
+    }
+
+    private static final class MapTask extends ChunkTask<List<PyObject>> {
+
+        private MapTask(Script script, PyObject function, List<PyObject> elements, int from, int to, int threshold, AtomicReference<RuntimeException> failure) {
+            super(script, function, elements, from, to, threshold, failure);
+        }
+
+        @Override
+        protected List<PyObject> computeDirectly(ThreadState threadState) {
+            List<PyObject> results = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                results.add(function.__call__(threadState, elements.get(i)));
+            }
+            return results;
+        }
+
+        @Override
+        protected ChunkTask<List<PyObject>> split(int from, int to) {
+            return new MapTask(script, function, elements, from, to, threshold, failure);
+        }
+
+        @Override
+        protected List<PyObject> combine(List<PyObject> left, List<PyObject> right) {
+            left.addAll(right);
+            return left;
+        }
+    }
+
+    private static final class FilterTask extends ChunkTask<List<PyObject>> {
+
+        private FilterTask(Script script, PyObject function, List<PyObject> elements, int from, int to, int threshold, AtomicReference<RuntimeException> failure) {
+            super(script, function, elements, from, to, threshold, failure);
+        }
+
+        @Override
+        protected List<PyObject> computeDirectly(ThreadState threadState) {
+            List<PyObject> results = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                PyObject element = elements.get(i);
+                if (function.__call__(threadState, element).__nonzero__())
+                    results.add(element);
+            }
+            return results;
+        }
+
+        @Override
+        protected ChunkTask<List<PyObject>> split(int from, int to) {
+            return new FilterTask(script, function, elements, from, to, threshold, failure);
+        }
+
+        @Override
+        protected List<PyObject> combine(List<PyObject> left, List<PyObject> right) {
+            left.addAll(right);
+            return left;
+        }
+    }
+
+    private static final class ReduceTask extends ChunkTask<PyObject> {
+
+        private ReduceTask(Script script, PyObject function, List<PyObject> elements, int from, int to, int threshold, AtomicReference<RuntimeException> failure) {
+            super(script, function, elements, from, to, threshold, failure);
+        }
+
+        @Override
+        protected PyObject computeDirectly(ThreadState threadState) {
+            PyObject result = elements.get(from);
+            for (int i = from + 1; i < to; i++) {
+                result = function.__call__(threadState, result, elements.get(i));
+            }
+            return result;
+        }
+
+        @Override
+        protected ChunkTask<PyObject> split(int from, int to) {
+            return new ReduceTask(script, function, elements, from, to, threshold, failure);
+        }
+
+        @Override
+        protected PyObject combine(PyObject left, PyObject right) {
+            return call(script, function, left, right);
+        }
+    }
+}
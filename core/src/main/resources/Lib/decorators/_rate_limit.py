@@ -0,0 +1,28 @@
+"""
+Contains helpers shared by the event listener decorators of all platforms for building listener rate limiters.
+"""
+
+from dev.magicmq.pyspigot.manager.listener import ListenerRateLimiter
+
+def build_rate_limiter(max_per_tick, one_in, adaptive_mspt, adaptive_one_in):
+    """
+    Build a ListenerRateLimiter from the rate limit options of an event listener decorator.
+
+    :param max_per_tick: The maximum number of calls per tick, or None for no limit
+    :param one_in: The sampling interval, or None to not sample
+    :param adaptive_mspt: The MSPT above which adaptive sampling engages, or None to not sample adaptively
+    :param adaptive_one_in: The sampling interval used while adaptive sampling is engaged. Defaults to 2
+    :return: The rate limiter, or None if no rate limit options were set
+    """
+
+    if max_per_tick is None and one_in is None and adaptive_mspt is None:
+        return None
+
+    builder = ListenerRateLimiter.builder()
+    if max_per_tick is not None:
+        builder.maxPerTick(max_per_tick)
+    if one_in is not None:
+        builder.oneIn(one_in)
+    if adaptive_mspt is not None:
+        builder.adaptive(adaptive_mspt, adaptive_one_in if adaptive_one_in is not None else 2)
+    return builder.build()
@@ -0,0 +1,40 @@
+"""
+Contains the decorator for starting coroutines with the task manager. Shared by all platforms, and also available from
+the task decorators module.
+"""
+
+import pyspigot as ps
+
+
+def coroutine(*args):
+    """
+    Start a coroutine by decorating a generator function. The decorated function is called immediately with the given
+    arguments, and the resulting generator is resumed once per tick by the script's coroutine driver.
+
+    The generator may yield:
+      - None, to resume on the next tick.
+      - An integer, to wait that many ticks before resuming.
+      - A Java Future, to resume once the future completes. The result of the future is sent back into the generator.
+      - CoroutineHop.ASYNC (from dev.magicmq.pyspigot.manager.task), to continue on an asynchronous thread until the next yield.
+      - CoroutineHop.SYNC, to return to the driver's thread.
+
+    :param args: Positional arguments to pass to the generator function.
+    """
+
+    def _decorator(function):
+        handle = ps.task_manager().startCoroutine(function(*args))
+
+        function.coroutine = handle
+
+        def _cancel():
+            ps.task_manager().stopCoroutine(handle)
+
+        function.cancel = _cancel
+
+        return function
+    return _decorator
+
+
+__all__ = [
+    'coroutine'
+]
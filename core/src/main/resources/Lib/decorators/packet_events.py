@@ -12,18 +12,20 @@ if not PyCore.get().isPacketEventsAvailable():
 
 from com.github.retrooper.packetevents.event import PacketListenerPriority
 
-def packet_listener(packet_type, priority=PacketListenerPriority.NORMAL):
+def packet_listener(packet_type, priority=PacketListenerPriority.NORMAL, wrapper=None, write_back=False):
     """
     Register a PacketEvents packet listener by decorating a function. The decorated function will be called when the
     packet is sent/received.
 
     :param packet_type: The packet type to listen for
     :param priority: The priority of the packet listener
+    :param wrapper: If set, a packet wrapper class (for example, WrapperPlayClientInteractEntity). The function is then passed the decoded wrapper instead of the packet event, shared with other listeners so the packet is only decoded once. If the function accepts two arguments, the packet event is passed as the second argument
+    :param write_back: If True, changes made to the wrapper are written back to the packet. Only applies if wrapper is set
     """
 
     def _decorator(function):
         packet_events_manager = ps.packet_events_manager()
-        listener = packet_events_manager.registerPacketListener(function, packet_type, priority)
+        listener = packet_events_manager.registerPacketListener(function, packet_type, priority, wrapper, write_back)
         function.registered_listener = listener
 
         def _unregister():
@@ -35,4 +37,30 @@ def packet_listener(packet_type, priority=PacketListenerPriority.NORMAL):
     return _decorator
 
 
-__all__ = ['packet_listener']
\ No newline at end of file
+def ordered_packet_listener(packet_type, wrapper, priority=PacketListenerPriority.NORMAL, cancel_if=None):
+    """
+    Register a PacketEvents packet listener that runs off the network thread by decorating a function. The decorated
+    function will be called with the decoded packet wrapper on a PySpigot worker thread, in order for each connection.
+    If the function accepts two arguments, the packet's user is passed as the second argument.
+
+    :param packet_type: The packet type to listen for
+    :param wrapper: The packet wrapper class to decode the packet into (for example, WrapperPlayClientInteractEntity). The function receives a shallow private copy of the wrapper, so changes to it are not written back to the packet. Nested values (such as lists, entity metadata, and item stacks) are shared with the wrapper other listeners see, so they should not be modified in place
+    :param priority: The priority of the packet listener
+    :param cancel_if: If set, a function that accepts the packet event and returns True if the packet should be cancelled. It is called on the network thread, so it should be fast and must not block
+    """
+
+    def _decorator(function):
+        packet_events_manager = ps.packet_events_manager()
+        listener = packet_events_manager.registerOrderedPacketListener(function, packet_type, priority, wrapper, cancel_if)
+        function.registered_listener = listener
+
+        def _unregister():
+            packet_events_manager.unregisterPacketListener(listener)
+
+        function.unregister = _unregister
+
+        return function
+    return _decorator
+
+
+__all__ = ['packet_listener', 'ordered_packet_listener']
\ No newline at end of file
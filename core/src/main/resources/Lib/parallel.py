@@ -0,0 +1,34 @@
+"""
+Contains helpers to process collections in parallel on a dedicated, per-script fork/join pool.
+
+These functions block until all work completes, so they should be called off the main thread (for example, from an
+asynchronous task). Functions passed to them are called concurrently from several threads and must be thread-safe.
+"""
+
+from dev.magicmq.pyspigot.util import ParallelHelper
+
+__all__ = ['parallel_map', 'parallel_filter', 'parallel_reduce', 'parallelism']
+
+_missing = object()
+
+
+def parallel_map(function, items, threshold=0):
+    """Apply function to every element of items in parallel, returning a list of results in input order."""
+    return ParallelHelper.parallelMap(function, items, threshold)
+
+
+def parallel_filter(function, items, threshold=0):
+    """Return a list of the elements of items for which function returns a truthy value, in input order."""
+    return ParallelHelper.parallelFilter(function, items, threshold)
+
+
+def parallel_reduce(function, items, initial=_missing, threshold=0):
+    """Reduce items with function in parallel. function must be associative."""
+    if initial is _missing:
+        return ParallelHelper.parallelReduce(function, items, threshold)
+    return ParallelHelper.parallelReduce(function, items, initial, threshold)
+
+
+def parallelism():
+    """Return the number of worker threads of this script's fork/join pool."""
+    return ParallelHelper.getParallelism()
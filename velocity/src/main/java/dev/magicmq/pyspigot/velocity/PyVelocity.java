@@ -185,6 +185,12 @@ public class PyVelocity implements PlatformAdapter {
         return proxy.getPluginManager().getPlugin("packetevents").isPresent();
     }
 
+    @Override
+    public double getAverageTickTime() {
+        //Velocity does not have a tick loop
+        return -1;
+    }
+
     /**
      * Add a JAR file at the specified URL to the plugin class path.
      * @param path The path of the JAR file to add to the class path
@@ -169,6 +169,56 @@ public class VelocityPluginConfig implements PluginConfig {
         return null;
     }
 
+    @Override
+    public boolean multiplexedEventDispatch() {
+        return config.node("listener-options").node("multiplexed-dispatch").getBoolean();
+    }
+
+    @Override
+    public int asyncListenerQueueLimit() {
+        return config.node("listener-options").node("async-queue-limit").getInt();
+    }
+
+    @Override
+    public String asyncListenerExecutor() {
+        return config.node("listener-options").node("async-executor").getString();
+    }
+
+    @Override
+    public int asyncListenerThreads() {
+        return config.node("listener-options").node("async-executor-threads").getInt();
+    }
+
+    @Override
+    public int databaseExecutorThreads() {
+        return config.node("database-options").node("executor-threads").getInt();
+    }
+
+    @Override
+    public boolean databaseVirtualThreads() {
+        return config.node("database-options").node("virtual-threads").getBoolean();
+    }
+
+    @Override
+    public int databaseQueueLimit() {
+        return config.node("database-options").node("queue-limit").getInt();
+    }
+
+    @Override
+    public int databaseQueryTimeout() {
+        return config.node("database-options").node("query-timeout").getInt();
+    }
+
+    @Override
+    public int databaseWriteBehindBatchSize() {
+        return config.node("database-options").node("write-behind-batch-size").getInt();
+    }
+
+    @Override
+    public long databaseWriteBehindInterval() {
+        return config.node("database-options").node("write-behind-interval").getLong();
+    }
+
     @Override
     public boolean shouldShowUpdateMessages() {
         return config.node("debug-options").node("show-update-messages").getBoolean();
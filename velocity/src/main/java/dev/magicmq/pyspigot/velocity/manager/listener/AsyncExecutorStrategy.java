@@ -0,0 +1,40 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.velocity.manager.listener;
+
+
+/**
+ * The executor strategies available for running asynchronous script listeners.
+ */
+public enum AsyncExecutorStrategy {
+
+    /**
+     * A bounded thread pool per script, so that a script with slow listeners cannot delay the listeners of other scripts.
+     */
+    SCRIPT,
+
+    /**
+     * A single bounded thread pool shared by all scripts.
+     */
+    SHARED,
+
+    /**
+     * A new virtual thread for each event. Unbounded, and suited to listeners that spend most of their time blocked on I/O.
+     */
+    VIRTUAL
+
+}
@@ -32,18 +32,48 @@ import org.python.core.ThreadState;
 
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * An asynchronous Velocity listener registered by a script.
+ * <p>
+ * Listeners of type {@link EventTaskType#ASYNC} and {@link EventTaskType#RESUME_WHEN_COMPLETE} run on a
+ * {@link VelocityListenerExecutor} chosen by the configured {@link AsyncExecutorStrategy}, and record how long each event
+ * waited in the executor's queue and how long the script function took to run.
  * @param <E> The Velocity Event class, representing the event being listened to
  */
 public class VelocityAsyncScriptListener<E> extends VelocityScriptListener<E> implements AwaitingEventExecutor<E> {
 
     private final EventTaskType eventTaskType;
+    private final VelocityListenerExecutor executor;
+    private final LongAdder completed;
+    private final LongAdder skipped;
+    private final LongAdder queueNanos;
+    private final AtomicLong maxQueueNanos;
+    private final LongAdder runNanos;
 
-    public VelocityAsyncScriptListener(Script script, PyFunction listenerFunction, Class<E> event, EventTaskType eventTaskType) {
+    private volatile boolean active;
+
+    /**
+     *
+     * @param script The script listening to events within this listener
+     * @param listenerFunction The script function that should be called when the event occurs
+     * @param event The Velocity event associated with this listener. Should be a {@link Class} of the Velocity event
+     * @param eventTaskType The type of {@link EventTask} to use when the event occurs
+     * @param executor The executor to run the script function on. May be null for the CONTINUATION task type, which runs on Velocity's event thread
+     */
+    public VelocityAsyncScriptListener(Script script, PyFunction listenerFunction, Class<E> event, EventTaskType eventTaskType, VelocityListenerExecutor executor) {
         super(script, listenerFunction, event);
         this.eventTaskType = eventTaskType;
+        this.executor = executor;
+        this.completed = new LongAdder();
+        this.skipped = new LongAdder();
+        this.queueNanos = new LongAdder();
+        this.maxQueueNanos = new AtomicLong();
+        this.runNanos = new LongAdder();
+        this.active = true;
     }
 
     @Override
@@ -60,16 +90,7 @@ public class VelocityAsyncScriptListener<E> extends VelocityScriptListener<E> im
         }
 
         if (eventTaskType == EventTaskType.ASYNC) {
-            return EventTask.async(() -> {
-                try {
-                    Py.setSystemState(script.getInterpreter().getSystemState());
-                    ThreadState threadState = Py.getThreadState(script.getInterpreter().getSystemState());
-                    PyObject parameter = Py.java2py(event);
-                    ScriptContext.runWith(script, () -> listenerFunction.__call__(threadState, parameter));
-                } catch (PyException exception) {
-                    ScriptManager.get().handleScriptException(script, exception, "Error when executing event listener");
-                }
-            });
+            return EventTask.resumeWhenComplete(submit(event, false));
         } else if (eventTaskType == EventTaskType.CONTINUATION) {
             return EventTask.withContinuation((continuation) -> {
                 try {
@@ -83,28 +104,128 @@ public class VelocityAsyncScriptListener<E> extends VelocityScriptListener<E> im
                 }
             });
         } else if (eventTaskType == EventTaskType.RESUME_WHEN_COMPLETE) {
-            return EventTask.resumeWhenComplete(CompletableFuture.runAsync(() -> {
-                try {
-                    Py.setSystemState(script.getInterpreter().getSystemState());
-                    ThreadState threadState = Py.getThreadState(script.getInterpreter().getSystemState());
-                    PyObject parameter = Py.java2py(event);
-                    ScriptContext.runWith(script, () -> listenerFunction.__call__(threadState, parameter));
-                } catch (PyException exception) {
-                    ScriptManager.get().handleScriptException(script, exception, "Error when executing event listener");
-                    throw new CompletionException(exception);
-                }
-            }));
+            return EventTask.resumeWhenComplete(submit(event, true));
         } else {
             return null;
         }
     }
 
+    /**
+     * Get the type of {@link EventTask} this listener uses.
+     * @return The event task type
+     */
+    public EventTaskType getEventTaskType() {
+        return eventTaskType;
+    }
+
+    /**
+     * Get the executor this listener runs on.
+     * @return The executor, or null if this listener uses the CONTINUATION task type
+     */
+    public VelocityListenerExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Get the number of events this listener has finished handling on its executor.
+     * @return The number of completed events
+     */
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    /**
+     * Get the number of events that were skipped because the script was unloaded before they could run.
+     * @return The number of skipped events
+     */
+    public long getSkippedCount() {
+        return skipped.sum();
+    }
+
+    /**
+     * Get the average time events waited in the executor's queue before this listener started handling them.
+     * @return The average queue latency, in milliseconds
+     */
+    public double getAverageQueueLatency() {
+        long count = completed.sum();
+        return count > 0 ? toMillis(queueNanos.sum()) / count : 0;
+    }
+
+    /**
+     * Get the longest time an event waited in the executor's queue before this listener started handling it.
+     * @return The maximum queue latency, in milliseconds
+     */
+    public double getMaxQueueLatency() {
+        return toMillis(maxQueueNanos.get());
+    }
+
+    /**
+     * Get the average time the script function took to handle an event.
+     * @return The average execution time, in milliseconds
+     */
+    public double getAverageExecutionTime() {
+        long count = completed.sum();
+        return count > 0 ? toMillis(runNanos.sum()) / count : 0;
+    }
+
     /**
      * Prints a representation of this VelocityAsyncScriptListener in string format, including the event being listened to by the listener
      * @return A string representation of the VelocityAsyncScriptListener
      */
     @Override
     public String toString() {
-        return String.format("VelocityAsyncScriptListener[Event: %s, Task Type: %s]", event.getName(), eventTaskType.name());
+        if (eventTaskType == EventTaskType.CONTINUATION)
+            return String.format("VelocityAsyncScriptListener[Event: %s, Task Type: %s]", event.getName(), eventTaskType.name());
+        else
+            return String.format("VelocityAsyncScriptListener[Event: %s, Task Type: %s, Executor: %s, Queue Depth: %d, Completed: %d, Avg Queue: %.2fms, Max Queue: %.2fms, Avg Run: %.2fms]",
+                    event.getName(), eventTaskType.name(), executor.getName(), executor.getQueueDepth(), getCompletedCount(), getAverageQueueLatency(), getMaxQueueLatency(), getAverageExecutionTime());
+    }
+
+    protected void deactivate() {
+        active = false;
+    }
+
+    private CompletableFuture<Void> submit(E event, boolean propagateExceptions) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        long queuedAt = System.nanoTime();
+        Runnable skip = () -> {
+            skipped.increment();
+            future.complete(null);
+        };
+        executor.submit(() -> {
+            if (!active) {
+                skip.run();
+                return;
+            }
+
+            long startedAt = System.nanoTime();
+            long waited = startedAt - queuedAt;
+            queueNanos.add(waited);
+            maxQueueNanos.accumulateAndGet(waited, Math::max);
+            try {
+                Py.setSystemState(script.getInterpreter().getSystemState());
+                ThreadState threadState = Py.getThreadState(script.getInterpreter().getSystemState());
+                PyObject parameter = Py.java2py(event);
+                ScriptContext.runWith(script, () -> listenerFunction.__call__(threadState, parameter));
+                future.complete(null);
+            } catch (PyException exception) {
+                ScriptManager.get().handleScriptException(script, exception, "Error when executing event listener");
+                if (propagateExceptions)
+                    future.completeExceptionally(new CompletionException(exception));
+                else
+                    future.complete(null);
+            } catch (RuntimeException exception) {
+                //Always complete the future, otherwise the event would never continue
+                future.completeExceptionally(exception);
+            } finally {
+                runNanos.add(System.nanoTime() - startedAt);
+                completed.increment();
+            }
+        }, skip);
+        return future;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
     }
 }
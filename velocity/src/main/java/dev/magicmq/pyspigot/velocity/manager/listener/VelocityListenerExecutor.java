@@ -0,0 +1,175 @@
+/*
+ *    Copyright 2025 magicmq
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package dev.magicmq.pyspigot.velocity.manager.listener;
+
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An executor that runs asynchronous script listeners, backed by either a bounded thread pool or virtual threads.
+ * <p>
+ * When a bounded pool's queue is full, the listener is run on the thread that posted the event instead, so that events
+ * are never lost (which would leave the event waiting forever). Listeners that are still queued when the executor is shut
+ * down are skipped, and the event continues as if the listener had completed.
+ * @see AsyncExecutorStrategy
+ */
+public class VelocityListenerExecutor {
+
+    private final String name;
+    private final ExecutorService executor;
+    private final int threads;
+    private final int queueLimit;
+    private final AtomicInteger pending;
+    private final LongAdder callerRuns;
+
+    private VelocityListenerExecutor(String name, int threads, int queueLimit) {
+        this.name = name;
+        this.threads = threads;
+        this.queueLimit = queueLimit;
+        this.pending = new AtomicInteger();
+        this.callerRuns = new LongAdder();
+
+        if (threads > 0) {
+            AtomicInteger count = new AtomicInteger();
+            ThreadFactory factory = runnable -> {
+                Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueLimit), factory, (runnable, rejectedBy) -> {
+                if (rejectedBy.isShutdown()) {
+                    if (runnable instanceof Task task)
+                        task.skip();
+                } else {
+                    callerRuns.increment();
+                    runnable.run();
+                }
+            });
+            pool.allowCoreThreadTimeOut(true);
+            this.executor = pool;
+        } else
+            this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 1).factory());
+    }
+
+    /**
+     * Get the name of this executor, which is also the prefix of its thread names.
+     * @return The name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Check if this executor runs listeners on virtual threads.
+     * @return True if this executor uses virtual threads, false if it uses a bounded thread pool
+     */
+    public boolean isVirtual() {
+        return threads == 0;
+    }
+
+    /**
+     * Get the number of listener invocations that have been submitted but have not yet started running.
+     * @return The queue depth
+     */
+    public int getQueueDepth() {
+        return pending.get();
+    }
+
+    /**
+     * Get the number of listener invocations that were run on the posting thread because this executor's queue was full.
+     * @return The number of caller-run invocations. Always 0 for virtual thread executors
+     */
+    public long getCallerRunCount() {
+        return callerRuns.sum();
+    }
+
+    /**
+     * Prints a representation of this VelocityListenerExecutor in string format, including queue statistics
+     * @return A string representation of the VelocityListenerExecutor
+     */
+    @Override
+    public String toString() {
+        if (isVirtual())
+            return String.format("VelocityListenerExecutor[Name: %s, Virtual: true, Queued: %d]", name, getQueueDepth());
+        else
+            return String.format("VelocityListenerExecutor[Name: %s, Threads: %d, Queued: %d/%d, Caller Runs: %d]", name, threads, getQueueDepth(), queueLimit, getCallerRunCount());
+    }
+
+    protected void submit(Runnable task, Runnable onSkip) {
+        pending.incrementAndGet();
+        executor.execute(new Task(task, onSkip));
+    }
+
+    protected void shutdown() {
+        for (Runnable runnable : executor.shutdownNow()) {
+            if (runnable instanceof Task task)
+                task.skip();
+        }
+    }
+
+    /**
+     * Create a new executor backed by a bounded thread pool.
+     * @param name The name of the executor, used as the prefix of its thread names
+     * @param threads The number of threads in the pool
+     * @param queueLimit The maximum number of invocations that may wait for a free thread
+     * @return The new executor
+     * @throws IllegalArgumentException If threads or queueLimit is less than 1
+     */
+    public static VelocityListenerExecutor pool(String name, int threads, int queueLimit) {
+        if (threads < 1 || queueLimit < 1)
+            throw new IllegalArgumentException("Thread count and queue limit must be at least 1");
+        return new VelocityListenerExecutor(name, threads, queueLimit);
+    }
+
+    /**
+     * Create a new executor that runs each invocation on a new virtual thread.
+     * @param name The name of the executor, used as the prefix of its thread names
+     * @return The new executor
+     */
+    public static VelocityListenerExecutor virtual(String name) {
+        return new VelocityListenerExecutor(name, 0, 0);
+    }
+
+    private final class Task implements Runnable {
+
+        private final Runnable task;
+        private final Runnable onSkip;
+
+        private Task(Runnable task, Runnable onSkip) {
+            this.task = task;
+            this.onSkip = onSkip;
+        }
+
+        @Override
+        public void run() {
+            pending.decrementAndGet();
+            task.run();
+        }
+
+        private void skip() {
+            pending.decrementAndGet();
+            onSkip.run();
+        }
+    }
+}
@@ -17,20 +17,50 @@
 package dev.magicmq.pyspigot.velocity.manager.listener;
 
 
+import dev.magicmq.pyspigot.PyCore;
 import dev.magicmq.pyspigot.manager.listener.ListenerManager;
+import dev.magicmq.pyspigot.manager.listener.ListenerRateLimiter;
 import dev.magicmq.pyspigot.manager.script.Script;
 import dev.magicmq.pyspigot.util.ScriptContext;
 import dev.magicmq.pyspigot.velocity.PyVelocity;
 import org.python.core.PyFunction;
 
+import java.util.HashMap;
 import java.util.List;
-
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The Velocity-specific implementation of the listener manager.
+ * <p>
+ * Asynchronous listeners of type {@link EventTaskType#ASYNC} and {@link EventTaskType#RESUME_WHEN_COMPLETE} run on an
+ * executor chosen by the {@code listener-options.async-executor} config option, rather than on Velocity's or the JVM's
+ * common thread pools. See {@link AsyncExecutorStrategy}.
+ */
 public class VelocityListenerManager extends ListenerManager<VelocityScriptListener<?>, Object, Short> {
 
     private static VelocityListenerManager instance;
 
+    private final AsyncExecutorStrategy executorStrategy;
+    private final int executorThreads;
+    private final int executorQueueLimit;
+    private final Map<Script, VelocityListenerExecutor> scriptExecutors;
+    private VelocityListenerExecutor sharedExecutor;
+
     private VelocityListenerManager() {
         super();
+
+        AsyncExecutorStrategy strategy;
+        try {
+            strategy = AsyncExecutorStrategy.valueOf(PyCore.get().getConfig().asyncListenerExecutor().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            PyCore.get().getLogger().warn("Invalid value for listener-options.async-executor in config.yml, defaulting to 'shared'");
+            strategy = AsyncExecutorStrategy.SHARED;
+        }
+        this.executorStrategy = strategy;
+        this.executorThreads = Math.max(1, PyCore.get().getConfig().asyncListenerThreads());
+        this.executorQueueLimit = Math.max(1, PyCore.get().getConfig().asyncListenerQueueLimit());
+        this.scriptExecutors = new HashMap<>();
     }
 
     /**
@@ -89,9 +119,23 @@ public class VelocityListenerManager extends ListenerManager<VelocityScriptListe
 
     @Override
     public VelocityScriptListener<?> registerListener(PyFunction function, Class<?> eventClass, Short priority) {
+        return registerListener(function, eventClass, priority, null);
+    }
+
+    /**
+     * Register a new event listener, whose events are rate limited in Java before being passed to the function.
+     * <p>
+     * <b>Note:</b> This should be called from scripts only!
+     * @param function The function that should be called when the event occurs
+     * @param eventClass The type of event to listen to
+     * @param priority The priority of the event relative to other listeners
+     * @param rateLimiter The rate limiter applied to events, or null to pass all events
+     * @return The ScriptEventListener that was registered
+     */
+    public VelocityScriptListener<?> registerListener(PyFunction function, Class<?> eventClass, Short priority, ListenerRateLimiter rateLimiter) {
         Script script = ScriptContext.require();
 
-        return registerTypedListener(script, function, eventClass, priority);
+        return registerTypedListener(script, function, eventClass, priority, rateLimiter);
     }
 
     /**
@@ -119,6 +163,8 @@ public class VelocityListenerManager extends ListenerManager<VelocityScriptListe
     @Override
     public void unregisterListener(VelocityScriptListener<?> listener) {
         PyVelocity.get().getProxy().getEventManager().unregisterListener(PyVelocity.get(), listener);
+        if (listener instanceof VelocityAsyncScriptListener<?> asyncListener)
+            asyncListener.deactivate();
         removeListener(listener.getScript(), listener);
     }
 
@@ -135,24 +181,67 @@ public class VelocityListenerManager extends ListenerManager<VelocityScriptListe
     public void unregisterListeners(Script script) {
         for (VelocityScriptListener<?> listener : getListeners(script)) {
             PyVelocity.get().getProxy().getEventManager().unregisterListener(PyVelocity.get(), listener);
+            if (listener instanceof VelocityAsyncScriptListener<?> asyncListener)
+                asyncListener.deactivate();
         }
         removeListeners(script);
+
+        VelocityListenerExecutor executor;
+        synchronized (this) {
+            executor = scriptExecutors.remove(script);
+        }
+        if (executor != null)
+            executor.shutdown();
+    }
+
+    /**
+     * Get the strategy used to choose executors for asynchronous listeners.
+     * @return The executor strategy
+     */
+    public AsyncExecutorStrategy getExecutorStrategy() {
+        return executorStrategy;
+    }
+
+    /**
+     * Get the executor that a script's asynchronous listeners run on.
+     * @param script The script
+     * @return The executor, or null if the script has not registered an asynchronous listener that uses one
+     */
+    public synchronized VelocityListenerExecutor getExecutor(Script script) {
+        if (executorStrategy == AsyncExecutorStrategy.SCRIPT)
+            return scriptExecutors.get(script);
+        else
+            return sharedExecutor;
     }
 
-    private <T> VelocitySyncScriptListener<T> registerTypedListener(Script script, PyFunction function, Class<T> eventClass, Short priority) {
-        VelocitySyncScriptListener<T> listener = new VelocitySyncScriptListener<>(script, function, eventClass);
+    private <T> VelocitySyncScriptListener<T> registerTypedListener(Script script, PyFunction function, Class<T> eventClass, Short priority, ListenerRateLimiter rateLimiter) {
+        VelocitySyncScriptListener<T> listener = new VelocitySyncScriptListener<>(script, function, eventClass, rateLimiter);
         PyVelocity.get().getProxy().getEventManager().register(PyVelocity.get(), eventClass, priority, listener);
         addListener(script, listener);
         return listener;
     }
 
     private <T> VelocityAsyncScriptListener<T> registerTypedAsyncListener(Script script, PyFunction function, Class<T> eventClass, Short priority, EventTaskType eventTaskType) {
-        VelocityAsyncScriptListener<T> listener = new VelocityAsyncScriptListener<>(script, function, eventClass, eventTaskType);
+        VelocityAsyncScriptListener<T> listener = new VelocityAsyncScriptListener<>(script, function, eventClass, eventTaskType,
+                eventTaskType == EventTaskType.CONTINUATION ? null : getOrCreateExecutor(script));
         PyVelocity.get().getProxy().getEventManager().register(PyVelocity.get(), eventClass, priority, listener);
         addListener(script, listener);
         return listener;
     }
 
+    private synchronized VelocityListenerExecutor getOrCreateExecutor(Script script) {
+        if (executorStrategy == AsyncExecutorStrategy.SCRIPT)
+            return scriptExecutors.computeIfAbsent(script, s -> VelocityListenerExecutor.pool("PySpigot-" + s.getName() + "-listener", executorThreads, executorQueueLimit));
+
+        if (sharedExecutor == null) {
+            if (executorStrategy == AsyncExecutorStrategy.VIRTUAL)
+                sharedExecutor = VelocityListenerExecutor.virtual("PySpigot-listener-virtual");
+            else
+                sharedExecutor = VelocityListenerExecutor.pool("PySpigot-listener", executorThreads, executorQueueLimit);
+        }
+        return sharedExecutor;
+    }
+
     /**
      * Get the singleton instance of this VelocityListenerManager.
      * @return The instance
@@ -18,6 +18,7 @@ package dev.magicmq.pyspigot.velocity.manager.listener;
 
 
 import com.velocitypowered.api.event.EventHandler;
+import dev.magicmq.pyspigot.manager.listener.ListenerRateLimiter;
 import dev.magicmq.pyspigot.manager.script.Script;
 import dev.magicmq.pyspigot.manager.script.ScriptManager;
 import dev.magicmq.pyspigot.util.ScriptContext;
@@ -34,8 +35,22 @@ import org.python.core.ThreadState;
  */
 public class VelocitySyncScriptListener<E> extends VelocityScriptListener<E> implements EventHandler<E> {
 
+    private final ListenerRateLimiter rateLimiter;
+
     public VelocitySyncScriptListener(Script script, PyFunction listenerFunction, Class<E> event) {
+        this(script, listenerFunction, event, null);
+    }
+
+    /**
+     *
+     * @param script The script listening to events within this listener
+     * @param listenerFunction The script function that should be called when the event occurs
+     * @param event The Velocity event associated with this listener. Should be a {@link Class} of the Velocity event
+     * @param rateLimiter The rate limiter applied to events before they are passed to the script function, or null to pass all events
+     */
+    public VelocitySyncScriptListener(Script script, PyFunction listenerFunction, Class<E> event, ListenerRateLimiter rateLimiter) {
         super(script, listenerFunction, event);
+        this.rateLimiter = rateLimiter;
     }
 
     @Override
@@ -51,6 +66,9 @@ public class VelocitySyncScriptListener<E> extends VelocityScriptListener<E> imp
             }
         }
 
+        if (rateLimiter != null && !rateLimiter.tryAcquire())
+            return;
+
         try {
             Py.setSystemState(script.getInterpreter().getSystemState());
             ThreadState threadState = Py.getThreadState(script.getInterpreter().getSystemState());
@@ -61,12 +79,23 @@ public class VelocitySyncScriptListener<E> extends VelocityScriptListener<E> imp
         }
     }
 
+    /**
+     * Get the rate limiter applied to events before they are passed to the script function.
+     * @return The rate limiter, or null if this listener is not rate limited
+     */
+    public ListenerRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
     /**
      * Prints a representation of this VelocitySyncScriptListener in string format, including the event being listened to by the listener
      * @return A string representation of the VelocityAsyncScriptListener
      */
     @Override
     public String toString() {
-        return String.format("VelocitySyncScriptListener[Event: %s]", event.getName());
+        if (rateLimiter != null)
+            return String.format("VelocitySyncScriptListener[Event: %s, Rate Limiter: %s]", event.getName(), rateLimiter);
+        else
+            return String.format("VelocitySyncScriptListener[Event: %s]", event.getName());
     }
 }
@@ -1,4 +1,4 @@
 /**
- * Contains the Velocity-specific listener manager implementation.
+ * Contains the Velocity-specific listener manager implementation, along with the executors used to run asynchronous script listeners.
  */
 package dev.magicmq.pyspigot.velocity.manager.listener;
\ No newline at end of file
@@ -104,7 +104,7 @@ public class VelocityTaskManager extends TaskManager<ScheduledTask> {
      */
     public synchronized Task<ScheduledTask> runTaskLaterAsync(PyFunction function, long delay, TimeUnit delayUnit, Object... functionArgs) {
         Script script = ScriptContext.require();
-        Task<ScheduledTask> task = new Task<>(script, function, functionArgs, true, delay);
+        Task<ScheduledTask> task = new Task<>(script, function, functionArgs, true, delay, delayUnit);
         addTask(task);
         task.setPlatformTask(runTaskLaterAsyncImpl(task, delay, delayUnit));
         return task;
@@ -124,7 +124,7 @@ public class VelocityTaskManager extends TaskManager<ScheduledTask> {
      */
     public synchronized RepeatingTask<ScheduledTask> scheduleAsyncRepeatingTask(PyFunction function, long delay, TimeUnit delayUnit, long interval, TimeUnit intervalUnit, Object... functionArgs) {
         Script script = ScriptContext.require();
-        RepeatingTask<ScheduledTask> task = new RepeatingTask<>(script, function, functionArgs, true, delay, interval);
+        RepeatingTask<ScheduledTask> task = new RepeatingTask<>(script, function, functionArgs, true, delay, delayUnit, interval, intervalUnit);
         addTask(task);
         task.setPlatformTask(scheduleAsyncRepeatingTaskImpl(task, delay, delayUnit, interval, intervalUnit));
         return task;
@@ -195,6 +195,23 @@ public class VelocityTaskManager extends TaskManager<ScheduledTask> {
         return null;
     }
 
+    @Override
+    protected ScheduledTask scheduleTickingImpl(Runnable runnable) {
+        //Synchronous tasks not implemented in Velocity, so ticking runnables run asynchronously once per tick-equivalent
+        return PyVelocity.get().getProxy().getScheduler()
+                .buildTask(PyVelocity.get(), runnable)
+                .delay(ticksToMillis(1), TimeUnit.MILLISECONDS)
+                .repeat(ticksToMillis(1), TimeUnit.MILLISECONDS)
+                .schedule();
+    }
+
+    @Override
+    protected ScheduledTask runAsyncImpl(Runnable runnable) {
+        return PyVelocity.get().getProxy().getScheduler()
+                .buildTask(PyVelocity.get(), runnable)
+                .schedule();
+    }
+
     @Override
     protected void stopTaskImpl(ScheduledTask platformTask) {
         platformTask.cancel();
@@ -4,17 +4,24 @@ Contains decorators for registering event listeners.
 
 import pyspigot as ps
 
-def event_listener(event_class, priority=0):
+from decorators._rate_limit import build_rate_limiter
+
+def event_listener(event_class, priority=0, max_per_tick=None, one_in=None, adaptive_mspt=None, adaptive_one_in=None):
     """
     Register an event listener by decorating a function. The decorated function will be called when the event occurs.
 
     :param event_class: The event class to listen to
     :param priority: The priority of the event
+    :param max_per_tick: If set, the function is called at most this many times per tick (50 milliseconds). Further events are suppressed
+    :param one_in: If set, the function is only called for one in every this many events
+    :param adaptive_mspt: If set, while the server's MSPT is above this value, the function is only called for one in every adaptive_one_in events. Velocity does not have a tick loop, so this never engages
+    :param adaptive_one_in: The sampling interval used while the server's MSPT is above adaptive_mspt. Defaults to 2
     """
 
     def _decorator(function):
         listener_manager = ps.listener_manager()
-        listener = listener_manager.registerListener(function, event_class, priority)
+        rate_limiter = build_rate_limiter(max_per_tick, one_in, adaptive_mspt, adaptive_one_in)
+        listener = listener_manager.registerListener(function, event_class, priority, rate_limiter)
         function.registered_listener = listener
 
         def _unregister():
@@ -40,7 +47,7 @@ def async_event_listener(event_class, event_task_type, priority=0):
 
     def _decorator(function):
         listener_manager = ps.listener_manager()
-        listener = listener_manager.registerListener(function, event_class, priority, event_task_type)
+        listener = listener_manager.registerAsyncListener(function, event_class, priority, event_task_type)
         function.registered_listener = listener
 
         def _unregister():
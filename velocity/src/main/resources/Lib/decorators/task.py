@@ -7,6 +7,8 @@ synchronous tasks are not supported here.
 
 import pyspigot as ps
 
+from decorators.coroutines import coroutine
+
 def _schedule(function, delay, delay_time_unit, interval, interval_time_unit, time_unit, function_args):
     task_manager = ps.task_manager()
 
@@ -62,4 +64,7 @@ def async_task(delay=0, delay_time_unit=None, interval=0, interval_time_unit=Non
     return _decorator
 
 
-__all__ = ['async_task']
+__all__ = [
+    'async_task',
+    'coroutine'
+]